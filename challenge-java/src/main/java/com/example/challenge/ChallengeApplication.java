@@ -2,8 +2,10 @@ package com.example.challenge;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ChallengeApplication {
     public static void main(String[] args) {
         SpringApplication.run(ChallengeApplication.class, args);
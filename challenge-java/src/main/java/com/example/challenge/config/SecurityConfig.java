@@ -5,8 +5,11 @@ import com.example.challenge.repository.UserRepository;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -40,6 +43,24 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Entrada da telemetria: os rastreadores das motos não têm sessão de formulário nem token CSRF.
+     * Autenticam a cada requisição por HTTP Basic com um usuário ROLE_TELEMETRIA (ou ADMIN),
+     * sem criar sessão; por isso o CSRF não se aplica. As consultas da série seguem no filtro principal.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain telemetriaFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(new AntPathRequestMatcher("/api/motos/telemetria/km", HttpMethod.POST.name()))
+            .authorizeHttpRequests(auth -> auth.anyRequest().hasAnyRole("TELEMETRIA", "ADMIN"))
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(csrf -> csrf.disable());
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -49,6 +70,8 @@ public class SecurityConfig {
                 
                 .requestMatchers(new AntPathRequestMatcher("/h2-console/**")).permitAll()
                 .requestMatchers("/login", "/register").permitAll()
+                // Reservas de peças são feitas pelos mecânicos (qualquer usuário autenticado)
+                .requestMatchers("/api/pecas/*/reservas", "/api/pecas/reservas/**").authenticated()
                 .requestMatchers(HttpMethod.POST, "/api/pecas/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PUT, "/api/pecas/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PATCH, "/api/pecas/**").hasRole("ADMIN")
@@ -1,6 +1,7 @@
 package com.example.challenge.controller;
 
 import com.example.challenge.dto.RegisterDTO;
+import com.example.challenge.service.DashboardService;
 import com.example.challenge.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.stereotype.Controller;
@@ -14,9 +15,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 public class AuthController {
 
     private final UserService userService;
+    private final DashboardService dashboardService;
 
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, DashboardService dashboardService) {
         this.userService = userService;
+        this.dashboardService = dashboardService;
     }
 
     @GetMapping("/login")
@@ -58,7 +61,9 @@ public class AuthController {
 
     // ----- MÉTODO ADICIONADO PARA EXIBIR O DASHBOARD -----
     @GetMapping("/")
-    public String showDashboard() {
+    public String showDashboard(Model model) {
+        // Contadores vêm do snapshot em memória (sem consultas por acesso)
+        model.addAttribute("contadores", dashboardService.contadores());
         // Esta linha diz ao Thymeleaf para renderizar o arquivo 'index.html'
         return "index";
     }
@@ -0,0 +1,48 @@
+package com.example.challenge.controller;
+
+import com.example.challenge.dto.OrdemDespachoDTO;
+import com.example.challenge.service.DespachoOrdemService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Despacho de ordens de serviço ABERTAS para os mecânicos, por prioridade (ver DespachoOrdemService).
+ */
+@RestController
+@RequestMapping("/api/ordens/despacho")
+public class DespachoOrdemController {
+
+    static final int MAX_LIMIT = 100;
+
+    private final DespachoOrdemService despachoOrdemService;
+
+    public DespachoOrdemController(DespachoOrdemService despachoOrdemService) {
+        this.despachoOrdemService = despachoOrdemService;
+    }
+
+    /**
+     * As próximas ordens da fila, sem atribuí-las: ?limit=20
+     */
+    @GetMapping
+    public ResponseEntity<List<OrdemDespachoDTO>> getFila(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(despachoOrdemService.proximas(Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    /**
+     * Atribui ao usuário logado a ordem mais urgente e a passa para EM_ANDAMENTO
+     * (204 se não há ordens ABERTAS).
+     */
+    @PostMapping("/proxima")
+    public ResponseEntity<OrdemDespachoDTO> pegarProxima(Principal principal) {
+        return despachoOrdemService.pegarProxima(principal.getName())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
@@ -3,13 +3,16 @@ package com.example.challenge.controller;
 import com.example.challenge.domain.Moto;
 import com.example.challenge.service.MotoService;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import java.util.Set;
 
 /**
  * Controller responsável por gerenciar a frota de Motos.
@@ -25,13 +28,39 @@ public class MotoController {
         this.motoService = motoService;
     }
 
+    // Tamanho máximo de página em GET /motos
+    static final int MAX_PAGE_SIZE = 100;
+
+    // Colunas pelas quais a listagem pode ser ordenada (propriedades de Moto)
+    static final Set<String> CAMPOS_ORDENAVEIS = Set.of(
+            "id", "placa", "modelo", "anoFabricacao", "kmAtual", "status", "dataCadastro");
+
     /**
-     * Exibe a lista de todas as motos no sistema.
+     * Exibe uma página da frota, com filtros opcionais por status, modelo e ano:
+     * ?status=Manutenção&modelo=pop&ano=2022&page=0&size=25&sort=dataCadastro&dir=desc
      */
     @GetMapping
-    public String listMotos(Model model) {
-        List<Moto> motos = motoService.findAll();
+    public String listMotos(@RequestParam(required = false) String status,
+                            @RequestParam(required = false) String modelo,
+                            @RequestParam(required = false) Integer ano,
+                            @RequestParam(defaultValue = "0") int page,
+                            @RequestParam(defaultValue = "25") int size,
+                            @RequestParam(defaultValue = "dataCadastro") String sort,
+                            @RequestParam(defaultValue = "desc") String dir,
+                            Model model) {
+        String campo = CAMPOS_ORDENAVEIS.contains(sort) ? sort : "dataCadastro";
+        Sort.Direction direcao = "asc".equalsIgnoreCase(dir) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        // id como desempate: a ordem fica estável entre as páginas
+        Sort ordenacao = campo.equals("id") ? Sort.by(direcao, "id") : Sort.by(direcao, campo).and(Sort.by(direcao, "id"));
+        Page<Moto> motos = motoService.buscarPagina(status, modelo, ano,
+                PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), ordenacao));
+
         model.addAttribute("motos", motos);
+        model.addAttribute("status", status);
+        model.addAttribute("modelo", modelo);
+        model.addAttribute("ano", ano);
+        model.addAttribute("sort", campo);
+        model.addAttribute("dir", direcao == Sort.Direction.ASC ? "asc" : "desc");
         // Retorna para a view de listagem
         return "motos-list";
     }
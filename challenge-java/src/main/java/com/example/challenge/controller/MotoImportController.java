@@ -0,0 +1,51 @@
+package com.example.challenge.controller;
+
+import com.example.challenge.dto.MotoImportResultadoDTO;
+import com.example.challenge.service.MotoImportService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Cadastro em massa da frota.
+ */
+@RestController
+@RequestMapping("/api/motos")
+public class MotoImportController {
+
+    private final MotoImportService motoImportService;
+
+    public MotoImportController(MotoImportService motoImportService) {
+        this.motoImportService = motoImportService;
+    }
+
+    /**
+     * Importação em massa (multipart, campo 'file'): array JSON se o arquivo for .json ou
+     * application/json, CSV nos demais casos. Só insere; motos já cadastradas voltam como erro.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<MotoImportResultadoDTO> importar(@RequestParam("file") MultipartFile file) throws IOException {
+        // O multipart fica em arquivo temporário; o serviço lê o stream item a item
+        try (InputStream conteudo = file.getInputStream()) {
+            return ResponseEntity.ok(json(file)
+                    ? motoImportService.importarJson(conteudo)
+                    : motoImportService.importarCsv(conteudo));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static boolean json(MultipartFile file) {
+        String nome = file.getOriginalFilename();
+        return MediaType.APPLICATION_JSON_VALUE.equals(file.getContentType())
+                || (nome != null && nome.toLowerCase(Locale.ROOT).endsWith(".json"));
+    }
+}
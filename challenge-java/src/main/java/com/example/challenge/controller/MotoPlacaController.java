@@ -0,0 +1,51 @@
+package com.example.challenge.controller;
+
+import com.example.challenge.dto.MotoPlacaResultadoDTO;
+import com.example.challenge.dto.MotoSugestaoDTO;
+import com.example.challenge.service.MotoService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Consulta de motos pela placa: na portaria do pátio, tolerante a erro de digitação, e no
+ * formulário de OS, por prefixo da placa ou do modelo.
+ */
+@RestController
+@RequestMapping("/api/motos")
+public class MotoPlacaController {
+
+    static final int MAX_LIMIT = 100;
+    static final int MAX_SUGESTOES = 50;
+
+    private final MotoService motoService;
+
+    public MotoPlacaController(MotoService motoService) {
+        this.motoService = motoService;
+    }
+
+    /**
+     * Motos mais próximas do texto digitado: ?q=ABC1D28&distancia=1&limit=10.
+     * 'distancia' é o número de letras trocadas, faltando ou sobrando que se aceita (0 a 2).
+     */
+    @GetMapping("/proximas")
+    public ResponseEntity<List<MotoPlacaResultadoDTO>> buscarProximas(@RequestParam String q,
+                                                                      @RequestParam(defaultValue = "1") int distancia,
+                                                                      @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(motoService.buscarPorPlacaAproximada(q, distancia,
+                Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    /**
+     * Sugestões para o formulário de OS: placa ou modelo começando com o texto, ?q=abc&limit=10
+     */
+    @GetMapping("/sugestoes")
+    public ResponseEntity<List<MotoSugestaoDTO>> sugerir(@RequestParam String q,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(motoService.sugerir(q, Math.max(1, Math.min(limit, MAX_SUGESTOES))));
+    }
+}
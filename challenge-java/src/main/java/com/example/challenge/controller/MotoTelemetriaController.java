@@ -0,0 +1,86 @@
+package com.example.challenge.controller;
+
+import com.example.challenge.dto.LeituraKmDTO;
+import com.example.challenge.dto.LeituraKmResultadoDTO;
+import com.example.challenge.dto.PontoKmDTO;
+import com.example.challenge.dto.ResumoKmDTO;
+import com.example.challenge.service.KmSerieService;
+import com.example.challenge.service.TelemetriaKmService;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Entrada da telemetria das motos (leituras de hodômetro) e consulta da série de km gravada.
+ */
+@RestController
+@RequestMapping("/api/motos/telemetria")
+public class MotoTelemetriaController {
+
+    // Limite de leituras por requisição em POST /km
+    static final int MAX_LEITURAS_POR_LOTE = 10_000;
+
+    private final TelemetriaKmService telemetriaKmService;
+    private final KmSerieService kmSerieService;
+
+    public MotoTelemetriaController(TelemetriaKmService telemetriaKmService, KmSerieService kmSerieService) {
+        this.telemetriaKmService = telemetriaKmService;
+        this.kmSerieService = kmSerieService;
+    }
+
+    /**
+     * Recebe um lote de leituras de km: [{"placa": "ABC1D23", "km": 15230, "timestamp": "2024-05-01T10:00:00"}].
+     * Responde 202: as leituras aceitas são gravadas na próxima gravação periódica.
+     * Chamado pelos rastreadores com HTTP Basic de um usuário ROLE_TELEMETRIA, sem sessão nem CSRF
+     * (ver SecurityConfig.telemetriaFilterChain).
+     */
+    @PostMapping("/km")
+    public ResponseEntity<LeituraKmResultadoDTO> registrarKm(
+            @RequestBody @NotEmpty @Size(max = MAX_LEITURAS_POR_LOTE) List<LeituraKmDTO> leituras) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(telemetriaKmService.registrar(leituras));
+    }
+
+    /**
+     * Leituras gravadas da moto em [de, ate), até 31 dias: ?de=2024-05-01T00:00:00&ate=2024-05-02T00:00:00
+     */
+    @GetMapping("/{motoId}/km")
+    public ResponseEntity<List<PontoKmDTO>> leiturasKm(
+            @PathVariable Long motoId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate) {
+        try {
+            return ResponseEntity.ok(kmSerieService.leituras(motoId, de, ate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Resumo por intervalo (ISO-8601: P1D, PT1H, PT15M...) das leituras da moto em [de, ate).
+     */
+    @GetMapping("/{motoId}/km/resumo")
+    public ResponseEntity<List<ResumoKmDTO>> resumoKm(
+            @PathVariable Long motoId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+            @RequestParam(defaultValue = "P1D") Duration intervalo) {
+        try {
+            return ResponseEntity.ok(kmSerieService.resumo(motoId, de, ate, intervalo));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -2,19 +2,19 @@ package com.example.challenge.controller;
 
 import com.example.challenge.domain.OrdemServico;
 import com.example.challenge.domain.Moto;
-import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.OrdemServicoListaDTO;
 import com.example.challenge.service.OrdemServicoService;
 import com.example.challenge.service.MotoService;
-import com.example.challenge.service.PecaService;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-
 /**
  * Controller responsável por gerenciar as Ordens de Serviço (Manutenção).
  * Mapeia as operações CRUD para as views Thymeleaf.
@@ -25,47 +25,45 @@ public class OrdemServicoController {
 
     private final OrdemServicoService ordemServicoService;
     private final MotoService motoService;
-    private final PecaService pecaService;
 
-    public OrdemServicoController(OrdemServicoService ordemServicoService, MotoService motoService, PecaService pecaService) {
+    public OrdemServicoController(OrdemServicoService ordemServicoService, MotoService motoService) {
         this.ordemServicoService = ordemServicoService;
         this.motoService = motoService;
-        this.pecaService = pecaService;
     }
 
+    // Tamanho máximo de página em GET /ordens
+    static final int MAX_PAGE_SIZE = 100;
+
+    // Mais recentes primeiro; id como desempate para a ordem ficar estável entre as páginas
+    private static final Sort ORDENACAO = Sort.by(Sort.Direction.DESC, "dataAbertura", "id");
+
     // --- Métodos de Listagem e Exibição de Formulário ---
 
     /**
-     * Exibe a lista de todas as Ordens de Serviço.
+     * Exibe uma página das Ordens de Serviço, com filtro opcional por status:
+     * ?status=ABERTA&page=0&size=25
      */
     @GetMapping
-    public String listOrdens(Model model) {
-        List<OrdemServico> ordens = ordemServicoService.findAll();
+    public String listOrdens(@RequestParam(required = false) String status,
+                             @RequestParam(defaultValue = "0") int page,
+                             @RequestParam(defaultValue = "25") int size,
+                             Model model) {
+        Page<OrdemServicoListaDTO> ordens = ordemServicoService.listarPagina(status,
+                PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), ORDENACAO));
         model.addAttribute("ordens", ordens);
+        model.addAttribute("status", status);
         return "ordens-list";
     }
 
-    /**
-     * Prepara o Model com listas de motos e peças para o formulário.
-     */
-    private void loadFormDependencies(Model model) {
-        // Carrega todas as motos para o dropdown de seleção
-        List<Moto> motos = motoService.findAll();
-        // Carrega todas as peças para a seleção de itens usados
-        List<Peca> pecas = pecaService.findAll();
-        
-        model.addAttribute("motos", motos);
-        model.addAttribute("pecas", pecas);
-    }
-
     /**
      * Exibe o formulário de criação de uma nova Ordem de Serviço.
+     * A moto e as peças são escolhidas por busca (/api/motos/sugestoes e /api/pecas/sugestoes),
+     * então o formulário não carrega a frota nem o catálogo.
      */
     @GetMapping("/new")
     public String showCreateForm(Model model) {
         model.addAttribute("ordemServico", new OrdemServico());
         model.addAttribute("pageTitle", "Abrir Nova Ordem de Serviço");
-        loadFormDependencies(model);
         return "ordem-form";
     }
 
@@ -78,7 +76,6 @@ public class OrdemServicoController {
                 .map(ordemServico -> {
                     model.addAttribute("ordemServico", ordemServico);
                     model.addAttribute("pageTitle", "Editar Ordem de Serviço (ID: " + id + ")");
-                    loadFormDependencies(model);
                     return "ordem-form";
                 })
                 .orElseGet(() -> {
@@ -105,7 +102,10 @@ public class OrdemServicoController {
 
         if (result.hasErrors()) {
             model.addAttribute("pageTitle", (ordemServico.getId() == null ? "Abrir Nova Ordem de Serviço" : "Editar Ordem de Serviço (ID: " + ordemServico.getId() + ")"));
-            loadFormDependencies(model); // Recarrega as dependências em caso de erro
+            // Só o id da moto veio no formulário: recarrega a escolhida para exibir placa e modelo
+            if (ordemServico.getMoto() != null && ordemServico.getMoto().getId() != null) {
+                motoService.findById(ordemServico.getMoto().getId()).ifPresent(ordemServico::setMoto);
+            }
             return "ordem-form";
         }
 
@@ -115,7 +115,14 @@ public class OrdemServicoController {
         ordemServico.setMoto(moto);
 
         // O Service cuidará de atualizar o KM da moto e dar baixa no estoque
-        OrdemServico savedOrdem = ordemServicoService.save(ordemServico);
+        OrdemServico savedOrdem;
+        try {
+            savedOrdem = ordemServicoService.save(ordemServico);
+        } catch (IllegalStateException e) {
+            // Ex.: ordem que um mecânico pegou enquanto o formulário estava aberto
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/ordens";
+        }
         
         redirectAttributes.addFlashAttribute("successMessage", 
                 "Ordem de Serviço #" + savedOrdem.getId() + " para a moto " + savedOrdem.getMoto().getPlaca() + " salva com sucesso!");
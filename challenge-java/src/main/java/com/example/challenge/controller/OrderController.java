@@ -4,12 +4,14 @@ import com.example.challenge.service.*;
 import com.example.challenge.domain.*;
 import com.example.challenge.dto.*;
 import org.modelmapper.ModelMapper;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.LocalDateTime;
 import java.util.List; // Importação adicionada para a List
-import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/orders")
@@ -34,32 +36,46 @@ public class OrderController {
     }
 
     @PostMapping("/create")
-    public String create(@RequestParam Long userId, @RequestParam Long[] productId, @RequestParam Integer[] qty) {
-        Order o = new Order();
-        o.setUserId(userId);
-        for (int i = 0; i < productId.length; i++) {
-            Product p = productService.find(productId[i]);
-            OrderItem it = new OrderItem();
-            it.setProductId(p.getId());
-            it.setQuantity(qty[i]);
-            it.setUnitPrice(p.getPrice());
-            o.getItems().add(it);
+    public String create(@RequestParam Long userId, @RequestParam Long[] productId, @RequestParam Integer[] qty, Model m) {
+        try {
+            orderService.create(userId, productId, qty);
+        } catch (IllegalArgumentException e) {
+            m.addAttribute("products", productService.list());
+            m.addAttribute("errorMessage", e.getMessage());
+            return "orders/create";
         }
-        orderService.create(o);
         return "redirect:/orders/mine?userId="+userId;
     }
 
     @GetMapping("/mine")
-    public String mine(@RequestParam Long userId, Model m) {
-        // CORREÇÃO: 'var list' foi trocado por 'final List<Order> list'
-        final List<Order> list = orderService.list().stream().filter(o -> o.getUserId().equals(userId)).collect(Collectors.toList());
-        m.addAttribute("orders", list);
+    public String mine(@RequestParam Long userId,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+                       @RequestParam(required = false) Long afterId,
+                       @RequestParam(defaultValue = "20") int size,
+                       Model m) {
+        final int pageSize = Math.max(1, Math.min(size, 100));
+        // busca um registro a mais só para saber se existe próxima página
+        final List<Order> list = orderService.listByUser(userId, afterCreatedAt, afterId, pageSize + 1);
+        final boolean hasNext = list.size() > pageSize;
+        final List<Order> page = hasNext ? list.subList(0, pageSize) : list;
+        m.addAttribute("orders", page);
+        m.addAttribute("userId", userId);
+        m.addAttribute("size", pageSize);
+        if (hasNext) {
+            Order last = page.get(page.size() - 1);
+            m.addAttribute("nextCreatedAt", last.getCreatedAt());
+            m.addAttribute("nextId", last.getId());
+        }
         return "orders/mine";
     }
 
     @GetMapping("/admin")
-    public String adminList(Model m) {
-        m.addAttribute("orders", orderService.list());
+    public String adminList(@RequestParam(required = false) String status,
+                            @RequestParam(defaultValue = "0") int page,
+                            @RequestParam(defaultValue = "20") int size,
+                            Model m) {
+        m.addAttribute("orders", orderService.listSummaries(status, Math.max(page, 0), Math.max(1, Math.min(size, 100))));
+        m.addAttribute("status", status);
         return "orders/admin_list";
     }
 
@@ -68,4 +84,24 @@ public class OrderController {
         orderService.approve(id);
         return "redirect:/orders/admin";
     }
-}
\ No newline at end of file
+
+    @PostMapping("/approve/bulk")
+    public String approveBulk(@RequestParam(required = false) List<Long> ids,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime pendingBefore,
+                              RedirectAttributes redirectAttributes) {
+        final BulkApprovalResultDTO result;
+        if (ids != null && !ids.isEmpty()) {
+            result = orderService.approveAll(ids);
+        } else if (pendingBefore != null) {
+            result = orderService.approvePendingBefore(pendingBefore);
+        } else {
+            redirectAttributes.addFlashAttribute("errorMessage", "Selecione pedidos ou informe uma data limite.");
+            return "redirect:/orders/admin";
+        }
+        redirectAttributes.addFlashAttribute("successMessage", result.getApproved() + " pedido(s) aprovado(s).");
+        if (!result.getSkipped().isEmpty()) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Ignorados (inexistentes ou não pendentes): " + result.getSkipped());
+        }
+        return "redirect:/orders/admin";
+    }
+}
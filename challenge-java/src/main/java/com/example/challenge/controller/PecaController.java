@@ -1,38 +1,162 @@
 package com.example.challenge.controller;
 
 import com.example.challenge.domain.Peca;
+import com.example.challenge.domain.ReservaPeca;
+import com.example.challenge.dto.EstoqueMovimentoDTO;
+import com.example.challenge.dto.EstoqueMovimentoResultadoDTO;
+import com.example.challenge.dto.EstoqueNaDataDTO;
 import com.example.challenge.dto.EstoqueUpdateDTO;
+import com.example.challenge.dto.PecaBuscaResultadoDTO;
 import com.example.challenge.dto.PecaDTO;
+import com.example.challenge.dto.PecaImportResultadoDTO;
+import com.example.challenge.dto.PecaPaginaDTO;
+import com.example.challenge.dto.PecaSugestaoDTO;
+import com.example.challenge.dto.ReposicaoPecaDTO;
+import com.example.challenge.dto.ReservaPecaDTO;
+import com.example.challenge.dto.ReservaPecaListaDTO;
+import com.example.challenge.service.PecaImportService;
 import com.example.challenge.service.PecaService;
+import com.example.challenge.service.ReservaPecaService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/pecas")
 public class PecaController {
 
+    // Limite de movimentos por requisição em PATCH /movimentos-estoque
+    static final int MAX_MOVIMENTOS_POR_LOTE = 1000;
+
+    // Tamanho máximo de página em GET /api/pecas
+    static final int MAX_LIMIT = 500;
+    static final int MAX_SUGESTOES = 50;
+
     private final PecaService pecaService;
+    private final PecaImportService pecaImportService;
+    private final ReservaPecaService reservaPecaService;
 
-    public PecaController(PecaService pecaService) {
+    public PecaController(PecaService pecaService, PecaImportService pecaImportService,
+                          ReservaPecaService reservaPecaService) {
         this.pecaService = pecaService;
+        this.pecaImportService = pecaImportService;
+        this.reservaPecaService = reservaPecaService;
     }
 
-    @GetMapping
-    public ResponseEntity<List<Peca>> getAllPecas() {
+    /**
+     * Listagem completa, sem paginação (formato antigo). Só com ?all=true explícito.
+     */
+    @GetMapping(params = "all=true")
+    public ResponseEntity<List<Peca>> getAllPecas(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = etag(pecaService.revisaoColecao());
+        if (naoModificado(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         List<Peca> pecas = pecaService.findAll();
-        return ResponseEntity.ok(pecas);
+        return ResponseEntity.ok().eTag(etag).body(pecas);
+    }
+
+    /**
+     * Listagem paginada por cursor: ?limit=50&after=<nextCursor>&fields=nome,estoqueAtual
+     */
+    @GetMapping
+    public ResponseEntity<PecaPaginaDTO> getPecasPaginadas(@RequestParam(defaultValue = "50") int limit,
+                                                           @RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) List<String> fields,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // A revisão é lida antes da consulta: se mudar no meio, o próximo GET recebe a página nova
+        String etag = etag(pecaService.revisaoColecao());
+        if (naoModificado(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            return ResponseEntity.ok().eTag(etag)
+                    .body(pecaService.listarPagina(after, Math.max(1, Math.min(limit, MAX_LIMIT)), fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/abaixo-minimo")
+    public ResponseEntity<List<Peca>> getPecasAbaixoDoMinimo() {
+        return ResponseEntity.ok(pecaService.findAbaixoDoMinimo());
+    }
+
+    @GetMapping("/relatorio-reposicao")
+    public ResponseEntity<Page<ReposicaoPecaDTO>> getRelatorioReposicao(@RequestParam(defaultValue = "0") int page,
+                                                                         @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(pecaService.relatorioReposicao(Math.max(page, 0), Math.max(1, Math.min(size, 500))));
+    }
+
+    /**
+     * Busca por trechos do nome/descrição, sem distinguir acentos: ?q=oleo motor&limit=20
+     */
+    @GetMapping("/busca")
+    public ResponseEntity<List<PecaBuscaResultadoDTO>> buscarPecas(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(pecaService.buscar(q, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    /**
+     * Sugestões para o formulário de OS: código ou nome começando com o texto, ?q=filt&limit=10
+     */
+    @GetMapping("/sugestoes")
+    public ResponseEntity<List<PecaSugestaoDTO>> sugerirPecas(@RequestParam String q,
+                                                              @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(pecaService.sugerir(q, Math.max(1, Math.min(limit, MAX_SUGESTOES))));
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(pecaService.cacheStats());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Peca> getPecaById(@PathVariable Long id) {
+    public ResponseEntity<Peca> getPecaById(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Com If-None-Match, confere só a coluna versao antes de carregar e serializar a peça
+        if (ifNoneMatch != null) {
+            Optional<Long> versao = pecaService.findVersao(id);
+            if (versao.isPresent() && naoModificado(ifNoneMatch, etag(versao.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag(versao.get())).build();
+            }
+        }
         return pecaService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(peca -> ResponseEntity.ok().eTag(etag(peca.getVersao())).body(peca))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Saldo de estoque da peça em um instante: ?data=2024-05-01T10:00:00 (sem 'data', agora).
+     */
+    @GetMapping("/{id}/estoque")
+    public ResponseEntity<EstoqueNaDataDTO> getEstoqueNaData(@PathVariable Long id,
+                                                             @RequestParam(required = false)
+                                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime data) {
+        if (pecaService.findVersao(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        LocalDateTime instante = data != null ? data : LocalDateTime.now();
+        return ResponseEntity.ok(new EstoqueNaDataDTO(id, instante, pecaService.saldoEm(id, instante)));
+    }
+
     @PostMapping
     public ResponseEntity<Peca> createPeca(@Valid @RequestBody PecaDTO pecaDTO) {
         try {
@@ -52,6 +176,19 @@ public class PecaController {
         }
     }
 
+    /**
+     * Importação em massa por CSV (multipart, campo 'file'). Insere ou atualiza pelo código de fabricante.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<PecaImportResultadoDTO> importarCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        // O multipart fica em arquivo temporário; o serviço lê o stream linha a linha
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(pecaImportService.importarCsv(csv));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Peca> updatePeca(@PathVariable Long id, @Valid @RequestBody PecaDTO pecaDTO) {
         return pecaService.findById(id)
@@ -63,8 +200,16 @@ public class PecaController {
                     pecaExistente.setEstoqueMinimo(pecaDTO.getEstoqueMinimo());
                     pecaExistente.setEstoqueAtual(pecaDTO.getEstoqueAtual());
                     pecaExistente.setLocalizacaoEstoque(pecaDTO.getLocalizacaoEstoque());
-                    Peca updatedPeca = pecaService.save(pecaExistente);
-                    return ResponseEntity.ok(updatedPeca);
+                    try {
+                        Peca updatedPeca = pecaService.save(pecaExistente);
+                        return ResponseEntity.ok(updatedPeca);
+                    } catch (OptimisticLockingFailureException e) {
+                        // A peça mudou entre a leitura e a gravação (@Version)
+                        return ResponseEntity.status(HttpStatus.CONFLICT).<Peca>build();
+                    } catch (IllegalArgumentException e) {
+                        // Ex.: estoque abaixo das unidades reservadas
+                        return ResponseEntity.badRequest().<Peca>build();
+                    }
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -88,4 +233,86 @@ public class PecaController {
             return ResponseEntity.badRequest().build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Aplica um lote de movimentos de estoque, com um resultado por movimento. Fica fora de
+     * /estoque/ para não disputar o caminho com o código de fabricante de updateEstoque.
+     */
+    @PatchMapping("/movimentos-estoque")
+    public ResponseEntity<List<EstoqueMovimentoResultadoDTO>> updateEstoqueBatch(
+            @RequestBody @NotEmpty @Size(max = MAX_MOVIMENTOS_POR_LOTE) List<@Valid EstoqueMovimentoDTO> movimentos) {
+        return ResponseEntity.ok(pecaService.updateEstoqueBatch(movimentos));
+    }
+
+    /**
+     * Reserva unidades da peça para uma ordem de serviço (409 se não houver unidades disponíveis).
+     */
+    @PostMapping("/{id}/reservas")
+    public ResponseEntity<ReservaPeca> reservar(@PathVariable Long id, @Valid @RequestBody ReservaPecaDTO reservaDTO) {
+        try {
+            ReservaPeca reserva = reservaPecaService.reservar(id, reservaDTO.getOrdemServicoId(), reservaDTO.getQuantidade());
+            return ResponseEntity.created(URI.create("/api/pecas/reservas/" + reserva.getId())).body(reserva);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Reservas ativas da ordem de serviço, com o código e o nome da peça.
+     */
+    @GetMapping("/reservas")
+    public ResponseEntity<List<ReservaPecaListaDTO>> getReservasDaOrdem(@RequestParam Long ordemServicoId) {
+        return ResponseEntity.ok(reservaPecaService.findByOrdemServico(ordemServicoId));
+    }
+
+    /**
+     * Cancela a reserva (as unidades voltam a ficar disponíveis).
+     */
+    @DeleteMapping("/reservas/{reservaId}")
+    public ResponseEntity<Void> liberarReserva(@PathVariable Long reservaId) {
+        try {
+            reservaPecaService.liberar(reservaId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Confirma o uso da reserva: as unidades saem do estoque.
+     */
+    @PostMapping("/reservas/{reservaId}/confirmacao")
+    public ResponseEntity<Void> confirmarReserva(@PathVariable Long reservaId) {
+        try {
+            reservaPecaService.confirmar(reservaId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    private static String etag(Object versao) {
+        return "\"" + versao + "\"";
+    }
+
+    /**
+     * Confere o cabeçalho If-None-Match (lista de ETags, fracos ou não, ou "*") contra o ETag atual.
+     */
+    private static boolean naoModificado(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String tag = candidato.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
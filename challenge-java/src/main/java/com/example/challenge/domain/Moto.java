@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 public class Moto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "moto_seq")
+    @SequenceGenerator(name = "moto_seq", sequenceName = "moto_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "CHASSI", nullable = false, unique = true, length = 50)
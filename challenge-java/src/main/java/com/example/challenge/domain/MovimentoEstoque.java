@@ -0,0 +1,63 @@
+package com.example.challenge.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha do livro-razão de estoque: uma alteração de estoque de uma peça (positiva ou negativa).
+ * Só é inserida, nunca alterada; o saldo em uma data é reconstruído a partir delas (ver SnapshotEstoque).
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "peca_movimento")
+public class MovimentoEstoque {
+
+    public enum Origem {
+        SALDO_INICIAL, // peças existentes quando o livro-razão foi criado (V11)
+        CADASTRO,      // estoque informado ao criar a peça
+        EDICAO,        // estoque sobrescrito na edição da peça
+        AJUSTE,        // PATCH /api/pecas/estoque/{codigo}
+        LOTE,          // PATCH /api/pecas/movimentos-estoque
+        IMPORTACAO,    // importação CSV
+        ORDEM_SERVICO  // reserva de peça confirmada (baixa) por uma ordem de serviço
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "peca_movimento_seq")
+    @SequenceGenerator(name = "peca_movimento_seq", sequenceName = "peca_movimento_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long pecaId;
+
+    private int quantidade;
+
+    @Column(nullable = false)
+    private LocalDateTime dataMovimento;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Origem origem;
+
+    // Data do snapshot da geração que incluiu este movimento; null enquanto pendente
+    private LocalDateTime consolidadoEm;
+
+    public MovimentoEstoque(Long pecaId, int quantidade, LocalDateTime dataMovimento, Origem origem) {
+        this.pecaId = pecaId;
+        this.quantidade = quantidade;
+        this.dataMovimento = dataMovimento;
+        this.origem = origem;
+    }
+}
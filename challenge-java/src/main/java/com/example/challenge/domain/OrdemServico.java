@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.validation.constraints.NotNull;
@@ -15,7 +16,8 @@ import java.time.LocalDateTime; // Importação para dataAbertura
 public class OrdemServico {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ordem_servico_seq")
+    @SequenceGenerator(name = "ordem_servico_seq", sequenceName = "ordem_servico_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -9,14 +9,16 @@ import java.util.List;
 @Table(name="orders")
 public class Order {
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     private Long userId;
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // nullable=false faz o Hibernate gravar a FK já no INSERT do item (sem UPDATE posterior)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name="order_id")
+    @JoinColumn(name="order_id", nullable = false)
     private List<OrderItem> items = new ArrayList<>();
 
     private String status = "PENDING";
@@ -1,9 +1,12 @@
 package com.example.challenge.domain;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 @Data // Mantém esta anotação para getters e setters automáticos
@@ -11,7 +14,8 @@ import lombok.Data;
 public class Peca {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "peca_seq")
+    @SequenceGenerator(name = "peca_seq", sequenceName = "peca_seq", allocationSize = 50)
     private Long id;
 
     private String nome;
@@ -24,5 +28,21 @@ public class Peca {
     private String codigoFabricante;
     private int estoqueAtual;
     private int estoqueMinimo;
+
+    // Soma das reservas ativas (ReservaPecaService). Só muda por UPDATE atômico em SQL,
+    // nunca pelo Hibernate, para uma edição da peça não sobrescrever reservas concorrentes.
+    @Column(insertable = false, updatable = false)
+    private int estoqueReservado;
+
     private String localizacaoEstoque;
-}
\ No newline at end of file
+
+    @Version // incrementada a cada alteração; usada como ETag
+    private Long versao;
+
+    /**
+     * Unidades que ainda podem ser usadas ou reservadas.
+     */
+    public int getEstoqueDisponivel() {
+        return estoqueAtual - estoqueReservado;
+    }
+}
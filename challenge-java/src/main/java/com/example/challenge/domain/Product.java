@@ -5,7 +5,8 @@ import jakarta.persistence.*;
 @Entity
 @Table(name="products")
 public class Product {
-  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+  @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable=false)
@@ -0,0 +1,52 @@
+package com.example.challenge.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Unidades de uma peça separadas para uma ordem de serviço até 'expiraEm'.
+ * Enquanto a linha existir, a quantidade conta em Peca.estoqueReservado; confirmar, liberar
+ * ou expirar a reserva apaga a linha e devolve a quantidade na mesma transação.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "peca_reserva")
+public class ReservaPeca {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "peca_reserva_seq")
+    @SequenceGenerator(name = "peca_reserva_seq", sequenceName = "peca_reserva_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long pecaId;
+
+    @Column(nullable = false)
+    private Long ordemServicoId;
+
+    private int quantidade;
+
+    @Column(nullable = false)
+    private LocalDateTime dataReserva;
+
+    @Column(nullable = false)
+    private LocalDateTime expiraEm;
+
+    public ReservaPeca(Long pecaId, Long ordemServicoId, int quantidade, LocalDateTime dataReserva, LocalDateTime expiraEm) {
+        this.pecaId = pecaId;
+        this.ordemServicoId = ordemServicoId;
+        this.quantidade = quantidade;
+        this.dataReserva = dataReserva;
+        this.expiraEm = expiraEm;
+    }
+}
@@ -4,5 +4,6 @@ package com.example.challenge.domain;
 // O Spring Security espera que os papéis sejam prefixados com "ROLE_".
 public enum Role {
     ROLE_USER,
-    ROLE_ADMIN
+    ROLE_ADMIN,
+    ROLE_TELEMETRIA // credencial de máquina dos rastreadores (POST /api/motos/telemetria/km)
 }
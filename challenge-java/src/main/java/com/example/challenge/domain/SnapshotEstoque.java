@@ -0,0 +1,43 @@
+package com.example.challenge.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Saldo de estoque de uma peça em um instante, somando todos os movimentos até 'dataSnapshot'.
+ * Gerado periodicamente para que o saldo em uma data seja o snapshot anterior mais um trecho curto do livro-razão.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "peca_estoque_snapshot")
+public class SnapshotEstoque {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "peca_estoque_snapshot_seq")
+    @SequenceGenerator(name = "peca_estoque_snapshot_seq", sequenceName = "peca_estoque_snapshot_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long pecaId;
+
+    @Column(nullable = false)
+    private LocalDateTime dataSnapshot;
+
+    private int saldo;
+
+    public SnapshotEstoque(Long pecaId, LocalDateTime dataSnapshot, int saldo) {
+        this.pecaId = pecaId;
+        this.dataSnapshot = dataSnapshot;
+        this.saldo = saldo;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.challenge.dto;
+
+import java.util.List;
+
+/**
+ * Resultado da aprovação em lote de pedidos:
+ * quantos foram aprovados e quais ids pedidos foram ignorados
+ * (inexistentes ou que não estavam mais PENDING).
+ */
+public class BulkApprovalResultDTO {
+
+    private final int approved;
+    private final List<Long> skipped;
+
+    public BulkApprovalResultDTO(int approved, List<Long> skipped) {
+        this.approved = approved;
+        this.skipped = skipped;
+    }
+
+    public int getApproved() { return approved; }
+    public List<Long> getSkipped() { return skipped; }
+}
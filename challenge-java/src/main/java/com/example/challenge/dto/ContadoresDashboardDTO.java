@@ -0,0 +1,30 @@
+package com.example.challenge.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contadores exibidos no dashboard da frota (página inicial), calculados em 'atualizadoEm'.
+ */
+public class ContadoresDashboardDTO {
+
+    private final long motosAtivas;
+    private final long motosEmManutencao;
+    private final long pecasEmEstoque;
+    private final long ordensAbertas;
+    private final LocalDateTime atualizadoEm;
+
+    public ContadoresDashboardDTO(long motosAtivas, long motosEmManutencao, long pecasEmEstoque,
+                                  long ordensAbertas, LocalDateTime atualizadoEm) {
+        this.motosAtivas = motosAtivas;
+        this.motosEmManutencao = motosEmManutencao;
+        this.pecasEmEstoque = pecasEmEstoque;
+        this.ordensAbertas = ordensAbertas;
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public long getMotosAtivas() { return motosAtivas; }
+    public long getMotosEmManutencao() { return motosEmManutencao; }
+    public long getPecasEmEstoque() { return pecasEmEstoque; }
+    public long getOrdensAbertas() { return ordensAbertas; }
+    public LocalDateTime getAtualizadoEm() { return atualizadoEm; }
+}
@@ -0,0 +1,24 @@
+package com.example.challenge.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Um movimento de estoque enviado em lote (ex: leitores do almoxarifado).
+ * A quantidade pode ser positiva (entrada) ou negativa (saída);
+ * o Service garante que o estoque final não fique negativo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstoqueMovimentoDTO {
+
+    @NotBlank(message = "O código do fabricante é obrigatório.")
+    private String codigoFabricante;
+
+    @NotNull(message = "A quantidade de alteração é obrigatória.")
+    private Integer quantidade;
+}
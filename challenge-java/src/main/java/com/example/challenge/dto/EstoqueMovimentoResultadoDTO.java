@@ -0,0 +1,22 @@
+package com.example.challenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de um movimento do lote de estoque, na mesma ordem da requisição.
+ * 'estoqueAtual' é o saldo da peça logo após este movimento (nulo se o código não existe).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstoqueMovimentoResultadoDTO {
+
+    public enum Status { APLICADO, REJEITADO_ESTOQUE_NEGATIVO, CODIGO_DESCONHECIDO }
+
+    private String codigoFabricante;
+    private Integer quantidade;
+    private Status status;
+    private Integer estoqueAtual;
+}
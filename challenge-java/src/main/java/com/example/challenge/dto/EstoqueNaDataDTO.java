@@ -0,0 +1,23 @@
+package com.example.challenge.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Saldo de estoque de uma peça em um instante (GET /api/pecas/{id}/estoque?data=...).
+ */
+public class EstoqueNaDataDTO {
+
+    private final Long pecaId;
+    private final LocalDateTime data;
+    private final int estoque;
+
+    public EstoqueNaDataDTO(Long pecaId, LocalDateTime data, int estoque) {
+        this.pecaId = pecaId;
+        this.data = data;
+        this.estoque = estoque;
+    }
+
+    public Long getPecaId() { return pecaId; }
+    public LocalDateTime getData() { return data; }
+    public int getEstoque() { return estoque; }
+}
@@ -0,0 +1,28 @@
+package com.example.challenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uma leitura de hodômetro enviada pela telemetria da moto.
+ * A moto é identificada pela placa ou, na falta dela, pelo chassi.
+ * Leituras sem km, com km negativo, sem instante ou com instante fora da janela aceita (ver
+ * KmSerieService.horarioAceito) são contadas como inválidas pelo Service (sem Bean Validation por
+ * item, que pesaria em lotes de milhares de leituras).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeituraKmDTO {
+
+    private String placa;
+
+    private String chassi;
+
+    private Integer km;
+
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,28 @@
+package com.example.challenge.dto;
+
+/**
+ * Resumo de um lote de leituras de km (POST /api/motos/telemetria/km).
+ * As aceitas ficam pendentes em memória e são gravadas na próxima gravação periódica.
+ */
+public class LeituraKmResultadoDTO {
+
+    private final int recebidas;
+    private final int aceitas;
+    private final int foraDeOrdem;
+    private final int desconhecidas;
+    private final int invalidas;
+
+    public LeituraKmResultadoDTO(int recebidas, int aceitas, int foraDeOrdem, int desconhecidas, int invalidas) {
+        this.recebidas = recebidas;
+        this.aceitas = aceitas;
+        this.foraDeOrdem = foraDeOrdem;
+        this.desconhecidas = desconhecidas;
+        this.invalidas = invalidas;
+    }
+
+    public int getRecebidas() { return recebidas; }
+    public int getAceitas() { return aceitas; }
+    public int getForaDeOrdem() { return foraDeOrdem; }
+    public int getDesconhecidas() { return desconhecidas; }
+    public int getInvalidas() { return invalidas; }
+}
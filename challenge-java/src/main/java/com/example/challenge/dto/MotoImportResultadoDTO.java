@@ -0,0 +1,52 @@
+package com.example.challenge.dto;
+
+import java.util.List;
+
+/**
+ * Relatório da importação em massa de motos: totais e os erros por linha
+ * (limitados a ErrosImportacao.MAX_ERROS_REPORTADOS; 'totalErros' conta todos).
+ * Toda linha processada que não aparece em 'erros' foi cadastrada.
+ */
+public class MotoImportResultadoDTO {
+
+    private final int linhasProcessadas;
+    private final int inseridas;
+    private final int totalErros;
+    private final List<ErroLinha> erros;
+
+    public MotoImportResultadoDTO(int linhasProcessadas, int inseridas, int totalErros, List<ErroLinha> erros) {
+        this.linhasProcessadas = linhasProcessadas;
+        this.inseridas = inseridas;
+        this.totalErros = totalErros;
+        this.erros = erros;
+    }
+
+    public int getLinhasProcessadas() { return linhasProcessadas; }
+    public int getInseridas() { return inseridas; }
+    public int getTotalErros() { return totalErros; }
+    public List<ErroLinha> getErros() { return erros; }
+
+    /**
+     * Linha rejeitada: número da linha no CSV (o cabeçalho é a linha 1) ou posição no array JSON
+     * (a partir de 1), chassi, placa e motivo.
+     */
+    public static class ErroLinha {
+
+        private final int linha;
+        private final String chassi;
+        private final String placa;
+        private final String mensagem;
+
+        public ErroLinha(int linha, String chassi, String placa, String mensagem) {
+            this.linha = linha;
+            this.chassi = chassi;
+            this.placa = placa;
+            this.mensagem = mensagem;
+        }
+
+        public int getLinha() { return linha; }
+        public String getChassi() { return chassi; }
+        public String getPlaca() { return placa; }
+        public String getMensagem() { return mensagem; }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.challenge.dto;
+
+/**
+ * Moto próxima da placa/chassi digitado (GET /api/motos/proximas), com a distância de edição
+ * (letras trocadas, faltando ou sobrando) e o campo que casou.
+ */
+public class MotoPlacaResultadoDTO {
+
+    private final Long id;
+    private final String placa;
+    private final String chassi;
+    private final String modelo;
+    private final String status;
+    private final String campo;
+    private final int distancia;
+
+    public MotoPlacaResultadoDTO(Long id, String placa, String chassi, String modelo, String status,
+                                 String campo, int distancia) {
+        this.id = id;
+        this.placa = placa;
+        this.chassi = chassi;
+        this.modelo = modelo;
+        this.status = status;
+        this.campo = campo;
+        this.distancia = distancia;
+    }
+
+    public Long getId() { return id; }
+    public String getPlaca() { return placa; }
+    public String getChassi() { return chassi; }
+    public String getModelo() { return modelo; }
+    public String getStatus() { return status; }
+    public String getCampo() { return campo; }
+    public int getDistancia() { return distancia; }
+}
@@ -0,0 +1,24 @@
+package com.example.challenge.dto;
+
+/**
+ * Sugestão de moto para o campo de busca do formulário de OS (GET /api/motos/sugestoes).
+ */
+public class MotoSugestaoDTO {
+
+    private final Long id;
+    private final String placa;
+    private final String modelo;
+    private final Integer kmAtual;
+
+    public MotoSugestaoDTO(Long id, String placa, String modelo, Integer kmAtual) {
+        this.id = id;
+        this.placa = placa;
+        this.modelo = modelo;
+        this.kmAtual = kmAtual;
+    }
+
+    public Long getId() { return id; }
+    public String getPlaca() { return placa; }
+    public String getModelo() { return modelo; }
+    public Integer getKmAtual() { return kmAtual; }
+}
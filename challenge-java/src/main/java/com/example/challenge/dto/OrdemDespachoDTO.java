@@ -0,0 +1,37 @@
+package com.example.challenge.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ordem de serviço na fila de despacho (GET /api/ordens/despacho) ou atribuída a um mecânico
+ * (POST /api/ordens/despacho/proxima, com 'mecanico' preenchido).
+ */
+public class OrdemDespachoDTO {
+
+    private final Long id;
+    private final String descricao;
+    private final String motoPlaca;
+    private final String motoStatus;
+    private final long pecasReservadas;
+    private final LocalDateTime dataAbertura;
+    private final String mecanico;
+
+    public OrdemDespachoDTO(Long id, String descricao, String motoPlaca, String motoStatus, long pecasReservadas,
+                            LocalDateTime dataAbertura, String mecanico) {
+        this.id = id;
+        this.descricao = descricao;
+        this.motoPlaca = motoPlaca;
+        this.motoStatus = motoStatus;
+        this.pecasReservadas = pecasReservadas;
+        this.dataAbertura = dataAbertura;
+        this.mecanico = mecanico;
+    }
+
+    public Long getId() { return id; }
+    public String getDescricao() { return descricao; }
+    public String getMotoPlaca() { return motoPlaca; }
+    public String getMotoStatus() { return motoStatus; }
+    public long getPecasReservadas() { return pecasReservadas; }
+    public LocalDateTime getDataAbertura() { return dataAbertura; }
+    public String getMecanico() { return mecanico; }
+}
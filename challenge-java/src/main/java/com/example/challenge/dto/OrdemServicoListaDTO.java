@@ -0,0 +1,38 @@
+package com.example.challenge.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha da listagem de ordens de serviço (ordens-list.html).
+ * Montada direto pela consulta com junção em OrdemServicoRepository: só as colunas exibidas,
+ * sem carregar a entidade Moto de cada ordem.
+ */
+public class OrdemServicoListaDTO {
+
+    private final Long id;
+    private final String status;
+    private final String descricao;
+    private final LocalDateTime dataAbertura;
+    private final String motoModelo;
+    private final String motoPlaca;
+    private final Integer motoKmAtual;
+
+    public OrdemServicoListaDTO(Long id, String status, String descricao, LocalDateTime dataAbertura,
+                                String motoModelo, String motoPlaca, Integer motoKmAtual) {
+        this.id = id;
+        this.status = status;
+        this.descricao = descricao;
+        this.dataAbertura = dataAbertura;
+        this.motoModelo = motoModelo;
+        this.motoPlaca = motoPlaca;
+        this.motoKmAtual = motoKmAtual;
+    }
+
+    public Long getId() { return id; }
+    public String getStatus() { return status; }
+    public String getDescricao() { return descricao; }
+    public LocalDateTime getDataAbertura() { return dataAbertura; }
+    public String getMotoModelo() { return motoModelo; }
+    public String getMotoPlaca() { return motoPlaca; }
+    public Integer getMotoKmAtual() { return motoKmAtual; }
+}
@@ -0,0 +1,33 @@
+package com.example.challenge.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha da listagem administrativa de pedidos.
+ * Montada direto pela consulta agrupada em OrderRepository (sem carregar os itens).
+ */
+public class OrderSummaryDTO {
+
+    private final Long id;
+    private final Long userId;
+    private final String status;
+    private final LocalDateTime createdAt;
+    private final long itemCount;
+    private final double total;
+
+    public OrderSummaryDTO(Long id, Long userId, String status, LocalDateTime createdAt, Long itemCount, Double total) {
+        this.id = id;
+        this.userId = userId;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.itemCount = itemCount == null ? 0 : itemCount;
+        this.total = total == null ? 0 : total;
+    }
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public String getStatus() { return status; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public long getItemCount() { return itemCount; }
+    public double getTotal() { return total; }
+}
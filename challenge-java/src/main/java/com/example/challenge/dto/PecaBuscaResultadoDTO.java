@@ -0,0 +1,27 @@
+package com.example.challenge.dto;
+
+/**
+ * Resultado da busca textual de peças (GET /api/pecas/busca), com a pontuação de relevância.
+ */
+public class PecaBuscaResultadoDTO {
+
+    private final Long id;
+    private final String nome;
+    private final String descricao;
+    private final String codigoFabricante;
+    private final int score;
+
+    public PecaBuscaResultadoDTO(Long id, String nome, String descricao, String codigoFabricante, int score) {
+        this.id = id;
+        this.nome = nome;
+        this.descricao = descricao;
+        this.codigoFabricante = codigoFabricante;
+        this.score = score;
+    }
+
+    public Long getId() { return id; }
+    public String getNome() { return nome; }
+    public String getDescricao() { return descricao; }
+    public String getCodigoFabricante() { return codigoFabricante; }
+    public int getScore() { return score; }
+}
@@ -0,0 +1,50 @@
+package com.example.challenge.dto;
+
+import java.util.List;
+
+/**
+ * Relatório da importação CSV de peças: totais e os erros por linha
+ * (limitados a ErrosImportacao.MAX_ERROS_REPORTADOS; 'totalErros' conta todos).
+ */
+public class PecaImportResultadoDTO {
+
+    private final int linhasProcessadas;
+    private final int inseridas;
+    private final int atualizadas;
+    private final int totalErros;
+    private final List<ErroLinha> erros;
+
+    public PecaImportResultadoDTO(int linhasProcessadas, int inseridas, int atualizadas, int totalErros, List<ErroLinha> erros) {
+        this.linhasProcessadas = linhasProcessadas;
+        this.inseridas = inseridas;
+        this.atualizadas = atualizadas;
+        this.totalErros = totalErros;
+        this.erros = erros;
+    }
+
+    public int getLinhasProcessadas() { return linhasProcessadas; }
+    public int getInseridas() { return inseridas; }
+    public int getAtualizadas() { return atualizadas; }
+    public int getTotalErros() { return totalErros; }
+    public List<ErroLinha> getErros() { return erros; }
+
+    /**
+     * Linha rejeitada: número da linha no arquivo (o cabeçalho é a linha 1), código e motivo.
+     */
+    public static class ErroLinha {
+
+        private final int linha;
+        private final String codigoFabricante;
+        private final String mensagem;
+
+        public ErroLinha(int linha, String codigoFabricante, String mensagem) {
+            this.linha = linha;
+            this.codigoFabricante = codigoFabricante;
+            this.mensagem = mensagem;
+        }
+
+        public int getLinha() { return linha; }
+        public String getCodigoFabricante() { return codigoFabricante; }
+        public String getMensagem() { return mensagem; }
+    }
+}
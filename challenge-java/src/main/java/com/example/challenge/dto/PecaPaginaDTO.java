@@ -0,0 +1,22 @@
+package com.example.challenge.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Página da listagem de peças por cursor.
+ * 'nextCursor' é o valor a enviar em 'after' para buscar a próxima página (null na última).
+ */
+public class PecaPaginaDTO {
+
+    private final List<Map<String, Object>> items;
+    private final Long nextCursor;
+
+    public PecaPaginaDTO(List<Map<String, Object>> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Map<String, Object>> getItems() { return items; }
+    public Long getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,25 @@
+package com.example.challenge.dto;
+
+/**
+ * Sugestão de peça para o campo de busca do formulário de OS (GET /api/pecas/sugestoes).
+ * 'disponivel' é o estoque atual menos o já reservado para outras ordens.
+ */
+public class PecaSugestaoDTO {
+
+    private final Long id;
+    private final String nome;
+    private final String codigoFabricante;
+    private final int disponivel;
+
+    public PecaSugestaoDTO(Long id, String nome, String codigoFabricante, int disponivel) {
+        this.id = id;
+        this.nome = nome;
+        this.codigoFabricante = codigoFabricante;
+        this.disponivel = disponivel;
+    }
+
+    public Long getId() { return id; }
+    public String getNome() { return nome; }
+    public String getCodigoFabricante() { return codigoFabricante; }
+    public int getDisponivel() { return disponivel; }
+}
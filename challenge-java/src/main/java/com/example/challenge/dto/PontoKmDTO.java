@@ -0,0 +1,20 @@
+package com.example.challenge.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uma leitura da série de km de uma moto (GET /api/motos/telemetria/{motoId}/km).
+ */
+public class PontoKmDTO {
+
+    private final LocalDateTime timestamp;
+    private final int km;
+
+    public PontoKmDTO(LocalDateTime timestamp, int km) {
+        this.timestamp = timestamp;
+        this.km = km;
+    }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public int getKm() { return km; }
+}
@@ -0,0 +1,22 @@
+package com.example.challenge.dto;
+
+/**
+ * Linha do relatório de reposição de peças (projeção de PecaRepository).
+ * 'deficit' é quanto falta para a peça voltar ao estoque mínimo.
+ */
+public interface ReposicaoPecaDTO {
+
+    Long getId();
+
+    String getCodigoFabricante();
+
+    String getNome();
+
+    String getLocalizacaoEstoque();
+
+    Integer getEstoqueAtual();
+
+    Integer getEstoqueMinimo();
+
+    Integer getDeficit();
+}
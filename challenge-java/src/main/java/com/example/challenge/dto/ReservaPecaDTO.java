@@ -0,0 +1,23 @@
+package com.example.challenge.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pedido de reserva de unidades de uma peça para uma ordem de serviço.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaPecaDTO {
+
+    @NotNull(message = "O ID da ordem de serviço é obrigatório.")
+    private Long ordemServicoId;
+
+    @NotNull(message = "A quantidade é obrigatória.")
+    @Min(value = 1, message = "A quantidade reservada deve ser maior que zero.")
+    private Integer quantidade;
+}
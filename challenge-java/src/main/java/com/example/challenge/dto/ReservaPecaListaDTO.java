@@ -0,0 +1,34 @@
+package com.example.challenge.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reserva de peça de uma ordem de serviço, com o código e o nome da peça (seção de peças de
+ * ordem-form.html). Montada direto pela consulta com junção em ReservaPecaRepository.
+ */
+public class ReservaPecaListaDTO {
+
+    private final Long id;
+    private final Long pecaId;
+    private final String pecaCodigoFabricante;
+    private final String pecaNome;
+    private final int quantidade;
+    private final LocalDateTime expiraEm;
+
+    public ReservaPecaListaDTO(Long id, Long pecaId, String pecaCodigoFabricante, String pecaNome,
+                               int quantidade, LocalDateTime expiraEm) {
+        this.id = id;
+        this.pecaId = pecaId;
+        this.pecaCodigoFabricante = pecaCodigoFabricante;
+        this.pecaNome = pecaNome;
+        this.quantidade = quantidade;
+        this.expiraEm = expiraEm;
+    }
+
+    public Long getId() { return id; }
+    public Long getPecaId() { return pecaId; }
+    public String getPecaCodigoFabricante() { return pecaCodigoFabricante; }
+    public String getPecaNome() { return pecaNome; }
+    public int getQuantidade() { return quantidade; }
+    public LocalDateTime getExpiraEm() { return expiraEm; }
+}
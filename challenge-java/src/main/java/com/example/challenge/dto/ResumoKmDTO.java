@@ -0,0 +1,41 @@
+package com.example.challenge.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumo das leituras de km de uma moto em um intervalo [inicio, fim)
+ * (GET /api/motos/telemetria/{motoId}/km/resumo). 'retrocessos' conta as leituras com km
+ * menor que a leitura anterior: hodômetro voltando.
+ */
+public class ResumoKmDTO {
+
+    private final LocalDateTime inicio;
+    private final LocalDateTime fim;
+    private final int leituras;
+    private final int kmInicial;
+    private final int kmFinal;
+    private final int kmMinimo;
+    private final int kmMaximo;
+    private final int retrocessos;
+
+    public ResumoKmDTO(LocalDateTime inicio, LocalDateTime fim, int leituras, int kmInicial, int kmFinal,
+                       int kmMinimo, int kmMaximo, int retrocessos) {
+        this.inicio = inicio;
+        this.fim = fim;
+        this.leituras = leituras;
+        this.kmInicial = kmInicial;
+        this.kmFinal = kmFinal;
+        this.kmMinimo = kmMinimo;
+        this.kmMaximo = kmMaximo;
+        this.retrocessos = retrocessos;
+    }
+
+    public LocalDateTime getInicio() { return inicio; }
+    public LocalDateTime getFim() { return fim; }
+    public int getLeituras() { return leituras; }
+    public int getKmInicial() { return kmInicial; }
+    public int getKmFinal() { return kmFinal; }
+    public int getKmMinimo() { return kmMinimo; }
+    public int getKmMaximo() { return kmMaximo; }
+    public int getRetrocessos() { return retrocessos; }
+}
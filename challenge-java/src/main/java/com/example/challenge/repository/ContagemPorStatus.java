@@ -0,0 +1,9 @@
+package com.example.challenge.repository;
+
+/**
+ * Linha de uma contagem agrupada por status (projeção das consultas GROUP BY status).
+ */
+public interface ContagemPorStatus {
+    String getStatus();
+    long getTotal();
+}
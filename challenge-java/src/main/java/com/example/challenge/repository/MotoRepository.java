@@ -2,6 +2,9 @@ package com.example.challenge.repository;
 
 import com.example.challenge.domain.Moto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,9 +13,11 @@ import java.util.Optional;
 /**
  * Repositório JPA para a entidade Moto.
  * Permite interagir com a tabela MOTO no banco de dados.
+ * A listagem paginada com filtros opcionais usa findAll(Specification, Pageable): só os filtros
+ * informados entram no WHERE, então o banco pode usar os índices de STATUS (V13).
  */
 @Repository
-public interface MotoRepository extends JpaRepository<Moto, Long> {
+public interface MotoRepository extends JpaRepository<Moto, Long>, JpaSpecificationExecutor<Moto>, MotoRepositoryCustom {
 
     /**
      * Busca uma moto pelo seu número de Chassi (único).
@@ -34,4 +39,24 @@ public interface MotoRepository extends JpaRepository<Moto, Long> {
      * @return Uma lista de motos com o status especificado.
      */
     List<Moto> findByStatus(String status);
+
+    /**
+     * Conta as motos de cada status (dashboard).
+     */
+    @Query("select m.status as status, count(m) as total from Moto m group by m.status")
+    List<ContagemPorStatus> contarPorStatus();
+
+    /**
+     * Id e quilometragem gravada de uma moto (projeção usada pela telemetria de km).
+     */
+    interface KmMoto {
+        Long getId();
+        Integer getKmAtual();
+    }
+
+    @Query("select m.id as id, m.kmAtual as kmAtual from Moto m where m.placa = :placa")
+    Optional<KmMoto> findKmByPlaca(@Param("placa") String placa);
+
+    @Query("select m.id as id, m.kmAtual as kmAtual from Moto m where m.chassi = :chassi")
+    Optional<KmMoto> findKmByChassi(@Param("chassi") String chassi);
 }
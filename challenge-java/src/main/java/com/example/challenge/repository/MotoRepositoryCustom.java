@@ -0,0 +1,82 @@
+package com.example.challenge.repository;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.MotoSugestaoDTO;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Operações em lote de MotoRepository feitas direto em JDBC (implementadas em MotoRepositoryImpl).
+ */
+public interface MotoRepositoryCustom {
+
+    /**
+     * Grava a quilometragem de várias motos em um único lote JDBC. O UPDATE só avança KM_ATUAL:
+     * uma leitura menor que o valor gravado (ex: moto editada no formulário) não altera a linha.
+     * @param kmPorMoto Id da moto -> quilometragem lida.
+     * @return Linhas alteradas por item, na ordem de iteração do mapa.
+     */
+    int[] avancarKmEmLote(Map<Long, Integer> kmPorMoto);
+
+    /**
+     * Chassis e placas já cadastrados (conjuntos separados).
+     */
+    record ChassisEPlacas(Set<String> chassis, Set<String> placas) {}
+
+    /**
+     * Carrega todos os chassis e placas cadastrados em uma única consulta (importação em massa).
+     */
+    ChassisEPlacas findAllChassisEPlacas();
+
+    /**
+     * Insere as motos em um único lote JDBC, com ids reservados de moto_seq.
+     * Preenche o id de cada moto da lista.
+     */
+    void insertBatch(List<Moto> motos);
+
+    /**
+     * Identificação de uma moto: o que o índice de placas precisa para responder sem ir ao banco.
+     */
+    record IdentificacaoMoto(long id, String placa, String chassi, String modelo, String status) {}
+
+    /**
+     * Percorre a identificação de todas as motos em uma única consulta, sem montar entidades.
+     */
+    void forEachIdentificacao(Consumer<IdentificacaoMoto> consumidor);
+
+    /**
+     * Motos cuja placa ou modelo começa com o prefixo (faixas dos índices de V16): primeiro as de
+     * placa, em ordem de placa, e depois as de modelo, em ordem de modelo.
+     * @param prefixo Prefixo já em maiúsculas.
+     * @param limite Quantidade máxima de motos.
+     */
+    List<MotoSugestaoDTO> findSugestoesPorPrefixo(String prefixo, int limite);
+
+    /**
+     * Leituras de km de uma moto em um dia (tabela moto_km_bloco): cabeçalho e as leituras
+     * codificadas por KmBlocoCodec. 'dados' é null quando só o cabeçalho foi carregado.
+     */
+    record BlocoKm(long motoId, LocalDate dia, int quantidade, int kmInicial, int kmFinal,
+                   int kmMinimo, int kmMaximo, int retrocessos, byte[] dados) {}
+
+    /**
+     * Blocos de km de uma moto entre dois dias (inclusive), em ordem de dia.
+     * @param comDados false para ler só o cabeçalho (resumos diários).
+     */
+    List<BlocoKm> findBlocosKm(long motoId, LocalDate de, LocalDate ate, boolean comDados);
+
+    /**
+     * Blocos de km de várias motos em um dia, com os dados.
+     */
+    List<BlocoKm> findBlocosKmDoDia(LocalDate dia, Collection<Long> motoIds);
+
+    /**
+     * Insere ou substitui os blocos (MERGE pela chave moto_id, dia) em um único lote JDBC.
+     */
+    void gravarBlocosKm(List<BlocoKm> blocos);
+}
@@ -0,0 +1,184 @@
+package com.example.challenge.repository;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.MotoSugestaoDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Implementação JDBC das operações em lote de MotoRepository.
+ * Participa da transação JPA corrente (o JpaTransactionManager expõe a mesma conexão ao JdbcTemplate).
+ */
+class MotoRepositoryImpl implements MotoRepositoryCustom {
+
+    private static final String AVANCAR_KM_SQL =
+            "UPDATE MOTO SET KM_ATUAL = ? WHERE ID = ? AND (KM_ATUAL IS NULL OR KM_ATUAL < ?)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO MOTO (ID, CHASSI, MODELO, PLACA, ANO_FABRICACAO, STATUS, KM_ATUAL, DATA_CADASTRO) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SUGESTOES_SQL = "SELECT ID, PLACA, MODELO, KM_ATUAL FROM MOTO WHERE %1$s >= ? AND %1$s < ? " +
+            "ORDER BY %1$s, ID LIMIT ?";
+
+    private static final RowMapper<MotoSugestaoDTO> SUGESTAO_MAPPER = (rs, n) ->
+            new MotoSugestaoDTO(rs.getLong(1), rs.getString(2), rs.getString(3), (Integer) rs.getObject(4));
+
+    private static final String COLUNAS_BLOCO_KM =
+            "MOTO_ID, DIA, QUANTIDADE, KM_INICIAL, KM_FINAL, KM_MINIMO, KM_MAXIMO, RETROCESSOS";
+
+    private static final String MERGE_BLOCO_KM_SQL =
+            "MERGE INTO MOTO_KM_BLOCO (" + COLUNAS_BLOCO_KM + ", DADOS) KEY (MOTO_ID, DIA) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Ids por consulta em findBlocosKmDoDia (tamanho da lista do IN)
+    private static final int IDS_POR_CONSULTA = 1000;
+
+    // Igual ao INCREMENT BY de moto_seq (V7) e ao allocationSize de Moto
+    private static final int ALOCACAO_IDS = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    MotoRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] avancarKmEmLote(Map<Long, Integer> kmPorMoto) {
+        if (kmPorMoto.isEmpty()) {
+            return new int[0];
+        }
+        List<Map.Entry<Long, Integer>> itens = List.copyOf(kmPorMoto.entrySet());
+        int[][] porLote = jdbcTemplate.batchUpdate(AVANCAR_KM_SQL, itens, itens.size(), (ps, item) -> {
+            ps.setInt(1, item.getValue());
+            ps.setLong(2, item.getKey());
+            ps.setInt(3, item.getValue());
+        });
+        return porLote.length == 0 ? new int[0] : porLote[0];
+    }
+
+    @Override
+    public ChassisEPlacas findAllChassisEPlacas() {
+        Set<String> chassis = new HashSet<>();
+        Set<String> placas = new HashSet<>();
+        jdbcTemplate.query("SELECT CHASSI, PLACA FROM MOTO", rs -> {
+            chassis.add(rs.getString(1));
+            placas.add(rs.getString(2));
+        });
+        return new ChassisEPlacas(chassis, placas);
+    }
+
+    @Override
+    public void forEachIdentificacao(Consumer<IdentificacaoMoto> consumidor) {
+        jdbcTemplate.query("SELECT ID, PLACA, CHASSI, MODELO, STATUS FROM MOTO", rs -> {
+            consumidor.accept(new IdentificacaoMoto(rs.getLong(1), rs.getString(2), rs.getString(3),
+                    rs.getString(4), rs.getString(5)));
+        });
+    }
+
+    @Override
+    public List<MotoSugestaoDTO> findSugestoesPorPrefixo(String prefixo, int limite) {
+        // Faixa [prefixo, prefixo + U+FFFF): sempre usa o índice, ao contrário de um LIKE parametrizado
+        String fim = prefixo + Character.MAX_VALUE;
+        List<MotoSugestaoDTO> sugestoes = new ArrayList<>(jdbcTemplate.query(
+                String.format(SUGESTOES_SQL, "PLACA_BUSCA"), SUGESTAO_MAPPER, prefixo, fim, limite));
+        if (sugestoes.size() < limite) {
+            Set<Long> ids = new HashSet<>();
+            sugestoes.forEach(s -> ids.add(s.getId()));
+            for (MotoSugestaoDTO porModelo : jdbcTemplate.query(
+                    String.format(SUGESTOES_SQL, "MODELO_BUSCA"), SUGESTAO_MAPPER, prefixo, fim, limite)) {
+                if (sugestoes.size() == limite) break;
+                if (ids.add(porModelo.getId())) sugestoes.add(porModelo);
+            }
+        }
+        return sugestoes;
+    }
+
+    @Override
+    public void insertBatch(List<Moto> motos) {
+        // Cada valor da sequência reserva o bloco (valor - 49 .. valor], como no otimizador pooled;
+        // os blocos necessários vêm em uma única consulta
+        int i = 0;
+        while (i < motos.size()) {
+            int blocos = (motos.size() - i + ALOCACAO_IDS - 1) / ALOCACAO_IDS;
+            List<Long> valores = jdbcTemplate.queryForList(
+                    "SELECT NEXT VALUE FOR moto_seq FROM SYSTEM_RANGE(1, ?)", Long.class, blocos);
+            for (Long valor : valores) {
+                if (valor < ALOCACAO_IDS) {
+                    continue; // bloco inicial da sequência, com ids <= 0
+                }
+                for (long id = valor - ALOCACAO_IDS + 1; id <= valor && i < motos.size(); id++) {
+                    motos.get(i++).setId(id);
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, motos, motos.size(), (ps, moto) -> {
+            ps.setLong(1, moto.getId());
+            ps.setString(2, moto.getChassi());
+            ps.setString(3, moto.getModelo());
+            ps.setString(4, moto.getPlaca());
+            ps.setObject(5, moto.getAnoFabricacao(), Types.INTEGER);
+            ps.setString(6, moto.getStatus());
+            ps.setObject(7, moto.getKmAtual(), Types.INTEGER);
+            ps.setTimestamp(8, Timestamp.valueOf(moto.getDataCadastro()));
+        });
+    }
+
+    @Override
+    public List<BlocoKm> findBlocosKm(long motoId, LocalDate de, LocalDate ate, boolean comDados) {
+        return jdbcTemplate.query("SELECT " + COLUNAS_BLOCO_KM + (comDados ? ", DADOS" : ", NULL") +
+                        " FROM MOTO_KM_BLOCO WHERE MOTO_ID = ? AND DIA BETWEEN ? AND ? ORDER BY DIA",
+                (rs, n) -> blocoKm(rs), motoId, Date.valueOf(de), Date.valueOf(ate));
+    }
+
+    @Override
+    public List<BlocoKm> findBlocosKmDoDia(LocalDate dia, Collection<Long> motoIds) {
+        List<Long> ids = List.copyOf(motoIds);
+        List<BlocoKm> blocos = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IDS_POR_CONSULTA) {
+            List<Long> parte = ids.subList(i, Math.min(i + IDS_POR_CONSULTA, ids.size()));
+            List<Object> parametros = new ArrayList<>(parte.size() + 1);
+            parametros.add(Date.valueOf(dia));
+            parametros.addAll(parte);
+            blocos.addAll(jdbcTemplate.query("SELECT " + COLUNAS_BLOCO_KM + ", DADOS FROM MOTO_KM_BLOCO " +
+                            "WHERE DIA = ? AND MOTO_ID IN (" + String.join(", ", Collections.nCopies(parte.size(), "?")) + ")",
+                    (rs, n) -> blocoKm(rs), parametros.toArray()));
+        }
+        return blocos;
+    }
+
+    private static BlocoKm blocoKm(ResultSet rs) throws SQLException {
+        return new BlocoKm(rs.getLong(1), rs.getDate(2).toLocalDate(), rs.getInt(3), rs.getInt(4), rs.getInt(5),
+                rs.getInt(6), rs.getInt(7), rs.getInt(8), rs.getBytes(9));
+    }
+
+    @Override
+    public void gravarBlocosKm(List<BlocoKm> blocos) {
+        jdbcTemplate.batchUpdate(MERGE_BLOCO_KM_SQL, blocos, blocos.size(), (ps, bloco) -> {
+            ps.setLong(1, bloco.motoId());
+            ps.setDate(2, Date.valueOf(bloco.dia()));
+            ps.setInt(3, bloco.quantidade());
+            ps.setInt(4, bloco.kmInicial());
+            ps.setInt(5, bloco.kmFinal());
+            ps.setInt(6, bloco.kmMinimo());
+            ps.setInt(7, bloco.kmMaximo());
+            ps.setInt(8, bloco.retrocessos());
+            ps.setBytes(9, bloco.dados());
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.challenge.repository;
+
+import com.example.challenge.domain.MovimentoEstoque;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositório JPA do livro-razão de estoque (tabela peca_movimento).
+ */
+@Repository
+public interface MovimentoEstoqueRepository extends JpaRepository<MovimentoEstoque, Long> {
+
+    /**
+     * Soma dos movimentos da peça em (desde, ate]; usa o índice (peca_id, data_movimento).
+     * @param pecaId O ID da peça.
+     * @param desde Início exclusivo (data do snapshot usado como base).
+     * @param ate Fim inclusivo (data consultada).
+     * @return A soma, ou 0 se não houver movimentos no intervalo.
+     */
+    @Query("select coalesce(sum(m.quantidade), 0) from MovimentoEstoque m " +
+           "where m.pecaId = :pecaId and m.dataMovimento > :desde and m.dataMovimento <= :ate")
+    int somarEntre(@Param("pecaId") Long pecaId, @Param("desde") LocalDateTime desde, @Param("ate") LocalDateTime ate);
+
+    /**
+     * Soma dos movimentos ainda não consolidados da peça com data até 'ate'. Somada a um snapshot
+     * de data 'ate', cobre os movimentos confirmados depois da geração dele.
+     */
+    @Query("select coalesce(sum(m.quantidade), 0) from MovimentoEstoque m " +
+           "where m.consolidadoEm is null and m.pecaId = :pecaId and m.dataMovimento <= :ate")
+    int somarPendentesAte(@Param("pecaId") Long pecaId, @Param("ate") LocalDateTime ate);
+
+    /**
+     * Marca como consolidados em 'corte' todos os movimentos pendentes com data até 'corte'.
+     * As linhas ficam travadas até o fim da transação; movimentos confirmados depois deste
+     * UPDATE continuam pendentes para a próxima geração.
+     * @return Quantos movimentos entraram nesta geração.
+     */
+    @Modifying
+    @Query("update MovimentoEstoque m set m.consolidadoEm = :corte " +
+           "where m.consolidadoEm is null and m.dataMovimento <= :corte")
+    int consolidarAte(@Param("corte") LocalDateTime corte);
+
+    /**
+     * Soma dos movimentos de cada peça consolidados na geração 'corte'.
+     * @return Pares [pecaId, soma].
+     */
+    @Query("select m.pecaId, sum(m.quantidade) from MovimentoEstoque m " +
+           "where m.consolidadoEm = :corte group by m.pecaId")
+    List<Object[]> somarPorPecaConsolidados(@Param("corte") LocalDateTime corte);
+
+    /**
+     * Peças com movimentos consolidados na geração 'corte' mas datados até 'desde' (a geração
+     * anterior): confirmados atrasados, exigem correção dos snapshots já gerados.
+     */
+    @Query("select distinct m.pecaId from MovimentoEstoque m " +
+           "where m.consolidadoEm = :corte and m.dataMovimento <= :desde")
+    List<Long> findPecasComAtrasados(@Param("corte") LocalDateTime corte, @Param("desde") LocalDateTime desde);
+}
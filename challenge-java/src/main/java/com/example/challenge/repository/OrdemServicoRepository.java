@@ -1,10 +1,19 @@
 package com.example.challenge.repository;
 
 import com.example.challenge.domain.OrdemServico;
+import com.example.challenge.dto.OrdemServicoListaDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositório JPA para a entidade OrdemServico.
@@ -26,4 +35,80 @@ public interface OrdemServicoRepository extends JpaRepository<OrdemServico, Long
      * @return Lista de ordens de serviço para aquela moto.
      */
     List<OrdemServico> findByMotoId(Long motoId);
+
+    /**
+     * Página da listagem de ordens com a placa e o modelo da moto, em uma única consulta com junção
+     * (a moto não é carregada como entidade, então não há um SELECT extra por moto).
+     */
+    @Query(value = "SELECT new com.example.challenge.dto.OrdemServicoListaDTO(" +
+                   "o.id, o.status, o.descricao, o.dataAbertura, m.modelo, m.placa, m.kmAtual) " +
+                   "FROM OrdemServico o JOIN o.moto m",
+           countQuery = "SELECT COUNT(o) FROM OrdemServico o")
+    Page<OrdemServicoListaDTO> listarPagina(Pageable pageable);
+
+    /**
+     * Como listarPagina, só com as ordens de um status. Consulta separada em vez de
+     * "(:status IS NULL OR ...)", para que o banco use o índice de STATUS (V15).
+     */
+    @Query(value = "SELECT new com.example.challenge.dto.OrdemServicoListaDTO(" +
+                   "o.id, o.status, o.descricao, o.dataAbertura, m.modelo, m.placa, m.kmAtual) " +
+                   "FROM OrdemServico o JOIN o.moto m WHERE o.status = :status",
+           countQuery = "SELECT COUNT(o) FROM OrdemServico o WHERE o.status = :status")
+    Page<OrdemServicoListaDTO> listarPaginaPorStatus(@Param("status") String status, Pageable pageable);
+
+    /**
+     * O que a fila de despacho precisa de uma ordem para calcular a prioridade.
+     */
+    interface OrdemParaDespacho {
+        Long getId();
+        LocalDateTime getDataAbertura();
+        String getDescricao();
+        String getMotoPlaca();
+        String getMotoStatus();
+        long getPecasReservadas();
+    }
+
+    String DESPACHO_SELECT = "select o.id as id, o.dataAbertura as dataAbertura, o.descricao as descricao, " +
+            "m.placa as motoPlaca, m.status as motoStatus, " +
+            "(select count(r) from ReservaPeca r where r.ordemServicoId = o.id) as pecasReservadas " +
+            "from OrdemServico o join o.moto m ";
+
+    /**
+     * Ordens de um status com os dados da moto e o número de reservas de peça, em uma única consulta
+     * (findByStatus carregaria cada moto com um SELECT próprio).
+     */
+    @Query(DESPACHO_SELECT + "where o.status = :status")
+    List<OrdemParaDespacho> findParaDespacho(@Param("status") String status);
+
+    /**
+     * Como findParaDespacho, para uma ordem só (vazio se ela não está no status).
+     */
+    @Query(DESPACHO_SELECT + "where o.id = :id and o.status = :status")
+    Optional<OrdemParaDespacho> findParaDespachoPorId(@Param("id") Long id, @Param("status") String status);
+
+    /**
+     * Status gravado da ordem, travando a linha até o fim da transação: um iniciarAtendimento
+     * concorrente espera, e o status lido continua valendo até a gravação de quem chamou.
+     * @return O status, ou null se a ordem não existe.
+     */
+    @Query(value = "SELECT status FROM ordem_servico WHERE id = :id FOR UPDATE", nativeQuery = true)
+    String travarStatus(@Param("id") Long id);
+
+    /**
+     * Passa a ordem de ABERTA para EM_ANDAMENTO em nome do mecânico. A condição de status garante
+     * que só um mecânico consegue: para os demais o UPDATE não altera nenhuma linha.
+     * @return 1 se a ordem foi atribuída ao mecânico, 0 se ela já não estava ABERTA.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE ordem_servico SET status = 'EM_ANDAMENTO', mecanico = :mecanico, data_inicio = :inicio " +
+                   "WHERE id = :id AND status = 'ABERTA'", nativeQuery = true)
+    int iniciarAtendimento(@Param("id") Long id, @Param("mecanico") String mecanico,
+                           @Param("inicio") LocalDateTime inicio);
+
+    /**
+     * Conta as ordens de serviço de cada status (dashboard).
+     */
+    @Query("select o.status as status, count(o) as total from OrdemServico o group by o.status")
+    List<ContagemPorStatus> contarPorStatus();
 }
@@ -1,6 +1,58 @@
 package com.example.challenge.repository;
 
 import com.example.challenge.domain.Order;
+import com.example.challenge.dto.OrderSummaryDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {}
\ No newline at end of file
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // Primeira página dos pedidos de um usuário (mais recentes primeiro).
+    List<Order> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Limit limit);
+
+    // Páginas seguintes: keyset em (created_at, id), usando o índice idx_orders_user_created.
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findByUserIdBefore(@Param("userId") Long userId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   Limit limit);
+
+    // Listagem do admin: id, usuário, status, data, nº de itens e total em uma única consulta agrupada.
+    @Query(value = "SELECT new com.example.challenge.dto.OrderSummaryDTO(" +
+                   "o.id, o.userId, o.status, o.createdAt, COUNT(i), SUM(i.quantity * i.unitPrice)) " +
+                   "FROM Order o LEFT JOIN o.items i " +
+                   "WHERE (:status IS NULL OR o.status = :status) " +
+                   "GROUP BY o.id, o.userId, o.status, o.createdAt",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE (:status IS NULL OR o.status = :status)")
+    Page<OrderSummaryDTO> findSummaries(@Param("status") String status, Pageable pageable);
+
+    // Aprovação em lote: o UPDATE condicional devolve, na mesma instrução, os ids que passaram
+    // de PENDING para APPROVED (FINAL TABLE do H2); os demais ids do bloco foram ignorados.
+    @Transactional
+    @Query(value = "SELECT id FROM FINAL TABLE (UPDATE orders SET status = 'APPROVED' " +
+                   "WHERE id IN (:ids) AND status = 'PENDING')",
+           nativeQuery = true)
+    List<Long> approvePendingReturningIds(@Param("ids") Collection<Long> ids);
+
+    // Aprovação em lote por filtro: próximo bloco de PENDING criados antes de :before.
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'PENDING' AND o.createdAt < :before ORDER BY o.id")
+    List<Long> findPendingIdsBefore(@Param("before") LocalDateTime before, Limit limit);
+
+    // UPDATE set-based; a condição de status garante que só PENDING vire APPROVED.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.status = 'APPROVED' WHERE o.id IN :ids AND o.status = 'PENDING'")
+    int approvePending(@Param("ids") Collection<Long> ids);
+}
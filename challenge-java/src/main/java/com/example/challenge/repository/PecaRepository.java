@@ -1,9 +1,17 @@
 package com.example.challenge.repository;
 
 import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.ReposicaoPecaDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -11,7 +19,7 @@ import java.util.Optional;
  * Herda métodos CRUD básicos do JpaRepository.
  */
 @Repository
-public interface PecaRepository extends JpaRepository<Peca, Long> {
+public interface PecaRepository extends JpaRepository<Peca, Long>, PecaRepositoryCustom {
     
     /**
      * Busca uma peça pelo seu código de fabricante.
@@ -19,7 +27,99 @@ public interface PecaRepository extends JpaRepository<Peca, Long> {
      * @return Um Optional contendo a peça, se encontrada.
      */
     Optional<Peca> findByCodigoFabricante(String codigoFabricante);
+
+    /**
+     * Busca as peças com qualquer um dos códigos de fabricante informados (um único SELECT ... IN).
+     * @param codigosFabricante Os códigos SKU/fabricante.
+     * @return As peças encontradas.
+     */
+    List<Peca> findByCodigoFabricanteIn(Collection<String> codigosFabricante);
+
+    /**
+     * Lê só a versão da peça (sem carregar a entidade), para conferir o ETag.
+     * @param id O ID da peça.
+     * @return A versão atual, se a peça existir.
+     */
+    @Query("select p.versao from Peca p where p.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
+
+    /**
+     * Estoque gravado e reservado de uma peça (projeção de PecaRepository.findEstoqueById).
+     */
+    interface EstoquePeca {
+        int getEstoqueAtual();
+        int getEstoqueReservado();
+    }
+
+    /**
+     * Lê só o estoque atual e o reservado da peça (sem carregar a entidade), para validar a edição
+     * e lançar a diferença no histórico.
+     * @param id O ID da peça.
+     * @return Os valores gravados, se a peça existir.
+     */
+    Optional<EstoquePeca> findEstoqueById(Long id);
+
+    /**
+     * Estoque atual e reservado da peça pelo código de fabricante, para explicar por que um
+     * ajuste de estoque foi recusado.
+     * @param codigoFabricante O código SKU/fabricante da peça.
+     * @return Os valores gravados, se a peça existir.
+     */
+    Optional<EstoquePeca> findEstoqueByCodigoFabricante(String codigoFabricante);
+
+    /**
+     * Reserva 'quantidade' unidades em um único UPDATE condicional: só altera a linha se houver
+     * esse tanto disponível (estoque_atual - estoque_reservado). O lock é só da linha da peça.
+     * @param id O ID da peça.
+     * @param quantidade Unidades a reservar.
+     * @return 1 se reservou; 0 se a peça não existe ou não há unidades disponíveis.
+     */
+    @Modifying
+    @Query(value = "UPDATE peca SET estoque_reservado = estoque_reservado + :quantidade, versao = versao + 1 " +
+                   "WHERE id = :id AND estoque_atual - estoque_reservado >= :quantidade",
+           nativeQuery = true)
+    int reservarEstoque(@Param("id") Long id, @Param("quantidade") int quantidade);
+
+    /**
+     * Baixa de uma reserva confirmada: as unidades saem do reservado e do estoque ao mesmo tempo.
+     * @param id O ID da peça.
+     * @param quantidade Unidades da reserva.
+     * @return 1 se a peça existe.
+     */
+    @Modifying
+    @Query(value = "UPDATE peca SET estoque_atual = estoque_atual - :quantidade, " +
+                   "estoque_reservado = estoque_reservado - :quantidade, versao = versao + 1 WHERE id = :id",
+           nativeQuery = true)
+    int baixarReserva(@Param("id") Long id, @Param("quantidade") int quantidade);
     
     // Adicione outros métodos de busca específicos se necessário, 
     // como buscar por localização ou por nome.
+
+    /**
+     * Busca as peças com estoque atual abaixo do mínimo, maior déficit primeiro.
+     * Usa a coluna gerada deficit_estoque e seu índice (V9), sem varrer a tabela.
+     * @return Lista de peças abaixo do estoque mínimo.
+     */
+    @Query(value = "SELECT * FROM peca WHERE deficit_estoque > 0 ORDER BY deficit_estoque DESC, id",
+           nativeQuery = true)
+    List<Peca> findAbaixoDoMinimo();
+
+    /**
+     * Relatório de reposição paginado: peças abaixo do mínimo ordenadas pelo déficit.
+     * @param pageable Página solicitada (a ordenação é fixa pelo déficit).
+     * @return Página com as linhas do relatório.
+     */
+    @Query(value = "SELECT id AS id, codigo_fabricante AS codigoFabricante, nome AS nome, " +
+                   "localizacao_estoque AS localizacaoEstoque, estoque_atual AS estoqueAtual, " +
+                   "estoque_minimo AS estoqueMinimo, deficit_estoque AS deficit " +
+                   "FROM peca WHERE deficit_estoque > 0 ORDER BY deficit_estoque DESC, id",
+           countQuery = "SELECT COUNT(*) FROM peca WHERE deficit_estoque > 0",
+           nativeQuery = true)
+    Page<ReposicaoPecaDTO> findRelatorioReposicao(Pageable pageable);
+
+    /**
+     * Soma do estoque atual de todas as peças (dashboard).
+     */
+    @Query("select coalesce(sum(p.estoqueAtual), 0) from Peca p")
+    long somarEstoqueAtual();
 }
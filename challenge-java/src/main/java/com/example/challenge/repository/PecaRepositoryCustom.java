@@ -0,0 +1,92 @@
+package com.example.challenge.repository;
+
+import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.EstoqueMovimentoDTO;
+import com.example.challenge.dto.PecaSugestaoDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Operações de PecaRepository implementadas com JDBC direto (ver PecaRepositoryImpl).
+ */
+public interface PecaRepositoryCustom {
+
+    /** Propriedades de Peca que findPagina sabe projetar, na ordem da listagem completa. */
+    List<String> CAMPOS_PROJETAVEIS = List.of(
+            "nome", "descricao", "preco", "codigoFabricante", "estoqueAtual", "estoqueMinimo", "localizacaoEstoque");
+
+    /**
+     * Soma 'quantidade' ao estoque em um único UPDATE condicional, sem ler a peça antes,
+     * e devolve a linha já atualizada na mesma ida ao banco (FINAL TABLE do H2).
+     * O banco aplica a soma sob o lock da linha, então alterações concorrentes não se perdem.
+     * Uma saída também não pode consumir unidades reservadas (estoque_reservado).
+     * A peça devolvida é montada da linha lida, fora do contexto de persistência: uma instância
+     * já carregada na transação não é atualizada e não deve ser usada depois desta chamada.
+     * @param codigoFabricante O código SKU/fabricante da peça.
+     * @param quantidade Alteração no estoque (positivo para entrada, negativo para saída).
+     * @return A peça atualizada; vazio se a peça não existe ou o estoque ficaria abaixo do reservado.
+     */
+    Optional<Peca> adjustEstoque(String codigoFabricante, int quantidade);
+
+    /**
+     * Aplica os movimentos, na ordem recebida, como um único lote JDBC de UPDATEs condicionais
+     * (mesma regra de adjustEstoque: o estoque nunca fica abaixo do reservado).
+     * @param movimentos Os movimentos de estoque.
+     * @return Para cada movimento, o número de linhas alteradas (1 aplicado, 0 rejeitado ou código inexistente).
+     */
+    int[] adjustEstoqueBatch(List<EstoqueMovimentoDTO> movimentos);
+
+    /**
+     * Página de peças com id maior que 'afterId', em ordem de id, lendo do banco apenas as colunas pedidas.
+     * @param afterId Cursor (id da última peça da página anterior) ou null para a primeira página.
+     * @param limit Quantidade máxima de linhas.
+     * @param campos Subconjunto de CAMPOS_PROJETAVEIS; o id vem sempre.
+     * @return Uma linha por peça, com as chaves na ordem pedida.
+     */
+    List<Map<String, Object>> findPagina(Long afterId, int limit, Collection<String> campos);
+
+    /**
+     * Id de cada código de fabricante cadastrado, em uma única consulta (usado na importação CSV).
+     */
+    Map<String, Long> findAllIdsPorCodigoFabricante();
+
+    /**
+     * Peças cujo código de fabricante ou nome começa com o prefixo (faixas dos índices de V16):
+     * primeiro as de código, em ordem de código, e depois as de nome, em ordem de nome.
+     * @param prefixo Prefixo já em maiúsculas.
+     * @param limite Quantidade máxima de peças.
+     */
+    List<PecaSugestaoDTO> findSugestoesPorPrefixo(String prefixo, int limite);
+
+    /**
+     * Insere as peças em um único lote JDBC. Os ids são reservados em blocos de peca_seq,
+     * do mesmo jeito que o otimizador pooled do Hibernate, e gravados de volta nas entidades.
+     * @param pecas Peças novas (id nulo).
+     */
+    void insertBatch(List<Peca> pecas);
+
+    /**
+     * Estoque atual e reservado das peças com os códigos informados, bloqueando as linhas
+     * (SELECT ... FOR UPDATE) até o fim da transação corrente.
+     * @param codigos Códigos de fabricante.
+     * @return Código -> estoque, só para os códigos existentes.
+     */
+    Map<String, PecaRepository.EstoquePeca> lockEstoquePorCodigo(Collection<String> codigos);
+
+    /**
+     * Atualiza, em um único lote JDBC, as peças identificadas pelo código de fabricante
+     * (todos os campos exceto id e código; a versão é incrementada).
+     * @param pecas Peças com os novos valores.
+     * @return Para cada peça, o número de linhas alteradas (0 se o código não existe mais).
+     */
+    int[] updateBatchPorCodigo(List<Peca> pecas);
+
+    /**
+     * Devolve ao disponível, em um único lote JDBC, as unidades de reservas removidas.
+     * @param quantidadesPorPeca Id da peça -> unidades a subtrair de estoque_reservado.
+     */
+    void liberarReservas(Map<Long, Integer> quantidadesPorPeca);
+}
@@ -0,0 +1,247 @@
+package com.example.challenge.repository;
+
+import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.EstoqueMovimentoDTO;
+import com.example.challenge.dto.PecaSugestaoDTO;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementação JDBC das operações em lote de PecaRepository.
+ * Participa da transação JPA corrente (o JpaTransactionManager expõe a mesma conexão ao JdbcTemplate).
+ */
+class PecaRepositoryImpl implements PecaRepositoryCustom {
+
+    /** Propriedade de Peca (CAMPOS_PROJETAVEIS) -> coluna correspondente. */
+    private static final Map<String, String> COLUNAS = Map.of(
+            "nome", "nome",
+            "descricao", "descricao",
+            "preco", "preco",
+            "codigoFabricante", "codigo_fabricante",
+            "estoqueAtual", "estoque_atual",
+            "estoqueMinimo", "estoque_minimo",
+            "localizacaoEstoque", "localizacao_estoque");
+
+    private static final String ADJUST_ESTOQUE_SQL =
+            "UPDATE peca SET estoque_atual = estoque_atual + ?, versao = versao + 1 " +
+            "WHERE codigo_fabricante = ? AND estoque_atual + ? >= estoque_reservado";
+
+    private static final String ADJUST_ESTOQUE_RETORNANDO_SQL =
+            "SELECT id, nome, descricao, preco, codigo_fabricante, estoque_atual, estoque_minimo, " +
+            "estoque_reservado, localizacao_estoque, versao FROM FINAL TABLE (" + ADJUST_ESTOQUE_SQL + ")";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO peca (nome, descricao, preco, estoque_atual, estoque_minimo, localizacao_estoque, " +
+            "codigo_fabricante, id, versao) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String UPDATE_POR_CODIGO_SQL =
+            "UPDATE peca SET nome = ?, descricao = ?, preco = ?, estoque_atual = ?, estoque_minimo = ?, " +
+            "localizacao_estoque = ?, versao = versao + 1 WHERE codigo_fabricante = ?";
+
+    private static final String LIBERAR_RESERVA_SQL =
+            "UPDATE peca SET estoque_reservado = estoque_reservado - ?, versao = versao + 1 WHERE id = ?";
+
+    private static final String SUGESTOES_SQL =
+            "SELECT id, nome, codigo_fabricante, estoque_atual - estoque_reservado FROM peca " +
+            "WHERE %1$s >= ? AND %1$s < ? ORDER BY %1$s, id LIMIT ?";
+
+    // Peça desanexada com a linha como está no banco (não passa pelo contexto de persistência)
+    private static final RowMapper<Peca> PECA_MAPPER = (rs, n) -> {
+        Peca peca = new Peca();
+        peca.setId(rs.getLong(1));
+        peca.setNome(rs.getString(2));
+        peca.setDescricao(rs.getString(3));
+        peca.setPreco(rs.getObject(4, Double.class));
+        peca.setCodigoFabricante(rs.getString(5));
+        peca.setEstoqueAtual(rs.getInt(6));
+        peca.setEstoqueMinimo(rs.getInt(7));
+        peca.setEstoqueReservado(rs.getInt(8));
+        peca.setLocalizacaoEstoque(rs.getString(9));
+        peca.setVersao(rs.getLong(10));
+        return peca;
+    };
+
+    private static final RowMapper<PecaSugestaoDTO> SUGESTAO_MAPPER = (rs, n) ->
+            new PecaSugestaoDTO(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4));
+
+    // Igual ao INCREMENT BY de peca_seq (V7) e ao allocationSize de Peca
+    private static final int ALOCACAO_IDS = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    PecaRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<Peca> adjustEstoque(String codigoFabricante, int quantidade) {
+        return jdbcTemplate.query(ADJUST_ESTOQUE_RETORNANDO_SQL, PECA_MAPPER, quantidade, codigoFabricante, quantidade)
+                .stream().findFirst();
+    }
+
+    @Override
+    public int[] adjustEstoqueBatch(List<EstoqueMovimentoDTO> movimentos) {
+        return jdbcTemplate.batchUpdate(ADJUST_ESTOQUE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                EstoqueMovimentoDTO movimento = movimentos.get(i);
+                ps.setInt(1, movimento.getQuantidade());
+                ps.setString(2, movimento.getCodigoFabricante());
+                ps.setInt(3, movimento.getQuantidade());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return movimentos.size();
+            }
+        });
+    }
+
+    @Override
+    public List<Map<String, Object>> findPagina(Long afterId, int limit, Collection<String> campos) {
+        StringBuilder sql = new StringBuilder("SELECT id");
+        for (String campo : campos) {
+            String coluna = COLUNAS.get(campo);
+            if (coluna == null) {
+                throw new IllegalArgumentException("Campo desconhecido: " + campo);
+            }
+            sql.append(", ").append(coluna);
+        }
+        sql.append(" FROM peca WHERE id > ? ORDER BY id LIMIT ?");
+
+        return jdbcTemplate.query(sql.toString(), (ResultSet rs, int rowNum) -> {
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("id", rs.getLong(1));
+            int i = 2;
+            for (String campo : campos) {
+                linha.put(campo, rs.getObject(i++));
+            }
+            return linha;
+        }, afterId == null ? 0L : afterId, limit);
+    }
+
+    @Override
+    public Map<String, Long> findAllIdsPorCodigoFabricante() {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT codigo_fabricante, id FROM peca WHERE codigo_fabricante IS NOT NULL",
+                rs -> { ids.put(rs.getString(1), rs.getLong(2)); });
+        return ids;
+    }
+
+    @Override
+    public List<PecaSugestaoDTO> findSugestoesPorPrefixo(String prefixo, int limite) {
+        // Faixa [prefixo, prefixo + U+FFFF): sempre usa o índice, ao contrário de um LIKE parametrizado
+        String fim = prefixo + Character.MAX_VALUE;
+        List<PecaSugestaoDTO> sugestoes = new ArrayList<>(jdbcTemplate.query(
+                String.format(SUGESTOES_SQL, "codigo_busca"), SUGESTAO_MAPPER, prefixo, fim, limite));
+        if (sugestoes.size() < limite) {
+            Set<Long> ids = new HashSet<>();
+            sugestoes.forEach(s -> ids.add(s.getId()));
+            for (PecaSugestaoDTO porNome : jdbcTemplate.query(
+                    String.format(SUGESTOES_SQL, "nome_busca"), SUGESTAO_MAPPER, prefixo, fim, limite)) {
+                if (sugestoes.size() == limite) break;
+                if (ids.add(porNome.getId())) sugestoes.add(porNome);
+            }
+        }
+        return sugestoes;
+    }
+
+    @Override
+    public void insertBatch(List<Peca> pecas) {
+        // Cada valor da sequência reserva o bloco (valor - 49 .. valor], como no otimizador pooled;
+        // os blocos necessários vêm em uma única consulta
+        int i = 0;
+        while (i < pecas.size()) {
+            int blocos = (pecas.size() - i + ALOCACAO_IDS - 1) / ALOCACAO_IDS;
+            List<Long> valores = jdbcTemplate.queryForList(
+                    "SELECT NEXT VALUE FOR peca_seq FROM SYSTEM_RANGE(1, ?)", Long.class, blocos);
+            for (Long valor : valores) {
+                if (valor < ALOCACAO_IDS) {
+                    continue; // bloco inicial da sequência, com ids <= 0
+                }
+                for (long id = valor - ALOCACAO_IDS + 1; id <= valor && i < pecas.size(); id++) {
+                    pecas.get(i++).setId(id);
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, pecas, pecas.size(), (ps, peca) -> {
+            setCampos(ps, peca);
+            ps.setLong(8, peca.getId());
+        });
+    }
+
+    // Estoque lido por lockEstoquePorCodigo
+    private record Estoque(int estoqueAtual, int estoqueReservado) implements PecaRepository.EstoquePeca {
+        @Override
+        public int getEstoqueAtual() {
+            return estoqueAtual;
+        }
+
+        @Override
+        public int getEstoqueReservado() {
+            return estoqueReservado;
+        }
+    }
+
+    @Override
+    public Map<String, PecaRepository.EstoquePeca> lockEstoquePorCodigo(Collection<String> codigos) {
+        Map<String, PecaRepository.EstoquePeca> estoques = new HashMap<>();
+        if (codigos.isEmpty()) {
+            return estoques;
+        }
+        String parametros = String.join(", ", Collections.nCopies(codigos.size(), "?"));
+        jdbcTemplate.query("SELECT codigo_fabricante, estoque_atual, estoque_reservado FROM peca " +
+                        "WHERE codigo_fabricante IN (" + parametros + ") FOR UPDATE",
+                rs -> { estoques.put(rs.getString(1), new Estoque(rs.getInt(2), rs.getInt(3))); }, codigos.toArray());
+        return estoques;
+    }
+
+    @Override
+    public int[] updateBatchPorCodigo(List<Peca> pecas) {
+        int[][] resultado = jdbcTemplate.batchUpdate(UPDATE_POR_CODIGO_SQL, pecas, pecas.size(), PecaRepositoryImpl::setCampos);
+        return resultado.length == 0 ? new int[0] : resultado[0];
+    }
+
+    @Override
+    public void liberarReservas(Map<Long, Integer> quantidadesPorPeca) {
+        if (quantidadesPorPeca.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> itens = List.copyOf(quantidadesPorPeca.entrySet());
+        jdbcTemplate.batchUpdate(LIBERAR_RESERVA_SQL, itens, itens.size(), (ps, item) -> {
+            ps.setInt(1, item.getValue());
+            ps.setLong(2, item.getKey());
+        });
+    }
+
+    // Parâmetros 1..7 comuns a INSERT_SQL e UPDATE_POR_CODIGO_SQL
+    private static void setCampos(PreparedStatement ps, Peca peca) throws SQLException {
+        ps.setString(1, peca.getNome());
+        ps.setString(2, peca.getDescricao());
+        if (peca.getPreco() == null) {
+            ps.setNull(3, Types.DOUBLE);
+        } else {
+            ps.setDouble(3, peca.getPreco());
+        }
+        ps.setInt(4, peca.getEstoqueAtual());
+        ps.setInt(5, peca.getEstoqueMinimo());
+        ps.setString(6, peca.getLocalizacaoEstoque());
+        ps.setString(7, peca.getCodigoFabricante());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.challenge.repository;
+
+import com.example.challenge.domain.ReservaPeca;
+import com.example.challenge.dto.ReservaPecaListaDTO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositório JPA das reservas de peças (tabela peca_reserva).
+ * <p>
+ * As remoções devolvem as linhas apagadas (OLD TABLE do H2) em vez de ler e depois apagar:
+ * se a mesma reserva for liberada, confirmada e expirada ao mesmo tempo, só quem de fato
+ * apagou a linha recebe a quantidade, e ela é devolvida ao disponível uma única vez.
+ */
+@Repository
+public interface ReservaPecaRepository extends JpaRepository<ReservaPeca, Long> {
+
+    /**
+     * Peça e quantidade de uma reserva removida.
+     */
+    interface ReservaRemovida {
+        Long getPecaId();
+        int getQuantidade();
+    }
+
+    /**
+     * Reservas de uma ordem de serviço, com o código e o nome da peça.
+     */
+    @Query("SELECT new com.example.challenge.dto.ReservaPecaListaDTO(r.id, r.pecaId, p.codigoFabricante, p.nome, " +
+           "r.quantidade, r.expiraEm) FROM ReservaPeca r JOIN Peca p ON p.id = r.pecaId " +
+           "WHERE r.ordemServicoId = :ordemServicoId ORDER BY r.id")
+    List<ReservaPecaListaDTO> listarPorOrdemServico(@Param("ordemServicoId") Long ordemServicoId);
+
+    /**
+     * Apaga a reserva.
+     * @param id O ID da reserva.
+     * @return A reserva apagada; vazio se ela não existia (ou já foi removida).
+     */
+    @Query(value = "SELECT peca_id AS pecaId, quantidade AS quantidade FROM OLD TABLE (DELETE FROM peca_reserva WHERE id = :id)",
+           nativeQuery = true)
+    List<ReservaRemovida> removerPorId(@Param("id") Long id);
+
+    /**
+     * Apaga todas as reservas de uma ordem de serviço (usa idx_peca_reserva_ordem_servico).
+     */
+    @Query(value = "SELECT peca_id AS pecaId, quantidade AS quantidade FROM OLD TABLE " +
+                   "(DELETE FROM peca_reserva WHERE ordem_servico_id = :ordemServicoId)",
+           nativeQuery = true)
+    List<ReservaRemovida> removerPorOrdemServico(@Param("ordemServicoId") Long ordemServicoId);
+
+    /**
+     * Apaga até 'limite' reservas vencidas em 'agora', as mais antigas primeiro (usa idx_peca_reserva_expira_em).
+     */
+    @Query(value = "SELECT peca_id AS pecaId, quantidade AS quantidade FROM OLD TABLE " +
+                   "(DELETE FROM peca_reserva WHERE id IN (SELECT id FROM peca_reserva WHERE expira_em <= :agora " +
+                   "ORDER BY expira_em LIMIT :limite))",
+           nativeQuery = true)
+    List<ReservaRemovida> removerVencidas(@Param("agora") LocalDateTime agora, @Param("limite") int limite);
+}
@@ -0,0 +1,52 @@
+package com.example.challenge.repository;
+
+import com.example.challenge.domain.SnapshotEstoque;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório JPA dos snapshots de saldo de estoque (tabela peca_estoque_snapshot).
+ */
+@Repository
+public interface SnapshotEstoqueRepository extends JpaRepository<SnapshotEstoque, Long> {
+
+    /**
+     * Snapshot mais recente da peça até a data informada (busca pelo índice único (peca_id, data_snapshot)).
+     */
+    Optional<SnapshotEstoque> findFirstByPecaIdAndDataSnapshotLessThanEqualOrderByDataSnapshotDesc(Long pecaId, LocalDateTime data);
+
+    /**
+     * Data do último snapshot gerado (de qualquer peça): os movimentos até ela já estão consolidados.
+     */
+    @Query("select max(s.dataSnapshot) from SnapshotEstoque s")
+    Optional<LocalDateTime> findUltimaDataSnapshot();
+
+    /**
+     * Snapshot mais recente de cada uma das peças informadas.
+     */
+    @Query("select s from SnapshotEstoque s where s.pecaId in :pecaIds and s.dataSnapshot = " +
+           "(select max(s2.dataSnapshot) from SnapshotEstoque s2 where s2.pecaId = s.pecaId)")
+    List<SnapshotEstoque> findUltimosPorPeca(@Param("pecaIds") Collection<Long> pecaIds);
+
+    /**
+     * Corrige os snapshots das peças informadas que já passaram pela data de movimentos
+     * consolidados só na geração 'corte' (confirmados depois da geração que deveria tê-los incluído).
+     * @return Quantos snapshots foram corrigidos.
+     */
+    @Modifying
+    @Query(value = "UPDATE peca_estoque_snapshot s SET saldo = saldo + (" +
+                   "SELECT SUM(m.quantidade) FROM peca_movimento m WHERE m.consolidado_em = :corte " +
+                   "AND m.peca_id = s.peca_id AND m.data_movimento <= s.data_snapshot) " +
+                   "WHERE s.peca_id IN (:pecaIds) AND EXISTS (SELECT 1 FROM peca_movimento m " +
+                   "WHERE m.consolidado_em = :corte AND m.peca_id = s.peca_id AND m.data_movimento <= s.data_snapshot)",
+           nativeQuery = true)
+    int corrigirComAtrasados(@Param("corte") LocalDateTime corte, @Param("pecaIds") Collection<Long> pecaIds);
+}
@@ -0,0 +1,47 @@
+package com.example.challenge.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Adia para o fim da transação corrente o que atualiza estruturas em memória (índices, filas,
+ * caches), para que elas só reflitam o que o banco de fato gravou.
+ */
+final class AposTransacao {
+
+    private AposTransacao() {
+    }
+
+    /**
+     * Executa a ação após o commit da transação corrente; sem transação, executa já.
+     * Se a transação for desfeita, a ação não é executada.
+     */
+    static void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    /**
+     * Executa a ação quando a transação corrente terminar, com commit ou não; sem transação, não faz
+     * nada. Serve para repetir uma invalidação já feita, descartando o que outra thread leu do
+     * banco enquanto a transação ainda estava aberta.
+     */
+    static void aoTerminar(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    acao.run();
+                }
+            });
+        }
+    }
+}
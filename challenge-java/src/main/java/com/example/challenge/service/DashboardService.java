@@ -0,0 +1,107 @@
+package com.example.challenge.service;
+
+import com.example.challenge.dto.ContadoresDashboardDTO;
+import com.example.challenge.repository.ContagemPorStatus;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.OrdemServicoRepository;
+import com.example.challenge.repository.PecaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Contadores do dashboard da frota, servidos de um snapshot em memória.
+ * <p>
+ * O snapshot é recalculado (três consultas agregadas) pela tarefa agendada: logo depois de uma
+ * alteração de moto, peça ou ordem de serviço ser confirmada, ou quando fica mais velho que
+ * 'app.dashboard.intervalo' (pega o que mudou por fora dos serviços). Várias alterações entre
+ * duas verificações geram um único recálculo; a página inicial nunca consulta o banco.
+ */
+@Service
+public class DashboardService {
+
+    static final Set<String> STATUS_MOTO_ATIVA = Set.of("Disponível", "Alugada");
+    static final Set<String> STATUS_MOTO_MANUTENCAO = Set.of("Manutenção", "Aguardando Peça");
+    static final String STATUS_ORDEM_FINALIZADA = "FINALIZADA";
+
+    private final MotoRepository motoRepository;
+    private final PecaRepository pecaRepository;
+    private final OrdemServicoRepository ordemServicoRepository;
+    private final Duration intervalo;
+
+    private volatile ContadoresDashboardDTO contadores;
+    private final AtomicBoolean pendente = new AtomicBoolean();
+
+    public DashboardService(MotoRepository motoRepository, PecaRepository pecaRepository,
+                            OrdemServicoRepository ordemServicoRepository,
+                            @Value("${app.dashboard.intervalo:PT30S}") Duration intervalo) {
+        this.motoRepository = motoRepository;
+        this.pecaRepository = pecaRepository;
+        this.ordemServicoRepository = ordemServicoRepository;
+        this.intervalo = intervalo;
+    }
+
+    /**
+     * Contadores atuais. Só consulta o banco se o snapshot ainda não foi calculado.
+     */
+    public ContadoresDashboardDTO contadores() {
+        ContadoresDashboardDTO atual = contadores;
+        return atual != null ? atual : atualizar();
+    }
+
+    /**
+     * Marca o snapshot como desatualizado. Com transação ativa, vale só após o commit:
+     * recalcular antes leria os dados antigos e uma alteração desfeita não muda nada.
+     */
+    public void registrarAlteracao() {
+        AposTransacao.aposCommit(() -> pendente.set(true));
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.verificacao:PT1S}")
+    public void atualizarSeNecessario() {
+        ContadoresDashboardDTO atual = contadores;
+        boolean vencido = atual == null || !atual.getAtualizadoEm().plus(intervalo).isAfter(LocalDateTime.now());
+        if (pendente.getAndSet(false) || vencido) {
+            try {
+                atualizar();
+            } catch (RuntimeException e) {
+                pendente.set(true); // tenta de novo na próxima verificação
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Recalcula os contadores a partir do banco e substitui o snapshot.
+     */
+    public synchronized ContadoresDashboardDTO atualizar() {
+        LocalDateTime agora = LocalDateTime.now();
+        long motosAtivas = 0;
+        long motosEmManutencao = 0;
+        for (ContagemPorStatus c : motoRepository.contarPorStatus()) {
+            if (STATUS_MOTO_ATIVA.contains(c.getStatus())) {
+                motosAtivas += c.getTotal();
+            } else if (STATUS_MOTO_MANUTENCAO.contains(c.getStatus())) {
+                motosEmManutencao += c.getTotal();
+            }
+        }
+        long ordensAbertas = somarExceto(ordemServicoRepository.contarPorStatus(), STATUS_ORDEM_FINALIZADA);
+        ContadoresDashboardDTO novo = new ContadoresDashboardDTO(motosAtivas, motosEmManutencao,
+                pecaRepository.somarEstoqueAtual(), ordensAbertas, agora);
+        contadores = novo;
+        return novo;
+    }
+
+    private static long somarExceto(List<ContagemPorStatus> contagens, String status) {
+        return contagens.stream()
+                .filter(c -> !status.equals(c.getStatus()))
+                .mapToLong(ContagemPorStatus::getTotal)
+                .sum();
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.challenge.service;
+
+import com.example.challenge.dto.OrdemDespachoDTO;
+import com.example.challenge.repository.OrdemServicoRepository;
+import com.example.challenge.repository.OrdemServicoRepository.OrdemParaDespacho;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fila de despacho das ordens de serviço ABERTAS para os mecânicos, da mais urgente para a menos.
+ * <p>
+ * A prioridade é a idade da ordem, ajustada pela situação da moto e das peças: uma moto já parada
+ * em Manutenção ou com peças reservadas para a ordem passa à frente (como se a ordem fosse mais
+ * antiga), e uma moto Aguardando Peça vai para trás. Como todas as ordens envelhecem juntas, a
+ * chave (abertura - bônus) não muda com o tempo e a fila não precisa ser reordenada.
+ * <p>
+ * A fila é um ConcurrentSkipListSet (sem lock): "pegar a próxima" é um pollFirst, que entrega cada
+ * entrada a um único mecânico. A atribuição é gravada com um UPDATE condicional (só se a ordem
+ * ainda estiver ABERTA); se ele não altera nenhuma linha, a ordem já saiu de ABERTA por outro
+ * caminho e a fila segue para a próxima. Assim a fila em memória pode estar atrasada sem que dois
+ * mecânicos recebam a mesma ordem.
+ * <p>
+ * A fila começa com as ordens ABERTAS do banco. Uma ordem salva ou removida entra, sai ou muda de
+ * lugar quando a transação confirma; mudanças na moto ou nas reservas só mexem na prioridade na
+ * reconstrução periódica da fila.
+ */
+@Service
+public class DespachoOrdemService {
+
+    static final String ABERTA = "ABERTA";
+    static final String EM_ANDAMENTO = "EM_ANDAMENTO";
+
+    // Ajustes de prioridade, em minutos de idade
+    static final long BONUS_MOTO_EM_MANUTENCAO = 24 * 60;
+    static final long BONUS_PECAS_RESERVADAS = 12 * 60;
+    static final long PENALIDADE_AGUARDANDO_PECA = 48 * 60;
+
+    private final OrdemServicoRepository ordemServicoRepository;
+    private final DashboardService dashboardService;
+
+    private final ConcurrentSkipListSet<Entrada> fila = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Entrada::chave).thenComparingLong(Entrada::id));
+    // Entrada atual de cada ordem na fila; o compute do mapa serializa as trocas de uma mesma ordem
+    private final ConcurrentHashMap<Long, Entrada> porId = new ConcurrentHashMap<>();
+    private final AtomicLong sequencia = new AtomicLong();
+
+    public DespachoOrdemService(OrdemServicoRepository ordemServicoRepository, DashboardService dashboardService) {
+        this.ordemServicoRepository = ordemServicoRepository;
+        this.dashboardService = dashboardService;
+    }
+
+    // Ordem na fila: chave = minutos da abertura menos o bônus (menor = mais urgente)
+    private record Entrada(long id, long chave, long sequencia, OrdemDespachoDTO ordem) {}
+
+    /**
+     * Carrega as ordens ABERTAS do banco e recalcula as prioridades. Entradas de ordens que não
+     * estão mais ABERTAS saem da fila, exceto as colocadas depois da leitura (de um commit mais novo).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.ordens.despacho.recalculo:PT5M}",
+               initialDelayString = "${app.ordens.despacho.recalculo:PT5M}")
+    public void reconstruir() {
+        long inicio = sequencia.get();
+        Set<Long> abertas = new HashSet<>();
+        for (OrdemParaDespacho ordem : ordemServicoRepository.findParaDespacho(ABERTA)) {
+            abertas.add(ordem.getId());
+            colocar(entrada(ordem));
+        }
+        for (Entrada entrada : porId.values()) {
+            if (!abertas.contains(entrada.id()) && entrada.sequencia() < inicio) {
+                retirarSeAtual(entrada);
+            }
+        }
+    }
+
+    /**
+     * Recoloca a ordem na fila (ou a retira, se não está ABERTA) após o commit da transação corrente.
+     * A ordem é lida ainda dentro da transação, já com as alterações dela.
+     */
+    public void atualizar(Long ordemId) {
+        Optional<Entrada> entrada = ordemServicoRepository.findParaDespachoPorId(ordemId, ABERTA).map(this::entrada);
+        AposTransacao.aposCommit(() -> entrada.ifPresentOrElse(this::colocar, () -> retirar(ordemId)));
+    }
+
+    /**
+     * Retira a ordem da fila após o commit da transação corrente.
+     */
+    public void remover(Long ordemId) {
+        AposTransacao.aposCommit(() -> retirar(ordemId));
+    }
+
+    /**
+     * Atribui ao mecânico a ordem ABERTA mais urgente, passando-a para EM_ANDAMENTO.
+     * @param mecanico Login de quem vai atender.
+     * @return A ordem atribuída, ou vazio se não há ordens ABERTAS na fila.
+     */
+    public Optional<OrdemDespachoDTO> pegarProxima(String mecanico) {
+        if (mecanico == null || mecanico.isBlank()) {
+            throw new IllegalArgumentException("O mecânico é obrigatório.");
+        }
+        Entrada entrada;
+        while ((entrada = fila.pollFirst()) != null) {
+            porId.remove(entrada.id(), entrada);
+            int alteradas;
+            try {
+                alteradas = ordemServicoRepository.iniciarAtendimento(entrada.id(), mecanico, LocalDateTime.now());
+            } catch (RuntimeException e) {
+                // Falha ao gravar: a ordem volta para a fila, a menos que já tenha sido recolocada
+                if (porId.putIfAbsent(entrada.id(), entrada) == null) fila.add(entrada);
+                throw e;
+            }
+            if (alteradas == 1) {
+                dashboardService.registrarAlteracao();
+                OrdemDespachoDTO ordem = entrada.ordem();
+                return Optional.of(new OrdemDespachoDTO(ordem.getId(), ordem.getDescricao(), ordem.getMotoPlaca(),
+                        ordem.getMotoStatus(), ordem.getPecasReservadas(), ordem.getDataAbertura(), mecanico));
+            }
+            // A ordem já não estava ABERTA (outro mecânico, edição ou outra instância): próxima
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * As próximas ordens da fila, da mais urgente para a menos, sem atribuí-las.
+     */
+    public List<OrdemDespachoDTO> proximas(int limite) {
+        List<OrdemDespachoDTO> proximas = new ArrayList<>(Math.min(limite, 100));
+        for (Entrada entrada : fila) {
+            if (proximas.size() == limite) break;
+            proximas.add(entrada.ordem());
+        }
+        return proximas;
+    }
+
+    /**
+     * Quantidade de ordens na fila.
+     */
+    public int tamanho() {
+        return porId.size();
+    }
+
+    private Entrada entrada(OrdemParaDespacho ordem) {
+        // Ordem sem data de abertura: conta a partir de agora
+        LocalDateTime abertura = ordem.getDataAbertura() != null ? ordem.getDataAbertura() : LocalDateTime.now();
+        long chave = abertura.toEpochSecond(ZoneOffset.UTC) / 60 - bonus(ordem.getMotoStatus(), ordem.getPecasReservadas());
+        return new Entrada(ordem.getId(), chave, sequencia.incrementAndGet(), new OrdemDespachoDTO(ordem.getId(),
+                ordem.getDescricao(), ordem.getMotoPlaca(), ordem.getMotoStatus(), ordem.getPecasReservadas(),
+                ordem.getDataAbertura(), null));
+    }
+
+    static long bonus(String motoStatus, long pecasReservadas) {
+        long bonus = pecasReservadas > 0 ? BONUS_PECAS_RESERVADAS : 0;
+        if ("Manutenção".equals(motoStatus)) bonus += BONUS_MOTO_EM_MANUTENCAO;
+        if ("Aguardando Peça".equals(motoStatus)) bonus -= PENALIDADE_AGUARDANDO_PECA;
+        return bonus;
+    }
+
+    private void colocar(Entrada nova) {
+        porId.compute(nova.id(), (id, antiga) -> {
+            if (antiga != null) fila.remove(antiga);
+            fila.add(nova);
+            return nova;
+        });
+    }
+
+    private void retirar(Long ordemId) {
+        porId.computeIfPresent(ordemId, (id, antiga) -> {
+            fila.remove(antiga);
+            return null;
+        });
+    }
+
+    // Retira só se a entrada ainda é a atual da ordem (não foi trocada por uma mais nova)
+    private void retirarSeAtual(Entrada entrada) {
+        porId.computeIfPresent(entrada.id(), (id, atual) -> {
+            if (atual != entrada) return atual;
+            fila.remove(atual);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.challenge.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Linhas rejeitadas de uma importação em massa: conta todas, mas guarda para o relatório só as
+ * primeiras MAX_ERROS_REPORTADOS (um arquivo todo inválido não vira uma resposta gigante).
+ * @param <E> Tipo da linha de erro do relatório de cada importação.
+ */
+final class ErrosImportacao<E> {
+
+    static final int MAX_ERROS_REPORTADOS = 1000;
+
+    private final List<E> reportados = new ArrayList<>();
+    private int total;
+
+    void adicionar(E erro) {
+        total++;
+        if (reportados.size() < MAX_ERROS_REPORTADOS) {
+            reportados.add(erro);
+        }
+    }
+
+    int total() {
+        return total;
+    }
+
+    List<E> reportados() {
+        return reportados;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.MovimentoEstoque;
+import com.example.challenge.domain.MovimentoEstoque.Origem;
+import com.example.challenge.domain.SnapshotEstoque;
+import com.example.challenge.repository.MovimentoEstoqueRepository;
+import com.example.challenge.repository.SnapshotEstoqueRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Histórico de estoque das peças: grava o livro-razão (peca_movimento) e responde o saldo em uma data.
+ * <p>
+ * O saldo em D é o snapshot mais recente até D mais a soma dos movimentos entre os dois.
+ * Os snapshots são gerados periodicamente só para as peças movimentadas desde a última geração,
+ * então o trecho somado do livro-razão fica limitado ao intervalo entre gerações,
+ * por maior que o livro-razão fique.
+ * <p>
+ * Cada geração marca os movimentos que consolidou (consolidado_em) em vez de confiar só na data:
+ * um movimento datado antes da geração anterior mas confirmado depois dela continua pendente,
+ * entra na geração seguinte e corrige os snapshots que já tinham passado pela sua data.
+ */
+@Service
+public class EstoqueHistoricoService {
+
+    // Base quando a peça ainda não tem snapshot: todos os movimentos desde o início
+    static final LocalDateTime INICIO = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final int PECAS_POR_CONSULTA = 1000;
+
+    private final MovimentoEstoqueRepository movimentoRepository;
+    private final SnapshotEstoqueRepository snapshotRepository;
+    private final Duration margem;
+
+    public EstoqueHistoricoService(MovimentoEstoqueRepository movimentoRepository,
+                                   SnapshotEstoqueRepository snapshotRepository,
+                                   @Value("${app.estoque.snapshot.margem:PT1M}") Duration margem) {
+        this.movimentoRepository = movimentoRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.margem = margem;
+    }
+
+    /**
+     * Registra um movimento de estoque (na transação corrente). Quantidade zero não gera linha.
+     */
+    public void registrar(Long pecaId, int quantidade, Origem origem) {
+        if (quantidade != 0) {
+            movimentoRepository.save(new MovimentoEstoque(pecaId, quantidade, LocalDateTime.now(), origem));
+        }
+    }
+
+    /**
+     * Registra vários movimentos de uma vez (INSERTs em lote do Hibernate).
+     */
+    public void registrarTodos(List<MovimentoEstoque> movimentos) {
+        movimentoRepository.saveAll(movimentos.stream().filter(m -> m.getQuantidade() != 0).toList());
+    }
+
+    /**
+     * Saldo de estoque da peça no instante informado.
+     * @param pecaId O ID da peça.
+     * @param data O instante consultado.
+     * @return O saldo (0 antes do primeiro movimento).
+     */
+    @Transactional(readOnly = true)
+    public int saldoEm(Long pecaId, LocalDateTime data) {
+        Optional<SnapshotEstoque> base =
+                snapshotRepository.findFirstByPecaIdAndDataSnapshotLessThanEqualOrderByDataSnapshotDesc(pecaId, data);
+        if (base.isEmpty()) {
+            return movimentoRepository.somarEntre(pecaId, INICIO, data);
+        }
+        LocalDateTime desde = base.get().getDataSnapshot();
+        // Movimentos confirmados depois da geração do snapshot, com data anterior a ele
+        return base.get().getSaldo() + movimentoRepository.somarPendentesAte(pecaId, desde)
+                + movimentoRepository.somarEntre(pecaId, desde, data);
+    }
+
+    /**
+     * Geração periódica dos snapshots. O corte fica 'app.estoque.snapshot.margem' no passado
+     * para que movimentos de transações ainda não confirmadas raramente precisem de correção.
+     * A transação é aberta aqui: a chamada a gerarSnapshots é interna e não passa pelo proxy.
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.estoque.snapshot.intervalo:PT1H}",
+               initialDelayString = "${app.estoque.snapshot.intervalo:PT1H}")
+    public void gerarSnapshotsPeriodicamente() {
+        gerarSnapshots(LocalDateTime.now().minus(margem));
+    }
+
+    /**
+     * Gera, no instante 'corte', um snapshot para cada peça com movimentos pendentes até ele:
+     * saldo = snapshot anterior da peça + movimentos pendentes com data até o corte.
+     * Pendentes datados antes de snapshots já gerados também são somados a esses snapshots.
+     * @param corte Instante do snapshot (movimentos até ele, inclusive).
+     * @return Quantos snapshots foram gerados.
+     */
+    @Transactional
+    public int gerarSnapshots(LocalDateTime corte) {
+        LocalDateTime desde = snapshotRepository.findUltimaDataSnapshot().orElse(INICIO);
+        if (!corte.isAfter(desde) || movimentoRepository.consolidarAte(corte) == 0) {
+            return 0;
+        }
+        Map<Long, Integer> somas = movimentoRepository.somarPorPecaConsolidados(corte).stream()
+                .collect(Collectors.toMap(linha -> (Long) linha[0], linha -> ((Number) linha[1]).intValue()));
+
+        // Saldo anterior de cada peça, antes de corrigir os snapshots com os movimentos atrasados
+        List<Long> pecaIds = new ArrayList<>(somas.keySet());
+        List<SnapshotEstoque> novos = new ArrayList<>(pecaIds.size());
+        for (int i = 0; i < pecaIds.size(); i += PECAS_POR_CONSULTA) {
+            List<Long> trecho = pecaIds.subList(i, Math.min(i + PECAS_POR_CONSULTA, pecaIds.size()));
+            Map<Long, Integer> anteriores = snapshotRepository.findUltimosPorPeca(trecho).stream()
+                    .collect(Collectors.toMap(SnapshotEstoque::getPecaId, SnapshotEstoque::getSaldo));
+            for (Long pecaId : trecho) {
+                novos.add(new SnapshotEstoque(pecaId, corte, anteriores.getOrDefault(pecaId, 0) + somas.get(pecaId)));
+            }
+        }
+
+        List<Long> comAtrasados = movimentoRepository.findPecasComAtrasados(corte, desde);
+        for (int i = 0; i < comAtrasados.size(); i += PECAS_POR_CONSULTA) {
+            snapshotRepository.corrigirComAtrasados(corte,
+                    comAtrasados.subList(i, Math.min(i + PECAS_POR_CONSULTA, comAtrasados.size())));
+        }
+        snapshotRepository.saveAll(novos);
+        return novos.size();
+    }
+}
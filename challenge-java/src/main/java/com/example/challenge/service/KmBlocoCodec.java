@@ -0,0 +1,134 @@
+package com.example.challenge.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Codificação das leituras de km de uma moto em um dia (coluna DADOS de moto_km_bloco).
+ * <p>
+ * As leituras vão em ordem de horário, cada uma como dois varints (7 bits por byte): os
+ * milissegundos desde a leitura anterior (a primeira, desde a meia-noite) e a diferença de km
+ * para a anterior em zigzag, para que um retrocesso do hodômetro também ocupe pouco (a primeira,
+ * o próprio km). Uma leitura por minuto com o km subindo aos poucos ocupa 4 ou 5 bytes.
+ */
+final class KmBlocoCodec {
+
+    private KmBlocoCodec() {
+    }
+
+    /**
+     * Leituras de um dia: milissegundos desde a meia-noite e km, em ordem de horário.
+     */
+    static final class Pontos {
+        int[] milis;
+        int[] kms;
+        int tamanho;
+
+        Pontos(int capacidade) {
+            milis = new int[Math.max(capacidade, 4)];
+            kms = new int[milis.length];
+        }
+
+        void adicionar(int milisDoDia, int km) {
+            if (tamanho == milis.length) {
+                milis = Arrays.copyOf(milis, tamanho * 2);
+                kms = Arrays.copyOf(kms, tamanho * 2);
+            }
+            milis[tamanho] = milisDoDia;
+            kms[tamanho++] = km;
+        }
+
+        int kmMinimo() {
+            int minimo = Integer.MAX_VALUE;
+            for (int i = 0; i < tamanho; i++) minimo = Math.min(minimo, kms[i]);
+            return minimo;
+        }
+
+        int kmMaximo() {
+            int maximo = Integer.MIN_VALUE;
+            for (int i = 0; i < tamanho; i++) maximo = Math.max(maximo, kms[i]);
+            return maximo;
+        }
+
+        // Leituras com km menor que a anterior
+        int retrocessos() {
+            int retrocessos = 0;
+            for (int i = 1; i < tamanho; i++) {
+                if (kms[i] < kms[i - 1]) retrocessos++;
+            }
+            return retrocessos;
+        }
+    }
+
+    static byte[] codificar(Pontos pontos) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(pontos.tamanho * 5);
+        int milisAnterior = 0;
+        int kmAnterior = 0;
+        for (int i = 0; i < pontos.tamanho; i++) {
+            escreverVarint(saida, pontos.milis[i] - milisAnterior);
+            int delta = pontos.kms[i] - kmAnterior;
+            escreverVarint(saida, (delta << 1) ^ (delta >> 31));
+            milisAnterior = pontos.milis[i];
+            kmAnterior = pontos.kms[i];
+        }
+        return saida.toByteArray();
+    }
+
+    static Pontos decodificar(byte[] dados, int quantidade) {
+        Pontos pontos = new Pontos(quantidade);
+        int[] posicao = {0};
+        int milis = 0;
+        int km = 0;
+        for (int i = 0; i < quantidade; i++) {
+            milis += lerVarint(dados, posicao);
+            int zigzag = lerVarint(dados, posicao);
+            km += (zigzag >>> 1) ^ -(zigzag & 1);
+            pontos.adicionar(milis, km);
+        }
+        return pontos;
+    }
+
+    /**
+     * Junta as leituras já gravadas com as novas, em ordem de horário. Duas leituras no mesmo
+     * milissegundo viram uma só, a de 'novas'.
+     */
+    static Pontos mesclar(Pontos gravadas, Pontos novas) {
+        int total = gravadas.tamanho + novas.tamanho;
+        // Horário nos 32 bits altos e a posição de origem nos baixos: ordena por horário e, no
+        // mesmo horário, deixa a leitura nova por último
+        long[] ordem = new long[total];
+        for (int i = 0; i < total; i++) {
+            int milis = i < gravadas.tamanho ? gravadas.milis[i] : novas.milis[i - gravadas.tamanho];
+            ordem[i] = ((long) milis << 32) | i;
+        }
+        Arrays.sort(ordem);
+        Pontos resultado = new Pontos(total);
+        for (int i = 0; i < total; i++) {
+            if (i + 1 < total && (ordem[i] >>> 32) == (ordem[i + 1] >>> 32)) continue;
+            int origem = (int) ordem[i];
+            int km = origem < gravadas.tamanho ? gravadas.kms[origem] : novas.kms[origem - gravadas.tamanho];
+            resultado.adicionar((int) (ordem[i] >>> 32), km);
+        }
+        return resultado;
+    }
+
+    private static void escreverVarint(ByteArrayOutputStream saida, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            saida.write((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        saida.write(valor);
+    }
+
+    private static int lerVarint(byte[] dados, int[] posicao) {
+        int valor = 0;
+        int deslocamento = 0;
+        byte b;
+        do {
+            b = dados[posicao[0]++];
+            valor |= (b & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while (b < 0);
+        return valor;
+    }
+}
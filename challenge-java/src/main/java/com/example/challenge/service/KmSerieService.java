@@ -0,0 +1,379 @@
+package com.example.challenge.service;
+
+import com.example.challenge.dto.PontoKmDTO;
+import com.example.challenge.dto.ResumoKmDTO;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.MotoRepositoryCustom.BlocoKm;
+import com.example.challenge.service.KmBlocoCodec.Pontos;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Série temporal das leituras de km da telemetria, para análise de quilometragem e para achar
+ * hodômetros que voltaram.
+ * <p>
+ * Guarda toda leitura de moto conhecida, inclusive as que TelemetriaKmService descarta por km menor
+ * (é justamente o retrocesso que interessa aqui). As leituras ficam em memória e, a cada
+ * 'app.motos.km-serie.gravacao', são mescladas no bloco da moto e do dia (moto_km_bloco, codificado
+ * por KmBlocoCodec) e gravadas em lotes de 'app.motos.km-serie.lote' motos. Só aparecem nas
+ * consultas depois de gravadas; as ainda não gravadas se perdem se o processo cair.
+ * <p>
+ * Limites: leituras com horário fora da janela aceita (mais de MAX_ADIANTAMENTO no futuro ou mais de
+ * MAX_DIAS_RESUMO dias no passado) e repetidas (mesmo horário e km de uma ainda não gravada) são
+ * descartadas, e cada moto guarda no máximo MAX_LEITURAS_POR_DIA leituras por dia, o que garante que
+ * o bloco codificado cabe na coluna DADOS. Um lote que falhar é regravado moto a moto; a moto que
+ * ainda falhar perde as leituras do lote (com log), sem segurar as demais.
+ * <p>
+ * As consultas leem só os blocos dos dias pedidos. Resumos em dias inteiros saem do cabeçalho dos
+ * blocos, sem decodificar as leituras. Horários com precisão de milissegundo.
+ */
+@Service
+public class KmSerieService {
+
+    static final int MAX_DIAS_LEITURAS = 31;
+    static final int MAX_DIAS_RESUMO = 3660;
+    static final int MAX_DIAS_RESUMO_DECODIFICADO = 366;
+    static final int MAX_INTERVALOS = 10_000;
+    static final Duration MAX_ADIANTAMENTO = Duration.ofHours(1);
+
+    // Tamanho de DADOS (VARBINARY da V14) e pior caso por leitura: milissegundos do dia em até
+    // 4 bytes de varint e diferença de km em até 5
+    static final int MAX_BYTES_BLOCO = 1_000_000;
+    static final int MAX_LEITURAS_POR_DIA = MAX_BYTES_BLOCO / 9;
+
+    private static final Logger log = LoggerFactory.getLogger(KmSerieService.class);
+
+    private static final long MILIS_POR_DIA = 86_400_000L;
+
+    private final MotoRepository motoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int loteGravacao;
+
+    // Leituras ainda não gravadas de cada moto
+    private final Map<Long, Pendentes> pendentes = new ConcurrentHashMap<>();
+
+    public KmSerieService(MotoRepository motoRepository, TransactionTemplate transactionTemplate,
+                          @Value("${app.motos.km-serie.lote:1000}") int loteGravacao) {
+        this.motoRepository = motoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.loteGravacao = loteGravacao;
+    }
+
+    /**
+     * Leituras de uma moto na ordem de chegada: milissegundos desde 1970-01-01T00:00 (horário
+     * local, sem fuso) e km.
+     */
+    private static final class Pendentes {
+        long[] instantes = new long[4];
+        int[] kms = new int[4];
+        int tamanho;
+        long ultimoInstante = Long.MIN_VALUE;
+
+        /**
+         * @return false se a leitura for repetida ou a moto já tiver MAX_LEITURAS_POR_DIA pendentes.
+         */
+        boolean adicionar(long instante, int km) {
+            // Só procura repetidas quando a leitura não é a mais recente (o caso comum é chegar em ordem)
+            if (instante <= ultimoInstante) {
+                for (int i = 0; i < tamanho; i++) {
+                    if (instantes[i] == instante) {
+                        if (kms[i] == km) return false;
+                        kms[i] = km; // como em KmBlocoCodec.mesclar: no mesmo milissegundo vale a última
+                        return true;
+                    }
+                }
+            }
+            if (tamanho == MAX_LEITURAS_POR_DIA) {
+                return false;
+            }
+            if (tamanho == instantes.length) {
+                instantes = Arrays.copyOf(instantes, tamanho * 2);
+                kms = Arrays.copyOf(kms, tamanho * 2);
+            }
+            instantes[tamanho] = instante;
+            kms[tamanho++] = km;
+            ultimoInstante = Math.max(ultimoInstante, instante);
+            return true;
+        }
+    }
+
+    /**
+     * Soma de leituras (ou de blocos inteiros) que caem no mesmo intervalo do resumo, em ordem de horário.
+     */
+    private static final class Acumulador {
+        int leituras;
+        int kmInicial;
+        int kmFinal;
+        int kmMinimo = Integer.MAX_VALUE;
+        int kmMaximo = Integer.MIN_VALUE;
+        int retrocessos;
+
+        void somar(int quantidade, int inicial, int fim, int minimo, int maximo, int retrocessos) {
+            if (leituras == 0) kmInicial = inicial;
+            leituras += quantidade;
+            kmFinal = fim;
+            kmMinimo = Math.min(kmMinimo, minimo);
+            kmMaximo = Math.max(kmMaximo, maximo);
+            this.retrocessos += retrocessos;
+        }
+    }
+
+    /**
+     * Acumula uma leitura para a próxima gravação. Não valida a ordem: a série guarda o que chegou.
+     * @return false se a leitura foi descartada (horário fora da janela aceita, repetida ou acima do limite).
+     */
+    public boolean registrar(long motoId, LocalDateTime timestamp, int km) {
+        if (!horarioAceito(timestamp)) {
+            return false;
+        }
+        long instante = instante(timestamp);
+        boolean[] aceita = {false};
+        pendentes.compute(motoId, (id, atuais) -> {
+            Pendentes p = atuais != null ? atuais : new Pendentes();
+            aceita[0] = p.adicionar(instante, km);
+            return p;
+        });
+        return aceita[0];
+    }
+
+    /**
+     * Se o horário de uma leitura está na janela aceita: no máximo MAX_ADIANTAMENTO no futuro
+     * (relógio do rastreador adiantado) e no máximo MAX_DIAS_RESUMO dias no passado.
+     */
+    public boolean horarioAceito(LocalDateTime timestamp) {
+        LocalDateTime agora = LocalDateTime.now();
+        return !timestamp.isAfter(agora.plus(MAX_ADIANTAMENTO)) && !timestamp.isBefore(agora.minusDays(MAX_DIAS_RESUMO));
+    }
+
+    /**
+     * Esquece as leituras ainda não gravadas de uma moto removida (os blocos gravados saem junto
+     * com a moto, pela FK com ON DELETE CASCADE).
+     */
+    public void descartar(Long motoId) {
+        pendentes.remove(motoId);
+    }
+
+    /**
+     * Gravação periódica ('app.motos.km-serie.gravacao') das leituras acumuladas.
+     */
+    @Scheduled(fixedDelayString = "${app.motos.km-serie.gravacao:PT1M}")
+    public void gravarPendentesPeriodicamente() {
+        gravarPendentes();
+    }
+
+    @PreDestroy
+    public void gravarAoEncerrar() {
+        gravarPendentes();
+    }
+
+    /**
+     * Mescla as leituras acumuladas nos blocos gravados, 'app.motos.km-serie.lote' motos por transação.
+     * Leituras que chegarem durante a gravação ficam para a próxima. Um lote que falhar é regravado
+     * moto a moto; as leituras da moto que ainda falhar (ex: removida depois da leitura) são descartadas.
+     * @return Quantos blocos (moto e dia) foram gravados.
+     */
+    public synchronized int gravarPendentes() {
+        int gravados = 0;
+        Map<Long, Pendentes> lote = new HashMap<>();
+        for (Long motoId : pendentes.keySet()) {
+            Pendentes p = pendentes.remove(motoId);
+            if (p != null) {
+                lote.put(motoId, p);
+            }
+            if (lote.size() >= loteGravacao) {
+                gravados += gravar(lote);
+                lote = new HashMap<>();
+            }
+        }
+        if (!lote.isEmpty()) {
+            gravados += gravar(lote);
+        }
+        return gravados;
+    }
+
+    private int gravar(Map<Long, Pendentes> lote) {
+        try {
+            return gravarBlocos(lote);
+        } catch (RuntimeException e) {
+            // Um lote devolvido às pendentes falharia de novo a cada gravação se o erro for da própria
+            // leitura (ex: FK de moto removida): regrava moto a moto para isolar a que falha
+            log.warn("Série de km: falha ao gravar o lote de {} motos ({}), regravando moto a moto",
+                    lote.size(), e.getMessage());
+            int gravados = 0;
+            for (Map.Entry<Long, Pendentes> moto : lote.entrySet()) {
+                try {
+                    gravados += gravarBlocos(Map.of(moto.getKey(), moto.getValue()));
+                } catch (RuntimeException erroDaMoto) {
+                    log.error("Série de km: {} leituras da moto {} descartadas: {}",
+                            moto.getValue().tamanho, moto.getKey(), erroDaMoto.getMessage());
+                }
+            }
+            return gravados;
+        }
+    }
+
+    private int gravarBlocos(Map<Long, Pendentes> lote) {
+        // dia -> moto -> leituras novas do dia
+        Map<LocalDate, Map<Long, Pontos>> porDia = new TreeMap<>();
+        lote.forEach((motoId, p) -> {
+            for (int i = 0; i < p.tamanho; i++) {
+                LocalDate dia = LocalDate.ofEpochDay(Math.floorDiv(p.instantes[i], MILIS_POR_DIA));
+                porDia.computeIfAbsent(dia, d -> new TreeMap<>())
+                        .computeIfAbsent(motoId, id -> new Pontos(p.tamanho))
+                        .adicionar((int) Math.floorMod(p.instantes[i], MILIS_POR_DIA), p.kms[i]);
+            }
+        });
+        if (porDia.isEmpty()) {
+            return 0;
+        }
+        return transactionTemplate.execute(status -> {
+            List<BlocoKm> blocos = new ArrayList<>();
+            porDia.forEach((dia, novasPorMoto) -> {
+                Map<Long, BlocoKm> gravados = motoRepository.findBlocosKmDoDia(dia, novasPorMoto.keySet()).stream()
+                        .collect(Collectors.toMap(BlocoKm::motoId, Function.identity()));
+                novasPorMoto.forEach((motoId, novas) -> {
+                    BlocoKm gravado = gravados.get(motoId);
+                    int vagas = MAX_LEITURAS_POR_DIA - (gravado == null ? 0 : gravado.quantidade());
+                    if (novas.tamanho > vagas) {
+                        log.warn("Série de km: moto {} passou de {} leituras em {}, {} descartadas",
+                                motoId, MAX_LEITURAS_POR_DIA, dia, novas.tamanho - Math.max(vagas, 0));
+                        if (vagas <= 0) return;
+                        novas.tamanho = vagas; // as primeiras que chegaram
+                    }
+                    Pontos pontos = KmBlocoCodec.mesclar(gravado == null ? new Pontos(0)
+                            : KmBlocoCodec.decodificar(gravado.dados(), gravado.quantidade()), novas);
+                    blocos.add(new BlocoKm(motoId, dia, pontos.tamanho, pontos.kms[0], pontos.kms[pontos.tamanho - 1],
+                            pontos.kmMinimo(), pontos.kmMaximo(), pontos.retrocessos(), KmBlocoCodec.codificar(pontos)));
+                });
+            });
+            motoRepository.gravarBlocosKm(blocos);
+            return blocos.size();
+        });
+    }
+
+    /**
+     * Quantas motos têm leituras ainda não gravadas na série.
+     */
+    public int pendentes() {
+        return pendentes.size();
+    }
+
+    /**
+     * Leituras gravadas de uma moto em [de, ate), em ordem de horário.
+     * @throws IllegalArgumentException Se 'de' não for anterior a 'ate' ou o período passar de MAX_DIAS_LEITURAS dias.
+     */
+    public List<PontoKmDTO> leituras(long motoId, LocalDateTime de, LocalDateTime ate) {
+        validarPeriodo(de, ate, MAX_DIAS_LEITURAS);
+        List<PontoKmDTO> resultado = new ArrayList<>();
+        for (BlocoKm bloco : motoRepository.findBlocosKm(motoId, de.toLocalDate(), ultimoDia(ate), true)) {
+            Pontos pontos = KmBlocoCodec.decodificar(bloco.dados(), bloco.quantidade());
+            for (int i = 0; i < pontos.tamanho; i++) {
+                LocalDateTime timestamp = dataHora(bloco.dia(), pontos.milis[i]);
+                if (!timestamp.isBefore(de) && timestamp.isBefore(ate)) {
+                    resultado.add(new PontoKmDTO(timestamp, pontos.kms[i]));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Resumo das leituras de uma moto em [de, ate), em intervalos consecutivos de 'intervalo' a partir
+     * de 'de'. Intervalos sem leitura não aparecem. Com 'de' e 'ate' à meia-noite e 'intervalo' em dias
+     * inteiros, usa só o cabeçalho dos blocos; nos demais casos decodifica os blocos do período.
+     * @throws IllegalArgumentException Se o período ou o intervalo forem inválidos ou grandes demais.
+     */
+    public List<ResumoKmDTO> resumo(long motoId, LocalDateTime de, LocalDateTime ate, Duration intervalo) {
+        if (intervalo == null || intervalo.toMillis() <= 0) {
+            throw new IllegalArgumentException("O intervalo do resumo deve ser positivo.");
+        }
+        validarPeriodo(de, ate, MAX_DIAS_RESUMO);
+        long periodo = Duration.between(de, ate).toMillis();
+        long tamanho = intervalo.toMillis();
+        if ((periodo + tamanho - 1) / tamanho > MAX_INTERVALOS) {
+            throw new IllegalArgumentException("O resumo teria mais de " + MAX_INTERVALOS + " intervalos.");
+        }
+
+        Map<Long, Acumulador> porIntervalo = new TreeMap<>();
+        Integer kmAnterior = null;
+        if (tamanho % MILIS_POR_DIA == 0 && de.toLocalTime().equals(LocalTime.MIDNIGHT)
+                && ate.toLocalTime().equals(LocalTime.MIDNIGHT)) {
+            long diasPorIntervalo = tamanho / MILIS_POR_DIA;
+            for (BlocoKm bloco : motoRepository.findBlocosKm(motoId, de.toLocalDate(), ultimoDia(ate), false)) {
+                long indice = ChronoUnit.DAYS.between(de.toLocalDate(), bloco.dia()) / diasPorIntervalo;
+                // A virada de um dia para o outro também conta, se o km do dia começou abaixo do fim do anterior
+                int retrocessos = bloco.retrocessos() + (kmAnterior != null && bloco.kmInicial() < kmAnterior ? 1 : 0);
+                porIntervalo.computeIfAbsent(indice, i -> new Acumulador()).somar(bloco.quantidade(),
+                        bloco.kmInicial(), bloco.kmFinal(), bloco.kmMinimo(), bloco.kmMaximo(), retrocessos);
+                kmAnterior = bloco.kmFinal();
+            }
+        } else {
+            validarPeriodo(de, ate, MAX_DIAS_RESUMO_DECODIFICADO);
+            long inicio = instante(de);
+            long fim = instante(ate);
+            for (BlocoKm bloco : motoRepository.findBlocosKm(motoId, de.toLocalDate(), ultimoDia(ate), true)) {
+                Pontos pontos = KmBlocoCodec.decodificar(bloco.dados(), bloco.quantidade());
+                long meiaNoite = bloco.dia().toEpochDay() * MILIS_POR_DIA;
+                for (int i = 0; i < pontos.tamanho; i++) {
+                    long instante = meiaNoite + pontos.milis[i];
+                    if (instante < inicio || instante >= fim) continue;
+                    int km = pontos.kms[i];
+                    porIntervalo.computeIfAbsent((instante - inicio) / tamanho, n -> new Acumulador())
+                            .somar(1, km, km, km, km, kmAnterior != null && km < kmAnterior ? 1 : 0);
+                    kmAnterior = km;
+                }
+            }
+        }
+
+        List<ResumoKmDTO> resultado = new ArrayList<>(porIntervalo.size());
+        porIntervalo.forEach((indice, a) -> {
+            LocalDateTime inicio = de.plus(intervalo.multipliedBy(indice));
+            LocalDateTime fim = inicio.plus(intervalo).isAfter(ate) ? ate : inicio.plus(intervalo);
+            resultado.add(new ResumoKmDTO(inicio, fim, a.leituras, a.kmInicial, a.kmFinal,
+                    a.kmMinimo, a.kmMaximo, a.retrocessos));
+        });
+        return resultado;
+    }
+
+    private static void validarPeriodo(LocalDateTime de, LocalDateTime ate, int maxDias) {
+        if (de == null || ate == null || !de.isBefore(ate)) {
+            throw new IllegalArgumentException("'de' deve ser anterior a 'ate'.");
+        }
+        if (ChronoUnit.DAYS.between(de.toLocalDate(), ultimoDia(ate)) >= maxDias) {
+            throw new IllegalArgumentException("O período pode ter no máximo " + maxDias + " dias.");
+        }
+    }
+
+    // Último dia com algum instante antes de 'ate' (exclusivo)
+    private static LocalDate ultimoDia(LocalDateTime ate) {
+        return ate.minusNanos(1).toLocalDate();
+    }
+
+    private static long instante(LocalDateTime timestamp) {
+        return timestamp.toLocalDate().toEpochDay() * MILIS_POR_DIA + timestamp.toLocalTime().toNanoOfDay() / 1_000_000;
+    }
+
+    private static LocalDateTime dataHora(LocalDate dia, int milisDoDia) {
+        return LocalDateTime.of(dia, LocalTime.ofNanoOfDay(milisDoDia * 1_000_000L));
+    }
+}
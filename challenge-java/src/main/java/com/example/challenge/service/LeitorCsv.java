@@ -0,0 +1,143 @@
+package com.example.challenge.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitura linha a linha dos CSVs de importação (peças e motos), sem carregar o arquivo em memória.
+ * <p>
+ * A primeira linha traz os nomes das colunas, em qualquer ordem, separadas por vírgula ou ponto e
+ * vírgula (o separador é o do cabeçalho; BOM do Excel é ignorado). Campos podem vir entre aspas
+ * ("" para aspas literais), mas não podem conter quebras de linha. Linhas em branco são puladas;
+ * os números de linha contam o cabeçalho como linha 1.
+ */
+final class LeitorCsv {
+
+    private final BufferedReader reader;
+    private final char separador;
+    private final Map<String, Integer> indice = new HashMap<>();
+    private List<String> campos;
+    private int numero = 1;
+
+    /**
+     * Lê e confere o cabeçalho.
+     * @param csv Conteúdo do arquivo, em UTF-8.
+     * @param colunas Colunas obrigatórias.
+     * @throws IllegalArgumentException Se o arquivo estiver vazio ou faltar alguma coluna no cabeçalho.
+     */
+    LeitorCsv(InputStream csv, List<String> colunas) throws IOException {
+        reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String cabecalho = reader.readLine();
+        if (cabecalho == null) {
+            throw new IllegalArgumentException("Arquivo CSV vazio.");
+        }
+        if (cabecalho.startsWith("\uFEFF")) {
+            cabecalho = cabecalho.substring(1); // BOM do Excel
+        }
+        separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+        List<String> nomes = separar(cabecalho, separador);
+        for (int i = 0; i < nomes.size(); i++) {
+            indice.put(nomes.get(i).trim(), i);
+        }
+        List<String> ausentes = colunas.stream().filter(c -> !indice.containsKey(c)).toList();
+        if (!ausentes.isEmpty()) {
+            throw new IllegalArgumentException("Colunas ausentes no cabeçalho: " + ausentes);
+        }
+    }
+
+    /**
+     * Avança para a próxima linha não vazia.
+     * @return false no fim do arquivo.
+     */
+    boolean proxima() throws IOException {
+        String linha;
+        while ((linha = reader.readLine()) != null) {
+            numero++;
+            if (!linha.isBlank()) {
+                campos = separar(linha, separador);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Número da linha atual no arquivo.
+     */
+    int numero() {
+        return numero;
+    }
+
+    /**
+     * Valor da coluna na linha atual, sem espaços nas pontas; null se vazio ou ausente.
+     */
+    String campo(String nome) {
+        int i = indice.get(nome);
+        if (i >= campos.size()) return null;
+        String valor = campos.get(i).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    /**
+     * @throws NumberFormatException Com a mensagem pronta para o relatório, se não for um inteiro.
+     */
+    Integer inteiro(String nome) {
+        String valor = campo(nome);
+        try {
+            return valor == null ? null : Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Valor inválido para " + nome + ": '" + valor + "'.");
+        }
+    }
+
+    /**
+     * Aceita vírgula ou ponto como separador decimal.
+     * @throws NumberFormatException Com a mensagem pronta para o relatório, se não for um número.
+     */
+    Double decimal(String nome) {
+        String valor = campo(nome);
+        try {
+            return valor == null ? null : Double.valueOf(valor.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Valor inválido para " + nome + ": '" + valor + "'.");
+        }
+    }
+
+    /**
+     * Separa uma linha CSV nos campos, tratando aspas ("a;b" e "" para aspas literais).
+     */
+    static List<String> separar(String linha, char separador) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+}
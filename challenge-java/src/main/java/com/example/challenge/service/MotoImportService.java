@@ -0,0 +1,277 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.MotoDTO;
+import com.example.challenge.dto.MotoImportResultadoDTO;
+import com.example.challenge.dto.MotoImportResultadoDTO.ErroLinha;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.MotoRepositoryCustom.ChassisEPlacas;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cadastro em massa de motos (ex: frota de uma filial nova) a partir de um CSV ou de um array JSON.
+ * <p>
+ * O arquivo é lido item a item (nunca inteiro em memória). Cada item é validado com as regras de
+ * MotoDTO, com chassi e placa já normalizados (MotoService.normalizarIdentificacao); a unicidade
+ * de chassi e placa é conferida em memória, contra os valores já cadastrados (carregados com uma
+ * única consulta) e contra os itens anteriores do próprio arquivo. As motos válidas são inseridas
+ * em lotes JDBC de 'app.motos.import.batch-size', cada lote em sua própria transação: um lote que
+ * falhar não desfaz os anteriores e é regravado moto a moto, para que só as linhas em conflito
+ * (ex: chassi cadastrado por outra requisição durante a importação) sejam rejeitadas. Moto já
+ * cadastrada não é atualizada.
+ * As motos gravadas entram no MotoPlacaIndex assim que o lote é confirmado.
+ * <p>
+ * CSV (ver LeitorCsv): primeira linha com os nomes das colunas de MotoDTO (chassi, placa, modelo,
+ * kmAtual, status, anoFabricacao), em qualquer ordem. JSON: array de objetos com os mesmos campos.
+ */
+@Service
+public class MotoImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(MotoImportService.class);
+
+    static final List<String> COLUNAS = List.of("chassi", "placa", "modelo", "kmAtual", "status", "anoFabricacao");
+
+    private final MotoRepository motoRepository;
+    private final DashboardService dashboardService;
+    private final TelemetriaKmService telemetriaKmService;
+    private final MotoPlacaIndex motoPlacaIndex;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public MotoImportService(MotoRepository motoRepository,
+                             DashboardService dashboardService,
+                             TelemetriaKmService telemetriaKmService,
+                             MotoPlacaIndex motoPlacaIndex,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${app.motos.import.batch-size:1000}") int batchSize) {
+        this.motoRepository = motoRepository;
+        this.dashboardService = dashboardService;
+        this.telemetriaKmService = telemetriaKmService;
+        this.motoPlacaIndex = motoPlacaIndex;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    // Moto pronta para gravar e a linha de onde veio (para reportar erro do lote)
+    private record LinhaMoto(int numero, Moto moto) {}
+
+    /**
+     * Estado de uma importação em andamento.
+     */
+    private class Importacao {
+        final ChassisEPlacas cadastrados = normalizados(motoRepository.findAllChassisEPlacas());
+        final Set<String> chassisNoArquivo = new HashSet<>();
+        final Set<String> placasNoArquivo = new HashSet<>();
+        final List<LinhaMoto> inserir = new ArrayList<>();
+        final ErrosImportacao<ErroLinha> erros = new ErrosImportacao<>();
+        final LocalDateTime dataCadastro = LocalDateTime.now();
+        int processadas;
+        int inseridas;
+
+        void erro(int linha, String chassi, String placa, String mensagem) {
+            erros.adicionar(new ErroLinha(linha, chassi, placa, mensagem));
+        }
+
+        void processar(int numero, MotoDTO dto) {
+            processadas++;
+            dto.setChassi(MotoService.normalizarIdentificacao(dto.getChassi()));
+            dto.setPlaca(MotoService.normalizarIdentificacao(dto.getPlaca()));
+            String chassi = dto.getChassi();
+            String placa = dto.getPlaca();
+            Set<ConstraintViolation<MotoDTO>> violacoes = validator.validate(dto);
+            if (!violacoes.isEmpty()) {
+                erro(numero, chassi, placa, violacoes.stream()
+                        .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(" ")));
+                return;
+            }
+            if (cadastrados.chassis().contains(chassi)) {
+                erro(numero, chassi, placa, "Já existe uma moto cadastrada com o CHASSI: " + chassi);
+                return;
+            }
+            if (cadastrados.placas().contains(placa)) {
+                erro(numero, chassi, placa, "Já existe uma moto cadastrada com a PLACA: " + placa);
+                return;
+            }
+            if (chassisNoArquivo.contains(chassi)) {
+                erro(numero, chassi, placa, "Chassi repetido no arquivo.");
+                return;
+            }
+            if (!placasNoArquivo.add(placa)) {
+                erro(numero, chassi, placa, "Placa repetida no arquivo.");
+                return;
+            }
+            chassisNoArquivo.add(chassi);
+
+            Moto moto = new Moto();
+            moto.setChassi(chassi);
+            moto.setPlaca(placa);
+            moto.setModelo(dto.getModelo());
+            moto.setKmAtual(dto.getKmAtual());
+            moto.setStatus(dto.getStatus());
+            moto.setAnoFabricacao(dto.getAnoFabricacao());
+            moto.setDataCadastro(dataCadastro);
+            inserir.add(new LinhaMoto(numero, moto));
+            if (inserir.size() >= batchSize) {
+                gravar();
+            }
+        }
+
+        void gravar() {
+            if (inserir.isEmpty()) return;
+            try {
+                List<Moto> motos = inserir.stream().map(LinhaMoto::moto).toList();
+                transactionTemplate.executeWithoutResult(status -> motoRepository.insertBatch(motos));
+                inseridas += inserir.size();
+                motos.forEach(motoPlacaIndex::indexar);
+            } catch (DataAccessException e) {
+                // Ex.: chassi/placa cadastrado por outra requisição depois da carga de 'cadastrados'.
+                // O lote foi desfeito inteiro: regrava moto a moto para rejeitar só as linhas em conflito
+                log.warn("Importação de motos: falha ao gravar o lote ({}), regravando moto a moto",
+                        e.getMostSpecificCause().getMessage());
+                inserir.forEach(this::gravarSozinha);
+            }
+            inserir.clear();
+            log.info("Importação de motos: {} linhas processadas ({} inseridas, {} erros)",
+                    processadas, inseridas, erros.total());
+        }
+
+        private void gravarSozinha(LinhaMoto linha) {
+            Moto moto = linha.moto();
+            try {
+                transactionTemplate.executeWithoutResult(status -> motoRepository.insertBatch(List.of(moto)));
+                inseridas++;
+                motoPlacaIndex.indexar(moto);
+            } catch (DataAccessException e) {
+                erro(linha.numero(), moto.getChassi(), moto.getPlaca(),
+                        "Falha ao gravar: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+
+        MotoImportResultadoDTO resultado() {
+            return new MotoImportResultadoDTO(processadas, inseridas, erros.total(), erros.reportados());
+        }
+    }
+
+    /**
+     * Cadastra as motos do CSV.
+     * @param csv Conteúdo do arquivo, em UTF-8.
+     * @return Totais e erros por linha.
+     * @throws IllegalArgumentException Se o arquivo estiver vazio ou faltar alguma coluna no cabeçalho.
+     */
+    public MotoImportResultadoDTO importarCsv(InputStream csv) throws IOException {
+        LeitorCsv leitor = new LeitorCsv(csv, COLUNAS);
+        Importacao importacao = new Importacao();
+        try {
+            while (leitor.proxima()) {
+                MotoDTO dto = new MotoDTO();
+                dto.setChassi(leitor.campo("chassi"));
+                dto.setPlaca(leitor.campo("placa"));
+                dto.setModelo(leitor.campo("modelo"));
+                dto.setStatus(leitor.campo("status"));
+                try {
+                    dto.setKmAtual(leitor.inteiro("kmAtual"));
+                    dto.setAnoFabricacao(leitor.inteiro("anoFabricacao"));
+                } catch (NumberFormatException e) {
+                    importacao.processadas++;
+                    importacao.erro(leitor.numero(), dto.getChassi(), dto.getPlaca(), e.getMessage());
+                    continue;
+                }
+                importacao.processar(leitor.numero(), dto);
+            }
+            importacao.gravar();
+        } finally {
+            concluir();
+        }
+        return importacao.resultado();
+    }
+
+    /**
+     * Cadastra as motos de um array JSON ([{"chassi": ..., "placa": ..., ...}, ...]).
+     * @param json Conteúdo do arquivo.
+     * @return Totais e erros por item (numerados a partir de 1).
+     * @throws IllegalArgumentException Se o conteúdo não for um array JSON bem formado.
+     */
+    public MotoImportResultadoDTO importarJson(InputStream json) throws IOException {
+        Importacao importacao = new Importacao();
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("O arquivo JSON deve conter um array de motos.");
+            }
+            int numero = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Array JSON incompleto.");
+                }
+                numero++;
+                // Um item por vez: lê o objeto como árvore e só então converte, para que um campo
+                // com tipo errado rejeite apenas o próprio item
+                JsonNode item = parser.readValueAsTree();
+                MotoDTO dto;
+                try {
+                    if (item == null || !item.isObject()) {
+                        throw MismatchedInputException.from(parser, MotoDTO.class, "O item não é um objeto.");
+                    }
+                    dto = objectMapper.treeToValue(item, MotoDTO.class);
+                } catch (JsonProcessingException e) {
+                    importacao.processadas++;
+                    importacao.erro(numero, texto(item, "chassi"), texto(item, "placa"),
+                            "Item inválido: " + e.getOriginalMessage());
+                    continue;
+                }
+                importacao.processar(numero, dto);
+            }
+            importacao.gravar();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON inválido: " + e.getOriginalMessage(), e);
+        } finally {
+            concluir();
+        }
+        return importacao.resultado();
+    }
+
+    // Motos novas mudam os contadores do dashboard e podem ter placa antes desconhecida pela telemetria
+    private void concluir() {
+        dashboardService.registrarAlteracao();
+        telemetriaKmService.esquecerDesconhecidas();
+    }
+
+    private static ChassisEPlacas normalizados(ChassisEPlacas cadastrados) {
+        return new ChassisEPlacas(
+                cadastrados.chassis().stream().map(MotoService::normalizarIdentificacao).collect(Collectors.toSet()),
+                cadastrados.placas().stream().map(MotoService::normalizarIdentificacao).collect(Collectors.toSet()));
+    }
+
+    private static String texto(JsonNode item, String campo) {
+        JsonNode valor = item == null ? null : item.get(campo);
+        return valor == null || valor.isNull() ? null : valor.asText();
+    }
+}
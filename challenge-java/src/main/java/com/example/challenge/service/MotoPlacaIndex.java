@@ -0,0 +1,327 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.MotoPlacaResultadoDTO;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.MotoRepositoryCustom.IdentificacaoMoto;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice em memória para achar motos pela placa ou pelo chassi mesmo com erro de digitação
+ * (portaria do pátio: letra trocada, caractere faltando ou sobrando).
+ * <p>
+ * Placas e chassis são normalizados (maiúsculas, só letras e dígitos: "abc-1d23" e "ABC1D23" são
+ * iguais). Para cada tolerância k de 0 a MAX_DISTANCIA, cada chave é cortada em k + 1 segmentos e
+ * indexada por (k, comprimento, segmento, texto do segmento). Com até k edições, ao menos um dos
+ * k + 1 segmentos chega intacto à consulta, deslocado no máximo k posições (princípio da casa dos
+ * pombos); a busca procura cada segmento nesses deslocamentos e só calcula a distância de
+ * Levenshtein para as motos encontradas assim, não para a frota inteira.
+ * <p>
+ * A frota inteira é carregada na inicialização. Motos cadastradas, editadas, removidas ou
+ * importadas só mudam o índice quando a transação que as gravou confirma: a portaria nunca recebe
+ * como sugestão a placa de um cadastro que foi desfeito.
+ */
+@Component
+public class MotoPlacaIndex {
+
+    static final int MAX_DISTANCIA = 2;
+    static final String CAMPO_PLACA = "placa";
+    static final String CAMPO_CHASSI = "chassi";
+
+    private static final Pattern NAO_ALFANUMERICO = Pattern.compile("[^A-Z0-9]+");
+
+    private final MotoRepository motoRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, IdentificacaoMoto> motos = new HashMap<>();
+    private final Campo placas = new Campo(CAMPO_PLACA);
+    private final Campo chassis = new Campo(CAMPO_CHASSI);
+
+    public MotoPlacaIndex(MotoRepository motoRepository) {
+        this.motoRepository = motoRepository;
+    }
+
+    // Moto encontrada na busca: menor distância e o campo (placa ou chassi) em que ela ocorreu
+    private record Achado(long id, int distancia, String campo) {}
+
+    /**
+     * Lista de ids de moto de um segmento.
+     */
+    private static final class Ids {
+        long[] itens = new long[2];
+        int tamanho;
+
+        void adicionar(long id) {
+            if (tamanho == itens.length) itens = Arrays.copyOf(itens, tamanho * 2);
+            itens[tamanho++] = id;
+        }
+
+        void remover(long id) {
+            for (int i = 0; i < tamanho; i++) {
+                if (itens[i] == id) {
+                    itens[i] = itens[--tamanho];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Índice de segmentos de um campo (placa ou chassi).
+     */
+    private static final class Campo {
+        final String nome;
+        final Map<Long, String> chavePorId = new HashMap<>();
+        // grupo(k, comprimento, segmento) -> texto do segmento -> motos
+        final Map<Integer, Map<String, Ids>> grupos = new HashMap<>();
+        // Chaves com até MAX_DISTANCIA caracteres não dão k + 1 segmentos: são conferidas uma a uma
+        final Map<Long, String> curtas = new HashMap<>();
+
+        Campo(String nome) {
+            this.nome = nome;
+        }
+
+        void limpar() {
+            chavePorId.clear();
+            grupos.clear();
+            curtas.clear();
+        }
+
+        void adicionar(long id, String chave) {
+            if (chave.isEmpty()) return;
+            chavePorId.put(id, chave);
+            if (chave.length() <= MAX_DISTANCIA) curtas.put(id, chave);
+            int n = chave.length();
+            for (int k = 0; k <= MAX_DISTANCIA && k < n; k++) {
+                for (int i = 0; i <= k; i++) {
+                    grupos.computeIfAbsent(grupo(k, n, i), g -> new HashMap<>())
+                            .computeIfAbsent(chave.substring(inicio(n, k, i), inicio(n, k, i + 1)), s -> new Ids())
+                            .adicionar(id);
+                }
+            }
+        }
+
+        void remover(long id) {
+            String chave = chavePorId.remove(id);
+            if (chave == null) return;
+            curtas.remove(id);
+            int n = chave.length();
+            for (int k = 0; k <= MAX_DISTANCIA && k < n; k++) {
+                for (int i = 0; i <= k; i++) {
+                    Map<String, Ids> grupo = grupos.get(grupo(k, n, i));
+                    String segmento = chave.substring(inicio(n, k, i), inicio(n, k, i + 1));
+                    Ids ids = grupo.get(segmento);
+                    ids.remover(id);
+                    if (ids.tamanho == 0) grupo.remove(segmento);
+                }
+            }
+        }
+
+        /**
+         * Passa a 'achados' cada moto com chave a no máximo k edições da consulta.
+         */
+        void buscar(String consulta, int k, Map<Long, Achado> achados) {
+            // Uma moto achada por mais de um segmento é conferida de novo: sai mais barato que
+            // guardar as já conferidas, e 'achados' fica com a menor distância
+            int m = consulta.length();
+            for (int n = Math.max(k + 1, m - k); n <= m + k; n++) {
+                int diferenca = m - n;
+                for (int i = 0; i <= k; i++) {
+                    Map<String, Ids> grupo = grupos.get(grupo(k, n, i));
+                    if (grupo == null) continue;
+                    int inicio = inicio(n, k, i);
+                    int comprimento = inicio(n, k, i + 1) - inicio;
+                    for (int deslocamento = -k; deslocamento <= k; deslocamento++) {
+                        // Deslocar o segmento já custa |deslocamento| edições, e o resto da diferença de comprimento também
+                        if (Math.abs(deslocamento) + Math.abs(diferenca - deslocamento) > k) continue;
+                        int p = inicio + deslocamento;
+                        if (p < 0 || p + comprimento > m) continue;
+                        Ids ids = grupo.get(consulta.substring(p, p + comprimento));
+                        if (ids == null) continue;
+                        for (int j = 0; j < ids.tamanho; j++) {
+                            long id = ids.itens[j];
+                            conferir(id, chavePorId.get(id), consulta, k, achados);
+                        }
+                    }
+                }
+            }
+            curtas.forEach((id, chave) -> conferir(id, chave, consulta, k, achados));
+        }
+
+        private void conferir(long id, String chave, String consulta, int k, Map<Long, Achado> achados) {
+            int d = distancia(chave, consulta, k);
+            if (d > k) return;
+            Achado novo = new Achado(id, d, nome);
+            achados.merge(id, novo, (atual, candidato) -> candidato.distancia() < atual.distancia() ? candidato : atual);
+        }
+
+        private static int grupo(int k, int comprimento, int segmento) {
+            return (k << 16) | (comprimento << 8) | segmento;
+        }
+
+        // Início do segmento i de uma chave de comprimento n cortada em k + 1 partes quase iguais
+        private static int inicio(int n, int k, int i) {
+            return i * n / (k + 1);
+        }
+    }
+
+    /**
+     * Distância de Levenshtein entre 'a' e 'b', ou 'limite' + 1 se passar do limite. Só calcula a
+     * faixa da matriz a até 'limite' casas da diagonal: fora dela a distância já passa do limite.
+     */
+    static int distancia(String a, String b, int limite) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > limite) return limite + 1;
+        int fora = limite + 1;
+        int[] anterior = new int[m + 1];
+        int[] atual = new int[m + 1];
+        for (int j = 0; j <= m; j++) anterior[j] = Math.min(j, fora);
+        for (int i = 1; i <= n; i++) {
+            int de = Math.max(1, i - limite);
+            int ate = Math.min(m, i + limite);
+            atual[0] = Math.min(i, fora);
+            if (de > 1) atual[de - 1] = fora;
+            int menor = atual[0] <= limite && de == 1 ? atual[0] : fora;
+            char c = a.charAt(i - 1);
+            for (int j = de; j <= ate; j++) {
+                int valor = anterior[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                valor = Math.min(valor, Math.min(anterior[j], atual[j - 1]) + 1);
+                atual[j] = Math.min(valor, fora);
+                menor = Math.min(menor, atual[j]);
+            }
+            if (ate < m) atual[ate + 1] = fora;
+            if (menor > limite) return fora;
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return anterior[m];
+    }
+
+    /**
+     * Placa/chassi como entram no índice: maiúsculas, só letras e dígitos.
+     */
+    static String normalizar(String texto) {
+        if (texto == null) return "";
+        return NAO_ALFANUMERICO.matcher(texto.toUpperCase(Locale.ROOT)).replaceAll("");
+    }
+
+    /**
+     * Carrega a identificação de todas as motos do banco, numa única consulta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        lock.writeLock().lock();
+        try {
+            motos.clear();
+            placas.limpar();
+            chassis.limpar();
+            motoRepository.forEachIdentificacao(this::indexarSemLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Passa a achar a moto pela placa e pelo chassi atuais, descartando os que ela tinha antes.
+     * A placa e o chassi são lidos agora; o índice muda quando a transação corrente confirma.
+     */
+    public void indexar(Moto moto) {
+        IdentificacaoMoto identificacao = new IdentificacaoMoto(moto.getId(), moto.getPlaca(), moto.getChassi(),
+                moto.getModelo(), moto.getStatus());
+        AposTransacao.aposCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                indexarSemLock(identificacao);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Deixa de sugerir a moto nas buscas por placa ou chassi, a partir do commit da remoção.
+     */
+    public void remover(Long id) {
+        AposTransacao.aposCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                motos.remove(id);
+                placas.remover(id);
+                chassis.remover(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void indexarSemLock(IdentificacaoMoto identificacao) {
+        long id = identificacao.id();
+        motos.put(id, identificacao);
+        placas.remover(id);
+        chassis.remover(id);
+        placas.adicionar(id, normalizar(identificacao.placa()));
+        chassis.adicionar(id, normalizar(identificacao.chassi()));
+    }
+
+    /**
+     * Motos cuja placa ou chassi está a no máximo 'distanciaMaxima' edições da consulta.
+     * @param consulta Placa ou chassi digitado (com ou sem hífen, maiúsculas ou minúsculas).
+     * @param distanciaMaxima Edições toleradas (0 = só igual), limitada a MAX_DISTANCIA.
+     * @param limite Número máximo de resultados.
+     * @return As mais próximas primeiro (empate: placa antes de chassi, depois menor id).
+     */
+    public List<MotoPlacaResultadoDTO> buscar(String consulta, int distanciaMaxima, int limite) {
+        String chave = normalizar(consulta);
+        if (chave.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        int k = Math.max(0, Math.min(distanciaMaxima, MAX_DISTANCIA));
+        Map<Long, Achado> achados = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            placas.buscar(chave, k, achados);
+            chassis.buscar(chave, k, achados);
+
+            return achados.values().stream()
+                    .sorted(Comparator.comparingInt(Achado::distancia)
+                            .thenComparing(a -> !CAMPO_PLACA.equals(a.campo()))
+                            .thenComparingLong(Achado::id))
+                    .limit(limite)
+                    .map(a -> {
+                        IdentificacaoMoto moto = motos.get(a.id());
+                        return new MotoPlacaResultadoDTO(moto.id(), moto.placa(), moto.chassi(), moto.modelo(),
+                                moto.status(), a.campo(), a.distancia());
+                    })
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Quantas motos estão no índice.
+     */
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return motos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
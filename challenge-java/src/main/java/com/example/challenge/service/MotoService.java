@@ -1,63 +1,104 @@
 package com.example.challenge.service;
 
 import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.MotoPlacaResultadoDTO;
+import com.example.challenge.dto.MotoSugestaoDTO;
 import com.example.challenge.repository.MotoRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 /**
  * Serviço que encapsula a lógica de negócios para a entidade Moto.
- * Garante que chassi e placa sejam únicos antes de salvar.
+ * Garante que chassi e placa sejam únicos (pelas constraints do banco) ao salvar.
  */
 @Service
 public class MotoService {
 
+    private static final char ESCAPE_LIKE = '\\';
+
     private final MotoRepository motoRepository;
+    private final DashboardService dashboardService;
+    private final TelemetriaKmService telemetriaKmService;
+    private final MotoPlacaIndex motoPlacaIndex;
+    private final KmSerieService kmSerieService;
 
-    public MotoService(MotoRepository motoRepository) {
+    public MotoService(MotoRepository motoRepository, DashboardService dashboardService,
+                       TelemetriaKmService telemetriaKmService, MotoPlacaIndex motoPlacaIndex,
+                       KmSerieService kmSerieService) {
         this.motoRepository = motoRepository;
+        this.dashboardService = dashboardService;
+        this.telemetriaKmService = telemetriaKmService;
+        this.motoPlacaIndex = motoPlacaIndex;
+        this.kmSerieService = kmSerieService;
+    }
+
+    /**
+     * Forma em que chassi e placa são gravados e comparados (formulário, importação e telemetria):
+     * sem espaços nas pontas e em maiúsculas. Assim as constraints de unicidade, que distinguem
+     * maiúsculas, tratam "abc1d23" e "ABC1D23" como a mesma placa.
+     */
+    public static String normalizarIdentificacao(String valor) {
+        return valor == null ? null : valor.trim().toUpperCase(Locale.ROOT);
     }
 
     /**
-     * Cria ou atualiza uma moto.
+     * Cria ou atualiza uma moto. Chassi e placa são gravados normalizados (normalizarIdentificacao).
      * @param moto A entidade Moto a ser salva.
      * @return A moto salva.
      */
     @Transactional
     public Moto save(Moto moto) {
-        // Regra de Negócio: Checar unicidade de Chassi e Placa
-        if (moto.getId() == null) {
-            // Checa Chassi na criação
-            motoRepository.findByChassi(moto.getChassi()).ifPresent(m -> {
-                throw new IllegalStateException("Já existe uma moto cadastrada com o CHASSI: " + m.getChassi());
-            });
-            // Checa Placa na criação
-            motoRepository.findByPlaca(moto.getPlaca()).ifPresent(m -> {
-                throw new IllegalStateException("Já existe uma moto cadastrada com a PLACA: " + m.getPlaca());
-            });
-        } else {
-            // Checa unicidade de Chassi e Placa na atualização, ignorando a própria moto
-            motoRepository.findByChassi(moto.getChassi())
-                    .filter(m -> !m.getId().equals(moto.getId()))
-                    .ifPresent(m -> {
-                        throw new IllegalStateException("O CHASSI já está em uso por outra moto.");
-                    });
-            motoRepository.findByPlaca(moto.getPlaca())
-                    .filter(m -> !m.getId().equals(moto.getId()))
-                    .ifPresent(m -> {
-                        throw new IllegalStateException("A PLACA já está em uso por outra moto.");
-                    });
-        }
-
         // Regra de Negócio: KM atual não pode ser negativo
         if (moto.getKmAtual() != null && moto.getKmAtual() < 0) {
              throw new IllegalArgumentException("O quilômetro atual não pode ser negativo.");
         }
-        
-        return motoRepository.save(moto);
+        moto.setChassi(normalizarIdentificacao(moto.getChassi()));
+        moto.setPlaca(normalizarIdentificacao(moto.getPlaca()));
+
+        // Regra de Negócio: Chassi e Placa únicos. Quem garante são as constraints UK_MOTO_CHASSI e
+        // UK_MOTO_PLACA (V6), no próprio INSERT/UPDATE: sem SELECTs antes e sem janela entre checar e gravar.
+        boolean nova = moto.getId() == null;
+        Moto salva;
+        try {
+            salva = motoRepository.saveAndFlush(moto);
+        } catch (DataIntegrityViolationException e) {
+            if (nova) {
+                moto.setId(null); // o persist já tinha atribuído o id; a moto continua "nova" para o chamador
+            }
+            throw violacaoDeUnicidade(e, moto, nova);
+        }
+        dashboardService.registrarAlteracao();
+        telemetriaKmService.invalidar(salva.getId(), salva.getPlaca(), salva.getChassi());
+        motoPlacaIndex.indexar(salva);
+        return salva;
+    }
+
+    /**
+     * Traduz a violação de UK_MOTO_CHASSI / UK_MOTO_PLACA na mensagem da regra de negócio.
+     * Outras violações de integridade seguem como estão.
+     */
+    private static RuntimeException violacaoDeUnicidade(DataIntegrityViolationException e, Moto moto, boolean nova) {
+        String detalhe = String.valueOf(e.getMostSpecificCause().getMessage()).toUpperCase(Locale.ROOT);
+        if (detalhe.contains("UK_MOTO_CHASSI")) {
+            return new IllegalStateException(nova
+                    ? "Já existe uma moto cadastrada com o CHASSI: " + moto.getChassi()
+                    : "O CHASSI já está em uso por outra moto.");
+        }
+        if (detalhe.contains("UK_MOTO_PLACA")) {
+            return new IllegalStateException(nova
+                    ? "Já existe uma moto cadastrada com a PLACA: " + moto.getPlaca()
+                    : "A PLACA já está em uso por outra moto.");
+        }
+        return e;
     }
 
     /**
@@ -67,6 +108,51 @@ public class MotoService {
         return motoRepository.findAll();
     }
 
+    /**
+     * Página de motos com filtros opcionais (null ou vazio = sem filtro).
+     * @param status Status exato.
+     * @param modelo Trecho do modelo, sem distinguir maiúsculas.
+     * @param ano Ano de fabricação.
+     * @param pageable Página e ordenação.
+     */
+    public Page<Moto> buscarPagina(String status, String modelo, Integer ano, Pageable pageable) {
+        List<Specification<Moto>> filtros = new ArrayList<>();
+        if (status != null && !status.isBlank()) {
+            filtros.add((root, query, cb) -> cb.equal(root.get("status"), status));
+        }
+        if (modelo != null && !modelo.isBlank()) {
+            String trecho = "%" + escaparLike(modelo.trim().toLowerCase(Locale.ROOT)) + "%";
+            filtros.add((root, query, cb) -> cb.like(cb.lower(root.get("modelo")), trecho, ESCAPE_LIKE));
+        }
+        if (ano != null) {
+            filtros.add((root, query, cb) -> cb.equal(root.get("anoFabricacao"), ano));
+        }
+        return motoRepository.findAll(Specification.allOf(filtros), pageable);
+    }
+
+    // '%' e '_' digitados no filtro valem como texto, não como curinga do LIKE
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Motos com placa ou chassi parecido com o digitado (via MotoPlacaIndex, sem ir ao banco).
+     */
+    public List<MotoPlacaResultadoDTO> buscarPorPlacaAproximada(String consulta, int distanciaMaxima, int limite) {
+        return motoPlacaIndex.buscar(consulta, distanciaMaxima, limite);
+    }
+
+    /**
+     * Sugestões para o campo de moto do formulário de OS: placa ou modelo começando com o texto
+     * digitado, sem distinguir maiúsculas. Texto em branco não traz sugestões.
+     */
+    public List<MotoSugestaoDTO> sugerir(String prefixo, int limite) {
+        if (prefixo == null || prefixo.isBlank()) {
+            return List.of();
+        }
+        return motoRepository.findSugestoesPorPrefixo(prefixo.trim().toUpperCase(Locale.ROOT), limite);
+    }
+
     /**
      * Busca uma moto por ID.
      */
@@ -83,6 +169,10 @@ public class MotoService {
             throw new IllegalArgumentException("Moto com ID " + id + " não encontrada para deleção.");
         }
         motoRepository.deleteById(id);
+        dashboardService.registrarAlteracao();
+        telemetriaKmService.invalidar(id, null, null);
+        motoPlacaIndex.remover(id);
+        kmSerieService.descartar(id);
     }
 
     /**
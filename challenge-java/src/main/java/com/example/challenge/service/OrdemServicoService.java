@@ -2,11 +2,15 @@ package com.example.challenge.service;
 
 import com.example.challenge.domain.Moto;
 import com.example.challenge.domain.OrdemServico;
+import com.example.challenge.dto.OrdemServicoListaDTO;
 import com.example.challenge.repository.MotoRepository;
 import com.example.challenge.repository.OrdemServicoRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,16 +23,26 @@ public class OrdemServicoService {
 
     private final OrdemServicoRepository ordemServicoRepository;
     private final MotoRepository motoRepository; // Injetamos MotoRepository para validar a existência da moto
+    private final ReservaPecaService reservaPecaService;
+    private final DashboardService dashboardService;
+    private final DespachoOrdemService despachoOrdemService;
 
-    public OrdemServicoService(OrdemServicoRepository ordemServicoRepository, MotoRepository motoRepository) {
+    public OrdemServicoService(OrdemServicoRepository ordemServicoRepository, MotoRepository motoRepository,
+                               ReservaPecaService reservaPecaService, DashboardService dashboardService,
+                               DespachoOrdemService despachoOrdemService) {
         this.ordemServicoRepository = ordemServicoRepository;
         this.motoRepository = motoRepository;
+        this.reservaPecaService = reservaPecaService;
+        this.dashboardService = dashboardService;
+        this.despachoOrdemService = despachoOrdemService;
     }
 
     /**
      * Cria ou atualiza uma ordem de serviço.
      * @param ordemServico A entidade OrdemServico a ser salva.
      * @return A ordem de serviço salva.
+     * @throws IllegalStateException Se a ordem já estiver EM_ANDAMENTO com um mecânico e a edição a
+     *         devolver para ABERTA (ex: formulário aberto antes do despacho).
      */
     @Transactional
     public OrdemServico save(OrdemServico ordemServico) {
@@ -48,8 +62,22 @@ public class OrdemServicoService {
         if (ordemServico.getId() == null) {
             ordemServico.setMoto(motoOpt.get());
         }
+        // Um formulário desatualizado devolveria para a fila uma ordem que um mecânico já pegou,
+        // sem tirar dela o mecânico (mecanico/data_inicio ficam fora do mapeamento JPA)
+        if (ordemServico.getId() != null && DespachoOrdemService.ABERTA.equals(ordemServico.getStatus())
+                && DespachoOrdemService.EM_ANDAMENTO.equals(ordemServicoRepository.travarStatus(ordemServico.getId()))) {
+            throw new IllegalStateException("A Ordem de Serviço #" + ordemServico.getId()
+                    + " já está em atendimento e não pode voltar para ABERTA.");
+        }
+        // A idade da ordem conta para a prioridade no despacho
+        if (ordemServico.getDataAbertura() == null) {
+            ordemServico.setDataAbertura(LocalDateTime.now());
+        }
 
-        return ordemServicoRepository.save(ordemServico);
+        OrdemServico salva = ordemServicoRepository.save(ordemServico);
+        dashboardService.registrarAlteracao();
+        despachoOrdemService.atualizar(salva.getId());
+        return salva;
     }
 
     /**
@@ -59,6 +87,18 @@ public class OrdemServicoService {
         return ordemServicoRepository.findAll();
     }
 
+    /**
+     * Página da listagem de ordens, com filtro opcional por status (null ou vazio = todas).
+     * @param status Status exato.
+     * @param pageable Página e ordenação.
+     */
+    public Page<OrdemServicoListaDTO> listarPagina(String status, Pageable pageable) {
+        if (status == null || status.isBlank()) {
+            return ordemServicoRepository.listarPagina(pageable);
+        }
+        return ordemServicoRepository.listarPaginaPorStatus(status, pageable);
+    }
+
     /**
      * Busca uma ordem de serviço por ID.
      */
@@ -74,7 +114,11 @@ public class OrdemServicoService {
         if (!ordemServicoRepository.existsById(id)) {
             throw new IllegalArgumentException("Ordem de Serviço com ID " + id + " não encontrada para deleção.");
         }
+        // Devolve ao disponível as peças reservadas para a ordem
+        reservaPecaService.liberarDaOrdem(id);
         ordemServicoRepository.deleteById(id);
+        dashboardService.registrarAlteracao();
+        despachoOrdemService.remover(id);
     }
 
     /**
@@ -1,26 +1,86 @@
 package com.example.challenge.service;
 
 import com.example.challenge.domain.*;
+import com.example.challenge.dto.BulkApprovalResultDTO;
+import com.example.challenge.dto.OrderSummaryDTO;
 import com.example.challenge.repository.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class OrderService {
+    // Tamanho de cada UPDATE ... WHERE id IN (...) na aprovação em lote
+    static final int APPROVAL_CHUNK_SIZE = 500;
+
     private final OrderRepository repo;
-    private final ProductRepository productRepo;
+    private final ProductService productService;
     
-    public OrderService(OrderRepository repo, ProductRepository productRepo) {
+    public OrderService(OrderRepository repo, ProductService productService) {
         this.repo = repo; 
-        this.productRepo = productRepo;
+        this.productService = productService;
     }
 
     public Order create(Order o) { 
         return repo.save(o); 
     }
+
+    // Monta o pedido resolvendo todos os produtos de uma vez (evita um SELECT por linha)
+    public Order buildOrder(Long userId, Long[] productIds, Integer[] quantities) {
+        if (productIds == null || productIds.length == 0) {
+            throw new IllegalArgumentException("O pedido deve ter pelo menos um produto.");
+        }
+        if (quantities == null || quantities.length < productIds.length) {
+            throw new IllegalArgumentException("Informe a quantidade de cada produto.");
+        }
+        Set<Long> ids = new LinkedHashSet<>(Arrays.asList(productIds));
+        Map<Long, Product> products = productService.findAllById(ids);
+        if (products.size() < ids.size()) {
+            ids.removeAll(products.keySet());
+            throw new IllegalArgumentException("Produto(s) não encontrado(s): " + ids);
+        }
+
+        Order o = new Order();
+        o.setUserId(userId);
+        for (int i = 0; i < productIds.length; i++) {
+            Product p = products.get(productIds[i]);
+            OrderItem it = new OrderItem();
+            it.setProductId(p.getId());
+            it.setQuantity(quantities[i]);
+            it.setUnitPrice(p.getPrice());
+            o.getItems().add(it);
+        }
+        return o;
+    }
+
+    public Order create(Long userId, Long[] productIds, Integer[] quantities) {
+        return create(buildOrder(userId, productIds, quantities));
+    }
     public List<Order> list() { 
         return repo.findAll(); 
     }
+    public List<Order> listByUser(Long userId, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        if (afterCreatedAt == null || afterId == null) {
+            return repo.findByUserIdOrderByCreatedAtDescIdDesc(userId, Limit.of(limit));
+        }
+        return repo.findByUserIdBefore(userId, afterCreatedAt, afterId, Limit.of(limit));
+    }
+    public Page<OrderSummaryDTO> listSummaries(String status, int page, int size) {
+        String filtro = (status == null || status.isBlank()) ? null : status;
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+        return repo.findSummaries(filtro, PageRequest.of(page, size, sort));
+    }
     public Order find(Long id) { 
         return repo.findById(id).orElse(null); 
     }
@@ -34,4 +94,31 @@ public class OrderService {
         o.setStatus("APPROVED");
         return repo.save(o);
     }
-}
\ No newline at end of file
+
+    // Aprova os ids informados em blocos; cada bloco é um UPDATE (transação curta) que devolve os
+    // ids aprovados, então aprovados + ignorados sempre somam os ids pedidos, mesmo com concorrência.
+    public BulkApprovalResultDTO approveAll(List<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Long> skipped = new ArrayList<>();
+        int approved = 0;
+        for (int from = 0; from < distinct.size(); from += APPROVAL_CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + APPROVAL_CHUNK_SIZE, distinct.size()));
+            Set<Long> approvedIds = new HashSet<>(repo.approvePendingReturningIds(chunk));
+            for (Long id : chunk) {
+                if (!approvedIds.contains(id)) skipped.add(id);
+            }
+            approved += approvedIds.size();
+        }
+        return new BulkApprovalResultDTO(approved, skipped);
+    }
+
+    // Aprova todos os pedidos PENDING criados antes de 'before', bloco a bloco.
+    public BulkApprovalResultDTO approvePendingBefore(LocalDateTime before) {
+        int approved = 0;
+        List<Long> chunk;
+        while (!(chunk = repo.findPendingIdsBefore(before, Limit.of(APPROVAL_CHUNK_SIZE))).isEmpty()) {
+            approved += repo.approvePending(chunk);
+        }
+        return new BulkApprovalResultDTO(approved, List.of());
+    }
+}
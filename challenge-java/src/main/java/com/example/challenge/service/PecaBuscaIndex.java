@@ -0,0 +1,428 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.PecaBuscaResultadoDTO;
+import com.example.challenge.repository.PecaRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido em memória para busca de peças por trecho do nome ou da descrição.
+ * <p>
+ * O texto é normalizado (minúsculas, sem acentos: "Óleo" e "oleo" são iguais) e quebrado em
+ * palavras. Cada palavra distinta do catálogo entra num vocabulário, indexado pelos trigramas e
+ * pelos prefixos de 1 e 2 letras de cada palavra; cada palavra aponta para as peças que a têm no
+ * nome e na descrição. Uma busca acha no vocabulário (pequeno) as palavras que contêm cada termo
+ * e soma, termo a termo, os pontos das peças dessas palavras: acerto no nome vale mais que na
+ * descrição, e palavra inteira mais que prefixo, que vale mais que trecho no meio.
+ * <p>
+ * O catálogo é indexado inteiro na inicialização. Cadastros, edições e remoções de peças, avulsos
+ * ou importados, entram na busca quando a transação que os gravou confirma, então a pontuação
+ * reflete sempre o nome e a descrição que estão no banco.
+ */
+@Component
+public class PecaBuscaIndex {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern NAO_ALFANUMERICO = Pattern.compile("[^a-z0-9]+");
+    private static final int PAGINA_CARGA = 5_000;
+    private static final int PESO_NOME = 3;
+    private static final int MAX_TERMOS = 15; // cabe em 4 bits do estado por peça (ver buscar)
+
+    private final PecaRepository pecaRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Peças por posição interna; posições de peças removidas ficam nulas
+    private final List<Documento> documentos = new ArrayList<>();
+    private final Map<Long, Integer> posicaoPorId = new HashMap<>();
+
+    // Vocabulário: palavra -> id, e por id as peças que têm a palavra no nome / na descrição.
+    // Palavras que deixam de ser usadas continuam no vocabulário, só com listas vazias.
+    private final Map<String, Integer> idPorPalavra = new HashMap<>();
+    private final List<String> palavras = new ArrayList<>();
+    private final List<Postagens> pecasPorPalavraNoNome = new ArrayList<>();
+    private final List<Postagens> pecasPorPalavraNaDescricao = new ArrayList<>();
+    private final Map<String, Postagens> palavrasPorGrama = new HashMap<>();
+
+    // Vetores de estado reaproveitados entre buscas (um por busca em andamento)
+    private final Queue<int[]> rascunhos = new ConcurrentLinkedQueue<>();
+
+    public PecaBuscaIndex(PecaRepository pecaRepository) {
+        this.pecaRepository = pecaRepository;
+    }
+
+    // palavrasNome/palavrasDescricao: ids do vocabulário, ordenados e sem repetição
+    private record Documento(long id, String nome, String descricao, String codigoFabricante,
+                             int[] palavrasNome, int[] palavrasDescricao) {}
+
+    // Palavras do vocabulário que casam com um termo da busca e os pontos de cada uma
+    private record TermoCasado(int[] palavras, int[] pontos, int totalPostagens) {}
+
+    /**
+     * Lista ordenada de posições (ints primitivos, para caber 100 mil peças com folga).
+     */
+    private static final class Postagens {
+        int[] itens = new int[4];
+        int tamanho;
+
+        void adicionar(int posicao) {
+            int i = Arrays.binarySearch(itens, 0, tamanho, posicao);
+            if (i >= 0) return;
+            i = -i - 1;
+            if (tamanho == itens.length) itens = Arrays.copyOf(itens, tamanho * 2);
+            System.arraycopy(itens, i, itens, i + 1, tamanho - i);
+            itens[i] = posicao;
+            tamanho++;
+        }
+
+        void remover(int posicao) {
+            int i = Arrays.binarySearch(itens, 0, tamanho, posicao);
+            if (i < 0) return;
+            System.arraycopy(itens, i + 1, itens, i, tamanho - i - 1);
+            tamanho--;
+        }
+
+        boolean contem(int posicao) {
+            return Arrays.binarySearch(itens, 0, tamanho, posicao) >= 0;
+        }
+    }
+
+    /**
+     * Carrega todas as peças do banco, em páginas, só com as colunas necessárias.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        lock.writeLock().lock();
+        try {
+            documentos.clear();
+            posicaoPorId.clear();
+            idPorPalavra.clear();
+            palavras.clear();
+            pecasPorPalavraNoNome.clear();
+            pecasPorPalavraNaDescricao.clear();
+            palavrasPorGrama.clear();
+            Long after = null;
+            List<Map<String, Object>> pagina;
+            do {
+                pagina = pecaRepository.findPagina(after, PAGINA_CARGA, List.of("nome", "descricao", "codigoFabricante"));
+                for (Map<String, Object> linha : pagina) {
+                    after = (Long) linha.get("id");
+                    indexarSemLock(after, (String) linha.get("nome"), (String) linha.get("descricao"),
+                            (String) linha.get("codigoFabricante"));
+                }
+            } while (pagina.size() == PAGINA_CARGA);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Refaz as palavras do nome e da descrição da peça, trocando as que ela tinha antes.
+     * Os textos são lidos agora; a busca passa a vê-los quando a transação corrente confirma.
+     */
+    public void indexar(Peca peca) {
+        long id = peca.getId();
+        String nome = peca.getNome();
+        String descricao = peca.getDescricao();
+        String codigo = peca.getCodigoFabricante();
+        AposTransacao.aposCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                indexarSemLock(id, nome, descricao, codigo);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Tira a peça das palavras do vocabulário em que ela aparecia, a partir do commit da remoção.
+     */
+    public void remover(Long id) {
+        AposTransacao.aposCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Integer posicao = posicaoPorId.remove(id);
+                if (posicao != null) {
+                    desindexar(posicao);
+                    documentos.set(posicao, null);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void indexarSemLock(long id, String nome, String descricao, String codigo) {
+        Documento documento = new Documento(id, nome, descricao, codigo, idsDasPalavras(nome), idsDasPalavras(descricao));
+        Integer posicao = posicaoPorId.get(id);
+        if (posicao != null) {
+            desindexar(posicao);
+            documentos.set(posicao, documento);
+        } else {
+            posicao = documentos.size();
+            documentos.add(documento);
+            posicaoPorId.put(id, posicao);
+        }
+        for (int palavra : documento.palavrasNome()) pecasPorPalavraNoNome.get(palavra).adicionar(posicao);
+        for (int palavra : documento.palavrasDescricao()) pecasPorPalavraNaDescricao.get(palavra).adicionar(posicao);
+    }
+
+    private void desindexar(int posicao) {
+        Documento antigo = documentos.get(posicao);
+        for (int palavra : antigo.palavrasNome()) pecasPorPalavraNoNome.get(palavra).remover(posicao);
+        for (int palavra : antigo.palavrasDescricao()) pecasPorPalavraNaDescricao.get(palavra).remover(posicao);
+    }
+
+    private int[] idsDasPalavras(String texto) {
+        return Arrays.stream(palavrasDe(texto)).mapToInt(this::idDaPalavra).sorted().distinct().toArray();
+    }
+
+    private int idDaPalavra(String palavra) {
+        Integer id = idPorPalavra.get(palavra);
+        if (id != null) return id;
+        int novo = palavras.size();
+        idPorPalavra.put(palavra, novo);
+        palavras.add(palavra);
+        pecasPorPalavraNoNome.add(new Postagens());
+        pecasPorPalavraNaDescricao.add(new Postagens());
+        // Prefixos de 1 e 2 letras (marcados com '^') e todos os trigramas da palavra
+        palavrasPorGrama.computeIfAbsent("^" + palavra.substring(0, 1), g -> new Postagens()).adicionar(novo);
+        if (palavra.length() >= 2) {
+            palavrasPorGrama.computeIfAbsent("^" + palavra.substring(0, 2), g -> new Postagens()).adicionar(novo);
+        }
+        for (int i = 0; i + 3 <= palavra.length(); i++) {
+            palavrasPorGrama.computeIfAbsent(palavra.substring(i, i + 3), g -> new Postagens()).adicionar(novo);
+        }
+        return novo;
+    }
+
+    // N-gramas que toda palavra contendo 'termo' precisa ter
+    private static List<String> gramasDoTermo(String termo) {
+        if (termo.length() < 3) {
+            return List.of("^" + termo); // termo curto: só casa como prefixo de palavra
+        }
+        List<String> gramas = new ArrayList<>();
+        for (int i = 0; i + 3 <= termo.length(); i++) {
+            gramas.add(termo.substring(i, i + 3));
+        }
+        return gramas;
+    }
+
+    /**
+     * Normaliza para busca: sem acentos, minúsculas, só letras e dígitos separados por espaço.
+     */
+    static String normalizar(String texto) {
+        if (texto == null) return "";
+        String semAcento = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NAO_ALFANUMERICO.matcher(semAcento.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static String[] palavrasDe(String texto) {
+        String normalizado = normalizar(texto);
+        return normalizado.isEmpty() ? new String[0] : normalizado.split(" ");
+    }
+
+    // 3: palavra igual ao termo; 2: palavra começa com o termo; 1: termo no meio da palavra
+    private TermoCasado casar(String termo) {
+        List<String> gramas = gramasDoTermo(termo);
+        List<Postagens> listas = new ArrayList<>();
+        for (String gram : gramas) {
+            Postagens lista = palavrasPorGrama.get(gram);
+            if (lista == null) return null;
+            listas.add(lista);
+        }
+        listas.sort(Comparator.comparingInt(l -> l.tamanho));
+        Postagens menor = listas.get(0);
+        int[] ids = new int[menor.tamanho];
+        int[] pontos = new int[menor.tamanho];
+        int n = 0;
+        int total = 0;
+        candidatas:
+        for (int k = 0; k < menor.tamanho; k++) {
+            int id = menor.itens[k];
+            for (int l = 1; l < listas.size(); l++) {
+                if (!listas.get(l).contem(id)) continue candidatas;
+            }
+            String palavra = palavras.get(id);
+            int p = palavra.equals(termo) ? 3 : palavra.startsWith(termo) ? 2 : palavra.contains(termo) ? 1 : 0;
+            int postagens = pecasPorPalavraNoNome.get(id).tamanho + pecasPorPalavraNaDescricao.get(id).tamanho;
+            if (p > 0 && postagens > 0) {
+                ids[n] = id;
+                pontos[n++] = p;
+                total += postagens;
+            }
+        }
+        return n == 0 ? null : new TermoCasado(Arrays.copyOf(ids, n), Arrays.copyOf(pontos, n), total);
+    }
+
+    /**
+     * Busca as peças cujo nome ou descrição contêm todos os termos da consulta.
+     * @param consulta Texto digitado (trechos de palavras, com ou sem acento).
+     * @param limite Número máximo de resultados.
+     * @return Os resultados mais relevantes primeiro (empate: menor id).
+     */
+    public List<PecaBuscaResultadoDTO> buscar(String consulta, int limite) {
+        String[] termos = new LinkedHashSet<>(Arrays.asList(palavrasDe(consulta))).stream()
+                .limit(MAX_TERMOS).toArray(String[]::new);
+        if (termos.length == 0 || limite <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            TermoCasado[] casados = new TermoCasado[termos.length];
+            for (int t = 0; t < termos.length; t++) {
+                casados[t] = casar(termos[t]);
+                if (casados[t] == null) return List.of();
+            }
+            // Do termo mais seletivo para o menos: os seguintes só mexem em quem já casou os anteriores
+            Arrays.sort(casados, Comparator.comparingInt(TermoCasado::totalPostagens));
+
+            // Um int por peça: termos já casados (4 bits), pontos do termo atual (4 bits), pontuação acumulada.
+            // Só as peças das listas do primeiro termo chegam a ser marcadas, e é só isso que se limpa no fim.
+            int[] estado = rascunhos.poll();
+            if (estado == null || estado.length < documentos.size()) {
+                estado = new int[documentos.size()];
+            }
+            try {
+                TermoCasado primeiro = casados[0];
+                for (int w = 0; w < primeiro.palavras().length; w++) {
+                    int palavra = primeiro.palavras()[w];
+                    acumular(estado, pecasPorPalavraNoNome.get(palavra), 0, primeiro.pontos()[w] * PESO_NOME);
+                    acumular(estado, pecasPorPalavraNaDescricao.get(palavra), 0, primeiro.pontos()[w]);
+                }
+                for (int t = 1; t < casados.length; t++) {
+                    TermoCasado termo = casados[t];
+                    // Poucos candidatos e termo comum: buscas binárias saem mais baratas que percorrer as listas
+                    if ((long) primeiro.totalPostagens() * termo.palavras().length * 32 < termo.totalPostagens()) {
+                        conferirCandidatos(estado, primeiro, termo, t);
+                    } else {
+                        for (int w = 0; w < termo.palavras().length; w++) {
+                            int palavra = termo.palavras()[w];
+                            acumular(estado, pecasPorPalavraNoNome.get(palavra), t, termo.pontos()[w] * PESO_NOME);
+                            acumular(estado, pecasPorPalavraNaDescricao.get(palavra), t, termo.pontos()[w]);
+                        }
+                    }
+                }
+                return melhores(estado, primeiro, casados.length, limite);
+            } finally {
+                for (int palavra : casados[0].palavras()) {
+                    limpar(estado, pecasPorPalavraNoNome.get(palavra));
+                    limpar(estado, pecasPorPalavraNaDescricao.get(palavra));
+                }
+                rascunhos.offer(estado);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // As 'limite' peças de maior pontuação entre as que casaram todos os termos
+    private List<PecaBuscaResultadoDTO> melhores(int[] estado, TermoCasado primeiro, int termos, int limite) {
+        Comparator<PecaBuscaResultadoDTO> pior = Comparator.comparingInt(PecaBuscaResultadoDTO::getScore)
+                .thenComparing(PecaBuscaResultadoDTO::getId, Comparator.reverseOrder());
+        PriorityQueue<PecaBuscaResultadoDTO> melhores = new PriorityQueue<>(limite + 1, pior);
+        for (int palavra : primeiro.palavras()) {
+            for (Postagens lista : List.of(pecasPorPalavraNoNome.get(palavra), pecasPorPalavraNaDescricao.get(palavra))) {
+                for (int k = 0; k < lista.tamanho; k++) {
+                    int posicao = lista.itens[k];
+                    int valor = estado[posicao];
+                    if ((valor & 0xF) != termos) continue;
+                    estado[posicao] = 0; // já considerada (pode aparecer em mais de uma lista)
+                    int score = valor >>> 8;
+                    Documento documento = documentos.get(posicao);
+                    if (melhores.size() == limite) {
+                        PecaBuscaResultadoDTO ultimo = melhores.peek();
+                        if (score < ultimo.getScore() || (score == ultimo.getScore() && documento.id() > ultimo.getId())) {
+                            continue; // não entra entre os melhores
+                        }
+                    }
+                    melhores.add(new PecaBuscaResultadoDTO(documento.id(), documento.nome(), documento.descricao(),
+                            documento.codigoFabricante(), score));
+                    if (melhores.size() > limite) melhores.poll();
+                }
+            }
+        }
+        List<PecaBuscaResultadoDTO> resultado = new ArrayList<>(melhores);
+        resultado.sort(pior.reversed());
+        return resultado;
+    }
+
+    // Para termos muito comuns: em vez de percorrer as listas do termo, confere cada candidato nelas
+    private void conferirCandidatos(int[] estado, TermoCasado primeiro, TermoCasado termo, int t) {
+        for (int palavraPrimeiro : primeiro.palavras()) {
+            for (Postagens lista : List.of(pecasPorPalavraNoNome.get(palavraPrimeiro),
+                                           pecasPorPalavraNaDescricao.get(palavraPrimeiro))) {
+                for (int k = 0; k < lista.tamanho; k++) {
+                    int posicao = lista.itens[k];
+                    if ((estado[posicao] & 0xF) != t) continue;
+                    int pontos = 0;
+                    for (int w = 0; w < termo.palavras().length; w++) {
+                        int palavra = termo.palavras()[w];
+                        if (pecasPorPalavraNoNome.get(palavra).contem(posicao)) {
+                            pontos = Math.max(pontos, termo.pontos()[w] * PESO_NOME);
+                        } else if (pecasPorPalavraNaDescricao.get(palavra).contem(posicao)) {
+                            pontos = Math.max(pontos, termo.pontos()[w]);
+                        }
+                    }
+                    if (pontos > 0) {
+                        estado[posicao] = (t + 1) | (pontos << 4) | (((estado[posicao] >>> 8) + pontos) << 8);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void limpar(int[] estado, Postagens lista) {
+        for (int k = 0; k < lista.tamanho; k++) {
+            estado[lista.itens[k]] = 0;
+        }
+    }
+
+    // Soma 'pontos' do termo 't' às peças da lista que casaram os termos 0..t-1 (fica o maior ponto do termo)
+    private static void acumular(int[] estado, Postagens lista, int t, int pontos) {
+        for (int k = 0; k < lista.tamanho; k++) {
+            int posicao = lista.itens[k];
+            int valor = estado[posicao];
+            int casados = valor & 0xF;
+            if (casados == t) {
+                estado[posicao] = (t + 1) | (pontos << 4) | (((valor >>> 8) + pontos) << 8);
+            } else if (casados == t + 1) {
+                int anterior = (valor >>> 4) & 0xF;
+                if (pontos > anterior) {
+                    estado[posicao] = (t + 1) | (pontos << 4) | (((valor >>> 8) - anterior + pontos) << 8);
+                }
+            }
+        }
+    }
+
+    /**
+     * Quantidade de peças indexadas.
+     */
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return posicaoPorId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Peca;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache em memória (read-through) das consultas de peça por ID e por código de fabricante.
+ * Limitado em tamanho e com tempo de vida (TTL); as entradas menos usadas são descartadas.
+ * Guarda cópias desanexadas das entidades: quem lê recebe sempre uma cópia própria,
+ * então alterar o objeto retornado não altera o cache.
+ * <p>
+ * Toda invalidação também avança a revisão da coleção de peças (ETag de GET /api/pecas).
+ * Um contador em memória basta porque o H2 embarcado só é escrito por este processo;
+ * o prefixo com o instante de inicialização evita repetir um ETag após reiniciar.
+ */
+@Component
+public class PecaCache {
+
+    private final Cache<Long, Peca> porId;
+    private final Cache<String, Long> porCodigo; // código de fabricante -> id
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong revisao = new AtomicLong();
+
+    public PecaCache(@Value("${app.pecas.cache.max-size:10000}") long maxSize,
+                     @Value("${app.pecas.cache.ttl:5m}") Duration ttl) {
+        this.porId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.porCodigo = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    }
+
+    /**
+     * Busca pelo ID no cache; em caso de falta, carrega com 'loader' e guarda o resultado.
+     */
+    public Optional<Peca> getById(Long id, Function<Long, Optional<Peca>> loader) {
+        Peca peca = porId.get(id, key -> loader.apply(key).map(PecaCache::copiar).orElse(null));
+        return Optional.ofNullable(peca).map(PecaCache::copiar);
+    }
+
+    /**
+     * Busca pelo código de fabricante no cache; em caso de falta, carrega com 'loader'.
+     * O mapeamento código -> id é conferido contra a peça cacheada, então um código
+     * alterado ou removido nunca devolve a peça errada.
+     */
+    public Optional<Peca> getByCodigo(String codigo, Function<String, Optional<Peca>> loader) {
+        Long id = porCodigo.getIfPresent(codigo);
+        if (id != null) {
+            Peca peca = porId.getIfPresent(id);
+            if (peca != null && Objects.equals(peca.getCodigoFabricante(), codigo)) {
+                return Optional.of(copiar(peca));
+            }
+        }
+        Long carregado = porCodigo.get(codigo, key -> loader.apply(key).map(p -> {
+            porId.put(p.getId(), copiar(p));
+            return p.getId();
+        }).orElse(null));
+        if (carregado == null) {
+            return Optional.empty();
+        }
+        Peca peca = porId.getIfPresent(carregado);
+        if (peca == null || !Objects.equals(peca.getCodigoFabricante(), codigo)) {
+            // entrada expirada ou alterada entre as duas leituras: vai ao banco e recarrega
+            porCodigo.invalidate(codigo);
+            Optional<Peca> recarregada = loader.apply(codigo);
+            recarregada.ifPresent(p -> {
+                porId.put(p.getId(), copiar(p));
+                porCodigo.put(codigo, p.getId());
+            });
+            return recarregada.map(PecaCache::copiar);
+        }
+        return Optional.of(copiar(peca));
+    }
+
+    /**
+     * Remove a peça do cache agora e, se houver transação ativa, de novo após o término dela,
+     * para descartar leituras concorrentes feitas antes do commit.
+     */
+    public void evict(Long id, String codigo) {
+        evictNow(id, codigo);
+        AposTransacao.aoTerminar(() -> evictNow(id, codigo));
+    }
+
+    private void evictNow(Long id, String codigo) {
+        if (id != null) porId.invalidate(id);
+        if (codigo != null) porCodigo.invalidate(codigo);
+        revisao.incrementAndGet();
+    }
+
+    /**
+     * Revisão atual da coleção de peças; muda a cada escrita (antes e depois do commit).
+     */
+    public String revisao() {
+        return epoca + "-" + revisao.get();
+    }
+
+    public void clear() {
+        porId.invalidateAll();
+        porCodigo.invalidateAll();
+        revisao.incrementAndGet();
+    }
+
+    /**
+     * Métricas de acerto/falta/despejo de cada um dos índices do cache.
+     */
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("porId", stats(porId.stats(), porId.estimatedSize()));
+        stats.put("porCodigo", stats(porCodigo.stats(), porCodigo.estimatedSize()));
+        return stats;
+    }
+
+    private static Map<String, Object> stats(CacheStats s, long size) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("hits", s.hitCount());
+        m.put("misses", s.missCount());
+        m.put("hitRate", s.hitRate());
+        m.put("evictions", s.evictionCount());
+        m.put("size", size);
+        return m;
+    }
+
+    static Peca copiar(Peca origem) {
+        Peca copia = new Peca();
+        copia.setId(origem.getId());
+        copia.setNome(origem.getNome());
+        copia.setDescricao(origem.getDescricao());
+        copia.setPreco(origem.getPreco());
+        copia.setCodigoFabricante(origem.getCodigoFabricante());
+        copia.setEstoqueAtual(origem.getEstoqueAtual());
+        copia.setEstoqueMinimo(origem.getEstoqueMinimo());
+        copia.setEstoqueReservado(origem.getEstoqueReservado());
+        copia.setLocalizacaoEstoque(origem.getLocalizacaoEstoque());
+        copia.setVersao(origem.getVersao());
+        return copia;
+    }
+}
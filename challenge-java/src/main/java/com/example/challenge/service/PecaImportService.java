@@ -0,0 +1,239 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.MovimentoEstoque;
+import com.example.challenge.domain.MovimentoEstoque.Origem;
+import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.PecaDTO;
+import com.example.challenge.dto.PecaImportResultadoDTO;
+import com.example.challenge.dto.PecaImportResultadoDTO.ErroLinha;
+import com.example.challenge.repository.PecaRepository;
+import com.example.challenge.repository.PecaRepository.EstoquePeca;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa do catálogo de peças a partir de um CSV.
+ * <p>
+ * O arquivo é lido linha a linha (nunca inteiro em memória). Cada linha é validada com as
+ * mesmas regras de PecaDTO; os códigos já cadastrados são carregados uma única vez e decidem
+ * se a linha vira INSERT ou UPDATE. As gravações vão em lotes JDBC de 'app.pecas.import.batch-size'
+ * linhas, cada lote em sua própria transação: um lote que falhar não desfaz os anteriores.
+ * As peças gravadas entram no PecaBuscaIndex e o PecaCache é descartado ao final; a variação de
+ * estoque de cada peça vai para o histórico (EstoqueHistoricoService) na transação do próprio lote.
+ * <p>
+ * Formato (ver LeitorCsv): primeira linha com os nomes das colunas de PecaDTO (nome, descricao,
+ * codigoFabricante, preco, estoqueAtual, estoqueMinimo, localizacaoEstoque), em qualquer ordem.
+ */
+@Service
+public class PecaImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PecaImportService.class);
+
+    static final List<String> COLUNAS = List.of(
+            "nome", "descricao", "codigoFabricante", "preco", "estoqueAtual", "estoqueMinimo", "localizacaoEstoque");
+
+    private final PecaRepository pecaRepository;
+    private final PecaCache pecaCache;
+    private final PecaBuscaIndex pecaBuscaIndex;
+    private final EstoqueHistoricoService estoqueHistorico;
+    private final DashboardService dashboardService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public PecaImportService(PecaRepository pecaRepository, PecaCache pecaCache, PecaBuscaIndex pecaBuscaIndex,
+                             EstoqueHistoricoService estoqueHistorico,
+                             DashboardService dashboardService,
+                             Validator validator,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${app.pecas.import.batch-size:1000}") int batchSize) {
+        this.pecaRepository = pecaRepository;
+        this.pecaCache = pecaCache;
+        this.pecaBuscaIndex = pecaBuscaIndex;
+        this.estoqueHistorico = estoqueHistorico;
+        this.dashboardService = dashboardService;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    // Peça pronta para gravar e a linha de onde veio (para reportar erro do lote)
+    private record LinhaPeca(int numero, Peca peca) {}
+
+    /**
+     * Estado de uma importação em andamento.
+     */
+    private class Importacao {
+        final Map<String, Long> existentes = pecaRepository.findAllIdsPorCodigoFabricante();
+        final Set<String> vistos = new HashSet<>();
+        final List<LinhaPeca> inserir = new ArrayList<>();
+        final List<LinhaPeca> atualizar = new ArrayList<>();
+        final ErrosImportacao<ErroLinha> erros = new ErrosImportacao<>();
+        int processadas;
+        int inseridas;
+        int atualizadas;
+
+        void erro(int linha, String codigo, String mensagem) {
+            erros.adicionar(new ErroLinha(linha, codigo, mensagem));
+        }
+
+        void gravarInsercoes() {
+            if (inserir.isEmpty()) return;
+            try {
+                List<Peca> pecas = inserir.stream().map(LinhaPeca::peca).toList();
+                transactionTemplate.executeWithoutResult(status -> {
+                    pecaRepository.insertBatch(pecas);
+                    LocalDateTime agora = LocalDateTime.now();
+                    estoqueHistorico.registrarTodos(pecas.stream()
+                            .map(p -> new MovimentoEstoque(p.getId(), p.getEstoqueAtual(), agora, Origem.IMPORTACAO))
+                            .toList());
+                });
+                inseridas += inserir.size();
+                pecas.forEach(pecaBuscaIndex::indexar);
+            } catch (DataAccessException e) {
+                // Ex.: código cadastrado por outra requisição depois da carga de 'existentes'
+                inserir.forEach(l -> erro(l.numero(), l.peca().getCodigoFabricante(),
+                        "Falha ao gravar o lote: " + e.getMostSpecificCause().getMessage()));
+            }
+            inserir.clear();
+            progresso();
+        }
+
+        void gravarAtualizacoes() {
+            if (atualizar.isEmpty()) return;
+            try {
+                List<ErroLinha> rejeitadas = new ArrayList<>();
+                List<LinhaPeca> gravadas = transactionTemplate.execute(status -> {
+                    // Estoque anterior lido com as linhas bloqueadas: nenhum ajuste ou reserva entra
+                    // entre a leitura e o UPDATE
+                    Map<String, EstoquePeca> anteriores = pecaRepository.lockEstoquePorCodigo(
+                            atualizar.stream().map(l -> l.peca().getCodigoFabricante()).toList());
+                    List<LinhaPeca> aplicar = new ArrayList<>(atualizar.size());
+                    for (LinhaPeca l : atualizar) {
+                        EstoquePeca anterior = anteriores.get(l.peca().getCodigoFabricante());
+                        if (anterior == null) {
+                            rejeitadas.add(new ErroLinha(l.numero(), l.peca().getCodigoFabricante(),
+                                    "Peça removida durante a importação."));
+                        } else if (l.peca().getEstoqueAtual() < anterior.getEstoqueReservado()) {
+                            // Mesma regra de PecaService.save (e do CHECK de V12)
+                            rejeitadas.add(new ErroLinha(l.numero(), l.peca().getCodigoFabricante(),
+                                    "O estoque atual não pode ficar abaixo das " + anterior.getEstoqueReservado()
+                                            + " unidades reservadas."));
+                        } else {
+                            aplicar.add(l);
+                        }
+                    }
+                    List<Peca> pecas = aplicar.stream().map(LinhaPeca::peca).toList();
+                    pecaRepository.updateBatchPorCodigo(pecas);
+                    LocalDateTime agora = LocalDateTime.now();
+                    estoqueHistorico.registrarTodos(pecas.stream()
+                            .map(p -> new MovimentoEstoque(p.getId(),
+                                    p.getEstoqueAtual() - anteriores.get(p.getCodigoFabricante()).getEstoqueAtual(),
+                                    agora, Origem.IMPORTACAO))
+                            .toList());
+                    return aplicar;
+                });
+                atualizadas += gravadas.size();
+                gravadas.forEach(l -> pecaBuscaIndex.indexar(l.peca()));
+                rejeitadas.forEach(erros::adicionar);
+            } catch (DataAccessException e) {
+                atualizar.forEach(l -> erro(l.numero(), l.peca().getCodigoFabricante(),
+                        "Falha ao gravar o lote: " + e.getMostSpecificCause().getMessage()));
+            }
+            atualizar.clear();
+            progresso();
+        }
+
+        void progresso() {
+            log.info("Importação de peças: {} linhas processadas ({} inseridas, {} atualizadas, {} erros)",
+                    processadas, inseridas, atualizadas, erros.total());
+        }
+    }
+
+    /**
+     * Importa (insere ou atualiza pelo código de fabricante) as peças do CSV.
+     * @param csv Conteúdo do arquivo, em UTF-8.
+     * @return Totais e erros por linha.
+     * @throws IllegalArgumentException Se o arquivo estiver vazio ou faltar alguma coluna no cabeçalho.
+     */
+    public PecaImportResultadoDTO importarCsv(InputStream csv) throws IOException {
+        LeitorCsv leitor = new LeitorCsv(csv, COLUNAS);
+        Importacao importacao = new Importacao();
+        try {
+            while (leitor.proxima()) {
+                importacao.processadas++;
+                processarLinha(importacao, leitor);
+                if (importacao.inserir.size() >= batchSize) importacao.gravarInsercoes();
+                if (importacao.atualizar.size() >= batchSize) importacao.gravarAtualizacoes();
+            }
+            importacao.gravarInsercoes();
+            importacao.gravarAtualizacoes();
+        } finally {
+            // Muitas peças podem ter mudado (mesmo se a leitura falhar no meio):
+            // descarta o cache inteiro em vez de uma a uma
+            pecaCache.clear();
+            dashboardService.registrarAlteracao();
+        }
+        return new PecaImportResultadoDTO(importacao.processadas, importacao.inseridas, importacao.atualizadas,
+                importacao.erros.total(), importacao.erros.reportados());
+    }
+
+    private void processarLinha(Importacao importacao, LeitorCsv leitor) {
+        int numero = leitor.numero();
+        String codigo = leitor.campo("codigoFabricante");
+        PecaDTO dto;
+        try {
+            dto = PecaDTO.builder()
+                    .nome(leitor.campo("nome"))
+                    .descricao(leitor.campo("descricao"))
+                    .codigoFabricante(codigo)
+                    .preco(leitor.decimal("preco"))
+                    .estoqueAtual(leitor.inteiro("estoqueAtual"))
+                    .estoqueMinimo(leitor.inteiro("estoqueMinimo"))
+                    .localizacaoEstoque(leitor.campo("localizacaoEstoque"))
+                    .build();
+        } catch (NumberFormatException e) {
+            importacao.erro(numero, codigo, e.getMessage());
+            return;
+        }
+
+        Set<ConstraintViolation<PecaDTO>> violacoes = validator.validate(dto);
+        if (!violacoes.isEmpty()) {
+            importacao.erro(numero, codigo, violacoes.stream()
+                    .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(" ")));
+            return;
+        }
+        if (!importacao.vistos.add(codigo)) {
+            importacao.erro(numero, codigo, "Código de fabricante repetido no arquivo.");
+            return;
+        }
+
+        Peca peca = new Peca();
+        peca.setNome(dto.getNome());
+        peca.setDescricao(dto.getDescricao());
+        peca.setCodigoFabricante(codigo);
+        peca.setPreco(dto.getPreco());
+        peca.setEstoqueAtual(dto.getEstoqueAtual());
+        peca.setEstoqueMinimo(dto.getEstoqueMinimo());
+        peca.setLocalizacaoEstoque(dto.getLocalizacaoEstoque());
+        Long id = importacao.existentes.get(codigo);
+        peca.setId(id);
+        (id != null ? importacao.atualizar : importacao.inserir).add(new LinhaPeca(numero, peca));
+    }
+}
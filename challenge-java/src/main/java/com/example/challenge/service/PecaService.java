@@ -1,12 +1,32 @@
 package com.example.challenge.service;
 
+import com.example.challenge.domain.MovimentoEstoque;
+import com.example.challenge.domain.MovimentoEstoque.Origem;
 import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.EstoqueMovimentoDTO;
+import com.example.challenge.dto.EstoqueMovimentoResultadoDTO;
+import com.example.challenge.dto.EstoqueMovimentoResultadoDTO.Status;
+import com.example.challenge.dto.PecaBuscaResultadoDTO;
+import com.example.challenge.dto.PecaPaginaDTO;
+import com.example.challenge.dto.PecaSugestaoDTO;
+import com.example.challenge.dto.ReposicaoPecaDTO;
 import com.example.challenge.repository.PecaRepository;
+import com.example.challenge.repository.PecaRepository.EstoquePeca;
+import com.example.challenge.repository.PecaRepositoryCustom;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Serviço que encapsula a lógica de negócios para a entidade Peca.
@@ -16,9 +36,18 @@ import java.util.Optional;
 public class PecaService {
 
     private final PecaRepository pecaRepository;
+    private final PecaCache pecaCache;
+    private final PecaBuscaIndex pecaBuscaIndex;
+    private final EstoqueHistoricoService estoqueHistorico;
+    private final DashboardService dashboardService;
 
-    public PecaService(PecaRepository pecaRepository) {
+    public PecaService(PecaRepository pecaRepository, PecaCache pecaCache, PecaBuscaIndex pecaBuscaIndex,
+                       EstoqueHistoricoService estoqueHistorico, DashboardService dashboardService) {
         this.pecaRepository = pecaRepository;
+        this.pecaCache = pecaCache;
+        this.pecaBuscaIndex = pecaBuscaIndex;
+        this.estoqueHistorico = estoqueHistorico;
+        this.dashboardService = dashboardService;
     }
 
     /**
@@ -40,7 +69,28 @@ public class PecaService {
             throw new IllegalArgumentException("O estoque atual não pode ser negativo.");
         }
         
-        return pecaRepository.save(peca);
+        // Estoque antes da alteração, para lançar só a diferença no histórico
+        int estoqueAnterior = 0;
+        if (peca.getId() != null) {
+            Optional<EstoquePeca> gravado = pecaRepository.findEstoqueById(peca.getId());
+            if (gravado.isPresent()) {
+                // Regra de negócio: unidades reservadas para ordens de serviço não podem sumir na edição
+                int reservado = gravado.get().getEstoqueReservado();
+                if (peca.getEstoqueAtual() < reservado) {
+                    throw new IllegalArgumentException(
+                            "O estoque atual não pode ficar abaixo das " + reservado + " unidades reservadas.");
+                }
+                estoqueAnterior = gravado.get().getEstoqueAtual();
+            }
+        }
+
+        Peca salva = pecaRepository.save(peca);
+        estoqueHistorico.registrar(salva.getId(), salva.getEstoqueAtual() - estoqueAnterior,
+                peca.getId() == null ? Origem.CADASTRO : Origem.EDICAO);
+        pecaCache.evict(salva.getId(), salva.getCodigoFabricante());
+        pecaBuscaIndex.indexar(salva);
+        dashboardService.registrarAlteracao();
+        return salva;
     }
 
     /**
@@ -51,10 +101,105 @@ public class PecaService {
     }
 
     /**
-     * Busca uma peça por ID.
+     * Lista peças por cursor (ordem de id), trazendo do banco só os campos pedidos.
+     * @param after Id da última peça já recebida, ou null para começar do início.
+     * @param limit Tamanho da página.
+     * @param campos Campos desejados (além do id); vazio ou null traz todos.
+     * @throws IllegalArgumentException Se algum campo não existir.
+     */
+    public PecaPaginaDTO listarPagina(Long after, int limit, List<String> campos) {
+        List<String> projecao = PecaRepositoryCustom.CAMPOS_PROJETAVEIS;
+        if (campos != null && !campos.isEmpty()) {
+            projecao = new ArrayList<>(new LinkedHashSet<>(campos));
+            projecao.remove("id"); // o id sempre vem (é o cursor)
+            for (String campo : projecao) {
+                if (!PecaRepositoryCustom.CAMPOS_PROJETAVEIS.contains(campo)) {
+                    throw new IllegalArgumentException("Campo desconhecido: " + campo);
+                }
+            }
+        }
+
+        // Busca uma linha a mais só para saber se existe próxima página
+        List<Map<String, Object>> linhas = pecaRepository.findPagina(after, limit + 1, projecao);
+        if (linhas.size() <= limit) {
+            return new PecaPaginaDTO(linhas, null);
+        }
+        List<Map<String, Object>> pagina = linhas.subList(0, limit);
+        return new PecaPaginaDTO(pagina, (Long) pagina.get(limit - 1).get("id"));
+    }
+
+    /**
+     * Busca as peças com estoque atual abaixo do estoque mínimo.
+     */
+    public List<Peca> findAbaixoDoMinimo() {
+        return pecaRepository.findAbaixoDoMinimo();
+    }
+
+    /**
+     * Métricas de acerto/falta do cache de peças.
+     */
+    public Map<String, Map<String, Object>> cacheStats() {
+        return pecaCache.stats();
+    }
+
+    /**
+     * Relatório de reposição paginado, ordenado pelo déficit (maior primeiro).
+     */
+    public Page<ReposicaoPecaDTO> relatorioReposicao(int page, int size) {
+        return pecaRepository.findRelatorioReposicao(PageRequest.of(page, size));
+    }
+
+    /**
+     * Busca textual por trechos do nome ou da descrição (via PecaBuscaIndex, sem ir ao banco).
+     */
+    public List<PecaBuscaResultadoDTO> buscar(String consulta, int limite) {
+        return pecaBuscaIndex.buscar(consulta, limite);
+    }
+
+    /**
+     * Sugestões para o campo de peça do formulário de OS: código de fabricante ou nome começando
+     * com o texto digitado, sem distinguir maiúsculas. Texto em branco não traz sugestões.
+     */
+    public List<PecaSugestaoDTO> sugerir(String prefixo, int limite) {
+        if (prefixo == null || prefixo.isBlank()) {
+            return List.of();
+        }
+        return pecaRepository.findSugestoesPorPrefixo(prefixo.trim().toUpperCase(Locale.ROOT), limite);
+    }
+
+    /**
+     * Busca uma peça por ID (via PecaCache).
      */
     public Optional<Peca> findById(Long id) {
-        return pecaRepository.findById(id);
+        return pecaCache.getById(id, pecaRepository::findById);
+    }
+
+    /**
+     * Versão atual da peça, lida sem carregar a entidade (para conferir o ETag).
+     */
+    public Optional<Long> findVersao(Long id) {
+        return pecaRepository.findVersaoById(id);
+    }
+
+    /**
+     * Saldo de estoque da peça no instante informado (via EstoqueHistoricoService).
+     */
+    public int saldoEm(Long id, LocalDateTime data) {
+        return estoqueHistorico.saldoEm(id, data);
+    }
+
+    /**
+     * Revisão da coleção de peças: muda sempre que alguma peça é criada, alterada ou removida.
+     */
+    public String revisaoColecao() {
+        return pecaCache.revisao();
+    }
+
+    /**
+     * Busca uma peça pelo código de fabricante (via PecaCache).
+     */
+    public Optional<Peca> findByCodigoFabricante(String codigoFabricante) {
+        return pecaCache.getByCodigo(codigoFabricante, pecaRepository::findByCodigoFabricante);
     }
     
     /**
@@ -67,29 +212,85 @@ public class PecaService {
             throw new IllegalArgumentException("Peça com ID " + id + " não encontrada para deleção.");
         }
         pecaRepository.deleteById(id);
+        pecaCache.evict(id, null);
+        pecaBuscaIndex.remover(id);
+        dashboardService.registrarAlteracao();
     }
     
     /**
-     * Atualiza o estoque de uma peça.
-     * O PecaController passa a quantidade como Integer (objeto), mas aqui
-     * o método usa o tipo primitivo 'int' para o cálculo, o que é mais eficiente
-     * e compatível com a chamada do Controller (o Java lida com o autoboxing).
-     * * @param codigoFabricante O código da peça.
+     * Atualiza o estoque de uma peça com um UPDATE atômico e condicional
+     * (estoque_atual = estoque_atual + quantidade, somente se o resultado não ficar abaixo de
+     * estoque_reservado). Chamadas concorrentes para a mesma peça não perdem incrementos.
+     * @param codigoFabricante O código da peça.
      * @param quantidade Alteração no estoque (positivo para entrada, negativo para saída).
-     * @return A peça atualizada.
+     * @return A peça atualizada, já com o novo valor de estoque.
+     * @throws IllegalArgumentException Se a peça não existir ou o estoque ficar negativo ou abaixo do reservado.
      */
     @Transactional
     public Peca updateEstoque(String codigoFabricante, int quantidade) {
-        Peca peca = pecaRepository.findByCodigoFabricante(codigoFabricante)
-                                  .orElseThrow(() -> new IllegalArgumentException("Peça com código " + codigoFabricante + " não encontrada."));
-        
-        int novoEstoque = peca.getEstoqueAtual() + quantidade;
-        
-        if (novoEstoque < 0) {
-            throw new IllegalArgumentException("Operação de estoque resultaria em valor negativo.");
+        Peca atualizada = pecaRepository.adjustEstoque(codigoFabricante, quantidade).orElseThrow(() -> {
+            // Nenhuma linha alterada: ou a peça não existe, ou o estoque ficaria abaixo do reservado
+            Optional<EstoquePeca> gravado = pecaRepository.findEstoqueByCodigoFabricante(codigoFabricante);
+            if (gravado.isEmpty()) {
+                return new IllegalArgumentException("Peça com código " + codigoFabricante + " não encontrada.");
+            }
+            int reservado = gravado.get().getEstoqueReservado();
+            if (reservado > 0) {
+                // Mesma mensagem de save e PecaImportService
+                return new IllegalArgumentException(
+                        "O estoque atual não pode ficar abaixo das " + reservado + " unidades reservadas.");
+            }
+            return new IllegalArgumentException("Operação de estoque resultaria em valor negativo.");
+        });
+        estoqueHistorico.registrar(atualizada.getId(), quantidade, Origem.AJUSTE);
+        pecaCache.evict(atualizada.getId(), codigoFabricante);
+        dashboardService.registrarAlteracao();
+        return atualizada;
+    }
+
+    /**
+     * Aplica um lote de movimentos de estoque em uma única transação, com os UPDATEs
+     * condicionais de updateEstoque enviados em um só lote JDBC.
+     * Um movimento rejeitado não desfaz os demais; cada um recebe seu próprio resultado.
+     * @param movimentos Movimentos na ordem em que devem ser aplicados.
+     * @return Um resultado por movimento, na mesma ordem.
+     */
+    @Transactional
+    public List<EstoqueMovimentoResultadoDTO> updateEstoqueBatch(List<EstoqueMovimentoDTO> movimentos) {
+        int[] alterados = pecaRepository.adjustEstoqueBatch(movimentos);
+
+        // Saldo final de cada peça tocada pelo lote (um único SELECT ... IN)
+        List<Peca> tocadas = pecaRepository.findByCodigoFabricanteIn(
+                movimentos.stream().map(EstoqueMovimentoDTO::getCodigoFabricante).collect(Collectors.toSet()));
+        tocadas.forEach(p -> pecaCache.evict(p.getId(), p.getCodigoFabricante()));
+        dashboardService.registrarAlteracao();
+        Map<String, Integer> saldo = tocadas.stream()
+                .collect(Collectors.toMap(Peca::getCodigoFabricante, Peca::getEstoqueAtual));
+        Map<String, Long> ids = tocadas.stream()
+                .collect(Collectors.toMap(Peca::getCodigoFabricante, Peca::getId));
+
+        // Percorre de trás para frente para obter o saldo logo após cada movimento
+        EstoqueMovimentoResultadoDTO[] resultados = new EstoqueMovimentoResultadoDTO[movimentos.size()];
+        List<MovimentoEstoque> aplicados = new ArrayList<>();
+        LocalDateTime agora = LocalDateTime.now();
+        Map<String, Integer> saldoApos = new HashMap<>(saldo);
+        for (int i = movimentos.size() - 1; i >= 0; i--) {
+            EstoqueMovimentoDTO movimento = movimentos.get(i);
+            String codigo = movimento.getCodigoFabricante();
+            Integer estoque = saldoApos.get(codigo);
+            Status status;
+            if (estoque == null) {
+                status = Status.CODIGO_DESCONHECIDO;
+            } else if (alterados[i] > 0) {
+                status = Status.APLICADO;
+                saldoApos.put(codigo, estoque - movimento.getQuantidade());
+                aplicados.add(new MovimentoEstoque(ids.get(codigo), movimento.getQuantidade(), agora, Origem.LOTE));
+            } else {
+                status = Status.REJEITADO_ESTOQUE_NEGATIVO;
+            }
+            resultados[i] = new EstoqueMovimentoResultadoDTO(codigo, movimento.getQuantidade(), status, estoque);
         }
-        
-        peca.setEstoqueAtual(novoEstoque);
-        return pecaRepository.save(peca);
+        estoqueHistorico.registrarTodos(aplicados);
+        return List.of(resultados);
     }
 }
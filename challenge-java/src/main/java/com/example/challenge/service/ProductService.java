@@ -4,7 +4,11 @@ import com.example.challenge.domain.Product;
 import com.example.challenge.repository.ProductRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -29,4 +33,10 @@ public class ProductService {
     public Product find(Long id) { 
         return repo.findById(id).orElse(null); 
     }
+
+    // Resolve vários produtos em um único SELECT ... WHERE id IN (...)
+    public Map<Long, Product> findAllById(Collection<Long> ids) {
+        return repo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
 }
\ No newline at end of file
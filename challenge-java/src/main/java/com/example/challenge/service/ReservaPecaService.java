@@ -0,0 +1,174 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.MovimentoEstoque.Origem;
+import com.example.challenge.domain.ReservaPeca;
+import com.example.challenge.dto.ReservaPecaListaDTO;
+import com.example.challenge.repository.OrdemServicoRepository;
+import com.example.challenge.repository.PecaRepository;
+import com.example.challenge.repository.ReservaPecaRepository;
+import com.example.challenge.repository.ReservaPecaRepository.ReservaRemovida;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reservas de peças para ordens de serviço.
+ * <p>
+ * Cada reserva separa N unidades de uma peça até vencer: disponível = estoqueAtual - estoqueReservado,
+ * lido da própria linha da peça (O(1), sem somar reservas). A reserva é um UPDATE condicional na linha
+ * da peça (sem lock de tabela), então duas ordens nunca reservam a mesma última unidade.
+ * As reservas vencidas são liberadas em lotes por uma varredura periódica.
+ */
+@Service
+public class ReservaPecaService {
+
+    private final ReservaPecaRepository reservaPecaRepository;
+    private final PecaRepository pecaRepository;
+    private final OrdemServicoRepository ordemServicoRepository;
+    private final PecaCache pecaCache;
+    private final EstoqueHistoricoService estoqueHistorico;
+    private final DashboardService dashboardService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration validade;
+    private final int loteExpiracao;
+
+    public ReservaPecaService(ReservaPecaRepository reservaPecaRepository, PecaRepository pecaRepository,
+                              OrdemServicoRepository ordemServicoRepository, PecaCache pecaCache,
+                              EstoqueHistoricoService estoqueHistorico, DashboardService dashboardService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.pecas.reserva.validade:PT30M}") Duration validade,
+                              @Value("${app.pecas.reserva.lote-expiracao:500}") int loteExpiracao) {
+        this.reservaPecaRepository = reservaPecaRepository;
+        this.pecaRepository = pecaRepository;
+        this.ordemServicoRepository = ordemServicoRepository;
+        this.pecaCache = pecaCache;
+        this.estoqueHistorico = estoqueHistorico;
+        this.dashboardService = dashboardService;
+        this.transactionTemplate = transactionTemplate;
+        this.validade = validade;
+        this.loteExpiracao = loteExpiracao;
+    }
+
+    /**
+     * Reserva unidades de uma peça para uma ordem de serviço, válidas por 'app.pecas.reserva.validade'.
+     * @param pecaId O ID da peça.
+     * @param ordemServicoId O ID da ordem de serviço.
+     * @param quantidade Unidades a reservar.
+     * @return A reserva criada.
+     * @throws IllegalArgumentException Se a quantidade não for positiva ou a peça/ordem não existir.
+     * @throws IllegalStateException Se não houver unidades disponíveis suficientes.
+     */
+    @Transactional
+    public ReservaPeca reservar(Long pecaId, Long ordemServicoId, int quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("A quantidade reservada deve ser maior que zero.");
+        }
+        if (!ordemServicoRepository.existsById(ordemServicoId)) {
+            throw new IllegalArgumentException("Ordem de Serviço com ID " + ordemServicoId + " não encontrada.");
+        }
+        if (pecaRepository.reservarEstoque(pecaId, quantidade) == 0) {
+            if (!pecaRepository.existsById(pecaId)) {
+                throw new IllegalArgumentException("Peça com ID " + pecaId + " não encontrada.");
+            }
+            throw new IllegalStateException("Estoque disponível insuficiente para reservar " + quantidade + " unidade(s).");
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        ReservaPeca reserva = reservaPecaRepository.save(
+                new ReservaPeca(pecaId, ordemServicoId, quantidade, agora, agora.plus(validade)));
+        pecaCache.evict(pecaId, null);
+        return reserva;
+    }
+
+    /**
+     * Reservas (ainda ativas) de uma ordem de serviço, com o código e o nome de cada peça.
+     */
+    public List<ReservaPecaListaDTO> findByOrdemServico(Long ordemServicoId) {
+        return reservaPecaRepository.listarPorOrdemServico(ordemServicoId);
+    }
+
+    /**
+     * Cancela a reserva, devolvendo as unidades ao disponível.
+     * @throws IllegalArgumentException Se a reserva não existir (ou já tiver vencido).
+     */
+    @Transactional
+    public void liberar(Long reservaId) {
+        List<ReservaRemovida> removida = reservaPecaRepository.removerPorId(reservaId);
+        if (removida.isEmpty()) {
+            throw new IllegalArgumentException("Reserva com ID " + reservaId + " não encontrada.");
+        }
+        devolver(removida);
+    }
+
+    /**
+     * Confirma o uso da reserva pela ordem de serviço: as unidades saem do estoque (com lançamento
+     * no histórico) e deixam de estar reservadas.
+     * @throws IllegalArgumentException Se a reserva não existir (ou já tiver vencido).
+     */
+    @Transactional
+    public void confirmar(Long reservaId) {
+        List<ReservaRemovida> removida = reservaPecaRepository.removerPorId(reservaId);
+        if (removida.isEmpty()) {
+            throw new IllegalArgumentException("Reserva com ID " + reservaId + " não encontrada.");
+        }
+        ReservaRemovida reserva = removida.get(0);
+        pecaRepository.baixarReserva(reserva.getPecaId(), reserva.getQuantidade());
+        estoqueHistorico.registrar(reserva.getPecaId(), -reserva.getQuantidade(), Origem.ORDEM_SERVICO);
+        pecaCache.evict(reserva.getPecaId(), null);
+        dashboardService.registrarAlteracao();
+    }
+
+    /**
+     * Libera todas as reservas de uma ordem de serviço (na transação de quem chama).
+     */
+    @Transactional
+    public void liberarDaOrdem(Long ordemServicoId) {
+        devolver(reservaPecaRepository.removerPorOrdemServico(ordemServicoId));
+    }
+
+    /**
+     * Varredura periódica ('app.pecas.reserva.varredura') das reservas vencidas.
+     */
+    @Scheduled(fixedDelayString = "${app.pecas.reserva.varredura:PT1M}",
+               initialDelayString = "${app.pecas.reserva.varredura:PT1M}")
+    public void expirarVencidasPeriodicamente() {
+        expirarVencidas(LocalDateTime.now());
+    }
+
+    /**
+     * Libera as reservas vencidas em 'agora', em lotes de 'app.pecas.reserva.lote-expiracao',
+     * cada lote em sua própria transação (curta, para não segurar os locks das peças).
+     * @return Quantas reservas foram liberadas.
+     */
+    public int expirarVencidas(LocalDateTime agora) {
+        int total = 0;
+        int liberadas;
+        do {
+            liberadas = transactionTemplate.execute(status -> {
+                List<ReservaRemovida> vencidas = reservaPecaRepository.removerVencidas(agora, loteExpiracao);
+                devolver(vencidas);
+                return vencidas.size();
+            });
+            total += liberadas;
+        } while (liberadas == loteExpiracao);
+        return total;
+    }
+
+    // Devolve ao disponível as unidades das reservas removidas: um UPDATE por peça, em um lote JDBC.
+    // Em ordem de id, para duas varreduras concorrentes travarem as peças na mesma ordem.
+    private void devolver(List<ReservaRemovida> removidas) {
+        Map<Long, Integer> porPeca = new TreeMap<>();
+        for (ReservaRemovida r : removidas) {
+            porPeca.merge(r.getPecaId(), r.getQuantidade(), Integer::sum);
+        }
+        pecaRepository.liberarReservas(porPeca);
+        porPeca.keySet().forEach(pecaId -> pecaCache.evict(pecaId, null));
+    }
+}
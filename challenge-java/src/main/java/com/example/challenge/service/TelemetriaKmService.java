@@ -0,0 +1,253 @@
+package com.example.challenge.service;
+
+import com.example.challenge.dto.LeituraKmDTO;
+import com.example.challenge.dto.LeituraKmResultadoDTO;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.MotoRepository.KmMoto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingestão das leituras de hodômetro (km) enviadas pela telemetria das motos.
+ * <p>
+ * As leituras não passam por MotoService.save: cada uma é conferida em memória contra a última
+ * aceita da mesma moto (km menor ou instante não posterior é descartado) e só o maior km de cada
+ * moto fica pendente. A cada 'app.motos.telemetria.gravacao' as pendentes vão para o banco em
+ * lotes JDBC de UPDATE MOTO SET KM_ATUAL, então mil leituras de uma moto custam um único UPDATE.
+ * Leituras aceitas e ainda não gravadas se perdem se o processo cair; a próxima leitura da moto repõe o valor.
+ * Toda leitura de moto conhecida também vai para a série temporal de km (KmSerieService).
+ */
+@Service
+public class TelemetriaKmService {
+
+    // Marca de placa/chassi sem moto cadastrada (o Caffeine não guarda null)
+    private static final Long DESCONHECIDA = -1L;
+
+    private final MotoRepository motoRepository;
+    private final KmSerieService kmSerieService;
+    private final TransactionTemplate transactionTemplate;
+    private final int loteGravacao;
+
+    // "P:placa" / "C:chassi" (normalizados) -> id da moto, para não consultar o banco a cada leitura
+    private final Cache<String, Long> idPorIdentificador;
+    // Caminho inverso (id da moto -> chaves do cache que levam a ela), para invalidar só a moto editada
+    private final Map<Long, Set<String>> chavesPorMoto = new ConcurrentHashMap<>();
+    // Última leitura aceita de cada moto
+    private final Map<Long, UltimaLeitura> ultimas = new ConcurrentHashMap<>();
+    // Maior km aceito de cada moto desde a última gravação
+    private final Map<Long, Integer> pendentes = new ConcurrentHashMap<>();
+
+    private record UltimaLeitura(int km, LocalDateTime timestamp) {}
+
+    public TelemetriaKmService(MotoRepository motoRepository, KmSerieService kmSerieService,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${app.motos.telemetria.lote:1000}") int loteGravacao,
+                               @Value("${app.motos.telemetria.cache-ttl:10m}") Duration cacheTtl) {
+        this.motoRepository = motoRepository;
+        this.kmSerieService = kmSerieService;
+        this.transactionTemplate = transactionTemplate;
+        this.loteGravacao = loteGravacao;
+        this.idPorIdentificador = Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(cacheTtl)
+                .evictionListener((String chave, Long id, RemovalCause causa) -> esquecerChave(chave, id))
+                .build();
+    }
+
+    /**
+     * Confere e acumula um lote de leituras. Não grava nada no banco.
+     * @param leituras Leituras na ordem em que foram feitas.
+     * @return Quantas foram aceitas e quantas descartadas, por motivo.
+     */
+    public LeituraKmResultadoDTO registrar(List<LeituraKmDTO> leituras) {
+        int aceitas = 0;
+        int foraDeOrdem = 0;
+        int desconhecidas = 0;
+        int invalidas = 0;
+        for (LeituraKmDTO leitura : leituras) {
+            if (leitura == null || leitura.getKm() == null || leitura.getKm() < 0 || leitura.getTimestamp() == null
+                    || !kmSerieService.horarioAceito(leitura.getTimestamp())) {
+                invalidas++;
+                continue;
+            }
+            Long motoId = resolver(leitura);
+            if (motoId == null) {
+                if (vazio(leitura.getPlaca()) && vazio(leitura.getChassi())) {
+                    invalidas++;
+                } else {
+                    desconhecidas++;
+                }
+                continue;
+            }
+            // A série guarda também as fora de ordem: um km menor é justamente o retrocesso a investigar
+            kmSerieService.registrar(motoId, leitura.getTimestamp(), leitura.getKm());
+            UltimaLeitura nova = new UltimaLeitura(leitura.getKm(), leitura.getTimestamp());
+            UltimaLeitura vencedora = ultimas.merge(motoId, nova,
+                    (atual, candidata) -> monotonica(atual, candidata) ? candidata : atual);
+            if (vencedora == nova) {
+                pendentes.merge(motoId, nova.km(), Math::max);
+                aceitas++;
+            } else {
+                foraDeOrdem++;
+            }
+        }
+        return new LeituraKmResultadoDTO(leituras.size(), aceitas, foraDeOrdem, desconhecidas, invalidas);
+    }
+
+    // Hodômetro não volta e o instante precisa avançar (a semente vinda do banco não tem instante)
+    private static boolean monotonica(UltimaLeitura atual, UltimaLeitura candidata) {
+        return candidata.km() >= atual.km()
+                && (atual.timestamp() == null || candidata.timestamp().isAfter(atual.timestamp()));
+    }
+
+    private Long resolver(LeituraKmDTO leitura) {
+        String chave;
+        if (!vazio(leitura.getPlaca())) {
+            chave = "P:" + MotoService.normalizarIdentificacao(leitura.getPlaca());
+        } else if (!vazio(leitura.getChassi())) {
+            chave = "C:" + MotoService.normalizarIdentificacao(leitura.getChassi());
+        } else {
+            return null;
+        }
+        Long id = idPorIdentificador.get(chave, this::carregar);
+        return DESCONHECIDA.equals(id) ? null : id;
+    }
+
+    // Busca a moto no banco e usa o km gravado como ponto de partida da comparação
+    private Long carregar(String chave) {
+        String valor = chave.substring(2);
+        Optional<KmMoto> moto = chave.startsWith("P:")
+                ? motoRepository.findKmByPlaca(valor)
+                : motoRepository.findKmByChassi(valor);
+        return moto.map(m -> {
+            int km = m.getKmAtual() == null ? 0 : m.getKmAtual();
+            ultimas.putIfAbsent(m.getId(), new UltimaLeitura(km, null));
+            chavesPorMoto.computeIfAbsent(m.getId(), id -> ConcurrentHashMap.newKeySet()).add(chave);
+            return m.getId();
+        }).orElse(DESCONHECIDA);
+    }
+
+    // Chave que saiu do cache por tamanho ou validade: sai também do caminho inverso
+    private void esquecerChave(String chave, Long id) {
+        if (id != null && !DESCONHECIDA.equals(id)) {
+            chavesPorMoto.computeIfPresent(id, (motoId, chaves) -> {
+                chaves.remove(chave);
+                return chaves.isEmpty() ? null : chaves;
+            });
+        }
+    }
+
+    private static boolean vazio(String s) {
+        return s == null || s.isBlank();
+    }
+
+    /**
+     * Esquece o que foi lido da moto (chamado quando ela é editada ou removida pelo cadastro):
+     * placa/chassi podem ter mudado e o km gravado no formulário passa a ser a referência.
+     * Só saem do cache as chaves que levavam à moto e as da placa/chassi atuais (que podiam estar
+     * marcadas como desconhecidas); as demais motos continuam resolvidas sem ir ao banco.
+     * Com transação ativa, repete após o término dela, para descartar o que foi lido antes do commit.
+     * @param motoId O ID da moto.
+     * @param placa Placa atual (null se a moto foi removida).
+     * @param chassi Chassi atual (null se a moto foi removida).
+     */
+    public void invalidar(Long motoId, String placa, String chassi) {
+        invalidarAgora(motoId, placa, chassi);
+        AposTransacao.aoTerminar(() -> invalidarAgora(motoId, placa, chassi));
+    }
+
+    private void invalidarAgora(Long motoId, String placa, String chassi) {
+        Set<String> chaves = chavesPorMoto.remove(motoId);
+        if (chaves != null) {
+            idPorIdentificador.invalidateAll(chaves);
+        }
+        if (!vazio(placa)) {
+            idPorIdentificador.invalidate("P:" + MotoService.normalizarIdentificacao(placa));
+        }
+        if (!vazio(chassi)) {
+            idPorIdentificador.invalidate("C:" + MotoService.normalizarIdentificacao(chassi));
+        }
+        ultimas.remove(motoId);
+    }
+
+    /**
+     * Descarta as placas/chassis marcados como desconhecidos (chamado quando motos novas são
+     * cadastradas em massa); as motos já resolvidas continuam no cache.
+     */
+    public void esquecerDesconhecidas() {
+        idPorIdentificador.asMap().values().removeIf(DESCONHECIDA::equals);
+    }
+
+    /**
+     * Gravação periódica ('app.motos.telemetria.gravacao') das leituras pendentes.
+     */
+    @Scheduled(fixedDelayString = "${app.motos.telemetria.gravacao:PT5S}")
+    public void gravarPendentesPeriodicamente() {
+        gravarPendentes();
+    }
+
+    @PreDestroy
+    public void gravarAoEncerrar() {
+        gravarPendentes();
+    }
+
+    /**
+     * Grava o km pendente de cada moto em lotes de 'app.motos.telemetria.lote', um lote por transação.
+     * Leituras aceitas durante a gravação ficam para a próxima; se um lote falhar, ele volta às pendentes.
+     * @return Quantas motos tiveram o km alterado.
+     */
+    public synchronized int gravarPendentes() {
+        int alteradas = 0;
+        // Em ordem de id: cada lote atualiza as linhas na ordem da chave primária
+        Map<Long, Integer> lote = new TreeMap<>();
+        for (Long motoId : pendentes.keySet()) {
+            Integer km = pendentes.remove(motoId);
+            if (km != null) {
+                lote.put(motoId, km);
+            }
+            if (lote.size() >= loteGravacao) {
+                alteradas += gravar(lote);
+                lote = new TreeMap<>();
+            }
+        }
+        if (!lote.isEmpty()) {
+            alteradas += gravar(lote);
+        }
+        return alteradas;
+    }
+
+    private int gravar(Map<Long, Integer> lote) {
+        int[] linhas;
+        try {
+            linhas = transactionTemplate.execute(status -> motoRepository.avancarKmEmLote(lote));
+        } catch (RuntimeException e) {
+            lote.forEach((motoId, km) -> pendentes.merge(motoId, km, Math::max));
+            throw e;
+        }
+        int alteradas = 0;
+        for (int n : linhas) {
+            if (n != 0) alteradas++; // SUCCESS_NO_INFO (-2) também conta como alterada
+        }
+        return alteradas;
+    }
+
+    /**
+     * Quantas motos têm km aceito e ainda não gravado.
+     */
+    public int pendentes() {
+        return pendentes.size();
+    }
+}
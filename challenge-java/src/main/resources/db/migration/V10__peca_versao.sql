@@ -0,0 +1,3 @@
+-- Versão da linha (@Version em Peca): incrementada a cada alteração, inclusive pelos
+-- UPDATEs de estoque em SQL nativo. Serve de ETag em GET /api/pecas/{id}.
+ALTER TABLE peca ADD COLUMN versao BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,37 @@
+-- Livro-razão de estoque: cada alteração de estoque_atual gera uma linha (só INSERT, nunca UPDATE).
+-- Sem FK para peca: o histórico de uma peça removida continua auditável.
+-- TIMESTAMP(9) guarda o LocalDateTime sem arredondar: um instante consultado compara igual ao gravado.
+-- consolidado_em: data do snapshot da geração que consolidou o movimento (NULL = ainda pendente).
+-- A geração pega todos os pendentes até o corte, inclusive os que confirmaram depois da geração
+-- anterior com data_movimento anterior a ela (transação longa, relógio atrasado), e corrige os
+-- snapshots que já haviam passado por essa data.
+CREATE TABLE peca_movimento (
+    id BIGINT PRIMARY KEY,
+    peca_id BIGINT NOT NULL,
+    quantidade INT NOT NULL,
+    data_movimento TIMESTAMP(9) NOT NULL,
+    origem VARCHAR(20) NOT NULL,
+    consolidado_em TIMESTAMP(9)
+);
+CREATE SEQUENCE peca_movimento_seq START WITH 50 INCREMENT BY 50;
+-- Soma dos movimentos de uma peça num intervalo de datas: varredura só do trecho pedido
+CREATE INDEX idx_peca_movimento_peca_data ON peca_movimento (peca_id, data_movimento, quantidade);
+-- Geração de snapshots: pendentes (consolidado_em IS NULL) e movimentos de uma geração
+CREATE INDEX idx_peca_movimento_consolidado ON peca_movimento (consolidado_em, peca_id, data_movimento, quantidade);
+
+-- Saldo de cada peça em um instante: saldo em D = snapshot mais recente <= D + movimentos entre os dois
+CREATE TABLE peca_estoque_snapshot (
+    id BIGINT PRIMARY KEY,
+    peca_id BIGINT NOT NULL,
+    data_snapshot TIMESTAMP(9) NOT NULL,
+    saldo INT NOT NULL,
+    CONSTRAINT uk_peca_estoque_snapshot UNIQUE (peca_id, data_snapshot)
+);
+CREATE SEQUENCE peca_estoque_snapshot_seq START WITH 50 INCREMENT BY 50;
+-- Data da última geração (MAX pelo índice, sem varrer a tabela)
+CREATE INDEX idx_peca_estoque_snapshot_data ON peca_estoque_snapshot (data_snapshot);
+
+-- Saldo de abertura das peças já cadastradas
+INSERT INTO peca_movimento (id, peca_id, quantidade, data_movimento, origem)
+SELECT NEXT VALUE FOR peca_movimento_seq, id, estoque_atual, CURRENT_TIMESTAMP, 'SALDO_INICIAL'
+FROM peca WHERE estoque_atual <> 0;
@@ -0,0 +1,23 @@
+-- Reservas de peças para ordens de serviço (ReservaPecaService).
+-- estoque_reservado é a soma das reservas ativas da peça, alterada na mesma transação que cria ou
+-- remove cada reserva: disponível = estoque_atual - estoque_reservado sai da própria linha da peça.
+ALTER TABLE peca ADD COLUMN estoque_reservado INT DEFAULT 0 NOT NULL;
+ALTER TABLE peca ADD CONSTRAINT ck_peca_estoque_reservado
+    CHECK (estoque_reservado >= 0 AND estoque_reservado <= estoque_atual);
+
+CREATE TABLE peca_reserva (
+    id BIGINT PRIMARY KEY,
+    peca_id BIGINT NOT NULL,
+    ordem_servico_id BIGINT NOT NULL,
+    quantidade INT NOT NULL,
+    data_reserva TIMESTAMP(9) NOT NULL,
+    expira_em TIMESTAMP(9) NOT NULL,
+    CONSTRAINT fk_peca_reserva_peca FOREIGN KEY (peca_id) REFERENCES peca (id) ON DELETE CASCADE,
+    CONSTRAINT fk_peca_reserva_ordem_servico FOREIGN KEY (ordem_servico_id) REFERENCES ordem_servico (id),
+    CONSTRAINT ck_peca_reserva_quantidade CHECK (quantidade > 0)
+);
+CREATE SEQUENCE peca_reserva_seq START WITH 50 INCREMENT BY 50;
+-- Varredura das reservas vencidas, em ordem de vencimento
+CREATE INDEX idx_peca_reserva_expira_em ON peca_reserva (expira_em);
+-- Reservas de uma ordem de serviço (liberadas quando ela é excluída)
+CREATE INDEX idx_peca_reserva_ordem_servico ON peca_reserva (ordem_servico_id);
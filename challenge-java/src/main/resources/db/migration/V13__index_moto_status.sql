@@ -0,0 +1,7 @@
+-- Listagem paginada da frota (GET /motos): filtro por status e ordenação pela data de cadastro.
+-- (STATUS, DATA_CADASTRO) entrega a página de um status já na ordem, sem ordenar o resto da frota;
+-- DATA_CADASTRO sozinho atende a listagem sem filtro, que usa a mesma ordenação padrão.
+-- Sem índice só de STATUS: STATUS é a coluna inicial de IDX_MOTO_STATUS_DATA_CADASTRO, que já
+-- atende os filtros só por status; um segundo índice apenas encareceria as gravações em MOTO.
+CREATE INDEX IDX_MOTO_STATUS_DATA_CADASTRO ON MOTO (STATUS, DATA_CADASTRO);
+CREATE INDEX IDX_MOTO_DATA_CADASTRO ON MOTO (DATA_CADASTRO);
@@ -0,0 +1,17 @@
+-- Série temporal das leituras de hodômetro da telemetria (KmSerieService): uma linha por moto e dia,
+-- com as leituras do dia codificadas em DADOS (deltas em varint, ver KmBlocoCodec) em vez de uma
+-- linha por leitura. O cabeçalho responde resumos diários sem decodificar DADOS.
+-- VARBINARY em vez de BLOB: o bloco de um dia cabe folgado e fica na própria linha, sem LOB à parte.
+CREATE TABLE moto_km_bloco (
+    moto_id BIGINT NOT NULL,
+    dia DATE NOT NULL,
+    quantidade INT NOT NULL,
+    km_inicial INT NOT NULL,
+    km_final INT NOT NULL,
+    km_minimo INT NOT NULL,
+    km_maximo INT NOT NULL,
+    retrocessos INT NOT NULL,
+    dados VARBINARY(1000000) NOT NULL,
+    CONSTRAINT pk_moto_km_bloco PRIMARY KEY (moto_id, dia),
+    CONSTRAINT fk_moto_km_bloco_moto FOREIGN KEY (moto_id) REFERENCES moto (id) ON DELETE CASCADE
+);
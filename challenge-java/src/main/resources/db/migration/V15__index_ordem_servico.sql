@@ -0,0 +1,6 @@
+-- Listagem paginada de ordens de serviço (GET /ordens): filtro por status, mais recentes primeiro.
+-- (STATUS, DATA_ABERTURA) entrega a página de um status já na ordem; DATA_ABERTURA sozinho atende
+-- a listagem sem filtro. MOTO_ID serve a junção com MOTO e a busca das ordens de uma moto.
+CREATE INDEX IDX_ORDEM_SERVICO_MOTO_ID ON ORDEM_SERVICO (MOTO_ID);
+CREATE INDEX IDX_ORDEM_SERVICO_STATUS_DATA_ABERTURA ON ORDEM_SERVICO (STATUS, DATA_ABERTURA);
+CREATE INDEX IDX_ORDEM_SERVICO_DATA_ABERTURA ON ORDEM_SERVICO (DATA_ABERTURA);
@@ -0,0 +1,12 @@
+-- Sugestões por prefixo no formulário de OS (GET /api/motos/sugestoes e /api/pecas/sugestoes).
+-- Colunas geradas em maiúsculas, para o prefixo não distinguir maiúsculas e ainda assim ser uma
+-- faixa de índice (coluna >= prefixo AND coluna < prefixo + U+FFFF); a aplicação não grava nelas.
+ALTER TABLE MOTO ADD COLUMN PLACA_BUSCA VARCHAR(10) GENERATED ALWAYS AS (UPPER(PLACA));
+ALTER TABLE MOTO ADD COLUMN MODELO_BUSCA VARCHAR(100) GENERATED ALWAYS AS (UPPER(MODELO));
+CREATE INDEX IDX_MOTO_PLACA_BUSCA ON MOTO (PLACA_BUSCA);
+CREATE INDEX IDX_MOTO_MODELO_BUSCA ON MOTO (MODELO_BUSCA, ID);
+
+ALTER TABLE peca ADD COLUMN nome_busca VARCHAR(255) GENERATED ALWAYS AS (UPPER(nome));
+ALTER TABLE peca ADD COLUMN codigo_busca VARCHAR(100) GENERATED ALWAYS AS (UPPER(codigo_fabricante));
+CREATE INDEX idx_peca_nome_busca ON peca (nome_busca, id);
+CREATE INDEX idx_peca_codigo_busca ON peca (codigo_busca);
@@ -0,0 +1,5 @@
+-- Despacho de ordens para os mecânicos (DespachoOrdemService): quem pegou a ordem e quando.
+-- Gravadas só pelo UPDATE condicional de início de atendimento, fora do mapeamento JPA de
+-- OrdemServico, para que salvar o formulário da ordem não as apague.
+ALTER TABLE ordem_servico ADD COLUMN mecanico VARCHAR(100);
+ALTER TABLE ordem_servico ADD COLUMN data_inicio TIMESTAMP;
@@ -0,0 +1,2 @@
+-- Índice para a listagem "meus pedidos" paginada por (created_at, id)
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at, id);
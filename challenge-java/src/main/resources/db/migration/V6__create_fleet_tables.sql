@@ -0,0 +1,35 @@
+-- Tabelas da frota (Moto, Peca, OrdemServico), até então criadas fora do Flyway
+CREATE TABLE IF NOT EXISTS MOTO (
+  ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+  CHASSI VARCHAR(50) NOT NULL,
+  MODELO VARCHAR(100) NOT NULL,
+  PLACA VARCHAR(10) NOT NULL,
+  ANO_FABRICACAO INT,
+  STATUS VARCHAR(30) NOT NULL,
+  KM_ATUAL INT,
+  DATA_CADASTRO TIMESTAMP NOT NULL,
+  CONSTRAINT UK_MOTO_CHASSI UNIQUE (CHASSI),
+  CONSTRAINT UK_MOTO_PLACA UNIQUE (PLACA)
+);
+
+CREATE TABLE IF NOT EXISTS peca (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  nome VARCHAR(255),
+  descricao VARCHAR(1000),
+  preco DOUBLE,
+  codigo_fabricante VARCHAR(100),
+  estoque_atual INT NOT NULL DEFAULT 0,
+  estoque_minimo INT NOT NULL DEFAULT 0,
+  localizacao_estoque VARCHAR(255),
+  CONSTRAINT uk_peca_codigo_fabricante UNIQUE (codigo_fabricante)
+);
+
+CREATE TABLE IF NOT EXISTS ordem_servico (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  status VARCHAR(30) NOT NULL,
+  descricao VARCHAR(1000),
+  descricao_problema VARCHAR(1000),
+  data_abertura TIMESTAMP,
+  moto_id BIGINT NOT NULL,
+  CONSTRAINT fk_ordem_servico_moto FOREIGN KEY (moto_id) REFERENCES MOTO (ID)
+);
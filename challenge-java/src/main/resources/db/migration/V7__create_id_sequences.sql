@@ -0,0 +1,24 @@
+-- Sequências para geração de ids em blocos (otimizador "pooled" do Hibernate, allocationSize = 50).
+-- Com IDENTITY o Hibernate desliga o batch de INSERTs; com sequência ele pode agrupá-los.
+-- O INCREMENT BY deve ser igual ao allocationSize das entidades.
+-- Cada sequência recomeça acima do maior id já existente para não colidir com os dados atuais.
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
+
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE products_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM products);
+
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE orders_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM orders);
+
+CREATE SEQUENCE order_items_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE order_items_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM order_items);
+
+CREATE SEQUENCE moto_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE moto_seq RESTART WITH (SELECT COALESCE(MAX(ID), 0) + 50 FROM MOTO);
+
+CREATE SEQUENCE peca_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE peca_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM peca);
+
+CREATE SEQUENCE ordem_servico_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE ordem_servico_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM ordem_servico);
@@ -0,0 +1,3 @@
+-- Filtro por status na listagem do admin e junção pedido -> itens na soma dos totais
+CREATE INDEX idx_orders_status_created ON orders (status, created_at);
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
@@ -0,0 +1,5 @@
+-- Déficit de estoque calculado pelo banco (estoque_minimo - estoque_atual).
+-- O índice permite buscar só as peças abaixo do mínimo (deficit_estoque > 0),
+-- já na ordem do relatório de reposição, sem varrer a tabela inteira.
+ALTER TABLE peca ADD COLUMN deficit_estoque INT GENERATED ALWAYS AS (estoque_minimo - estoque_atual);
+CREATE INDEX idx_peca_deficit_estoque ON peca (deficit_estoque DESC, id);
@@ -0,0 +1,72 @@
+package com.example.challenge;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.domain.OrdemServico;
+import com.example.challenge.domain.Peca;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Motos, peças e ordens de serviço para os testes de integração, ainda não gravadas (cada teste
+ * grava pelo serviço ou repositório que está exercitando e ajusta os campos que importam para ele).
+ * Chassis, placas e códigos vêm de uma sequência única na JVM, então não colidem entre testes
+ * que dividem o mesmo banco.
+ */
+public final class DadosDeTeste {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    private DadosDeTeste() {
+    }
+
+    /**
+     * Próximo número da sequência, para montar identificadores que não podem se repetir.
+     */
+    public static int proximo() {
+        return SEQUENCIA.incrementAndGet();
+    }
+
+    /**
+     * Moto com chassi e placa inéditos.
+     */
+    public static Moto moto(String status) {
+        int n = proximo();
+        return moto("CHASSI-TESTE-" + n, "TST" + n, status);
+    }
+
+    /**
+     * Moto com o chassi e a placa informados (para testar colisões).
+     */
+    public static Moto moto(String chassi, String placa, String status) {
+        Moto moto = new Moto();
+        moto.setChassi(chassi);
+        moto.setPlaca(placa);
+        moto.setModelo("CG 160");
+        moto.setStatus(status);
+        moto.setDataCadastro(LocalDateTime.now());
+        return moto;
+    }
+
+    /**
+     * Peça com código de fabricante inédito.
+     */
+    public static Peca peca(int estoque) {
+        Peca peca = new Peca();
+        peca.setNome("Pastilha de freio");
+        peca.setCodigoFabricante("PECA-TESTE-" + proximo());
+        peca.setEstoqueAtual(estoque);
+        return peca;
+    }
+
+    /**
+     * Ordem de serviço da moto (que já precisa estar gravada), aberta agora.
+     */
+    public static OrdemServico ordem(Moto moto, String status) {
+        OrdemServico ordem = new OrdemServico();
+        ordem.setMoto(moto);
+        ordem.setStatus(status);
+        ordem.setDataAbertura(LocalDateTime.now());
+        return ordem;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.dto.OrdemDespachoDTO;
+import com.example.challenge.service.DespachoOrdemService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fila de despacho: reconstrução com 20 mil ordens ABERTAS e vazão de "pegar a próxima" com
+ * 1, 4 e 16 mecânicos simultâneos (cada atribuição é um UPDATE condicional no banco).
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bench-despacho;DB_CLOSE_DELAY=-1",
+        "app.ordens.despacho.recalculo=PT1H"
+})
+class DespachoOrdemBenchmarkTest {
+
+    private static final int ORDENS = 20_000;
+    private static final int[] MECANICOS = {1, 4, 16};
+
+    @Autowired
+    private DespachoOrdemService despachoOrdemService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Motos e ordens direto via SQL (o cadastro não é o que se mede aqui)
+    private void abrirOrdens() {
+        jdbcTemplate.update("DELETE FROM ordem_servico");
+        jdbcTemplate.update("DELETE FROM MOTO");
+        jdbcTemplate.update("""
+                INSERT INTO MOTO (ID, CHASSI, MODELO, PLACA, STATUS, DATA_CADASTRO)
+                SELECT X, 'DESP-' || X, 'CG 160', 'D' || LPAD(X, 6, '0'),
+                       CASE MOD(X, 10) WHEN 0 THEN 'Manutenção' WHEN 1 THEN 'Aguardando Peça' ELSE 'Disponível' END,
+                       TIMESTAMP '2024-01-01 00:00:00'
+                FROM SYSTEM_RANGE(1, ?)
+                """, ORDENS);
+        jdbcTemplate.update("""
+                INSERT INTO ordem_servico (id, status, descricao, data_abertura, moto_id)
+                SELECT X, 'ABERTA', 'Revisão ' || X, DATEADD('MINUTE', -X, CURRENT_TIMESTAMP), X
+                FROM SYSTEM_RANGE(1, ?)
+                """, ORDENS);
+    }
+
+    @Test
+    void reconstrucaoEVazao() throws Exception {
+        for (int mecanicos : MECANICOS) {
+            abrirOrdens();
+            long inicio = System.nanoTime();
+            despachoOrdemService.reconstruir();
+            double reconstrucaoMs = (System.nanoTime() - inicio) / 1e6;
+
+            ConcurrentLinkedQueue<Long> pegas = new ConcurrentLinkedQueue<>();
+            ExecutorService pool = Executors.newFixedThreadPool(mecanicos);
+            inicio = System.nanoTime();
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < mecanicos; t++) {
+                    String mecanico = "mecanico" + t;
+                    futures.add(pool.submit(() -> {
+                        Optional<OrdemDespachoDTO> ordem;
+                        while ((ordem = despachoOrdemService.pegarProxima(mecanico)).isPresent()) {
+                            pegas.add(ordem.get().getId());
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) future.get();
+            } finally {
+                pool.shutdown();
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            assertEquals(ORDENS, new HashSet<>(pegas).size());
+            System.out.printf("[bench] despacho | ordens=%,d | reconstrução: %.0f ms | mecânicos=%d: %,.0f atribuições/s%n",
+                    ORDENS, reconstrucaoMs, mecanicos, ORDENS / segundos);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.service.EstoqueHistoricoService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mede o saldo em data (EstoqueHistoricoService.saldoEm) com 1 milhão de movimentos
+ * de 1.000 peças ao longo de ~1 ano, antes e depois dos snapshots mensais.
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bench-estoque-historico;DB_CLOSE_DELAY=-1")
+class EstoqueHistoricoBenchmarkTest {
+
+    private static final int MOVIMENTOS = 1_000_000;
+    private static final int PECAS = 1_000;
+    private static final int CONSULTAS = 2_000;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private EstoqueHistoricoService estoqueHistorico;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Um movimento a cada 30 s, alternando +3 e -1 em cada peça
+    private void popularLivroRazao() {
+        jdbcTemplate.update("INSERT INTO peca_movimento (id, peca_id, quantidade, data_movimento, origem) " +
+                "SELECT X, MOD(X, " + PECAS + ") + 1, CASE WHEN MOD(X / " + PECAS + ", 2) = 0 THEN 3 ELSE -1 END, " +
+                "DATEADD(SECOND, X * 30, TIMESTAMP '2024-01-01 00:00:00'), 'AJUSTE' " +
+                "FROM SYSTEM_RANGE(1, " + MOVIMENTOS + ")");
+    }
+
+    // Saldo esperado direto da definição (soma de todos os movimentos até a data)
+    private int saldoEsperado(long pecaId, LocalDateTime data) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantidade), 0) FROM peca_movimento " +
+                "WHERE peca_id = ? AND data_movimento <= ?", Integer.class, pecaId, data);
+    }
+
+    private void medirConsultas(String nome) {
+        Random random = new Random(42);
+        long dias = 340;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < CONSULTAS; i++) {
+            long pecaId = random.nextInt(PECAS) + 1;
+            estoqueHistorico.saldoEm(pecaId, INICIO.plusMinutes(random.nextLong(dias * 24 * 60)));
+        }
+        double ms = (System.nanoTime() - inicio) / 1e6;
+        System.out.printf("%-16s %,d consultas em %.0f ms (%.3f ms/consulta)%n", nome, CONSULTAS, ms, ms / CONSULTAS);
+    }
+
+    @Test
+    void saldoEmComUmMilhaoDeMovimentos() {
+        popularLivroRazao();
+        medirConsultas("sem snapshots");
+
+        long inicio = System.nanoTime();
+        int gerados = 0;
+        for (int mes = 1; mes <= 11; mes++) {
+            gerados += estoqueHistorico.gerarSnapshots(INICIO.plusMonths(mes));
+        }
+        System.out.printf("%-16s %,d snapshots em %.0f ms%n", "geracao", gerados, (System.nanoTime() - inicio) / 1e6);
+
+        medirConsultas("com snapshots");
+
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            long pecaId = random.nextInt(PECAS) + 1;
+            LocalDateTime data = INICIO.plusMinutes(random.nextLong(340L * 24 * 60));
+            assertEquals(saldoEsperado(pecaId, data), estoqueHistorico.saldoEm(pecaId, data));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.service.KmSerieService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Série de km: 20 motos com uma leitura por minuto durante 30 dias (864 mil leituras), gravadas em
+ * blocos diários (moto_km_bloco) e, para comparação, numa tabela com uma linha por leitura.
+ * Mede bytes por leitura e a latência das consultas por período.
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bench-km-serie;DB_CLOSE_DELAY=-1",
+        "app.motos.km-serie.gravacao=PT1H"
+})
+class KmSerieBenchmarkTest {
+
+    private static final int MOTOS = 20;
+    private static final int DIAS = 30;
+    private static final int LEITURAS_POR_DIA = 1440;
+    private static final int REPETICOES = 200;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    @Autowired
+    private KmSerieService kmSerieService;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static void medir(String nome, Supplier<Integer> consulta) {
+        for (int i = 0; i < REPETICOES; i++) consulta.get(); // aquecimento
+        long inicio = System.nanoTime();
+        int itens = 0;
+        for (int i = 0; i < REPETICOES; i++) itens = consulta.get();
+        System.out.printf("%-44s %9.1f us  (%d itens)%n", nome, (System.nanoTime() - inicio) / 1e3 / REPETICOES, itens);
+    }
+
+    @Test
+    void armazenamentoEConsultas() {
+        List<Moto> motos = new ArrayList<>();
+        for (int i = 0; i < MOTOS; i++) {
+            Moto moto = new Moto();
+            moto.setChassi(String.format("9C2KMSERIE%07d", i));
+            moto.setPlaca(String.format("KMS%04d", i));
+            moto.setModelo("CG 160");
+            moto.setDataCadastro(LocalDateTime.now());
+            motos.add(moto);
+        }
+        transactionTemplate.executeWithoutResult(s -> motoRepository.insertBatch(motos));
+        jdbcTemplate.execute("CREATE TABLE bench_km_leitura (moto_id BIGINT, instante TIMESTAMP(9), km INT, " +
+                "PRIMARY KEY (moto_id, instante))");
+
+        long gravacaoBlocos = 0;
+        long gravacaoLinhas = 0;
+        int[] km = new int[MOTOS];
+        for (int dia = 0; dia < DIAS; dia++) {
+            List<Object[]> linhas = new ArrayList<>();
+            for (int m = 0; m < MOTOS; m++) {
+                long motoId = motos.get(m).getId();
+                for (int minuto = 0; minuto < LEITURAS_POR_DIA; minuto++) {
+                    LocalDateTime instante = INICIO.plusDays(dia).plusMinutes(minuto).plusSeconds(m);
+                    km[m] += minuto % 4 == 0 ? 1 : 0;
+                    kmSerieService.registrar(motoId, instante, km[m]);
+                    linhas.add(new Object[] {motoId, Timestamp.valueOf(instante), km[m]});
+                }
+            }
+            long inicio = System.nanoTime();
+            kmSerieService.gravarPendentes();
+            gravacaoBlocos += System.nanoTime() - inicio;
+            inicio = System.nanoTime();
+            transactionTemplate.executeWithoutResult(s ->
+                    jdbcTemplate.batchUpdate("INSERT INTO bench_km_leitura VALUES (?, ?, ?)", linhas));
+            gravacaoLinhas += System.nanoTime() - inicio;
+        }
+
+        long leituras = (long) MOTOS * DIAS * LEITURAS_POR_DIA;
+        Long bytes = jdbcTemplate.queryForObject("SELECT SUM(OCTET_LENGTH(dados)) FROM moto_km_bloco", Long.class);
+        System.out.printf("%,d leituras em %d blocos: %.2f bytes/leitura nos dados (linha: 8 + 8 + 4 bytes + chave)%n",
+                leituras, MOTOS * DIAS, (double) bytes / leituras);
+        System.out.printf("gravacao: blocos %.0f ms, uma linha por leitura %.0f ms%n",
+                gravacaoBlocos / 1e6, gravacaoLinhas / 1e6);
+
+        long motoId = motos.get(MOTOS / 2).getId();
+        LocalDateTime meio = INICIO.plusDays(DIAS / 2);
+        medir("blocos: leituras de 1 dia", () -> kmSerieService.leituras(motoId, meio, meio.plusDays(1)).size());
+        medir("linhas: leituras de 1 dia", () -> jdbcTemplate.queryForList(
+                "SELECT instante, km FROM bench_km_leitura WHERE moto_id = ? AND instante >= ? AND instante < ?",
+                motoId, Timestamp.valueOf(meio), Timestamp.valueOf(meio.plusDays(1))).size());
+        medir("blocos: resumo diario de 30 dias (cabecalho)",
+                () -> kmSerieService.resumo(motoId, INICIO, INICIO.plusDays(DIAS), Duration.ofDays(1)).size());
+        medir("linhas: resumo diario de 30 dias (GROUP BY)", () -> jdbcTemplate.queryForList(
+                "SELECT CAST(instante AS DATE), COUNT(*), MIN(km), MAX(km) FROM bench_km_leitura " +
+                "WHERE moto_id = ? AND instante >= ? AND instante < ? GROUP BY CAST(instante AS DATE)",
+                motoId, Timestamp.valueOf(INICIO), Timestamp.valueOf(INICIO.plusDays(DIAS))).size());
+        medir("blocos: resumo por hora de 7 dias (decodifica)",
+                () -> kmSerieService.resumo(motoId, meio, meio.plusDays(7), Duration.ofHours(1)).size());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.MotoImportResultadoDTO;
+import com.example.challenge.service.MotoImportService;
+import com.example.challenge.service.MotoService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mede o cadastro de 50 mil motos: um MotoService.save por moto (como o formulário /motos)
+ * contra a importação em massa por CSV e por JSON.
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bench-moto-import;DB_CLOSE_DELAY=-1")
+class MotoImportBenchmarkTest {
+
+    private static final int LINHAS = 50_000;
+
+    @Autowired
+    private MotoImportService motoImportService;
+
+    @Autowired
+    private MotoService motoService;
+
+    private static String chassi(String prefixo, int i) {
+        return String.format("%s%015d", prefixo, i);
+    }
+
+    private static String placa(String prefixo, int i) {
+        return String.format("%s%05d", prefixo, i);
+    }
+
+    private Path gerarCsv(String prefixo) throws IOException {
+        Path arquivo = Files.createTempFile("motos-bench", ".csv");
+        StringBuilder csv = new StringBuilder("chassi,placa,modelo,kmAtual,status,anoFabricacao\n");
+        for (int i = 0; i < LINHAS; i++) {
+            csv.append(chassi(prefixo, i)).append(',').append(placa(prefixo, i)).append(",Pop 110i,")
+               .append(i % 30_000).append(",Disponível,").append(2018 + i % 7).append('\n');
+        }
+        Files.writeString(arquivo, csv);
+        return arquivo;
+    }
+
+    private Path gerarJson(String prefixo) throws IOException {
+        Path arquivo = Files.createTempFile("motos-bench", ".json");
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < LINHAS; i++) {
+            if (i > 0) json.append(",\n");
+            json.append("{\"chassi\":\"").append(chassi(prefixo, i)).append("\",\"placa\":\"").append(placa(prefixo, i))
+                .append("\",\"modelo\":\"Biz 125\",\"kmAtual\":").append(i % 30_000)
+                .append(",\"status\":\"Alugada\",\"anoFabricacao\":").append(2018 + i % 7).append('}');
+        }
+        Files.writeString(arquivo, json.append(']'));
+        return arquivo;
+    }
+
+    private interface Importacao {
+        MotoImportResultadoDTO importar(InputStream in) throws IOException;
+    }
+
+    private void medir(String nome, Path arquivo, Importacao importacao) throws IOException {
+        try {
+            long inicio = System.nanoTime();
+            MotoImportResultadoDTO resultado;
+            try (InputStream in = Files.newInputStream(arquivo)) {
+                resultado = importacao.importar(in);
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("[bench] %-12s %,d motos em %.2f s (%,.0f motos/s)%n", nome, LINHAS, segundos, LINHAS / segundos);
+            assertEquals(LINHAS, resultado.getInseridas());
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    @Test
+    void importacao50kMotos() throws IOException {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < LINHAS; i++) {
+            Moto moto = new Moto();
+            moto.setChassi(chassi("SA", i));
+            moto.setPlaca(placa("SA", i));
+            moto.setModelo("CG 160");
+            moto.setKmAtual(i % 30_000);
+            moto.setStatus("Disponível");
+            moto.setAnoFabricacao(2020);
+            moto.setDataCadastro(LocalDateTime.now());
+            motoService.save(moto);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("[bench] %-12s %,d motos em %.2f s (%,.0f motos/s)%n", "save", LINHAS, segundos, LINHAS / segundos);
+
+        medir("csv", gerarCsv("CS"), motoImportService::importarCsv);
+        medir("json", gerarJson("JS"), motoImportService::importarJson);
+    }
+}
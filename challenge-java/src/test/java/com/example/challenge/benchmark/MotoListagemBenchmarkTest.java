@@ -0,0 +1,67 @@
+package com.example.challenge.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Mede o tempo de renderização de GET /motos (primeira página e filtro por status)
+ * com frotas de tamanhos diferentes; com paginação o tempo deve ficar praticamente estável.
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bench-motos-lista;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class MotoListagemBenchmarkTest {
+
+    private static final int[] FROTAS = {1_000, 10_000, 100_000};
+    private static final int REPETICOES = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Completa a frota até 'total' motos direto via SQL (o cadastro não é o que se mede aqui)
+    private void completarFrota(int total) {
+        jdbcTemplate.update("""
+                INSERT INTO MOTO (ID, CHASSI, MODELO, PLACA, ANO_FABRICACAO, STATUS, KM_ATUAL, DATA_CADASTRO)
+                SELECT NEXT VALUE FOR MOTO_SEQ, 'BENCH-' || X, CASE MOD(X, 3) WHEN 0 THEN 'Pop 110i' WHEN 1 THEN 'Biz 125' ELSE 'CG 160' END,
+                       'B' || LPAD(X, 6, '0'), 2018 + MOD(X, 6),
+                       CASE MOD(X, 20) WHEN 0 THEN 'Manutenção' WHEN 1 THEN 'Aguardando Peça' ELSE 'Disponível' END,
+                       X * 10, DATEADD('MINUTE', X, TIMESTAMP '2024-01-01 00:00:00')
+                FROM SYSTEM_RANGE((SELECT COUNT(*) FROM MOTO) + 1, ?)
+                """, total);
+    }
+
+    private double medirMs(String status) throws Exception {
+        var requisicao = status == null ? get("/motos") : get("/motos").param("status", status);
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(requisicao).andExpect(status().isOk());
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICOES; i++) {
+            mockMvc.perform(requisicao).andExpect(status().isOk());
+        }
+        return (System.nanoTime() - inicio) / 1e6 / REPETICOES;
+    }
+
+    @Test
+    @WithMockUser
+    void renderizacaoNaoCresceComAFrota() throws Exception {
+        for (int frota : FROTAS) {
+            completarFrota(frota);
+            System.out.printf("[bench] GET /motos | frota=%,d | primeira página: %.2f ms | status=Manutenção: %.2f ms%n",
+                    frota, medirMs(null), medirMs("Manutenção"));
+        }
+    }
+}
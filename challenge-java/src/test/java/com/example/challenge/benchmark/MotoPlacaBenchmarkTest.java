@@ -0,0 +1,107 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.MotoRepositoryCustom.IdentificacaoMoto;
+import com.example.challenge.service.MotoPlacaIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Mede a latência da busca aproximada de placas do MotoPlacaIndex com uma frota sintética de
+ * 100 mil motos (placas no padrão Mercosul), comparada a calcular a distância para todas.
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class MotoPlacaBenchmarkTest {
+
+    private static final int MOTOS = 100_000;
+    private static final int CONSULTAS = 2_000;
+    private static final String LETRAS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private static String placa(Random random) {
+        char[] p = new char[7];
+        for (int i : new int[] {0, 1, 2, 4}) p[i] = LETRAS.charAt(random.nextInt(LETRAS.length()));
+        for (int i : new int[] {3, 5, 6}) p[i] = (char) ('0' + random.nextInt(10));
+        return new String(p);
+    }
+
+    // Placa lida com um erro: um caractere trocado, apagado ou repetido
+    private static String comErro(String placa, Random random) {
+        int i = random.nextInt(placa.length());
+        return switch (random.nextInt(3)) {
+            case 0 -> placa.substring(0, i) + (char) ('0' + random.nextInt(10)) + placa.substring(i + 1);
+            case 1 -> placa.substring(0, i) + placa.substring(i + 1);
+            default -> placa.substring(0, i) + placa.charAt(i) + placa.substring(i);
+        };
+    }
+
+    @Test
+    void latenciaDaBusca() {
+        Random random = new Random(7);
+        List<IdentificacaoMoto> frota = new ArrayList<>(MOTOS);
+        for (long id = 1; id <= MOTOS; id++) {
+            frota.add(new IdentificacaoMoto(id, placa(random), String.format("9C2JC4110AR%06d", id), "CG 160", "Disponível"));
+        }
+        MotoRepository motoRepository = mock(MotoRepository.class);
+        doAnswer(invocacao -> {
+            Consumer<IdentificacaoMoto> consumidor = invocacao.getArgument(0);
+            frota.forEach(consumidor);
+            return null;
+        }).when(motoRepository).forEachIdentificacao(any());
+        MotoPlacaIndex index = new MotoPlacaIndex(motoRepository);
+
+        long inicio = System.nanoTime();
+        index.reconstruir();
+        System.out.printf("indice de %,d motos construido em %.0f ms%n", index.tamanho(), (System.nanoTime() - inicio) / 1e6);
+
+        String[] consultas = new String[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            consultas[i] = comErro(frota.get(random.nextInt(MOTOS)).placa(), random);
+        }
+        for (int k = 0; k <= 2; k++) {
+            for (int r = 0; r < 10; r++) {
+                for (String consulta : consultas) index.buscar(consulta, k, 10); // aquecimento
+            }
+            inicio = System.nanoTime();
+            long resultados = 0;
+            for (String consulta : consultas) resultados += index.buscar(consulta, k, 10).size();
+            System.out.printf("indice, distancia %d: %8.1f us/busca  (%.2f resultados em media)%n",
+                    k, (System.nanoTime() - inicio) / 1e3 / CONSULTAS, (double) resultados / CONSULTAS);
+        }
+
+        // Referência: distância da consulta para cada placa da frota
+        char[][] placas = frota.stream().map(m -> m.placa().toCharArray()).toArray(char[][]::new);
+        int amostra = 200;
+        inicio = System.nanoTime();
+        for (int c = 0; c < amostra; c++) {
+            char[] consulta = consultas[c].toCharArray();
+            int[] v0 = new int[consulta.length + 1];
+            int[] v1 = new int[consulta.length + 1];
+            for (char[] p : placas) {
+                org.junit.jupiter.api.Assertions.assertTrue(distancia(p, consulta, v0, v1) >= 0);
+            }
+        }
+        System.out.printf("comparacao com todas:  %8.1f us/busca%n", (System.nanoTime() - inicio) / 1e3 / amostra);
+    }
+
+    private static int distancia(char[] a, char[] b, int[] v0, int[] v1) {
+        for (int j = 0; j <= b.length; j++) v0[j] = j;
+        for (int i = 0; i < a.length; i++) {
+            v1[0] = i + 1;
+            for (int j = 0; j < b.length; j++) {
+                v1[j + 1] = Math.min(v0[j] + (a[i] == b[j] ? 0 : 1), Math.min(v0[j + 1], v1[j]) + 1);
+            }
+            int[] t = v0; v0 = v1; v1 = t;
+        }
+        return v0[b.length];
+    }
+}
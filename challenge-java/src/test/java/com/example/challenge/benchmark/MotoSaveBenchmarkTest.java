@@ -0,0 +1,74 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.DadosDeTeste;
+import com.example.challenge.domain.Moto;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.service.MotoService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mede quantas idas ao banco custa cadastrar uma moto: a versão antiga (findByChassi +
+ * findByPlaca + INSERT) contra MotoService.save, que deixa a unicidade com as constraints.
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bench-motos;DB_CLOSE_DELAY=-1")
+@Import(RoundTripCounter.Config.class)
+class MotoSaveBenchmarkTest {
+
+    private static final int MOTOS = 20;
+
+    @Autowired
+    private MotoService motoService;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RoundTripCounter counter;
+
+    // Implementação anterior: dois SELECTs de checagem antes do INSERT
+    private void checarEGravar(Moto moto) {
+        transactionTemplate.executeWithoutResult(status -> {
+            motoRepository.findByChassi(moto.getChassi()).ifPresent(m -> {
+                throw new IllegalStateException("Já existe uma moto cadastrada com o CHASSI: " + m.getChassi());
+            });
+            motoRepository.findByPlaca(moto.getPlaca()).ifPresent(m -> {
+                throw new IllegalStateException("Já existe uma moto cadastrada com a PLACA: " + m.getPlaca());
+            });
+            motoRepository.save(moto);
+        });
+    }
+
+    @Test
+    void roundTripsPorCadastro() {
+        // aquece: carrega o bloco de ids de moto_seq
+        motoService.save(DadosDeTeste.moto("Disponível"));
+
+        counter.reset();
+        for (int i = 0; i < MOTOS; i++) {
+            checarEGravar(DadosDeTeste.moto("Disponível"));
+        }
+        long antes = counter.get();
+
+        counter.reset();
+        for (int i = 0; i < MOTOS; i++) {
+            motoService.save(DadosDeTeste.moto("Disponível"));
+        }
+        long depois = counter.get();
+
+        System.out.printf("cadastro de moto: %.1f round trips antes, %.1f depois%n",
+                (double) antes / MOTOS, (double) depois / MOTOS);
+        assertEquals(MOTOS, depois, "esperado um único INSERT por cadastro");
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.domain.Order;
+import com.example.challenge.domain.OrderItem;
+import com.example.challenge.service.OrderService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mede quantas idas ao banco custa gravar um pedido com N itens.
+ * Com ids via sequência "pooled" e hibernate.jdbc.batch_size ativo, os itens
+ * são enviados em lote em vez de um INSERT (e um UPDATE da FK) por item.
+ * A linha de base é o mesmo pedido gravado com o lote desligado na sessão
+ * (um INSERT e um UPDATE da FK por item); o mapeamento antigo com IDENTITY não existe mais.
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bench-orders;DB_CLOSE_DELAY=-1")
+@Import(RoundTripCounter.Config.class)
+class OrderInsertBenchmarkTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RoundTripCounter counter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Order novoPedido(int itens) {
+        Order o = new Order();
+        o.setUserId(1L);
+        for (int i = 0; i < itens; i++) {
+            OrderItem it = new OrderItem();
+            it.setProductId((long) (i % 3) + 1);
+            it.setQuantity(1);
+            it.setUnitPrice(10.0);
+            o.getItems().add(it);
+        }
+        return o;
+    }
+
+    // Grava o pedido numa transação; sem lote, a sessão envia cada comando separado
+    private long gravar(int itens, boolean emLote) {
+        counter.reset();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!emLote) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+            }
+            orderService.create(novoPedido(itens));
+        });
+        return counter.get();
+    }
+
+    @Test
+    void roundTripsPorPedido() {
+        // aquece: carrega os blocos de ids das sequências
+        orderService.create(novoPedido(1));
+
+        for (int itens : new int[]{1, 10, 30}) {
+            long antes = gravar(itens, false);
+            long depois = gravar(itens, true);
+            System.out.printf("pedido com %2d itens: %3d round trips sem lote, %3d com lote%n", itens, antes, depois);
+            if (itens == 30) {
+                assertTrue(antes > itens, "esperado ao menos um comando por item sem lote, obtido " + antes + " round trips");
+                assertTrue(depois <= 4, "esperado INSERTs em lote, obtido " + depois + " round trips");
+            }
+        }
+    }
+}
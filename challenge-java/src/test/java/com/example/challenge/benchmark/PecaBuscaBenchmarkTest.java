@@ -0,0 +1,77 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.repository.PecaRepository;
+import com.example.challenge.service.PecaBuscaIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mede a latência da busca do PecaBuscaIndex com um catálogo sintético de 100 mil peças.
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class PecaBuscaBenchmarkTest {
+
+    private static final int PECAS = 100_000;
+    private static final int REPETICOES = 500;
+
+    private static final String[] TIPOS = {"Óleo", "Filtro", "Pastilha", "Corrente", "Vela", "Pneu", "Câmara",
+            "Retrovisor", "Manete", "Cabo", "Rolamento", "Junta", "Bateria", "Lâmpada", "Farol", "Coroa"};
+    private static final String[] QUALIFICADORES = {"dianteiro", "traseiro", "esportivo", "reforçado", "original",
+            "paralelo", "sintético", "mineral", "de ignição", "de freio", "do motor", "de embreagem"};
+    private static final String[] MODELOS = {"CG 160", "Fazer 250", "Biz 125", "Pop 110", "XRE 300", "Factor 150",
+            "Titan 160", "Lander 250", "PCX 160", "NMax 160"};
+
+    private static List<Map<String, Object>> catalogo() {
+        List<Map<String, Object>> linhas = new ArrayList<>(PECAS);
+        for (int i = 1; i <= PECAS; i++) {
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("id", (long) i);
+            linha.put("nome", TIPOS[i % TIPOS.length] + " " + QUALIFICADORES[(i / 7) % QUALIFICADORES.length]
+                    + " " + MODELOS[(i / 3) % MODELOS.length]);
+            linha.put("descricao", "Peça de reposição lote " + (i % 977) + " para " + MODELOS[i % MODELOS.length]);
+            linha.put("codigoFabricante", "SKU-" + i);
+            linhas.add(linha);
+        }
+        return linhas;
+    }
+
+    private static void medir(PecaBuscaIndex index, String consulta) {
+        for (int i = 0; i < REPETICOES; i++) index.buscar(consulta, 20); // aquecimento
+        long inicio = System.nanoTime();
+        int resultados = 0;
+        for (int i = 0; i < REPETICOES; i++) {
+            resultados = index.buscar(consulta, 20).size();
+        }
+        double micros = (System.nanoTime() - inicio) / 1e3 / REPETICOES;
+        System.out.printf("%-22s %8.1f us/busca  (%d resultados)%n", "\"" + consulta + "\"", micros, resultados);
+    }
+
+    @Test
+    void latenciaDaBusca() {
+        PecaRepository pecaRepository = mock(PecaRepository.class);
+        when(pecaRepository.findPagina(isNull(), anyInt(), anyList())).thenReturn(catalogo());
+        PecaBuscaIndex index = new PecaBuscaIndex(pecaRepository);
+
+        long inicio = System.nanoTime();
+        index.reconstruir();
+        System.out.printf("indice de %,d pecas construido em %.0f ms%n", index.tamanho(), (System.nanoTime() - inicio) / 1e6);
+
+        medir(index, "oleo sintetico");
+        medir(index, "pastilha freio cg");
+        medir(index, "retrovis");
+        medir(index, "lote 512");
+        medir(index, "embreagem titan");
+        medir(index, "fazer");
+        medir(index, "peca");
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.domain.Peca;
+import com.example.challenge.repository.PecaRepository;
+import com.example.challenge.service.PecaService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compara a vazão de PATCH de estoque: a versão antiga (busca por código, soma em Java, save)
+ * contra o UPDATE atômico de PecaService.updateEstoque.
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bench-estoque;DB_CLOSE_DELAY=-1")
+class PecaEstoqueBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERACOES_POR_THREAD = 2_000;
+    private static final int PECAS = 512;
+
+    @Autowired
+    private PecaService pecaService;
+
+    @Autowired
+    private PecaRepository pecaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private interface Operacao {
+        void aplicar(String codigo, int quantidade);
+    }
+
+    // Implementação anterior: SELECT + soma em Java + UPDATE (sujeita a lost update)
+    private void readModifyWrite(String codigo, int quantidade) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Peca peca = pecaRepository.findByCodigoFabricante(codigo).orElseThrow();
+            int novoEstoque = peca.getEstoqueAtual() + quantidade;
+            if (novoEstoque < 0) {
+                throw new IllegalArgumentException("Operação de estoque resultaria em valor negativo.");
+            }
+            peca.setEstoqueAtual(novoEstoque);
+            pecaRepository.save(peca);
+        });
+    }
+
+    private void prepararPecas(String prefixo) {
+        for (int i = 0; i < PECAS; i++) {
+            Peca peca = new Peca();
+            peca.setNome("Peça " + i);
+            peca.setCodigoFabricante(prefixo + i);
+            pecaService.save(peca);
+        }
+    }
+
+    private void medir(String nome, String prefixo, Operacao operacao) throws Exception {
+        prepararPecas(prefixo);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long inicio = System.nanoTime();
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int seed = t;
+                futures.add(pool.submit(() -> {
+                    int falhas = 0;
+                    for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                        try {
+                            operacao.aplicar(prefixo + ((seed + i) % PECAS), 1);
+                        } catch (RuntimeException e) {
+                            falhas++;
+                        }
+                    }
+                    return falhas;
+                }));
+            }
+            int falhas = 0;
+            for (Future<Integer> f : futures) {
+                falhas += f.get();
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            int total = THREADS * OPERACOES_POR_THREAD;
+            int estoqueFinal = 0;
+            for (int i = 0; i < PECAS; i++) {
+                estoqueFinal += pecaRepository.findByCodigoFabricante(prefixo + i).orElseThrow().getEstoqueAtual();
+            }
+            System.out.printf("%-20s %8.0f ops/s  falhas=%d  incrementos perdidos=%d%n",
+                    nome, total / segundos, falhas, total - falhas - estoqueFinal);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void vazaoUpdateEstoque() throws Exception {
+        // aquecimento
+        medir("aquecimento", "WARM-", pecaService::updateEstoque);
+        medir("read-modify-write", "RMW-", this::readModifyWrite);
+        medir("update atomico", "ATOM-", pecaService::updateEstoque);
+    }
+}
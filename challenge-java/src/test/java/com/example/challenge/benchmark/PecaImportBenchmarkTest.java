@@ -0,0 +1,65 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.dto.PecaImportResultadoDTO;
+import com.example.challenge.service.PecaImportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mede a importação CSV de 100 mil peças (primeira carga: só INSERTs; segunda: só UPDATEs).
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bench-import;DB_CLOSE_DELAY=-1")
+class PecaImportBenchmarkTest {
+
+    private static final int LINHAS = 100_000;
+
+    @Autowired
+    private PecaImportService pecaImportService;
+
+    private Path gerarCsv() throws IOException {
+        Path arquivo = Files.createTempFile("pecas-bench", ".csv");
+        StringBuilder csv = new StringBuilder("codigoFabricante,nome,descricao,preco,estoqueAtual,estoqueMinimo,localizacaoEstoque\n");
+        for (int i = 0; i < LINHAS; i++) {
+            csv.append("BENCH-").append(i).append(",Peça ").append(i).append(",Descrição da peça ").append(i)
+               .append(',').append(i % 500).append(".90,").append(i % 100).append(',').append(i % 20)
+               .append(",Corredor ").append(i % 40).append('\n');
+        }
+        Files.writeString(arquivo, csv);
+        return arquivo;
+    }
+
+    private PecaImportResultadoDTO medir(String nome, Path arquivo) throws IOException {
+        long inicio = System.nanoTime();
+        PecaImportResultadoDTO resultado;
+        try (InputStream in = Files.newInputStream(arquivo)) {
+            resultado = pecaImportService.importarCsv(in);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%-10s %,d linhas em %.2f s (%,.0f linhas/s)%n", nome, LINHAS, segundos, LINHAS / segundos);
+        return resultado;
+    }
+
+    @Test
+    void importacao100kLinhas() throws IOException {
+        Path arquivo = gerarCsv();
+        try {
+            PecaImportResultadoDTO insercao = medir("insercao", arquivo);
+            assertEquals(LINHAS, insercao.getInseridas());
+            PecaImportResultadoDTO atualizacao = medir("atualizacao", arquivo);
+            assertEquals(LINHAS, atualizacao.getAtualizadas());
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+}
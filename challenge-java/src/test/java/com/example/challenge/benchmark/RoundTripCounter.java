@@ -0,0 +1,93 @@
+package com.example.challenge.benchmark;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conta as idas ao banco (execute, executeQuery, executeUpdate, executeBatch)
+ * feitas através do DataSource da aplicação. Um executeBatch conta como uma
+ * única ida, independente de quantas linhas o lote carrega.
+ * Usado pelos benchmarks para medir round trips por operação.
+ */
+public class RoundTripCounter {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+            "executeBatch", "executeLargeBatch");
+
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    public void reset() {
+        roundTrips.set(0);
+    }
+
+    public long get() {
+        return roundTrips.get();
+    }
+
+    DataSource wrap(DataSource target) {
+        return proxy(DataSource.class, target, (result, method) ->
+                result instanceof Connection c ? proxy(Connection.class, c, this::wrapStatement) : result);
+    }
+
+    private Object wrapStatement(Object result, Method method) {
+        if (result instanceof Statement) {
+            Class<?> type = method.getReturnType();
+            return proxy(type, result, (r, m) -> r);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, Object target, ResultWrapper wrapper) {
+        InvocationHandler handler = (p, method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName()) && target instanceof Statement) {
+                roundTrips.incrementAndGet();
+            }
+            try {
+                return wrapper.wrap(method.invoke(target, args), method);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private interface ResultWrapper {
+        Object wrap(Object result, Method method);
+    }
+
+    /**
+     * Registra o contador e envolve o DataSource do contexto de teste.
+     */
+    @TestConfiguration
+    public static class Config {
+
+        @Bean
+        public RoundTripCounter roundTripCounter() {
+            return new RoundTripCounter();
+        }
+
+        @Bean
+        public static BeanPostProcessor roundTripCountingDataSource(ObjectProvider<RoundTripCounter> counter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ds ? counter.getObject().wrap(ds) : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.challenge.benchmark;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.LeituraKmDTO;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.service.MotoService;
+import com.example.challenge.service.TelemetriaKmService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compara a vazão de leituras de km: MotoService.save por leitura (único caminho antigo)
+ * contra POST /api/motos/telemetria/km em lotes, com as gravações periódicas incluídas no tempo.
+ * Rodar com: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bench-telemetria;DB_CLOSE_DELAY=-1",
+        "app.motos.telemetria.gravacao=PT1H"
+})
+@AutoConfigureMockMvc
+class TelemetriaKmBenchmarkTest {
+
+    private static final int MOTOS = 10_000;
+    private static final int THREADS = 8;
+    private static final int LOTE = 1_000;
+    private static final int LOTES_POR_THREAD = 50;
+    private static final int LEITURAS_SAVE = 5_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MotoService motoService;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private TelemetriaKmService telemetriaKmService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private void prepararFrota() {
+        jdbcTemplate.update("""
+                INSERT INTO MOTO (ID, CHASSI, MODELO, PLACA, ANO_FABRICACAO, STATUS, KM_ATUAL, DATA_CADASTRO)
+                SELECT NEXT VALUE FOR MOTO_SEQ, 'BENCH-' || X, 'Pop 110i', 'K' || LPAD(X, 6, '0'), 2022, 'Alugada', 0,
+                       CURRENT_TIMESTAMP
+                FROM SYSTEM_RANGE(1, ?)
+                """, MOTOS);
+    }
+
+    private static String placa(int i) {
+        return String.format("K%06d", i % MOTOS + 1);
+    }
+
+    // Caminho antigo: carrega a moto e grava a entidade inteira a cada leitura
+    private double viaSave() throws Exception {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT ID FROM MOTO ORDER BY ID", Long.class);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long inicio = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int seed = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < LEITURAS_SAVE / THREADS; i++) {
+                        Moto moto = motoRepository.findById(ids.get((seed * 7919 + i) % ids.size())).orElseThrow();
+                        moto.setKmAtual(moto.getKmAtual() + 1);
+                        try {
+                            motoService.save(moto);
+                        } catch (RuntimeException e) {
+                            // conflito entre threads na mesma moto: a leitura se perde
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        return LEITURAS_SAVE / ((System.nanoTime() - inicio) / 1e9);
+    }
+
+    private double viaIngestao() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long inicio = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int seed = t;
+                futures.add(pool.submit(() -> {
+                    for (int l = 0; l < LOTES_POR_THREAD; l++) {
+                        List<LeituraKmDTO> lote = new ArrayList<>(LOTE);
+                        for (int i = 0; i < LOTE; i++) {
+                            int n = (seed * LOTES_POR_THREAD + l) * LOTE + i;
+                            lote.add(new LeituraKmDTO(placa(n), null, 100 + n / MOTOS, base.plusSeconds(n / MOTOS)));
+                        }
+                        mockMvc.perform(post("/api/motos/telemetria/km").with(user("telemetria").roles("TELEMETRIA"))
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(lote)))
+                                .andExpect(status().isAccepted());
+                        if (seed == 0 && l % 10 == 9) {
+                            telemetriaKmService.gravarPendentes(); // gravações periódicas no meio da carga
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+            telemetriaKmService.gravarPendentes();
+        } finally {
+            pool.shutdown();
+        }
+        int total = THREADS * LOTES_POR_THREAD * LOTE;
+        return total / ((System.nanoTime() - inicio) / 1e9);
+    }
+
+    @Test
+    void vazaoDeLeiturasDeKm() throws Exception {
+        prepararFrota();
+        System.out.printf("[bench] km via MotoService.save: %,.0f leituras/s%n", viaSave());
+        viaIngestao(); // aquecimento (Jackson, MockMvc, cache placa -> id)
+        System.out.printf("[bench] km via POST /api/motos/telemetria/km (lotes de %d): %,.0f leituras/s%n",
+                LOTE, viaIngestao());
+    }
+}
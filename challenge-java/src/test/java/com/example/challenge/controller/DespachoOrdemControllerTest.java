@@ -0,0 +1,65 @@
+package com.example.challenge.controller;
+
+import com.example.challenge.dto.OrdemDespachoDTO;
+import com.example.challenge.service.DespachoOrdemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DespachoOrdemControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DespachoOrdemService despachoOrdemService;
+
+    @Test
+    @WithMockUser(username = "joana")
+    void pegarProxima_AtribuiAoUsuarioLogado() throws Exception {
+        when(despachoOrdemService.pegarProxima("joana")).thenReturn(Optional.of(new OrdemDespachoDTO(
+                7L, "Troca de óleo", "ABC1D23", "Manutenção", 1, LocalDateTime.of(2024, 5, 1, 8, 0), "joana")));
+
+        mockMvc.perform(post("/api/ordens/despacho/proxima").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.mecanico").value("joana"));
+    }
+
+    @Test
+    @WithMockUser(username = "joana")
+    void pegarProxima_SemOrdensAbertas_Retorna204() throws Exception {
+        when(despachoOrdemService.pegarProxima("joana")).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/ordens/despacho/proxima").with(csrf()))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @WithMockUser
+    void getFila_LimitaQuantidade() throws Exception {
+        when(despachoOrdemService.proximas(DespachoOrdemController.MAX_LIMIT)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/ordens/despacho").param("limit", "5000"))
+                .andExpect(status().isOk());
+
+        verify(despachoOrdemService).proximas(DespachoOrdemController.MAX_LIMIT);
+    }
+}
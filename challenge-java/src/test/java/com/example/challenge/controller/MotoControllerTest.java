@@ -0,0 +1,125 @@
+package com.example.challenge.controller;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.service.MotoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Teste de integração da listagem paginada da frota (GET /motos).
+ * Usa um banco em memória próprio para não depender das motos do arquivo de dados.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:moto-listagem;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class MotoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MotoService motoService;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @BeforeEach
+    void setUp() {
+        motoRepository.deleteAll();
+        List<Moto> motos = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        for (int i = 0; i < 30; i++) {
+            Moto moto = new Moto();
+            moto.setChassi("CHASSI-LIST-" + i);
+            moto.setPlaca(String.format("LST%04d", i));
+            moto.setModelo(i % 2 == 0 ? "Pop 110i" : "Biz 125");
+            moto.setAnoFabricacao(2020 + i % 3);
+            moto.setStatus(i % 5 == 0 ? "Manutenção" : "Disponível");
+            moto.setKmAtual(i * 100);
+            moto.setDataCadastro(base.plusDays(i));
+            motos.add(moto);
+        }
+        motoRepository.saveAll(motos);
+    }
+
+    @Test
+    void buscarPagina_CombinaFiltrosInformados() {
+        Page<Moto> pagina = motoService.buscarPagina("Disponível", "POP", 2020, PageRequest.of(0, 100, Sort.by("id")));
+
+        assertFalse(pagina.isEmpty());
+        assertTrue(pagina.getContent().stream().allMatch(m ->
+                m.getStatus().equals("Disponível") && m.getModelo().equals("Pop 110i") && m.getAnoFabricacao() == 2020));
+        // i par, i % 3 == 0 e i % 5 != 0: 6, 12, 18, 24
+        assertEquals(4, pagina.getTotalElements());
+    }
+
+    @Test
+    void buscarPagina_CuringasDoLikeNoModeloValemComoTexto() {
+        assertEquals(0, motoService.buscarPagina(null, "%", null, PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(0, motoService.buscarPagina(null, "p_p", null, PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(15, motoService.buscarPagina(null, "biz", null, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void buscarPagina_FiltrosVaziosNaoRestringem() {
+        Page<Moto> pagina = motoService.buscarPagina("", " ", null, PageRequest.of(0, 10));
+
+        assertEquals(30, pagina.getTotalElements());
+        assertEquals(3, pagina.getTotalPages());
+        assertEquals(10, pagina.getContent().size());
+    }
+
+    @Test
+    @WithMockUser
+    void listMotos_PaginaOrdenadaPorCadastroMaisRecente() throws Exception {
+        mockMvc.perform(get("/motos").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("motos-list"))
+                .andExpect(model().attribute("sort", "dataCadastro"))
+                .andExpect(model().attribute("dir", "desc"))
+                .andExpect(content().string(containsString("LST0029")))
+                .andExpect(content().string(not(containsString("LST0019"))))
+                .andExpect(content().string(containsString("Página 1 de 3")));
+    }
+
+    @Test
+    @WithMockUser
+    void listMotos_FiltraPorStatusEPreservaFiltroNaPaginacao() throws Exception {
+        mockMvc.perform(get("/motos").param("status", "Manutenção").param("size", "2").param("sort", "placa").param("dir", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("LST0000")))
+                .andExpect(content().string(containsString("LST0005")))
+                .andExpect(content().string(not(containsString("LST0010"))))
+                .andExpect(content().string(containsString("page=1")))
+                .andExpect(content().string(containsString("status=Manuten")));
+    }
+
+    @Test
+    @WithMockUser
+    void listMotos_IgnoraOrdenacaoDesconhecidaELimitaTamanho() throws Exception {
+        Page<?> pagina = (Page<?>) mockMvc.perform(get("/motos").param("sort", "chassi; drop").param("size", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("sort", "dataCadastro"))
+                .andReturn().getModelAndView().getModel().get("motos");
+
+        assertEquals(MotoController.MAX_PAGE_SIZE, pagina.getSize());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.challenge.controller;
+
+import com.example.challenge.dto.LeituraKmDTO;
+import com.example.challenge.dto.LeituraKmResultadoDTO;
+import com.example.challenge.dto.ResumoKmDTO;
+import com.example.challenge.service.KmSerieService;
+import com.example.challenge.service.TelemetriaKmService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MotoTelemetriaControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private TelemetriaKmService telemetriaKmService;
+
+    @MockBean
+    private KmSerieService kmSerieService;
+
+    @Test
+    @WithMockUser(roles = "TELEMETRIA")
+    void registrarKm_DeveRetornar202ComOResumo() throws Exception {
+        when(telemetriaKmService.registrar(anyList())).thenReturn(new LeituraKmResultadoDTO(2, 1, 1, 0, 0));
+        List<LeituraKmDTO> leituras = List.of(
+                new LeituraKmDTO("ABC1D23", null, 15230, LocalDateTime.of(2024, 5, 1, 10, 0)),
+                new LeituraKmDTO("ABC1D23", null, 15100, LocalDateTime.of(2024, 5, 1, 10, 1)));
+
+        // Rastreador: sem sessão e sem token CSRF
+        mockMvc.perform(post("/api/motos/telemetria/km")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(leituras)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.aceitas").value(1))
+                .andExpect(jsonPath("$.foraDeOrdem").value(1));
+
+        verify(telemetriaKmService, times(1)).registrar(anyList());
+    }
+
+    @Test
+    void registrarKm_ExigeCredencialDeTelemetriaPorHttpBasic() throws Exception {
+        String corpo = "[{\"placa\": \"ABC1D23\", \"km\": 1, \"timestamp\": \"2024-05-01T10:00:00\"}]";
+
+        mockMvc.perform(post("/api/motos/telemetria/km")
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/motos/telemetria/km").with(user("cliente").roles("USER"))
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isForbidden());
+
+        verify(telemetriaKmService, never()).registrar(anyList());
+    }
+
+    @Test
+    @WithMockUser(roles = "TELEMETRIA")
+    void registrarKm_DeveRetornar400_ParaLoteVazioOuGrandeDemais() throws Exception {
+        mockMvc.perform(post("/api/motos/telemetria/km").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        List<LeituraKmDTO> grande = Collections.nCopies(MotoTelemetriaController.MAX_LEITURAS_POR_LOTE + 1,
+                new LeituraKmDTO("ABC1D23", null, 1, LocalDateTime.of(2024, 5, 1, 10, 0)));
+        mockMvc.perform(post("/api/motos/telemetria/km").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(grande)))
+                .andExpect(status().isBadRequest());
+
+        verify(telemetriaKmService, never()).registrar(anyList());
+    }
+
+    @Test
+    @WithMockUser
+    void resumoKm_DeveLerIntervaloISOERetornar400ParaPeriodoInvalido() throws Exception {
+        LocalDateTime de = LocalDateTime.of(2024, 5, 1, 0, 0);
+        when(kmSerieService.resumo(7L, de, de.plusDays(1), Duration.ofHours(1))).thenReturn(List.of(
+                new ResumoKmDTO(de.plusHours(8), de.plusHours(9), 12, 1000, 1020, 1000, 1020, 0)));
+        when(kmSerieService.leituras(anyLong(), any(), any())).thenThrow(new IllegalArgumentException("período"));
+
+        mockMvc.perform(get("/api/motos/telemetria/7/km/resumo")
+                        .param("de", "2024-05-01T00:00:00")
+                        .param("ate", "2024-05-02T00:00:00")
+                        .param("intervalo", "PT1H"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].leituras").value(12))
+                .andExpect(jsonPath("$[0].kmFinal").value(1020));
+
+        mockMvc.perform(get("/api/motos/telemetria/7/km")
+                        .param("de", "2024-05-02T00:00:00")
+                        .param("ate", "2024-05-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verify(kmSerieService).resumo(eq(7L), eq(de), eq(de.plusDays(1)), eq(Duration.ofHours(1)));
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.challenge.controller;
+
+import com.example.challenge.benchmark.RoundTripCounter;
+import com.example.challenge.domain.Moto;
+import com.example.challenge.domain.OrdemServico;
+import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.OrdemServicoListaDTO;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.OrdemServicoRepository;
+import com.example.challenge.repository.PecaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Teste de integração da listagem paginada de ordens de serviço (GET /ordens) e do formulário de OS.
+ * Cada ordem aponta para uma moto diferente: a página tem que sair com o mesmo número de
+ * consultas, sem um SELECT por moto. O formulário não carrega frota nem catálogo; a moto e as
+ * peças vêm das sugestões por prefixo.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ordem-listagem;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@Import(RoundTripCounter.Config.class)
+class OrdemServicoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrdemServicoRepository ordemServicoRepository;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private PecaRepository pecaRepository;
+
+    @Autowired
+    private RoundTripCounter counter;
+
+    private Long ordemId;
+
+    @BeforeEach
+    void setUp() {
+        ordemServicoRepository.deleteAll();
+        motoRepository.deleteAll();
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 0);
+        List<OrdemServico> ordens = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Moto moto = new Moto();
+            moto.setChassi("CHASSI-OS-LIST-" + i);
+            moto.setPlaca(String.format("OSL%04d", i));
+            moto.setModelo("Pop 110i");
+            moto.setKmAtual(1000 + i);
+            moto.setDataCadastro(base);
+            moto = motoRepository.save(moto);
+
+            OrdemServico ordem = new OrdemServico();
+            ordem.setMoto(moto);
+            ordem.setStatus(i % 3 == 0 ? "FINALIZADA" : "ABERTA");
+            ordem.setDescricao("Revisão " + i);
+            ordem.setDataAbertura(base.plusDays(i));
+            ordens.add(ordem);
+        }
+        ordemId = ordemServicoRepository.saveAll(ordens).get(0).getId();
+
+        Moto outra = new Moto();
+        outra.setChassi("CHASSI-OS-LIST-BIZ");
+        outra.setPlaca("BIZ0001");
+        outra.setModelo("Biz 125");
+        outra.setDataCadastro(base);
+        motoRepository.save(outra);
+
+        if (pecaRepository.findByCodigoFabricante("OSL-FILTRO").isEmpty()) {
+            Peca filtro = new Peca();
+            filtro.setNome("Filtro de Óleo");
+            filtro.setCodigoFabricante("OSL-FILTRO");
+            filtro.setEstoqueAtual(4);
+            Peca vela = new Peca();
+            vela.setNome("Vela de Ignição");
+            vela.setCodigoFabricante("OSL-VELA");
+            vela.setEstoqueAtual(2);
+            pecaRepository.saveAll(List.of(filtro, vela));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Page<OrdemServicoListaDTO> pagina(MvcResult resultado) {
+        return (Page<OrdemServicoListaDTO>) resultado.getModelAndView().getModel().get("ordens");
+    }
+
+    @Test
+    @WithMockUser
+    void listOrdens_PrimeiraPagina_MaisRecentesPrimeiroComPlacaDaMoto() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/ordens").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("ordens-list"))
+                .andExpect(content().string(containsString("OSL0029")))
+                .andExpect(content().string(containsString("Página 1 de 3")))
+                .andReturn();
+
+        Page<OrdemServicoListaDTO> ordens = pagina(resultado);
+        assertEquals(30, ordens.getTotalElements());
+        assertEquals(10, ordens.getContent().size());
+        assertEquals("Revisão 29", ordens.getContent().get(0).getDescricao());
+        assertEquals("OSL0029", ordens.getContent().get(0).getMotoPlaca());
+        assertEquals(1029, ordens.getContent().get(0).getMotoKmAtual());
+    }
+
+    @Test
+    @WithMockUser
+    void listOrdens_FiltroPorStatus() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/ordens").param("status", "FINALIZADA"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(not(containsString("OSL0028"))))
+                .andReturn();
+
+        Page<OrdemServicoListaDTO> ordens = pagina(resultado);
+        assertEquals(10, ordens.getTotalElements());
+        assertTrue(ordens.getContent().stream().allMatch(o -> o.getStatus().equals("FINALIZADA")));
+    }
+
+    @Test
+    @WithMockUser
+    void listOrdens_UmaConsultaParaAPaginaEOutraParaOTotal() throws Exception {
+        counter.reset();
+        mockMvc.perform(get("/ordens").param("size", "25").param("page", "0"))
+                .andExpect(status().isOk());
+
+        // 25 ordens de 25 motos diferentes: página com junção + COUNT, nada por moto
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    @WithMockUser
+    void sugestoesDeMoto_PlacaPrimeiroDepoisModelo_SemDistinguirMaiusculas() throws Exception {
+        mockMvc.perform(get("/api/motos/sugestoes").param("q", "osl002").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].placa").value("OSL0020"))
+                .andExpect(jsonPath("$[2].placa").value("OSL0022"));
+
+        mockMvc.perform(get("/api/motos/sugestoes").param("q", " biz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].placa").value("BIZ0001"))
+                .andExpect(jsonPath("$[0].modelo").value("Biz 125"));
+
+        mockMvc.perform(get("/api/motos/sugestoes").param("q", "  "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @WithMockUser
+    void sugestoesDePeca_PorCodigoOuNome() throws Exception {
+        mockMvc.perform(get("/api/pecas/sugestoes").param("q", "osl-v"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].nome").value("Vela de Ignição"))
+                .andExpect(jsonPath("$[0].disponivel").value(2));
+
+        mockMvc.perform(get("/api/pecas/sugestoes").param("q", "filtro de"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].codigoFabricante").value("OSL-FILTRO"));
+    }
+
+    @Test
+    @WithMockUser
+    void formulario_NaoCarregaFrotaNemCatalogo() throws Exception {
+        MvcResult novo = mockMvc.perform(get("/ordens/new"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("ordem-form"))
+                .andExpect(content().string(containsString("/api/motos/sugestoes")))
+                .andReturn();
+        assertFalse(novo.getModelAndView().getModel().containsKey("motos"));
+        assertFalse(novo.getModelAndView().getModel().containsKey("pecas"));
+
+        counter.reset();
+        mockMvc.perform(get("/ordens/edit/{id}", ordemId))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("OSL0000 - Pop 110i")))
+                .andExpect(content().string(containsString("/api/pecas/sugestoes")));
+        assertEquals(1, counter.get()); // a ordem, com a moto na mesma consulta
+    }
+}
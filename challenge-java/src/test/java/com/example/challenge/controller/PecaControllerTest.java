@@ -1,9 +1,20 @@
 package com.example.challenge.controller;
 
 import com.example.challenge.domain.Peca;
+import com.example.challenge.domain.ReservaPeca;
+import com.example.challenge.dto.EstoqueMovimentoDTO;
+import com.example.challenge.dto.EstoqueMovimentoResultadoDTO;
 import com.example.challenge.dto.EstoqueUpdateDTO;
+import com.example.challenge.dto.PecaBuscaResultadoDTO;
 import com.example.challenge.dto.PecaDTO;
+import com.example.challenge.dto.PecaImportResultadoDTO;
+import com.example.challenge.dto.PecaPaginaDTO;
+import com.example.challenge.dto.PecaSugestaoDTO;
+import com.example.challenge.dto.ReservaPecaDTO;
+import com.example.challenge.dto.ReservaPecaListaDTO;
+import com.example.challenge.service.PecaImportService;
 import com.example.challenge.service.PecaService;
+import com.example.challenge.service.ReservaPecaService;
 import com.example.challenge.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,21 +23,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +63,12 @@ public class PecaControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private PecaImportService pecaImportService;
+
+    @MockBean
+    private ReservaPecaService reservaPecaService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -61,6 +87,7 @@ public class PecaControllerTest {
         peca.setEstoqueAtual(50);
         peca.setEstoqueMinimo(10);
         peca.setLocalizacaoEstoque("Prateleira B3");
+        peca.setVersao(4L);
 
         pecaDTO = new PecaDTO();
         pecaDTO.setNome("Filtro de Óleo");
@@ -148,7 +175,7 @@ public class PecaControllerTest {
         List<Peca> pecas = Arrays.asList(peca, new Peca());
         when(pecaService.findAll()).thenReturn(pecas);
 
-        mockMvc.perform(get("/api/pecas"))
+        mockMvc.perform(get("/api/pecas").param("all", "true"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2));
 
@@ -161,11 +188,39 @@ public class PecaControllerTest {
         List<Peca> pecas = Arrays.asList(peca);
         when(pecaService.findAll()).thenReturn(pecas);
 
-        mockMvc.perform(get("/api/pecas"))
+        mockMvc.perform(get("/api/pecas").param("all", "true"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(1));
     }
 
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void getPecas_DeveRetornarPaginaComCursor_QuandoSemAll() throws Exception {
+        Map<String, Object> linha = new LinkedHashMap<>();
+        linha.put("id", 7L);
+        linha.put("nome", "Filtro de Óleo");
+        when(pecaService.listarPagina(3L, 1, List.of("nome")))
+                .thenReturn(new PecaPaginaDTO(List.of(linha), 7L));
+
+        mockMvc.perform(get("/api/pecas").param("after", "3").param("limit", "1").param("fields", "nome"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(7))
+                .andExpect(jsonPath("$.items[0].nome").value("Filtro de Óleo"))
+                .andExpect(jsonPath("$.nextCursor").value(7));
+
+        verify(pecaService, never()).findAll();
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void getPecas_DeveRetornar400_QuandoCampoDesconhecido() throws Exception {
+        when(pecaService.listarPagina(isNull(), anyInt(), eq(List.of("senha"))))
+                .thenThrow(new IllegalArgumentException("Campo desconhecido: senha"));
+
+        mockMvc.perform(get("/api/pecas").param("fields", "senha"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = {"USER"})
     public void getPecaById_DeveRetornar200Ok_QuandoEncontrado() throws Exception {
@@ -185,6 +240,65 @@ public class PecaControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void getPecaById_DeveRetornarETagDaVersao() throws Exception {
+        when(pecaService.findById(1L)).thenReturn(Optional.of(peca));
+
+        mockMvc.perform(get("/api/pecas/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void getPecaById_DeveRetornar304_SemCarregarPeca_QuandoETagConfere() throws Exception {
+        when(pecaService.findVersao(1L)).thenReturn(Optional.of(4L));
+
+        mockMvc.perform(get("/api/pecas/1").header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(pecaService, never()).findById(anyLong());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void getPecaById_DeveRetornar200_QuandoVersaoMudou() throws Exception {
+        when(pecaService.findVersao(1L)).thenReturn(Optional.of(4L));
+        when(pecaService.findById(1L)).thenReturn(Optional.of(peca));
+
+        mockMvc.perform(get("/api/pecas/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void getPecas_DeveRetornar304_SemConsultar_QuandoRevisaoNaoMudou() throws Exception {
+        when(pecaService.revisaoColecao()).thenReturn("abc-7");
+
+        mockMvc.perform(get("/api/pecas").header(HttpHeaders.IF_NONE_MATCH, "W/\"abc-6\", \"abc-7\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/pecas").param("all", "true").header(HttpHeaders.IF_NONE_MATCH, "\"abc-7\""))
+                .andExpect(status().isNotModified());
+
+        verify(pecaService, never()).listarPagina(any(), anyInt(), any());
+        verify(pecaService, never()).findAll();
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void updatePeca_DeveRetornar409_QuandoVersaoMudouNoMeioTempo() throws Exception {
+        when(pecaService.findById(1L)).thenReturn(Optional.of(peca));
+        when(pecaService.save(any(Peca.class))).thenThrow(new ObjectOptimisticLockingFailureException(Peca.class, 1L));
+
+        mockMvc.perform(put("/api/pecas/1").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pecaDTO)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @WithMockUser(roles = {"ADMIN"})
     public void deletePeca_DeveRetornar204NoContent_QuandoSucesso() throws Exception {
@@ -252,4 +366,249 @@ public class PecaControllerTest {
 
         verify(pecaService, never()).updateEstoque(anyString(), anyInt());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void updateEstoque_PecaComCodigoBatch_AjustaAPropriaPeca() throws Exception {
+        Peca pecaAtualizada = new Peca();
+        pecaAtualizada.setEstoqueAtual(15);
+        when(pecaService.updateEstoque("batch", 10)).thenReturn(pecaAtualizada);
+
+        mockMvc.perform(patch("/api/pecas/estoque/batch").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(estoqueUpdateDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estoqueAtual").value(15));
+
+        verify(pecaService, times(1)).updateEstoque("batch", 10);
+        verify(pecaService, never()).updateEstoqueBatch(anyList());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void updateEstoqueBatch_DeveRetornar200Ok_ComResultadoPorItem() throws Exception {
+        List<EstoqueMovimentoDTO> movimentos = List.of(
+                new EstoqueMovimentoDTO("FO-M001", 10),
+                new EstoqueMovimentoDTO("FO-M001", -100),
+                new EstoqueMovimentoDTO("XX-999", 1));
+        when(pecaService.updateEstoqueBatch(anyList())).thenReturn(List.of(
+                new EstoqueMovimentoResultadoDTO("FO-M001", 10, EstoqueMovimentoResultadoDTO.Status.APLICADO, 60),
+                new EstoqueMovimentoResultadoDTO("FO-M001", -100, EstoqueMovimentoResultadoDTO.Status.REJEITADO_ESTOQUE_NEGATIVO, 60),
+                new EstoqueMovimentoResultadoDTO("XX-999", 1, EstoqueMovimentoResultadoDTO.Status.CODIGO_DESCONHECIDO, null)));
+
+        mockMvc.perform(patch("/api/pecas/movimentos-estoque").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(movimentos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].status").value("APLICADO"))
+                .andExpect(jsonPath("$[1].status").value("REJEITADO_ESTOQUE_NEGATIVO"))
+                .andExpect(jsonPath("$[2].status").value("CODIGO_DESCONHECIDO"));
+
+        verify(pecaService, times(1)).updateEstoqueBatch(anyList());
+        verify(pecaService, never()).updateEstoque(anyString(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void updateEstoqueBatch_DeveRetornar400BadRequest_QuandoItemInvalido() throws Exception {
+        List<EstoqueMovimentoDTO> movimentos = List.of(new EstoqueMovimentoDTO("", null));
+
+        mockMvc.perform(patch("/api/pecas/movimentos-estoque").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(movimentos)))
+                .andExpect(status().isBadRequest());
+
+        verify(pecaService, never()).updateEstoqueBatch(anyList());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void updateEstoqueBatch_DeveRetornar403Forbidden_ParaNaoAdmin() throws Exception {
+        mockMvc.perform(patch("/api/pecas/movimentos-estoque").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(new EstoqueMovimentoDTO("FO-M001", 1)))))
+                .andExpect(status().isForbidden());
+
+        verify(pecaService, never()).updateEstoqueBatch(anyList());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void getPecasAbaixoDoMinimo_DeveRetornar200Ok() throws Exception {
+        peca.setEstoqueAtual(3);
+        when(pecaService.findAbaixoDoMinimo()).thenReturn(List.of(peca));
+
+        mockMvc.perform(get("/api/pecas/abaixo-minimo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].codigoFabricante").value("FO-M001"));
+
+        verify(pecaService, never()).findAll();
+    }
+
+    // --- Testes para POST /api/pecas/import ---
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void importarCsv_DeveRetornarRelatorio_ParaAdmin() throws Exception {
+        MockMultipartFile arquivo = new MockMultipartFile("file", "pecas.csv", "text/csv",
+                "codigoFabricante,nome\n".getBytes());
+        when(pecaImportService.importarCsv(any()))
+                .thenReturn(new PecaImportResultadoDTO(10, 7, 2, 1,
+                        List.of(new PecaImportResultadoDTO.ErroLinha(5, "X-1", "O nome da peça é obrigatório."))));
+
+        mockMvc.perform(multipart("/api/pecas/import").file(arquivo).with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inseridas").value(7))
+                .andExpect(jsonPath("$.atualizadas").value(2))
+                .andExpect(jsonPath("$.erros[0].linha").value(5));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void importarCsv_DeveRetornar400_QuandoCabecalhoInvalido() throws Exception {
+        MockMultipartFile arquivo = new MockMultipartFile("file", "pecas.csv", "text/csv", "x\n".getBytes());
+        when(pecaImportService.importarCsv(any())).thenThrow(new IllegalArgumentException("Colunas ausentes"));
+
+        mockMvc.perform(multipart("/api/pecas/import").file(arquivo).with(csrf()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void importarCsv_DeveRetornar403_ParaNaoAdmin() throws Exception {
+        MockMultipartFile arquivo = new MockMultipartFile("file", "pecas.csv", "text/csv", "x\n".getBytes());
+
+        mockMvc.perform(multipart("/api/pecas/import").file(arquivo).with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verify(pecaImportService, never()).importarCsv(any());
+    }
+
+    // --- Testes para GET /api/pecas/busca ---
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void buscarPecas_DeveRetornarResultadosOrdenados() throws Exception {
+        when(pecaService.buscar("oleo", 20)).thenReturn(List.of(
+                new PecaBuscaResultadoDTO(1L, "Filtro de Óleo", "Filtro", "FO-M001", 9)));
+
+        mockMvc.perform(get("/api/pecas/busca").param("q", "oleo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].score").value(9));
+    }
+
+    // --- Testes para GET /api/pecas/sugestoes ---
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void sugerirPecas_DeveLimitarQuantidade() throws Exception {
+        when(pecaService.sugerir("fo", PecaController.MAX_SUGESTOES)).thenReturn(List.of(
+                new PecaSugestaoDTO(1L, "Filtro de Óleo", "FO-M001", 7)));
+
+        mockMvc.perform(get("/api/pecas/sugestoes").param("q", "fo").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].codigoFabricante").value("FO-M001"))
+                .andExpect(jsonPath("$[0].disponivel").value(7));
+    }
+
+    // --- Testes para GET /api/pecas/{id}/estoque ---
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void getEstoqueNaData_DeveRetornarSaldoNoInstante() throws Exception {
+        LocalDateTime data = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(pecaService.findVersao(1L)).thenReturn(Optional.of(3L));
+        when(pecaService.saldoEm(1L, data)).thenReturn(8);
+
+        mockMvc.perform(get("/api/pecas/1/estoque").param("data", "2024-05-01T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pecaId").value(1))
+                .andExpect(jsonPath("$.data").value("2024-05-01T10:00:00"))
+                .andExpect(jsonPath("$.estoque").value(8));
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void getEstoqueNaData_DeveRetornar404_QuandoPecaNaoExiste() throws Exception {
+        when(pecaService.findVersao(99L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/pecas/99/estoque"))
+                .andExpect(status().isNotFound());
+
+        verify(pecaService, never()).saldoEm(anyLong(), any());
+    }
+
+    // --- Testes para as reservas de peças ---
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void reservar_DeveRetornar201_ParaMecanico() throws Exception {
+        ReservaPeca reserva = new ReservaPeca(1L, 10L, 2, LocalDateTime.now(), LocalDateTime.now().plusMinutes(30));
+        reserva.setId(7L);
+        when(reservaPecaService.reservar(1L, 10L, 2)).thenReturn(reserva);
+
+        mockMvc.perform(post("/api/pecas/1/reservas").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ReservaPecaDTO(10L, 2))))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/pecas/reservas/7"))
+                .andExpect(jsonPath("$.quantidade").value(2));
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void reservar_DeveRetornar409_QuandoNaoHaUnidadesDisponiveis() throws Exception {
+        when(reservaPecaService.reservar(1L, 10L, 5)).thenThrow(new IllegalStateException("Estoque disponível insuficiente"));
+
+        mockMvc.perform(post("/api/pecas/1/reservas").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ReservaPecaDTO(10L, 5))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void reservar_DeveRetornar400_QuandoQuantidadeNaoPositiva() throws Exception {
+        mockMvc.perform(post("/api/pecas/1/reservas").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ReservaPecaDTO(10L, 0))))
+                .andExpect(status().isBadRequest());
+
+        verify(reservaPecaService, never()).reservar(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void getReservasDaOrdem_DeveRetornarONomeDaPeca() throws Exception {
+        when(reservaPecaService.findByOrdemServico(10L)).thenReturn(List.of(
+                new ReservaPecaListaDTO(7L, 1L, "VEL-001", "Vela de ignição", 2, LocalDateTime.now().plusMinutes(30))));
+
+        mockMvc.perform(get("/api/pecas/reservas").param("ordemServicoId", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[0].pecaCodigoFabricante").value("VEL-001"))
+                .andExpect(jsonPath("$[0].pecaNome").value("Vela de ignição"))
+                .andExpect(jsonPath("$[0].expiraEm").exists());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void confirmarReserva_DeveRetornar204() throws Exception {
+        mockMvc.perform(post("/api/pecas/reservas/7/confirmacao").with(csrf()))
+                .andExpect(status().isNoContent());
+
+        verify(reservaPecaService).confirmar(7L);
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void liberarReserva_DeveRetornar404_QuandoReservaNaoExiste() throws Exception {
+        doThrow(new IllegalArgumentException("Reserva não encontrada")).when(reservaPecaService).liberar(99L);
+
+        mockMvc.perform(delete("/api/pecas/reservas/99").with(csrf()))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.challenge.service;
+
+import com.example.challenge.DadosDeTeste;
+import com.example.challenge.benchmark.RoundTripCounter;
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.ContadoresDashboardDTO;
+import com.example.challenge.repository.MotoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Teste de integração dos contadores do dashboard. A verificação agendada fica espaçada
+ * para que o teste decida quando o snapshot é recalculado.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:dashboard;DB_CLOSE_DELAY=-1",
+        "app.dashboard.intervalo=PT1H",
+        "app.dashboard.verificacao=PT1H"
+})
+@AutoConfigureMockMvc
+@Import(RoundTripCounter.Config.class)
+class DashboardServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private MotoService motoService;
+
+    @Autowired
+    private PecaService pecaService;
+
+    @Autowired
+    private OrdemServicoService ordemServicoService;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoundTripCounter counter;
+
+    private ContadoresDashboardDTO inicial;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService.atualizarSeNecessario(); // consome alterações pendentes de outros testes
+        inicial = dashboardService.atualizar();
+    }
+
+    @Test
+    void atualizarSeNecessario_RecalculaAposAlteracoesConfirmadas() {
+        Moto disponivel = motoService.save(DadosDeTeste.moto("Disponível"));
+        motoService.save(DadosDeTeste.moto("Alugada"));
+        motoService.save(DadosDeTeste.moto("Manutenção"));
+        motoService.save(DadosDeTeste.moto("Aguardando Peça"));
+        pecaService.save(DadosDeTeste.peca(40));
+        ordemServicoService.save(DadosDeTeste.ordem(disponivel, "ABERTA"));
+        ordemServicoService.save(DadosDeTeste.ordem(disponivel, "EM_ANDAMENTO"));
+        ordemServicoService.save(DadosDeTeste.ordem(disponivel, "FINALIZADA"));
+
+        // Até a verificação, o snapshot continua o mesmo
+        assertSame(inicial, dashboardService.contadores());
+
+        dashboardService.atualizarSeNecessario();
+        ContadoresDashboardDTO atual = dashboardService.contadores();
+
+        assertEquals(inicial.getMotosAtivas() + 2, atual.getMotosAtivas());
+        assertEquals(inicial.getMotosEmManutencao() + 2, atual.getMotosEmManutencao());
+        assertEquals(inicial.getPecasEmEstoque() + 40, atual.getPecasEmEstoque());
+        assertEquals(inicial.getOrdensAbertas() + 2, atual.getOrdensAbertas());
+    }
+
+    @Test
+    void atualizarSeNecessario_IgnoraTransacaoDesfeita() {
+        transactionTemplate.executeWithoutResult(status -> {
+            motoService.save(DadosDeTeste.moto("Disponível"));
+            status.setRollbackOnly();
+        });
+
+        dashboardService.atualizarSeNecessario();
+
+        assertSame(inicial, dashboardService.contadores());
+    }
+
+    @Test
+    void atualizarSeNecessario_NaoConsultaSemAlteracaoNemSnapshotVencido() {
+        // Gravação por fora dos serviços: só entra no próximo recálculo
+        motoRepository.save(DadosDeTeste.moto("Disponível"));
+        counter.reset();
+
+        dashboardService.atualizarSeNecessario();
+
+        assertEquals(0, counter.get());
+        assertSame(inicial, dashboardService.contadores());
+        assertEquals(inicial.getMotosAtivas() + 1, dashboardService.atualizar().getMotosAtivas());
+    }
+
+    @Test
+    @WithMockUser
+    void dashboard_ServidoDaMemoria() throws Exception {
+        counter.reset();
+
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(get("/"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("contadores", inicial));
+        }
+
+        assertEquals(0, counter.get());
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.challenge.service;
+
+import com.example.challenge.DadosDeTeste;
+import com.example.challenge.domain.Moto;
+import com.example.challenge.domain.OrdemServico;
+import com.example.challenge.dto.OrdemDespachoDTO;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.OrdemServicoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração da fila de despacho de ordens de serviço (banco H2 em memória próprio;
+ * a reconstrução periódica fica espaçada para que o teste decida quando ela roda).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ordem-despacho;DB_CLOSE_DELAY=-1",
+        "app.ordens.despacho.recalculo=PT1H"
+})
+class DespachoOrdemServiceTest {
+
+    private static final LocalDateTime AGORA = LocalDateTime.now().withNano(0);
+
+    @Autowired
+    private DespachoOrdemService despachoOrdemService;
+
+    @Autowired
+    private OrdemServicoService ordemServicoService;
+
+    @Autowired
+    private ReservaPecaService reservaPecaService;
+
+    @Autowired
+    private PecaService pecaService;
+
+    @Autowired
+    private OrdemServicoRepository ordemServicoRepository;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM peca_reserva");
+        jdbcTemplate.update("DELETE FROM ordem_servico");
+        despachoOrdemService.reconstruir();
+    }
+
+    private OrdemServico novaOrdem(String statusMoto, LocalDateTime abertura) {
+        Moto moto = motoRepository.save(DadosDeTeste.moto(statusMoto));
+        OrdemServico ordem = DadosDeTeste.ordem(moto, "ABERTA");
+        ordem.setDataAbertura(abertura);
+        return ordemServicoService.save(ordem);
+    }
+
+    @Test
+    void fila_OrdenaPorIdadeAjustadaPelaMotoEPelasPecas() {
+        Long antiga = novaOrdem("Disponível", AGORA.minusHours(30)).getId();
+        Long aguardandoPeca = novaOrdem("Aguardando Peça", AGORA.minusHours(40)).getId();
+        Long emManutencao = novaOrdem("Manutenção", AGORA.minusHours(10)).getId();
+        Long comPecas = novaOrdem("Disponível", AGORA.minusHours(20)).getId();
+        Long nova = novaOrdem("Disponível", AGORA).getId();
+
+        reservaPecaService.reservar(pecaService.save(DadosDeTeste.peca(5)).getId(), comPecas, 1);
+        despachoOrdemService.reconstruir(); // recalcula com a reserva
+
+        // Idade equivalente: manutenção 34h, com peças 32h, antiga 30h, nova 0h, aguardando peça -8h
+        assertEquals(List.of(emManutencao, comPecas, antiga, nova, aguardandoPeca),
+                despachoOrdemService.proximas(10).stream().map(OrdemDespachoDTO::getId).toList());
+
+        OrdemDespachoDTO pega = despachoOrdemService.pegarProxima("mecanico1").orElseThrow();
+        assertEquals(emManutencao, pega.getId());
+        assertEquals("mecanico1", pega.getMecanico());
+        assertEquals("EM_ANDAMENTO", ordemServicoRepository.findById(emManutencao).orElseThrow().getStatus());
+        assertEquals("mecanico1", jdbcTemplate.queryForObject(
+                "SELECT mecanico FROM ordem_servico WHERE id = ?", String.class, emManutencao));
+        assertEquals(4, despachoOrdemService.tamanho());
+    }
+
+    @Test
+    void pegarProxima_ConcorrenteNuncaEntregaAMesmaOrdemDuasVezes() throws Exception {
+        int ordens = 200;
+        for (int i = 0; i < ordens; i++) {
+            novaOrdem("Disponível", AGORA.minusMinutes(i));
+        }
+        ConcurrentLinkedQueue<Long> pegas = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String mecanico = "mecanico" + t;
+                futures.add(pool.submit(() -> {
+                    Optional<OrdemDespachoDTO> ordem;
+                    while ((ordem = despachoOrdemService.pegarProxima(mecanico)).isPresent()) {
+                        pegas.add(ordem.get().getId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(ordens, pegas.size());
+        assertEquals(ordens, new HashSet<>(pegas).size());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ordem_servico WHERE status = 'ABERTA' OR mecanico IS NULL", Integer.class));
+    }
+
+    @Test
+    void pegarProxima_PulaOrdemQueSaiuDeAbertaPorForaDaFila() {
+        Long fechada = novaOrdem("Manutenção", AGORA.minusHours(5)).getId();
+        Long aberta = novaOrdem("Disponível", AGORA.minusHours(1)).getId();
+        // Outra instância (ou um UPDATE direto) fechou a ordem sem passar por esta fila
+        jdbcTemplate.update("UPDATE ordem_servico SET status = 'FINALIZADA' WHERE id = ?", fechada);
+
+        assertEquals(aberta, despachoOrdemService.pegarProxima("mecanico1").orElseThrow().getId());
+        assertEquals("FINALIZADA", ordemServicoRepository.findById(fechada).orElseThrow().getStatus());
+        assertTrue(despachoOrdemService.pegarProxima("mecanico1").isEmpty());
+    }
+
+    @Test
+    void saveEDelete_MantemAFilaEmDia() {
+        OrdemServico finalizada = novaOrdem("Disponível", AGORA.minusHours(3));
+        Long removida = novaOrdem("Disponível", AGORA.minusHours(2)).getId();
+        Long restante = novaOrdem("Disponível", AGORA.minusHours(1)).getId();
+        assertEquals(3, despachoOrdemService.tamanho());
+
+        finalizada.setStatus("FINALIZADA");
+        ordemServicoService.save(finalizada);
+        ordemServicoService.delete(removida);
+
+        assertEquals(List.of(restante),
+                despachoOrdemService.proximas(10).stream().map(OrdemDespachoDTO::getId).toList());
+        Set<Long> naFila = new HashSet<>();
+        despachoOrdemService.reconstruir();
+        despachoOrdemService.proximas(10).forEach(o -> naFila.add(o.getId()));
+        assertEquals(Set.of(restante), naFila);
+    }
+
+    @Test
+    void save_FormularioDesatualizadoNaoDevolveParaAFilaOrdemEmAtendimento() {
+        OrdemServico ordem = novaOrdem("Disponível", AGORA.minusHours(1));
+        despachoOrdemService.pegarProxima("mecanico1").orElseThrow();
+
+        // Formulário aberto antes do despacho, ainda com status ABERTA
+        ordem.setDescricao("Descrição editada");
+        assertThrows(IllegalStateException.class, () -> ordemServicoService.save(ordem));
+
+        assertEquals("EM_ANDAMENTO", ordemServicoRepository.findById(ordem.getId()).orElseThrow().getStatus());
+        assertEquals("mecanico1", jdbcTemplate.queryForObject(
+                "SELECT mecanico FROM ordem_servico WHERE id = ?", String.class, ordem.getId()));
+        assertTrue(despachoOrdemService.pegarProxima("mecanico2").isEmpty());
+
+        // Com o status atual, a edição passa
+        ordem.setStatus("EM_ANDAMENTO");
+        assertEquals("Descrição editada", ordemServicoService.save(ordem).getDescricao());
+    }
+
+    @Test
+    void pegarProxima_ExigeMecanico() {
+        assertThrows(IllegalArgumentException.class, () -> despachoOrdemService.pegarProxima(" "));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.MovimentoEstoque;
+import com.example.challenge.domain.MovimentoEstoque.Origem;
+import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.EstoqueMovimentoDTO;
+import com.example.challenge.repository.MovimentoEstoqueRepository;
+import com.example.challenge.repository.SnapshotEstoqueRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração do histórico de estoque (banco H2 em memória): movimentos gravados
+ * pelos caminhos de escrita de PecaService, snapshots e saldo em datas passadas.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:estoque-historico;DB_CLOSE_DELAY=-1")
+class EstoqueHistoricoServiceTest {
+
+    @Autowired
+    private EstoqueHistoricoService estoqueHistorico;
+
+    @Autowired
+    private PecaService pecaService;
+
+    @Autowired
+    private SnapshotEstoqueRepository snapshotRepository;
+
+    @Autowired
+    private MovimentoEstoqueRepository movimentoRepository;
+
+    // Instante estritamente entre a operação anterior e a próxima
+    private static LocalDateTime marco() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime agora = LocalDateTime.now();
+        Thread.sleep(5);
+        return agora;
+    }
+
+    @Test
+    void saldoEm_DeveReconstruirOEstoqueAntesEDepoisDosSnapshots() throws InterruptedException {
+        LocalDateTime antes = marco();
+        Peca peca = new Peca();
+        peca.setNome("Kit relação");
+        peca.setCodigoFabricante("HIST-1");
+        peca.setEstoqueAtual(10);
+        Long id = pecaService.save(peca).getId();
+        LocalDateTime aposCadastro = marco();
+
+        pecaService.updateEstoque("HIST-1", -3);
+        LocalDateTime aposSaida = marco();
+
+        // Snapshot no meio do histórico: 10 - 3
+        assertTrue(estoqueHistorico.gerarSnapshots(aposSaida) >= 1);
+        assertEquals(7, snapshotRepository
+                .findFirstByPecaIdAndDataSnapshotLessThanEqualOrderByDataSnapshotDesc(id, aposSaida)
+                .orElseThrow().getSaldo());
+        // Mesmo corte de novo: nada a gerar
+        assertEquals(0, estoqueHistorico.gerarSnapshots(aposSaida));
+
+        Peca editada = pecaService.findById(id).orElseThrow();
+        editada.setEstoqueAtual(12);
+        pecaService.save(editada);
+        LocalDateTime aposEdicao = marco();
+        pecaService.updateEstoque("HIST-1", 4);
+
+        assertEquals(0, estoqueHistorico.saldoEm(id, antes));
+        assertEquals(10, estoqueHistorico.saldoEm(id, aposCadastro));
+        assertEquals(7, estoqueHistorico.saldoEm(id, aposSaida));
+        assertEquals(12, estoqueHistorico.saldoEm(id, aposEdicao));
+        assertEquals(16, estoqueHistorico.saldoEm(id, LocalDateTime.now()));
+
+        // Segundo snapshot parte do primeiro e não muda nenhum saldo
+        LocalDateTime aposEntrada = marco();
+        assertTrue(estoqueHistorico.gerarSnapshots(aposEntrada) >= 1);
+        assertEquals(16, snapshotRepository
+                .findFirstByPecaIdAndDataSnapshotLessThanEqualOrderByDataSnapshotDesc(id, aposEntrada)
+                .orElseThrow().getSaldo());
+        assertEquals(10, estoqueHistorico.saldoEm(id, aposCadastro));
+        assertEquals(12, estoqueHistorico.saldoEm(id, aposEdicao));
+        assertEquals(16, estoqueHistorico.saldoEm(id, aposEntrada));
+    }
+
+    @Test
+    void saldoEm_DeveIncluirMovimentosDoLote() throws InterruptedException {
+        Peca peca = new Peca();
+        peca.setNome("Retentor");
+        peca.setCodigoFabricante("HIST-2");
+        peca.setEstoqueAtual(5);
+        Long id = pecaService.save(peca).getId();
+
+        pecaService.updateEstoqueBatch(List.of(
+                new EstoqueMovimentoDTO("HIST-2", 2),
+                new EstoqueMovimentoDTO("HIST-2", -50),
+                new EstoqueMovimentoDTO("HIST-2", -1)));
+
+        assertEquals(6, estoqueHistorico.saldoEm(id, marco()));
+        assertEquals(6, pecaService.findById(id).orElseThrow().getEstoqueAtual());
+    }
+
+    @Test
+    void gerarSnapshots_DeveIncluirMovimentoConfirmadoDepoisDaGeracaoComDataAnterior() throws InterruptedException {
+        Peca peca = new Peca();
+        peca.setNome("Corrente");
+        peca.setCodigoFabricante("HIST-3");
+        peca.setEstoqueAtual(20);
+        Long id = pecaService.save(peca).getId();
+        LocalDateTime dataDoAtrasado = marco();
+        LocalDateTime primeiroCorte = marco();
+        assertTrue(estoqueHistorico.gerarSnapshots(primeiroCorte) >= 1);
+
+        // Transação longa: movimento datado antes do corte, confirmado só depois da geração
+        movimentoRepository.save(new MovimentoEstoque(id, -4, dataDoAtrasado, Origem.AJUSTE));
+        assertEquals(16, estoqueHistorico.saldoEm(id, primeiroCorte));
+        pecaService.updateEstoque("HIST-3", 2);
+        LocalDateTime segundoCorte = marco();
+
+        assertTrue(estoqueHistorico.gerarSnapshots(segundoCorte) >= 1);
+        assertEquals(16, snapshotRepository
+                .findFirstByPecaIdAndDataSnapshotLessThanEqualOrderByDataSnapshotDesc(id, primeiroCorte)
+                .orElseThrow().getSaldo());
+        assertEquals(18, snapshotRepository
+                .findFirstByPecaIdAndDataSnapshotLessThanEqualOrderByDataSnapshotDesc(id, segundoCorte)
+                .orElseThrow().getSaldo());
+        assertEquals(16, estoqueHistorico.saldoEm(id, primeiroCorte));
+        assertEquals(18, estoqueHistorico.saldoEm(id, segundoCorte));
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.challenge.service;
+
+import com.example.challenge.DadosDeTeste;
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.LeituraKmDTO;
+import com.example.challenge.dto.PontoKmDTO;
+import com.example.challenge.dto.ResumoKmDTO;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.service.KmBlocoCodec.Pontos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração da série temporal de km. As gravações agendadas ficam espaçadas para que o
+ * teste decida quando as leituras vão para o banco.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:km-serie;DB_CLOSE_DELAY=-1",
+        "app.motos.telemetria.gravacao=PT1H",
+        "app.motos.km-serie.gravacao=PT1H",
+        "app.motos.km-serie.lote=2"
+})
+class KmSerieServiceTest {
+
+    private static final LocalDateTime DIA1 = LocalDateTime.of(2024, 5, 1, 0, 0);
+    private static final LocalDateTime DIA2 = DIA1.plusDays(1);
+    private static final LocalDateTime DIA3 = DIA1.plusDays(2);
+
+    @Autowired
+    private KmSerieService kmSerieService;
+
+    @Autowired
+    private TelemetriaKmService telemetriaKmService;
+
+    @Autowired
+    private MotoService motoService;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    private Moto moto;
+
+    @BeforeEach
+    void setUp() {
+        kmSerieService.gravarPendentes();
+        moto = novaMoto();
+    }
+
+    private Moto novaMoto() {
+        Moto nova = DadosDeTeste.moto("Alugada");
+        nova.setKmAtual(0);
+        return motoService.save(nova);
+    }
+
+    private LeituraKmDTO leitura(int km, LocalDateTime timestamp) {
+        return new LeituraKmDTO(moto.getPlaca(), null, km, timestamp);
+    }
+
+    @Test
+    void codec_IdaEVolta_ComRetrocessoEPoucosBytesPorLeitura() {
+        Pontos pontos = new Pontos(0);
+        for (int i = 0; i < 1440; i++) {
+            pontos.adicionar(i * 60_000 + 137, 15_000 + i / 3);
+        }
+        pontos.adicionar(1440 * 60_000 - 1, 14_990); // hodômetro voltou
+
+        byte[] dados = KmBlocoCodec.codificar(pontos);
+        Pontos lidos = KmBlocoCodec.decodificar(dados, pontos.tamanho);
+
+        assertEquals(pontos.tamanho, lidos.tamanho);
+        assertArrayEquals(Arrays.copyOf(pontos.milis, pontos.tamanho), Arrays.copyOf(lidos.milis, lidos.tamanho));
+        assertArrayEquals(Arrays.copyOf(pontos.kms, pontos.tamanho), Arrays.copyOf(lidos.kms, lidos.tamanho));
+        assertEquals(1, lidos.retrocessos());
+        assertTrue(dados.length <= pontos.tamanho * 5, "bytes: " + dados.length);
+    }
+
+    @Test
+    void leituras_GuardaTudoInclusiveForaDeOrdem_EMesclaNoBlocoDoDia() {
+        telemetriaKmService.registrar(List.of(
+                leitura(1000, DIA1.plusHours(8)),
+                leitura(1010, DIA1.plusHours(9)),
+                leitura(990, DIA1.plusHours(10)),        // retrocesso: fora de ordem para o km_atual
+                leitura(1050, DIA2.plusHours(7))));
+        assertEquals(2, kmSerieService.gravarPendentes()); // um bloco por dia
+
+        // Leitura atrasada de um dia já gravado: entra no meio do bloco existente
+        telemetriaKmService.registrar(List.of(leitura(1005, DIA1.plusHours(8).plusMinutes(30))));
+        assertEquals(1, kmSerieService.gravarPendentes());
+
+        List<PontoKmDTO> dia1 = kmSerieService.leituras(moto.getId(), DIA1, DIA2);
+        assertEquals(List.of(1000, 1005, 1010, 990), dia1.stream().map(PontoKmDTO::getKm).toList());
+        assertEquals(DIA1.plusHours(8).plusMinutes(30), dia1.get(1).getTimestamp());
+
+        List<PontoKmDTO> trecho = kmSerieService.leituras(moto.getId(), DIA1.plusHours(9), DIA2.plusHours(8));
+        assertEquals(List.of(1010, 990, 1050), trecho.stream().map(PontoKmDTO::getKm).toList());
+    }
+
+    @Test
+    void resumo_PorDia_UsaCabecalhoEContaRetrocessoNaViradaDoDia() {
+        telemetriaKmService.registrar(List.of(
+                leitura(2000, DIA1.plusHours(8)),
+                leitura(2100, DIA1.plusHours(18)),
+                leitura(2050, DIA2.plusHours(8)),        // começa abaixo do fim do dia anterior
+                leitura(2200, DIA2.plusHours(9)),
+                leitura(2300, DIA3.plusHours(9))));
+        kmSerieService.gravarPendentes();
+
+        List<ResumoKmDTO> porDia = kmSerieService.resumo(moto.getId(), DIA1, DIA3.plusDays(1), Duration.ofDays(1));
+        assertEquals(3, porDia.size());
+        assertEquals(DIA2, porDia.get(1).getInicio());
+        assertEquals(DIA3, porDia.get(1).getFim());
+        assertEquals(2, porDia.get(1).getLeituras());
+        assertEquals(2050, porDia.get(1).getKmInicial());
+        assertEquals(2200, porDia.get(1).getKmFinal());
+        assertEquals(1, porDia.get(1).getRetrocessos());
+
+        List<ResumoKmDTO> doisDias = kmSerieService.resumo(moto.getId(), DIA1, DIA3.plusDays(1), Duration.ofDays(2));
+        assertEquals(2, doisDias.size());
+        assertEquals(4, doisDias.get(0).getLeituras());
+        assertEquals(2000, doisDias.get(0).getKmMinimo());
+        assertEquals(2200, doisDias.get(0).getKmMaximo());
+        assertEquals(DIA3.plusDays(1), doisDias.get(1).getFim()); // último intervalo cortado em 'ate'
+    }
+
+    @Test
+    void resumo_PorHora_DecodificaSoOPeriodoPedido() {
+        telemetriaKmService.registrar(List.of(
+                leitura(3000, DIA1.plusHours(8).plusMinutes(10)),
+                leitura(3010, DIA1.plusHours(8).plusMinutes(50)),
+                leitura(3020, DIA1.plusHours(10)),
+                leitura(3030, DIA1.plusHours(12))));
+        kmSerieService.gravarPendentes();
+
+        List<ResumoKmDTO> porHora = kmSerieService.resumo(moto.getId(), DIA1.plusHours(8), DIA1.plusHours(11),
+                Duration.ofHours(1));
+
+        assertEquals(2, porHora.size()); // 9h sem leitura não aparece; 12h fica fora do período
+        assertEquals(DIA1.plusHours(8), porHora.get(0).getInicio());
+        assertEquals(2, porHora.get(0).getLeituras());
+        assertEquals(3010, porHora.get(0).getKmFinal());
+        assertEquals(DIA1.plusHours(10), porHora.get(1).getInicio());
+    }
+
+    @Test
+    void consultas_RejeitamPeriodoInvalido() {
+        long id = moto.getId();
+        assertThrows(IllegalArgumentException.class, () -> kmSerieService.leituras(id, DIA2, DIA1));
+        assertThrows(IllegalArgumentException.class, () -> kmSerieService.leituras(id, DIA1, DIA1.plusDays(32)));
+        assertThrows(IllegalArgumentException.class,
+                () -> kmSerieService.resumo(id, DIA1, DIA2, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> kmSerieService.resumo(id, DIA1, DIA1.plusDays(30), Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void registrar_DescartaRepetidasEHorarioForaDaJanela() {
+        long id = moto.getId();
+        assertTrue(kmSerieService.registrar(id, DIA1.plusHours(2), 100));
+        assertTrue(kmSerieService.registrar(id, DIA1.plusHours(1), 90));
+        assertFalse(kmSerieService.registrar(id, DIA1.plusHours(2), 100));  // repetida
+        assertFalse(kmSerieService.registrar(id, DIA1.plusHours(1), 90));   // repetida, fora de ordem
+        assertFalse(kmSerieService.registrar(id, LocalDateTime.now().plusDays(2), 110));
+        assertFalse(kmSerieService.registrar(id, LocalDateTime.now().minusYears(20), 10));
+        assertEquals(1, telemetriaKmService.registrar(List.of(leitura(120, LocalDateTime.now().plusYears(5))))
+                .getInvalidas());
+
+        kmSerieService.gravarPendentes();
+
+        assertEquals(List.of(90, 100), kmSerieService.leituras(id, DIA1, DIA2).stream().map(PontoKmDTO::getKm).toList());
+    }
+
+    @Test
+    void gravar_LimitaLeiturasPorDiaParaOBlocoCaberNaColuna() {
+        long id = moto.getId();
+        int descartadas = 0;
+        for (int i = 0; i < KmSerieService.MAX_LEITURAS_POR_DIA + 5; i++) {
+            if (!kmSerieService.registrar(id, DIA1.plusNanos(i * 1_000_000L), i)) descartadas++;
+        }
+        assertEquals(5, descartadas);
+        kmSerieService.gravarPendentes();
+        // Já cheio: as novas do mesmo dia não entram, as do dia seguinte sim
+        kmSerieService.registrar(id, DIA1.plusHours(23), 1);
+        kmSerieService.registrar(id, DIA2.plusHours(1), 2);
+        kmSerieService.gravarPendentes();
+
+        var blocos = motoRepository.findBlocosKm(id, DIA1.toLocalDate(), DIA2.toLocalDate(), true);
+        assertEquals(KmSerieService.MAX_LEITURAS_POR_DIA, blocos.get(0).quantidade());
+        assertTrue(blocos.get(0).dados().length <= KmSerieService.MAX_BYTES_BLOCO);
+        assertEquals(1, blocos.get(1).quantidade());
+    }
+
+    @Test
+    void gravar_MotoQueFalhaNaoSeguraAsOutrasDoLote() {
+        Moto outra = novaMoto();
+        kmSerieService.registrar(moto.getId(), DIA1.plusHours(1), 10);
+        kmSerieService.registrar(Long.MAX_VALUE, DIA1.plusHours(1), 10); // moto inexistente: FK recusa
+        kmSerieService.registrar(outra.getId(), DIA1.plusHours(1), 20);
+
+        assertEquals(2, kmSerieService.gravarPendentes());
+
+        assertEquals(0, kmSerieService.pendentes());
+        assertEquals(1, kmSerieService.leituras(moto.getId(), DIA1, DIA2).size());
+        assertEquals(1, kmSerieService.leituras(outra.getId(), DIA1, DIA2).size());
+    }
+
+    @Test
+    void motoRemovida_LevaOsBlocosEDescartaPendentes() {
+        telemetriaKmService.registrar(List.of(leitura(500, DIA1.plusHours(1))));
+        kmSerieService.gravarPendentes();
+        telemetriaKmService.registrar(List.of(leitura(510, DIA1.plusHours(2))));
+
+        motoService.delete(moto.getId());
+
+        assertEquals(0, kmSerieService.pendentes());
+        assertTrue(motoRepository.findBlocosKm(moto.getId(), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), false)
+                .isEmpty());
+    }
+}
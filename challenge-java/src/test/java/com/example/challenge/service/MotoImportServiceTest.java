@@ -0,0 +1,192 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.LeituraKmDTO;
+import com.example.challenge.dto.MotoImportResultadoDTO;
+import com.example.challenge.dto.MotoImportResultadoDTO.ErroLinha;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.MotoRepositoryCustom.ChassisEPlacas;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Teste de integração da importação em massa de motos (banco H2 em memória, lotes pequenos
+ * para exercitar várias gravações por importação).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:moto-import;DB_CLOSE_DELAY=-1",
+        "app.motos.import.batch-size=2"
+})
+class MotoImportServiceTest {
+
+    private static final String CABECALHO = "chassi;placa;modelo;kmAtual;status;anoFabricacao\n";
+
+    @Autowired
+    private MotoImportService motoImportService;
+
+    @Autowired
+    private MotoService motoService;
+
+    @SpyBean
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private TelemetriaKmService telemetriaKmService;
+
+    private static ByteArrayInputStream bytes(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importarCsv_InsereValidasERejeitaDuplicadasNoBancoENoArquivo() throws IOException {
+        Moto existente = new Moto();
+        existente.setChassi("9C2JC4110AR000001");
+        existente.setPlaca("IMP0A01");
+        existente.setModelo("Pop 110i");
+        existente.setStatus("Disponível");
+        existente.setDataCadastro(LocalDateTime.now());
+        motoService.save(existente);
+
+        MotoImportResultadoDTO resultado = motoImportService.importarCsv(bytes(CABECALHO +
+                "9C2JC4110AR000002;IMP0A02;Pop 110i;0;Disponível;2023\n" +
+                "9C2JC4110AR000003;IMP0A03;\"Biz 125; partida elétrica\";150;Alugada;2022\n" +
+                "9C2JC4110AR000001;IMP0A04;Pop 110i;0;Disponível;2023\n" +   // chassi já cadastrado
+                "9C2JC4110AR000005;IMP0A01;Pop 110i;0;Disponível;2023\n" +   // placa já cadastrada
+                "9C2JC4110AR000002;IMP0A06;Pop 110i;0;Disponível;2023\n" +   // chassi repetido no arquivo
+                "9C2JC4110AR000007;IMP0A03;Pop 110i;0;Disponível;2023\n" +   // placa repetida no arquivo
+                "CURTO;IMP0A08;Pop 110i;-1;Disponível;1999\n" +              // viola MotoDTO
+                "9C2JC4110AR000009;IMP0A09;Pop 110i;muito;Disponível;2023\n" +
+                "\n" +
+                "9C2JC4110AR000010;IMP0A10;CG 160;10;Manutenção;2024\n"));
+
+        assertEquals(9, resultado.getLinhasProcessadas());
+        assertEquals(3, resultado.getInseridas());
+        assertEquals(6, resultado.getTotalErros());
+        List<Integer> linhas = resultado.getErros().stream().map(ErroLinha::getLinha).toList();
+        assertEquals(List.of(4, 5, 6, 7, 8, 9), linhas);
+        assertTrue(resultado.getErros().get(0).getMensagem().contains("CHASSI"));
+        assertTrue(resultado.getErros().get(1).getMensagem().contains("PLACA"));
+        assertEquals("Chassi repetido no arquivo.", resultado.getErros().get(2).getMensagem());
+        assertEquals("Placa repetida no arquivo.", resultado.getErros().get(3).getMensagem());
+        assertTrue(resultado.getErros().get(4).getMensagem().contains("17 caracteres"));
+        assertTrue(resultado.getErros().get(5).getMensagem().contains("kmAtual"));
+
+        Moto importada = motoRepository.findByPlaca("IMP0A03").orElseThrow();
+        assertEquals("Biz 125; partida elétrica", importada.getModelo());
+        assertEquals(150, importada.getKmAtual());
+        assertNotNull(importada.getDataCadastro());
+
+        // Ids reservados pela importação não colidem com os gerados pelo Hibernate depois
+        Moto nova = new Moto();
+        nova.setChassi("9C2JC4110AR000011");
+        nova.setPlaca("IMP0A11");
+        nova.setModelo("Pop 110i");
+        nova.setStatus("Disponível");
+        nova.setDataCadastro(LocalDateTime.now());
+        assertNotNull(motoService.save(nova).getId());
+    }
+
+    @Test
+    void importarCsv_NormalizaChassiEPlacaAntesDeConferirRepetidos() throws IOException {
+        MotoImportResultadoDTO resultado = motoImportService.importarCsv(bytes(CABECALHO +
+                " 9c2jc4110ar000301 ;imp0b01 ;Pop 110i;0;Disponível;2023\n" +
+                "9C2JC4110AR000301;IMP0B02;Pop 110i;0;Disponível;2023\n" +   // mesmo chassi, em maiúsculas
+                "9C2JC4110AR000303;IMP0B01;Pop 110i;0;Disponível;2023\n"));  // mesma placa, em maiúsculas
+
+        assertEquals(1, resultado.getInseridas());
+        assertEquals(List.of("Chassi repetido no arquivo.", "Placa repetida no arquivo."),
+                resultado.getErros().stream().map(ErroLinha::getMensagem).toList());
+        assertEquals("9C2JC4110AR000301", motoRepository.findByPlaca("IMP0B01").orElseThrow().getChassi());
+    }
+
+    @Test
+    void importarCsv_PlacaCadastradaPeloFormularioEmMinusculasContaComoRepetida() throws IOException {
+        Moto existente = new Moto();
+        existente.setChassi("9c2jc4110ar000501");
+        existente.setPlaca("imp0e01");
+        existente.setModelo("Pop 110i");
+        existente.setStatus("Disponível");
+        existente.setDataCadastro(LocalDateTime.now());
+        motoService.save(existente);
+
+        MotoImportResultadoDTO resultado = motoImportService.importarCsv(bytes(CABECALHO +
+                "9C2JC4110AR000502;IMP0E01;Pop 110i;0;Disponível;2023\n"));
+
+        assertEquals(0, resultado.getInseridas());
+        assertTrue(resultado.getErros().get(0).getMensagem().contains("PLACA"));
+        assertTrue(motoRepository.findByPlaca("IMP0E01").isPresent());
+    }
+
+    @Test
+    void importarCsv_ConflitoNoBancoRejeitaSoAPropriaLinhaDoLote() throws IOException {
+        Moto existente = new Moto();
+        existente.setChassi("9C2JC4110AR000401");
+        existente.setPlaca("IMP0C01");
+        existente.setModelo("Pop 110i");
+        existente.setStatus("Disponível");
+        existente.setDataCadastro(LocalDateTime.now());
+        motoService.save(existente);
+        // Como se a moto tivesse sido cadastrada por outra requisição depois da carga dos cadastrados
+        doReturn(new ChassisEPlacas(Set.of(), Set.of())).when(motoRepository).findAllChassisEPlacas();
+
+        MotoImportResultadoDTO resultado = motoImportService.importarCsv(bytes(CABECALHO +
+                "9C2JC4110AR000402;IMP0C02;Pop 110i;0;Disponível;2023\n" +
+                "9C2JC4110AR000401;IMP0C03;Pop 110i;0;Disponível;2023\n" +   // mesmo lote, chassi já cadastrado
+                "9C2JC4110AR000404;IMP0C04;Pop 110i;0;Disponível;2023\n"));
+
+        assertEquals(2, resultado.getInseridas());
+        assertEquals(List.of(3), resultado.getErros().stream().map(ErroLinha::getLinha).toList());
+        assertTrue(motoRepository.findByPlaca("IMP0C02").isPresent());
+        assertTrue(motoRepository.findByPlaca("IMP0C03").isEmpty());
+        assertTrue(motoRepository.findByPlaca("IMP0C04").isPresent());
+    }
+
+    @Test
+    void importarJson_ItemComTipoErradoRejeitaSoOProprioItem() throws IOException {
+        MotoImportResultadoDTO resultado = motoImportService.importarJson(bytes("""
+                [
+                  {"chassi": "9C2JC4110AR000101", "placa": "JSN0A01", "modelo": "Pop 110i", "kmAtual": 0,
+                   "status": "Disponível", "anoFabricacao": 2023},
+                  {"chassi": "9C2JC4110AR000102", "placa": "JSN0A02", "modelo": "Pop 110i", "kmAtual": "muito",
+                   "status": "Disponível", "anoFabricacao": 2023},
+                  42,
+                  {"chassi": "9C2JC4110AR000103", "placa": "JSN0A03", "modelo": "Biz 125", "kmAtual": 10,
+                   "status": "Alugada", "anoFabricacao": 2022, "cor": "vermelha"}
+                ]
+                """));
+
+        assertEquals(4, resultado.getLinhasProcessadas());
+        assertEquals(2, resultado.getInseridas());
+        assertEquals(List.of(2, 3), resultado.getErros().stream().map(ErroLinha::getLinha).toList());
+        assertEquals("JSN0A02", resultado.getErros().get(0).getPlaca());
+        assertTrue(motoRepository.findByPlaca("JSN0A03").isPresent());
+    }
+
+    @Test
+    void importarJson_RejeitaConteudoQueNaoEArray() {
+        assertThrows(IllegalArgumentException.class, () -> motoImportService.importarJson(bytes("{\"placa\": \"X\"}")));
+        assertThrows(IllegalArgumentException.class, () -> motoImportService.importarCsv(bytes("chassi,placa\n")));
+    }
+
+    @Test
+    void importar_PlacaNovaPassaAValerNaTelemetria() throws IOException {
+        LeituraKmDTO leitura = new LeituraKmDTO("TEL0A01", null, 10, LocalDateTime.of(2024, 5, 1, 10, 0));
+        assertEquals(1, telemetriaKmService.registrar(List.of(leitura)).getDesconhecidas());
+
+        motoImportService.importarCsv(bytes(CABECALHO + "9C2JC4110AR000201;TEL0A01;Pop 110i;0;Disponível;2023\n"));
+
+        assertEquals(1, telemetriaKmService.registrar(List.of(leitura)).getAceitas());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.MotoPlacaResultadoDTO;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.MotoRepositoryCustom.IdentificacaoMoto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Testes Unitários para o índice de placas/chassis tolerante a erro de digitação (MotoPlacaIndex).
+ */
+@ExtendWith(MockitoExtension.class)
+class MotoPlacaIndexTest {
+
+    @Mock
+    private MotoRepository motoRepository;
+
+    @InjectMocks
+    private MotoPlacaIndex motoPlacaIndex;
+
+    private void carregar(IdentificacaoMoto... motos) {
+        doAnswer(invocacao -> {
+            Consumer<IdentificacaoMoto> consumidor = invocacao.getArgument(0);
+            for (IdentificacaoMoto moto : motos) consumidor.accept(moto);
+            return null;
+        }).when(motoRepository).forEachIdentificacao(any());
+        motoPlacaIndex.reconstruir();
+    }
+
+    private static IdentificacaoMoto moto(long id, String placa, String chassi) {
+        return new IdentificacaoMoto(id, placa, chassi, "Pop 110i", "Disponível");
+    }
+
+    private List<Long> ids(String consulta, int distancia) {
+        return motoPlacaIndex.buscar(consulta, distancia, 10).stream().map(MotoPlacaResultadoDTO::getId).toList();
+    }
+
+    @Test
+    void buscar_DeveTolerarLetraTrocadaFaltandoOuSobrando() {
+        carregar(moto(1, "ABC1D23", "9C2JC4110AR000001"),
+                 moto(2, "ABC1D28", "9C2JC4110AR000002"),
+                 moto(3, "XYZ9K87", "9C2JC4110AR000003"));
+
+        assertEquals(List.of(1L), ids("ABC1D23", 0));
+        assertEquals(List.of(1L, 2L), ids("ABC1D23", 1)); // 1 igual, 2 com um dígito trocado
+        assertEquals(List.of(1L, 2L), ids("ABC1D2", 1));  // último caractere faltando
+        assertEquals(List.of(3L), ids("XYZ9KK87", 1));    // caractere sobrando
+        assertTrue(ids("QWE4R56", 2).isEmpty());
+    }
+
+    @Test
+    void buscar_DeveNormalizarEOrdenarPorDistancia() {
+        carregar(moto(1, "ABC1D23", "9C2JC4110AR000001"),
+                 moto(2, "ABC1D28", "9C2JC4110AR000002"));
+
+        List<MotoPlacaResultadoDTO> resultado = motoPlacaIndex.buscar("abc-1d28", 2, 10);
+
+        assertEquals(List.of(2L, 1L), resultado.stream().map(MotoPlacaResultadoDTO::getId).toList());
+        assertEquals(0, resultado.get(0).getDistancia());
+        assertEquals(1, resultado.get(1).getDistancia());
+        assertEquals("placa", resultado.get(0).getCampo());
+        assertEquals("Pop 110i", resultado.get(0).getModelo());
+    }
+
+    @Test
+    void buscar_DeveEncontrarPeloChassi() {
+        carregar(moto(1, "ABC1D23", "9C2JC4110AR000001"),
+                 moto(2, "ABC1D28", "9C2JC4110AR000777"));
+
+        List<MotoPlacaResultadoDTO> resultado = motoPlacaIndex.buscar("9C2JC411OAR000777", 1, 10); // O no lugar de 0
+
+        assertEquals(1, resultado.size());
+        assertEquals(2L, resultado.get(0).getId());
+        assertEquals("chassi", resultado.get(0).getCampo());
+    }
+
+    @Test
+    void indexarERemover_DevemManterIndiceAtualizado() {
+        carregar(moto(1, "ABC1D23", "9C2JC4110AR000001"),
+                 moto(2, "ABC1D28", "9C2JC4110AR000002"));
+
+        Moto editada = new Moto();
+        editada.setId(1L);
+        editada.setPlaca("KKK0A00");
+        editada.setChassi("9C2JC4110AR000001");
+        editada.setModelo("CG 160");
+        motoPlacaIndex.indexar(editada);
+        motoPlacaIndex.remover(2L);
+
+        assertTrue(ids("ABC1D23", 1).isEmpty()); // placa antiga e moto removida saíram do índice
+        assertEquals(List.of(1L), ids("KKK0A0O", 1));
+        assertEquals("CG 160", motoPlacaIndex.buscar("KKK0A00", 0, 1).get(0).getModelo());
+        assertEquals(1, motoPlacaIndex.tamanho());
+    }
+
+    @Test
+    void buscar_DeveAcharOMesmoQueComparacaoComTodas_AposRemocoes() {
+        Random random = new Random(42);
+        List<IdentificacaoMoto> iniciais = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            iniciais.add(moto(id, placaAleatoria(random), "CHASSI" + id));
+        }
+        carregar(iniciais.toArray(IdentificacaoMoto[]::new));
+        Map<Long, String> placas = new HashMap<>();
+        iniciais.forEach(m -> placas.put(m.id(), m.placa()));
+        for (long id = 1; id <= 1_500; id++) {
+            motoPlacaIndex.remover(id);
+            placas.remove(id);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            String consulta = placaAleatoria(random);
+            int k = i % 3;
+            List<Long> esperado = placas.entrySet().stream()
+                    .filter(e -> MotoPlacaIndex.distancia(e.getValue(), consulta, 100) <= k)
+                    .map(Map.Entry::getKey).sorted().toList();
+            List<Long> obtido = motoPlacaIndex.buscar(consulta, k, Integer.MAX_VALUE).stream()
+                    .map(MotoPlacaResultadoDTO::getId).sorted().toList();
+            assertEquals(esperado, obtido, "consulta " + consulta + " k=" + k);
+        }
+    }
+
+    // Placas num alfabeto pequeno, para haver muitas a 1 ou 2 edições umas das outras
+    private static String placaAleatoria(Random random) {
+        StringBuilder placa = new StringBuilder();
+        for (int i = 0; i < 3; i++) placa.append((char) ('A' + random.nextInt(3)));
+        for (int i = 0; i < 4; i++) placa.append((char) ('0' + random.nextInt(3)));
+        return placa.toString();
+    }
+}
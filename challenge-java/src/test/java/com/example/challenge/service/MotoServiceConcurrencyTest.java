@@ -0,0 +1,102 @@
+package com.example.challenge.service;
+
+import com.example.challenge.DadosDeTeste;
+import com.example.challenge.domain.Moto;
+import com.example.challenge.repository.MotoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração da unicidade de chassi/placa em MotoService.save sob concorrência.
+ * Vários threads cadastram ao mesmo tempo motos com o mesmo chassi (ou a mesma placa);
+ * só uma pode ser gravada e as demais recebem a mensagem da regra de negócio.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:moto-concorrencia;DB_CLOSE_DELAY=-1")
+class MotoServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private MotoService motoService;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    // Dispara os cadastros juntos e devolve, por thread, a moto gravada ou a exceção recebida
+    private List<Object> cadastrarEmParalelo(List<Moto> motos) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (Moto moto : motos) {
+                futures.add(pool.submit(() -> {
+                    largada.await();
+                    try {
+                        return motoService.save(moto);
+                    } catch (IllegalStateException e) {
+                        return e;
+                    }
+                }));
+            }
+            largada.countDown();
+            List<Object> resultados = new ArrayList<>();
+            for (Future<Object> f : futures) {
+                resultados.add(f.get());
+            }
+            return resultados;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void save_SoUmCadastroVence_QuandoChassiColide() throws Exception {
+        List<Moto> motos = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            motos.add(DadosDeTeste.moto("CHASSI-CONC-1", "CONC1" + t, "Disponível"));
+        }
+
+        List<Object> resultados = cadastrarEmParalelo(motos);
+
+        assertEquals(1, resultados.stream().filter(r -> r instanceof Moto).count());
+        resultados.stream().filter(r -> r instanceof IllegalStateException).forEach(r ->
+                assertEquals("Já existe uma moto cadastrada com o CHASSI: CHASSI-CONC-1", ((Exception) r).getMessage()));
+        assertTrue(motoRepository.findByChassi("CHASSI-CONC-1").isPresent());
+    }
+
+    @Test
+    void save_SoUmCadastroVence_QuandoPlacaColide() throws Exception {
+        List<Moto> motos = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            motos.add(DadosDeTeste.moto("CHASSI-CONC-2-" + t, "CONC2", "Disponível"));
+        }
+
+        List<Object> resultados = cadastrarEmParalelo(motos);
+
+        assertEquals(1, resultados.stream().filter(r -> r instanceof Moto).count());
+        resultados.stream().filter(r -> r instanceof IllegalStateException).forEach(r ->
+                assertEquals("Já existe uma moto cadastrada com a PLACA: CONC2", ((Exception) r).getMessage()));
+    }
+
+    @Test
+    void save_DeveRecusarPlacaDeOutraMoto_NaAtualizacao() {
+        motoService.save(DadosDeTeste.moto("CHASSI-CONC-3", "CONC3", "Disponível"));
+        Moto outra = motoService.save(DadosDeTeste.moto("CHASSI-CONC-4", "CONC4", "Disponível"));
+
+        outra.setPlaca("CONC3");
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> motoService.save(outra));
+
+        assertEquals("A PLACA já está em uso por outra moto.", exception.getMessage());
+        assertEquals("CONC4", motoRepository.findById(outra.getId()).orElseThrow().getPlaca());
+    }
+}
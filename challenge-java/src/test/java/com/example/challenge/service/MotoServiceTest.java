@@ -8,6 +8,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -27,6 +33,18 @@ class MotoServiceTest {
     @Mock
     private MotoRepository motoRepository;
 
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private TelemetriaKmService telemetriaKmService;
+
+    @Mock
+    private MotoPlacaIndex motoPlacaIndex;
+
+    @Mock
+    private KmSerieService kmSerieService;
+
     @InjectMocks
     private MotoService motoService;
 
@@ -51,13 +69,67 @@ class MotoServiceTest {
     @Test
     void save_Success() {
         // Simula que o repositório salva e retorna a mesma moto com o ID
-        when(motoRepository.save(any(Moto.class))).thenReturn(motoExistente);
+        when(motoRepository.saveAndFlush(any(Moto.class))).thenReturn(motoExistente);
 
         Moto result = motoService.save(motoExistente);
 
         assertNotNull(result);
         assertEquals("ABC1234", result.getPlaca());
-        verify(motoRepository, times(1)).save(motoExistente);
+        verify(motoRepository, times(1)).saveAndFlush(motoExistente);
+        // A unicidade fica com as constraints do banco: nenhuma consulta antes de gravar
+        verify(motoRepository, never()).findByChassi(anyString());
+        verify(motoRepository, never()).findByPlaca(anyString());
+        // O dashboard é avisado para recalcular os contadores
+        verify(dashboardService).registrarAlteracao();
+    }
+
+    @Test
+    void save_GravaChassiEPlacaNormalizados() {
+        Moto nova = new Moto();
+        nova.setPlaca(" abc1d23 ");
+        nova.setChassi("9c2kc0810xr000001");
+        when(motoRepository.saveAndFlush(nova)).thenReturn(nova);
+
+        motoService.save(nova);
+
+        assertEquals("ABC1D23", nova.getPlaca());
+        assertEquals("9C2KC0810XR000001", nova.getChassi());
+    }
+
+    @Test
+    void save_DeveTraduzirViolacaoDePlaca_NaCriacao() {
+        Moto nova = new Moto();
+        nova.setPlaca("ABC1234");
+        nova.setChassi("9C2KC0810XR000001");
+        when(motoRepository.saveAndFlush(nova)).thenAnswer(invocation -> {
+            nova.setId(50L); // o persist atribui o id antes do INSERT falhar
+            throw new DataIntegrityViolationException("could not execute statement",
+                    new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_MOTO_PLACA_INDEX_2 ON PUBLIC.MOTO(PLACA)\""));
+        });
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> motoService.save(nova));
+
+        assertEquals("Já existe uma moto cadastrada com a PLACA: ABC1234", exception.getMessage());
+        assertNull(nova.getId());
+    }
+
+    @Test
+    void save_DeveTraduzirViolacaoDeChassi_NaAtualizacao() {
+        when(motoRepository.saveAndFlush(motoExistente)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_MOTO_CHASSI_INDEX_2 ON PUBLIC.MOTO(CHASSI)\"")));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> motoService.save(motoExistente));
+
+        assertEquals("O CHASSI já está em uso por outra moto.", exception.getMessage());
+        assertEquals(1L, motoExistente.getId());
+    }
+
+    @Test
+    void save_DeveManterOutrasViolacoesDeIntegridade() {
+        DataIntegrityViolationException violacao = new DataIntegrityViolationException("NULL not allowed for column \"MODELO\"");
+        when(motoRepository.saveAndFlush(motoExistente)).thenThrow(violacao);
+
+        assertSame(violacao, assertThrows(DataIntegrityViolationException.class, () -> motoService.save(motoExistente)));
     }
 
     // ====================================================================
@@ -150,4 +222,21 @@ class MotoServiceTest {
         verify(motoRepository, times(1)).existsById(99L);
         verify(motoRepository, never()).deleteById(anyLong());
     }
-}
\ No newline at end of file
+
+    // ====================================================================
+    // TESTES DE LISTAGEM PAGINADA
+    // ====================================================================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void buscarPagina_DelegaAoRepositorioComAPagina() {
+        Pageable pageable = PageRequest.of(2, 25);
+        Page<Moto> pagina = new PageImpl<>(List.of(motoExistente), pageable, 51);
+        when(motoRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(pagina);
+
+        Page<Moto> result = motoService.buscarPagina("Disponível", "ybr", 2022, pageable);
+
+        assertSame(pagina, result);
+        verify(motoRepository, never()).findAll();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.challenge.service;
 
 import com.example.challenge.domain.Moto;
 import com.example.challenge.domain.OrdemServico;
+import com.example.challenge.dto.OrdemServicoListaDTO;
 import com.example.challenge.repository.MotoRepository;
 import com.example.challenge.repository.OrdemServicoRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -32,6 +36,15 @@ class OrdemServicoServiceTest {
     @Mock
     private MotoRepository motoRepository;
 
+    @Mock
+    private ReservaPecaService reservaPecaService;
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private DespachoOrdemService despachoOrdemService;
+
     @InjectMocks
     private OrdemServicoService ordemServicoService;
 
@@ -173,6 +186,7 @@ class OrdemServicoServiceTest {
 
         verify(ordemServicoRepository, times(1)).existsById(10L);
         verify(ordemServicoRepository, times(1)).deleteById(10L);
+        verify(reservaPecaService, times(1)).liberarDaOrdem(10L);
     }
 
     @Test
@@ -190,4 +204,28 @@ class OrdemServicoServiceTest {
         verify(ordemServicoRepository, times(1)).existsById(99L);
         verify(ordemServicoRepository, never()).deleteById(anyLong());
     }
-}
\ No newline at end of file
+
+    // ====================================================================
+    // TESTES DE LISTAGEM PAGINADA
+    // ====================================================================
+
+    @Test
+    void listarPagina_SemStatus_UsaConsultaSemFiltro() {
+        PageRequest pagina = PageRequest.of(0, 25);
+        Page<OrdemServicoListaDTO> esperado = new PageImpl<>(List.of(new OrdemServicoListaDTO(
+                10L, "ABERTA", "Troca de óleo", LocalDateTime.now(), "XRE 300", "ABC1D23", 1500)));
+        when(ordemServicoRepository.listarPagina(pagina)).thenReturn(esperado);
+
+        assertSame(esperado, ordemServicoService.listarPagina("  ", pagina));
+        verify(ordemServicoRepository, never()).listarPaginaPorStatus(anyString(), any());
+    }
+
+    @Test
+    void listarPagina_ComStatus_UsaConsultaPorStatus() {
+        PageRequest pagina = PageRequest.of(1, 10);
+        when(ordemServicoRepository.listarPaginaPorStatus("ABERTA", pagina)).thenReturn(Page.empty());
+
+        assertTrue(ordemServicoService.listarPagina("ABERTA", pagina).isEmpty());
+        verify(ordemServicoRepository, never()).listarPagina(any());
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Order;
+import com.example.challenge.domain.Product;
+import com.example.challenge.dto.BulkApprovalResultDTO;
+import com.example.challenge.dto.OrderSummaryDTO;
+import com.example.challenge.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes Unitários para a classe OrderService.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    // ====================================================================
+    // TESTES DE MONTAGEM DO PEDIDO (BUILDORDER)
+    // ====================================================================
+
+    private Product produto(Long id, double preco) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("Produto " + id);
+        p.setPrice(preco);
+        return p;
+    }
+
+    @Test
+    void buildOrder_ResolveTodosOsProdutosEmUmaChamada() {
+        when(productService.findAllById(Set.of(1L, 2L)))
+                .thenReturn(Map.of(1L, produto(1L, 199.90), 2L, produto(2L, 39.90)));
+
+        Order result = orderService.buildOrder(7L, new Long[]{1L, 2L, 1L}, new Integer[]{1, 3, 2});
+
+        assertEquals(7L, result.getUserId());
+        assertEquals(3, result.getItems().size());
+        assertEquals(39.90, result.getItems().get(1).getUnitPrice());
+        assertEquals(3, result.getItems().get(1).getQuantity());
+        verify(productService, times(1)).findAllById(any());
+        verify(productService, never()).find(any());
+    }
+
+    @Test
+    void buildOrder_DeveLancarExcecao_QuandoProdutoNaoExiste() {
+        when(productService.findAllById(Set.of(1L, 99L))).thenReturn(Map.of(1L, produto(1L, 199.90)));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> orderService.buildOrder(7L, new Long[]{1L, 99L}, new Integer[]{1, 1}));
+
+        assertEquals("Produto(s) não encontrado(s): [99]", exception.getMessage());
+    }
+
+    @Test
+    void create_NaoSalva_QuandoProdutoNaoExiste() {
+        when(productService.findAllById(Set.of(99L))).thenReturn(Map.of());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.create(7L, new Long[]{99L}, new Integer[]{1}));
+
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    // ====================================================================
+    // TESTES DE LISTAGEM POR USUÁRIO (KEYSET)
+    // ====================================================================
+
+    @Test
+    void listByUser_PrimeiraPagina_UsaConsultaDerivada() {
+        Order o = new Order();
+        o.setId(5L);
+        o.setUserId(2L);
+        when(orderRepository.findByUserIdOrderByCreatedAtDescIdDesc(2L, Limit.of(21))).thenReturn(List.of(o));
+
+        List<Order> result = orderService.listByUser(2L, null, null, 21);
+
+        assertEquals(1, result.size());
+        verify(orderRepository, never()).findByUserIdBefore(any(), any(), any(), any());
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    void listByUser_PaginaSeguinte_UsaCursor() {
+        LocalDateTime cursor = LocalDateTime.of(2024, 1, 10, 12, 0);
+        when(orderRepository.findByUserIdBefore(2L, cursor, 40L, Limit.of(11))).thenReturn(List.of());
+
+        List<Order> result = orderService.listByUser(2L, cursor, 40L, 11);
+
+        assertTrue(result.isEmpty());
+        verify(orderRepository, times(1)).findByUserIdBefore(2L, cursor, 40L, Limit.of(11));
+        verify(orderRepository, never()).findByUserIdOrderByCreatedAtDescIdDesc(any(), any());
+    }
+
+    // ====================================================================
+    // TESTES DA LISTAGEM DO ADMIN (PROJEÇÃO AGRUPADA)
+    // ====================================================================
+
+    @Test
+    void listSummaries_StatusEmBranco_NaoFiltra() {
+        OrderSummaryDTO linha = new OrderSummaryDTO(1L, 2L, "PENDING", LocalDateTime.now(), 3L, 120.0);
+        when(orderRepository.findSummaries(eq(null), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(linha)));
+
+        Page<OrderSummaryDTO> result = orderService.listSummaries(" ", 0, 20);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals(120.0, result.getContent().get(0).getTotal());
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    void listSummaries_FiltraPorStatus() {
+        when(orderRepository.findSummaries(eq("APPROVED"), any(Pageable.class))).thenReturn(Page.empty());
+
+        Page<OrderSummaryDTO> result = orderService.listSummaries("APPROVED", 0, 20);
+
+        assertTrue(result.isEmpty());
+        verify(orderRepository, times(1)).findSummaries(eq("APPROVED"), any(Pageable.class));
+    }
+
+    // ====================================================================
+    // TESTES DE APROVAÇÃO EM LOTE
+    // ====================================================================
+
+    @Test
+    void approveAll_AprovaPendentesEInformaIgnorados() {
+        when(orderRepository.approvePendingReturningIds(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 3L));
+
+        BulkApprovalResultDTO result = orderService.approveAll(List.of(1L, 2L, 3L, 1L));
+
+        assertEquals(2, result.getApproved());
+        assertEquals(List.of(2L), result.getSkipped());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void approveAll_DivideEmBlocos() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 1; i <= OrderService.APPROVAL_CHUNK_SIZE + 10; i++) ids.add(i);
+        when(orderRepository.approvePendingReturningIds(anyCollection()))
+                .thenAnswer(inv -> new ArrayList<>(inv.<List<Long>>getArgument(0)));
+
+        BulkApprovalResultDTO result = orderService.approveAll(ids);
+
+        assertEquals(ids.size(), result.getApproved());
+        assertTrue(result.getSkipped().isEmpty());
+        verify(orderRepository, times(2)).approvePendingReturningIds(anyCollection());
+    }
+
+    @Test
+    void approvePendingBefore_RepeteAteNaoRestarPendentes() {
+        LocalDateTime limite = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(orderRepository.findPendingIdsBefore(limite, Limit.of(OrderService.APPROVAL_CHUNK_SIZE)))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(orderRepository.approvePending(anyCollection())).thenReturn(2, 1);
+
+        BulkApprovalResultDTO result = orderService.approvePendingBefore(limite);
+
+        assertEquals(3, result.getApproved());
+        verify(orderRepository, times(2)).approvePending(anyCollection());
+    }
+}
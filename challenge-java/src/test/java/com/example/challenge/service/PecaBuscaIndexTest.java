@@ -0,0 +1,110 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.PecaBuscaResultadoDTO;
+import com.example.challenge.repository.PecaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes Unitários para o índice de busca textual de peças (PecaBuscaIndex).
+ */
+@ExtendWith(MockitoExtension.class)
+public class PecaBuscaIndexTest {
+
+    @Mock
+    private PecaRepository pecaRepository;
+
+    @InjectMocks
+    private PecaBuscaIndex pecaBuscaIndex;
+
+    private static Map<String, Object> linha(long id, String nome, String descricao) {
+        Map<String, Object> linha = new LinkedHashMap<>();
+        linha.put("id", id);
+        linha.put("nome", nome);
+        linha.put("descricao", descricao);
+        linha.put("codigoFabricante", "COD-" + id);
+        return linha;
+    }
+
+    private static Peca peca(long id, String nome, String descricao) {
+        Peca peca = new Peca();
+        peca.setId(id);
+        peca.setNome(nome);
+        peca.setDescricao(descricao);
+        peca.setCodigoFabricante("COD-" + id);
+        return peca;
+    }
+
+    private List<Long> ids(String consulta) {
+        return pecaBuscaIndex.buscar(consulta, 10).stream().map(PecaBuscaResultadoDTO::getId).toList();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        when(pecaRepository.findPagina(isNull(), anyInt(), anyList())).thenReturn(List.of(
+                linha(1, "Óleo de Motor 10W30", "Lubrificante sintético"),
+                linha(2, "Filtro de Óleo", "Filtro para motores 150cc"),
+                linha(3, "Pastilha de Freio", "Compatível com óleo? Não"),
+                linha(4, "Corrente de Transmissão", "Aço reforçado")));
+        pecaBuscaIndex.reconstruir();
+    }
+
+    @Test
+    public void buscar_DeveIgnorarAcentosEMaiusculas() {
+        assertEquals(ids("óleo"), ids("OLEO"));
+        assertTrue(ids("oleo").containsAll(List.of(1L, 2L, 3L)));
+        assertEquals(List.of(4L), ids("transmissao"));
+    }
+
+    @Test
+    public void buscar_DeveEncontrarTrechoNoMeioDaPalavra() {
+        assertEquals(List.of(4L), ids("missa"));
+        assertEquals(List.of(1L), ids("sintet"));
+    }
+
+    @Test
+    public void buscar_DeveOrdenarPorRelevancia() {
+        // Nome antes da descrição; "oleo" como palavra inteira do nome (1 e 2) empata e desempata pelo id
+        assertEquals(List.of(1L, 2L, 3L), ids("oleo"));
+        // "motor": palavra inteira no nome (1) vale mais que prefixo na descrição (2)
+        assertEquals(List.of(1L, 2L), ids("motor"));
+    }
+
+    @Test
+    public void buscar_DeveExigirTodosOsTermos() {
+        assertEquals(List.of(2L), ids("filtro oleo"));
+        assertTrue(ids("filtro corrente").isEmpty());
+    }
+
+    @Test
+    public void buscar_TermoCurto_DeveCasarComoPrefixo() {
+        assertEquals(List.of(2L), ids("fi"));
+        assertTrue(ids("ltr").contains(2L));
+        assertTrue(ids("").isEmpty());
+    }
+
+    @Test
+    public void indexarERemover_DevemManterIndiceAtualizado() {
+        pecaBuscaIndex.indexar(peca(2, "Filtro de Ar", "Filtro esportivo"));
+        pecaBuscaIndex.indexar(peca(5, "Vela de Ignição", "Iridium"));
+        pecaBuscaIndex.remover(4L);
+
+        assertEquals(List.of(1L, 3L), ids("oleo"));
+        assertEquals(List.of(5L), ids("ignicao"));
+        assertTrue(ids("corrente").isEmpty());
+        assertEquals(4, pecaBuscaIndex.tamanho());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.PecaImportResultadoDTO;
+import com.example.challenge.dto.PecaImportResultadoDTO.ErroLinha;
+import com.example.challenge.repository.PecaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração da importação CSV de peças (banco H2 em memória, lotes pequenos
+ * para exercitar várias gravações por importação).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:peca-import;DB_CLOSE_DELAY=-1",
+        "app.pecas.import.batch-size=2"
+})
+class PecaImportServiceTest {
+
+    private static final String CABECALHO = "codigoFabricante,nome,descricao,preco,estoqueAtual,estoqueMinimo,localizacaoEstoque\n";
+
+    @Autowired
+    private PecaImportService pecaImportService;
+
+    @Autowired
+    private PecaService pecaService;
+
+    @Autowired
+    private PecaRepository pecaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private PecaImportResultadoDTO importar(String csv) throws IOException {
+        return pecaImportService.importarCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void importarCsv_DeveInserirNovasEAtualizarExistentes() throws IOException {
+        Peca existente = new Peca();
+        existente.setNome("Vela antiga");
+        existente.setCodigoFabricante("IMP-1");
+        existente.setEstoqueAtual(1);
+        existente = pecaService.save(existente);
+
+        PecaImportResultadoDTO resultado = importar(CABECALHO +
+                "IMP-1,Vela,Vela de ignição,12.5,10,2,A1\n" +
+                "IMP-2,Corrente,\"Corrente 428, reforçada\",80,5,1,B2\n" +
+                "IMP-3,Pastilha,Pastilha de freio,35,7,3,C3\n" +
+                "IMP-4,Filtro,Filtro de ar,20,0,1,D4\n");
+
+        assertEquals(4, resultado.getLinhasProcessadas());
+        assertEquals(3, resultado.getInseridas());
+        assertEquals(1, resultado.getAtualizadas());
+        assertEquals(0, resultado.getTotalErros());
+
+        Peca atualizada = pecaService.findById(existente.getId()).orElseThrow();
+        assertEquals("Vela", atualizada.getNome());
+        assertEquals(10, atualizada.getEstoqueAtual());
+        assertEquals(existente.getVersao() + 1, atualizada.getVersao());
+        assertEquals("Corrente 428, reforçada",
+                pecaRepository.findByCodigoFabricante("IMP-2").orElseThrow().getDescricao());
+
+        // O histórico de estoque acompanha inserções (+5) e atualizações (1 -> 10)
+        LocalDateTime agora = LocalDateTime.now();
+        assertEquals(10, pecaService.saldoEm(existente.getId(), agora));
+        assertEquals(5, pecaService.saldoEm(pecaRepository.findByCodigoFabricante("IMP-2").orElseThrow().getId(), agora));
+
+        // Ids reservados pela importação não colidem com os gerados pelo Hibernate depois
+        Peca nova = new Peca();
+        nova.setNome("Depois da importação");
+        nova.setCodigoFabricante("IMP-5");
+        assertNotNull(pecaService.save(nova).getId());
+        assertEquals(5, pecaRepository.findByCodigoFabricanteIn(List.of("IMP-1", "IMP-2", "IMP-3", "IMP-4", "IMP-5")).size());
+    }
+
+    @Test
+    void importarCsv_DeveReportarErrosPorLinha_SemInterromperAsDemais() throws IOException {
+        PecaImportResultadoDTO resultado = importar(
+                "nome;descricao;codigoFabricante;preco;estoqueAtual;estoqueMinimo;localizacaoEstoque\n" +
+                "Óleo;Óleo 10W30;ERR-1;45,90;3;1;E1\n" +
+                "Óleo;Óleo 10W30;ERR-1;45,90;3;1;E1\n" +
+                "Sem código;Sem código;;10;1;1;E2\n" +
+                "\n" +
+                "Preço ruim;Preço ruim;ERR-2;abc;1;1;E3\n" +
+                "Negativo;Negativo;ERR-3;10;-1;1;E4\n");
+
+        assertEquals(5, resultado.getLinhasProcessadas());
+        assertEquals(1, resultado.getInseridas());
+        assertEquals(4, resultado.getTotalErros());
+        List<ErroLinha> erros = resultado.getErros();
+        assertEquals(List.of(3, 4, 6, 7), erros.stream().map(ErroLinha::getLinha).toList());
+        assertEquals("Código de fabricante repetido no arquivo.", erros.get(0).getMensagem());
+        assertEquals("O código do fabricante é obrigatório.", erros.get(1).getMensagem());
+        assertEquals("Valor inválido para preco: 'abc'.", erros.get(2).getMensagem());
+        assertEquals("O estoque atual não pode ser negativo.", erros.get(3).getMensagem());
+        assertEquals(45.90, pecaRepository.findByCodigoFabricante("ERR-1").orElseThrow().getPreco());
+    }
+
+    @Test
+    void importarCsv_DeveRejeitarSoALinhaQueDeixariaOEstoqueAbaixoDoReservado() throws IOException {
+        for (String codigo : List.of("RES-1", "RES-2")) {
+            Peca peca = new Peca();
+            peca.setNome("Peça " + codigo);
+            peca.setCodigoFabricante(codigo);
+            peca.setEstoqueAtual(5);
+            pecaService.save(peca);
+        }
+        jdbcTemplate.update("UPDATE peca SET estoque_reservado = 3 WHERE codigo_fabricante = 'RES-1'");
+
+        // As duas linhas caem no mesmo lote (batch-size=2)
+        PecaImportResultadoDTO resultado = importar(CABECALHO +
+                "RES-1,Peça RES-1,Reservada,10,2,1,A1\n" +
+                "RES-2,Peça RES-2,Livre,10,9,1,A2\n");
+
+        assertEquals(1, resultado.getAtualizadas());
+        assertEquals(1, resultado.getTotalErros());
+        assertEquals(2, resultado.getErros().get(0).getLinha());
+        assertEquals("O estoque atual não pode ficar abaixo das 3 unidades reservadas.",
+                resultado.getErros().get(0).getMensagem());
+        assertEquals(5, pecaRepository.findByCodigoFabricante("RES-1").orElseThrow().getEstoqueAtual());
+        assertEquals(9, pecaRepository.findByCodigoFabricante("RES-2").orElseThrow().getEstoqueAtual());
+    }
+
+    @Test
+    void importarCsv_DeveLancarExcecao_QuandoFaltaColuna() {
+        assertThrows(IllegalArgumentException.class, () -> importar("codigoFabricante,nome\nX-1,Peça\n"));
+        assertThrows(IllegalArgumentException.class, () -> importar(""));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.EstoqueMovimentoDTO;
+import com.example.challenge.dto.EstoqueMovimentoResultadoDTO;
+import com.example.challenge.repository.PecaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração do PecaService.updateEstoque sob concorrência.
+ * Vários threads alteram o estoque da mesma peça ao mesmo tempo; nenhum incremento pode se perder.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:peca-concorrencia;DB_CLOSE_DELAY=-1")
+class PecaServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERACOES_POR_THREAD = 100;
+
+    @Autowired
+    private PecaService pecaService;
+
+    @Autowired
+    private PecaRepository pecaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Peca novaPeca(String codigo, int estoque) {
+        Peca peca = new Peca();
+        peca.setNome("Pastilha de Freio");
+        peca.setDescricao("Pastilha dianteira");
+        peca.setPreco(35.0);
+        peca.setCodigoFabricante(codigo);
+        peca.setEstoqueAtual(estoque);
+        peca.setEstoqueMinimo(5);
+        peca.setLocalizacaoEstoque("A1");
+        return pecaService.save(peca);
+    }
+
+    private void executarEmParalelo(Callable<Void> tarefa) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(tarefa));
+            }
+            for (Future<Void> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void updateEstoque_NaoPerdeIncrementosConcorrentes() throws Exception {
+        novaPeca("PF-CONC-1", 0);
+
+        executarEmParalelo(() -> {
+            for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                pecaService.updateEstoque("PF-CONC-1", 1);
+            }
+            return null;
+        });
+
+        int esperado = THREADS * OPERACOES_POR_THREAD;
+        Peca peca = pecaRepository.findByCodigoFabricante("PF-CONC-1").orElseThrow();
+        assertEquals(esperado, peca.getEstoqueAtual());
+        // Cada UPDATE nativo também avança a versão (ETag)
+        assertEquals(esperado, peca.getVersao());
+    }
+
+    @Test
+    void updateEstoque_SaidasConcorrentesNuncaDeixamEstoqueNegativo() throws Exception {
+        novaPeca("PF-CONC-2", 50);
+
+        executarEmParalelo(() -> {
+            for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                try {
+                    pecaService.updateEstoque("PF-CONC-2", -1);
+                } catch (IllegalArgumentException esperadoQuandoZerar) {
+                    // estoque esgotado: a saída é rejeitada
+                }
+            }
+            return null;
+        });
+
+        assertEquals(0, pecaRepository.findByCodigoFabricante("PF-CONC-2").orElseThrow().getEstoqueAtual());
+    }
+
+    @Test
+    void updateEstoqueBatch_LotesConcorrentesNaoPerdemMovimentos() throws Exception {
+        novaPeca("PF-CONC-3", 0);
+        novaPeca("PF-CONC-4", 0);
+        List<EstoqueMovimentoDTO> lote = new ArrayList<>();
+        for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+            lote.add(new EstoqueMovimentoDTO(i % 2 == 0 ? "PF-CONC-3" : "PF-CONC-4", 1));
+        }
+        lote.add(new EstoqueMovimentoDTO("PF-INEXISTENTE", 1));
+
+        executarEmParalelo(() -> {
+            List<EstoqueMovimentoResultadoDTO> resultados = pecaService.updateEstoqueBatch(lote);
+            assertEquals(EstoqueMovimentoResultadoDTO.Status.CODIGO_DESCONHECIDO, resultados.get(lote.size() - 1).getStatus());
+            return null;
+        });
+
+        int esperado = THREADS * OPERACOES_POR_THREAD / 2;
+        assertEquals(esperado, pecaRepository.findByCodigoFabricante("PF-CONC-3").orElseThrow().getEstoqueAtual());
+        assertEquals(esperado, pecaRepository.findByCodigoFabricante("PF-CONC-4").orElseThrow().getEstoqueAtual());
+    }
+
+    @Test
+    void updateEstoque_DevolveALinhaGravadaMesmoComAPecaJaCarregadaNaTransacao() {
+        Long id = novaPeca("PF-CONC-5", 10).getId();
+
+        Peca atualizada = transactionTemplate.execute(s -> {
+            Peca carregada = pecaRepository.findById(id).orElseThrow();
+            assertEquals(10, carregada.getEstoqueAtual());
+            return pecaService.updateEstoque("PF-CONC-5", 5);
+        });
+
+        assertEquals(15, atualizada.getEstoqueAtual());
+        assertEquals(pecaRepository.findVersaoById(id).orElseThrow(), atualizada.getVersao());
+    }
+}
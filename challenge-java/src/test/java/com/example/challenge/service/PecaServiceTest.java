@@ -1,19 +1,31 @@
 package com.example.challenge.service;
 
+import com.example.challenge.domain.MovimentoEstoque;
+import com.example.challenge.domain.MovimentoEstoque.Origem;
 import com.example.challenge.domain.Peca;
+import com.example.challenge.dto.EstoqueMovimentoDTO;
+import com.example.challenge.dto.EstoqueMovimentoResultadoDTO;
+import com.example.challenge.dto.EstoqueMovimentoResultadoDTO.Status;
+import com.example.challenge.dto.PecaPaginaDTO;
 import com.example.challenge.repository.PecaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -30,6 +42,19 @@ public class PecaServiceTest {
     @Mock
     private PecaRepository pecaRepository;
 
+    // Cache real (não mock) para verificar acertos e invalidação
+    @Spy
+    private PecaCache pecaCache = new PecaCache(100, Duration.ofMinutes(5));
+
+    @Mock
+    private PecaBuscaIndex pecaBuscaIndex;
+
+    @Mock
+    private EstoqueHistoricoService estoqueHistorico;
+
+    @Mock
+    private DashboardService dashboardService;
+
     // Injeta as dependências no PecaService
     @InjectMocks
     private PecaService pecaService;
@@ -71,6 +96,23 @@ public class PecaServiceTest {
         verify(pecaRepository, times(1)).save(pecaValida);
     }
 
+    @Test
+    public void save_DeveRegistrarNoHistoricoSoADiferencaDeEstoque() {
+        // Dado: A peça 2 tem 4 unidades gravadas e é salva com 10
+        Peca editada = new Peca();
+        editada.setId(2L);
+        editada.setCodigoFabricante("PD-001");
+        editada.setEstoqueAtual(10);
+        when(pecaRepository.findEstoqueById(2L)).thenReturn(Optional.of(estoqueGravado(4, 0)));
+        when(pecaRepository.save(editada)).thenReturn(editada);
+
+        // Quando: A peça é salva
+        pecaService.save(editada);
+
+        // Então: O histórico recebe +6 como edição
+        verify(estoqueHistorico).registrar(2L, 6, Origem.EDICAO);
+    }
+
     @Test
     public void save_DeveLancarExcecao_QuandoCodigoFabricanteJaExiste() {
         // Dado: A peça é nova (id=null) e o código do fabricante já existe
@@ -93,6 +135,26 @@ public class PecaServiceTest {
         verify(pecaRepository, never()).save(any(Peca.class));
     }
 
+    @Test
+    public void save_DeveLancarExcecao_QuandoEstoqueFicariaAbaixoDoReservado() {
+        // Dado: A peça 2 tem 4 unidades, 3 delas reservadas para ordens de serviço
+        Peca editada = new Peca();
+        editada.setId(2L);
+        editada.setEstoqueAtual(2);
+        when(pecaRepository.findEstoqueById(2L)).thenReturn(Optional.of(estoqueGravado(4, 3)));
+
+        // Quando/Então: A edição para 2 unidades é recusada
+        assertThrows(IllegalArgumentException.class, () -> pecaService.save(editada));
+        verify(pecaRepository, never()).save(any(Peca.class));
+    }
+
+    private static PecaRepository.EstoquePeca estoqueGravado(int atual, int reservado) {
+        return new PecaRepository.EstoquePeca() {
+            public int getEstoqueAtual() { return atual; }
+            public int getEstoqueReservado() { return reservado; }
+        };
+    }
+
     // --- Testes para FINDALL ---
 
     @Test
@@ -109,6 +171,22 @@ public class PecaServiceTest {
         verify(pecaRepository, times(1)).findAll();
     }
 
+    // --- Testes para FINDABAIXODOMINIMO ---
+
+    @Test
+    public void findAbaixoDoMinimo_DeveUsarConsultaIndexada() {
+        // Dado: Uma peça abaixo do mínimo
+        pecaValida.setEstoqueAtual(2);
+        when(pecaRepository.findAbaixoDoMinimo()).thenReturn(List.of(pecaValida));
+
+        // Quando: Buscamos as peças abaixo do mínimo
+        List<Peca> result = pecaService.findAbaixoDoMinimo();
+
+        // Então: A consulta dedicada é usada, sem carregar todas as peças
+        assertEquals(1, result.size());
+        verify(pecaRepository, never()).findAll();
+    }
+
     // --- Testes para FINDBYID ---
 
     @Test
@@ -165,65 +243,197 @@ public class PecaServiceTest {
 
     @Test
     public void updateEstoque_DeveAumentarEstoque_ComSucesso() {
-        // Dado: Estoque atual é 10. Queremos adicionar 5.
-        pecaValida.setId(1L);
-        pecaValida.setEstoqueAtual(10);
-        when(pecaRepository.findByCodigoFabricante("PD-001")).thenReturn(Optional.of(pecaValida));
-        
+        // Dado: O UPDATE condicional altera a linha (estoque 10 + 5) e devolve a peça atualizada
         Peca pecaEsperada = new Peca();
         pecaEsperada.setId(1L);
         pecaEsperada.setEstoqueAtual(15);
-        when(pecaRepository.save(any(Peca.class))).thenReturn(pecaEsperada);
+        when(pecaRepository.adjustEstoque("PD-001", 5)).thenReturn(Optional.of(pecaEsperada));
 
         // Quando: Atualizamos o estoque
         Peca result = pecaService.updateEstoque("PD-001", 5);
 
-        // Então: O novo estoque deve ser 15
+        // Então: O novo estoque deve ser 15, sem read-modify-write via find + save()
         assertEquals(15, result.getEstoqueAtual());
-        verify(pecaRepository, times(1)).save(pecaValida);
+        verify(estoqueHistorico).registrar(1L, 5, Origem.AJUSTE);
+        verify(pecaRepository, times(1)).adjustEstoque("PD-001", 5);
+        verify(pecaRepository, never()).findByCodigoFabricante(anyString());
+        verify(pecaRepository, never()).save(any(Peca.class));
     }
     
     @Test
     public void updateEstoque_DeveDiminuirEstoque_ComSucesso() {
-        // Dado: Estoque atual é 10. Queremos remover 8.
-        pecaValida.setId(1L);
-        pecaValida.setEstoqueAtual(10);
-        when(pecaRepository.findByCodigoFabricante("PD-001")).thenReturn(Optional.of(pecaValida));
-        
+        // Dado: O UPDATE condicional altera a linha (estoque 10 - 8) e devolve a peça atualizada
         Peca pecaEsperada = new Peca();
         pecaEsperada.setId(1L);
         pecaEsperada.setEstoqueAtual(2);
-        when(pecaRepository.save(any(Peca.class))).thenReturn(pecaEsperada);
+        when(pecaRepository.adjustEstoque("PD-001", -8)).thenReturn(Optional.of(pecaEsperada));
 
         // Quando: Atualizamos o estoque
         Peca result = pecaService.updateEstoque("PD-001", -8);
 
         // Então: O novo estoque deve ser 2
         assertEquals(2, result.getEstoqueAtual());
-        verify(pecaRepository, times(1)).save(pecaValida);
+        verify(pecaRepository, never()).save(any(Peca.class));
     }
 
     @Test
     public void updateEstoque_DeveLancarExcecao_SeResultadoForNegativo() {
-        // Dado: Estoque atual é 10. Queremos remover 15 (resultando em -5).
-        pecaValida.setId(1L);
-        pecaValida.setEstoqueAtual(10);
-        when(pecaRepository.findByCodigoFabricante("PD-001")).thenReturn(Optional.of(pecaValida));
+        // Dado: A peça existe, mas o UPDATE não altera nada (estoque 10 - 15 < 0)
+        when(pecaRepository.adjustEstoque("PD-001", -15)).thenReturn(Optional.empty());
+        when(pecaRepository.findEstoqueByCodigoFabricante("PD-001")).thenReturn(Optional.of(estoqueGravado(10, 0)));
 
         // Quando: Tentamos atualizar
         // Então: Deve lançar IllegalArgumentException
-        assertThrows(IllegalArgumentException.class, () -> pecaService.updateEstoque("PD-001", -15));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> pecaService.updateEstoque("PD-001", -15));
+        assertEquals("Operação de estoque resultaria em valor negativo.", exception.getMessage());
         verify(pecaRepository, never()).save(any(Peca.class));
     }
     
+    @Test
+    public void updateEstoque_DeveLancarExcecao_SeSaidaConsumirUnidadesReservadas() {
+        // Dado: A peça tem 10 unidades, 8 reservadas para ordens de serviço; a saída de 5 é recusada
+        when(pecaRepository.adjustEstoque("PD-001", -5)).thenReturn(Optional.empty());
+        when(pecaRepository.findEstoqueByCodigoFabricante("PD-001")).thenReturn(Optional.of(estoqueGravado(10, 8)));
+
+        // Quando: Tentamos atualizar
+        // Então: A mensagem aponta as unidades reservadas, como na edição da peça
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> pecaService.updateEstoque("PD-001", -5));
+        assertEquals("O estoque atual não pode ficar abaixo das 8 unidades reservadas.", exception.getMessage());
+        verifyNoInteractions(estoqueHistorico);
+    }
+
     @Test
     public void updateEstoque_DeveLancarExcecao_SePecaNaoForEncontrada() {
         // Dado: A peça com o código não existe
-        when(pecaRepository.findByCodigoFabricante("COD-INV")).thenReturn(Optional.empty());
+        when(pecaRepository.adjustEstoque("COD-INV", 10)).thenReturn(Optional.empty());
+        when(pecaRepository.findEstoqueByCodigoFabricante("COD-INV")).thenReturn(Optional.empty());
 
         // Quando: Tentamos atualizar
         // Então: Deve lançar IllegalArgumentException
-        assertThrows(IllegalArgumentException.class, () -> pecaService.updateEstoque("COD-INV", 10));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> pecaService.updateEstoque("COD-INV", 10));
+        assertEquals("Peça com código COD-INV não encontrada.", exception.getMessage());
+        verify(pecaRepository, never()).save(any(Peca.class));
+    }
+
+    // --- Testes para UPDATEESTOQUEBATCH ---
+
+    @Test
+    public void updateEstoqueBatch_DeveInformarResultadoESaldoDeCadaMovimento() {
+        // Dado: PD-001 termina o lote com 13 (10 + 5 - 2; a saída de 100 foi rejeitada) e XX-999 não existe
+        List<EstoqueMovimentoDTO> movimentos = List.of(
+                new EstoqueMovimentoDTO("PD-001", 5),
+                new EstoqueMovimentoDTO("PD-001", -100),
+                new EstoqueMovimentoDTO("XX-999", 1),
+                new EstoqueMovimentoDTO("PD-001", -2));
+        when(pecaRepository.adjustEstoqueBatch(movimentos)).thenReturn(new int[]{1, 0, 0, 1});
+        pecaValida.setId(1L);
+        pecaValida.setEstoqueAtual(13);
+        when(pecaRepository.findByCodigoFabricanteIn(anyCollection())).thenReturn(List.of(pecaValida));
+
+        // Quando: Aplicamos o lote
+        List<EstoqueMovimentoResultadoDTO> result = pecaService.updateEstoqueBatch(movimentos);
+
+        // Então: Cada movimento tem seu status e o saldo logo após ele
+        assertEquals(4, result.size());
+        assertEquals(Status.APLICADO, result.get(0).getStatus());
+        assertEquals(15, result.get(0).getEstoqueAtual());
+        assertEquals(Status.REJEITADO_ESTOQUE_NEGATIVO, result.get(1).getStatus());
+        assertEquals(15, result.get(1).getEstoqueAtual());
+        assertEquals(Status.CODIGO_DESCONHECIDO, result.get(2).getStatus());
+        assertNull(result.get(2).getEstoqueAtual());
+        assertEquals(Status.APLICADO, result.get(3).getStatus());
+        assertEquals(13, result.get(3).getEstoqueAtual());
         verify(pecaRepository, never()).save(any(Peca.class));
+
+        // Só os movimentos aplicados vão para o histórico
+        verify(estoqueHistorico).registrarTodos(argThat((List<MovimentoEstoque> registrados) ->
+                registrados.size() == 2 && registrados.stream().allMatch(m -> m.getPecaId() == 1L
+                        && m.getOrigem() == Origem.LOTE)));
+    }
+
+    // --- Testes do cache de leitura ---
+
+    @Test
+    public void findById_DeveConsultarRepositorioUmaVez_QuandoChamadoDuasVezes() {
+        when(pecaRepository.findById(2L)).thenReturn(Optional.of(pecaExistenteComCodigo));
+
+        pecaService.findById(2L);
+        Optional<Peca> result = pecaService.findById(2L);
+
+        assertTrue(result.isPresent());
+        assertEquals("PD-001", result.get().getCodigoFabricante());
+        verify(pecaRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    public void findById_DeveDevolverCopia_NaoAlterandoOCache() {
+        when(pecaRepository.findById(2L)).thenReturn(Optional.of(pecaExistenteComCodigo));
+
+        pecaService.findById(2L).get().setNome("Alterado");
+
+        assertNotEquals("Alterado", pecaService.findById(2L).get().getNome());
+    }
+
+    @Test
+    public void findByCodigoFabricante_DeveReaproveitarEntradaDoCache() {
+        when(pecaRepository.findByCodigoFabricante("PD-001")).thenReturn(Optional.of(pecaExistenteComCodigo));
+
+        pecaService.findByCodigoFabricante("PD-001");
+        Optional<Peca> result = pecaService.findByCodigoFabricante("PD-001");
+
+        assertEquals(2L, result.get().getId());
+        verify(pecaRepository, times(1)).findByCodigoFabricante("PD-001");
+    }
+
+    @Test
+    public void updateEstoque_DeveInvalidarCache() {
+        when(pecaRepository.findById(2L)).thenReturn(Optional.of(pecaExistenteComCodigo));
+        pecaService.findById(2L);
+        Peca atualizada = new Peca();
+        atualizada.setId(2L);
+        atualizada.setCodigoFabricante("PD-001");
+        atualizada.setEstoqueAtual(25);
+        when(pecaRepository.adjustEstoque("PD-001", 5)).thenReturn(Optional.of(atualizada));
+        when(pecaRepository.findById(2L)).thenReturn(Optional.of(atualizada));
+
+        pecaService.updateEstoque("PD-001", 5);
+
+        assertEquals(25, pecaService.findById(2L).get().getEstoqueAtual());
+        verify(pecaRepository, times(2)).findById(2L);
+    }
+
+    // --- Testes para LISTARPAGINA ---
+
+    private static Map<String, Object> linha(long id) {
+        Map<String, Object> linha = new LinkedHashMap<>();
+        linha.put("id", id);
+        return linha;
+    }
+
+    @Test
+    public void listarPagina_DeveRetornarCursor_QuandoHaMaisLinhas() {
+        // Dado: o repositório devolve limit + 1 linhas
+        when(pecaRepository.findPagina(null, 3, List.of("nome"))).thenReturn(List.of(linha(1), linha(2), linha(5)));
+
+        PecaPaginaDTO result = pecaService.listarPagina(null, 2, List.of("nome", "id", "nome"));
+
+        assertEquals(2, result.getItems().size());
+        assertEquals(2L, result.getNextCursor());
+    }
+
+    @Test
+    public void listarPagina_DeveRetornarCursorNulo_NaUltimaPagina() {
+        when(pecaRepository.findPagina(eq(5L), eq(3), anyList())).thenReturn(List.of(linha(8)));
+
+        PecaPaginaDTO result = pecaService.listarPagina(5L, 2, null);
+
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void listarPagina_DeveLancarExcecao_QuandoCampoDesconhecido() {
+        assertThrows(IllegalArgumentException.class, () -> pecaService.listarPagina(null, 10, List.of("senha")));
+        verify(pecaRepository, never()).findPagina(any(), anyInt(), anyList());
     }
 }
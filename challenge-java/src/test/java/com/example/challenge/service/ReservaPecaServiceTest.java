@@ -0,0 +1,163 @@
+package com.example.challenge.service;
+
+import com.example.challenge.DadosDeTeste;
+import com.example.challenge.domain.Moto;
+import com.example.challenge.domain.Peca;
+import com.example.challenge.domain.ReservaPeca;
+import com.example.challenge.repository.MotoRepository;
+import com.example.challenge.repository.OrdemServicoRepository;
+import com.example.challenge.repository.PecaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração das reservas de peças (banco H2 em memória; lotes de expiração pequenos
+ * para exercitar várias transações por varredura).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:peca-reserva;DB_CLOSE_DELAY=-1",
+        "app.pecas.reserva.lote-expiracao=2"
+})
+class ReservaPecaServiceTest {
+
+    @Autowired
+    private ReservaPecaService reservaPecaService;
+
+    @Autowired
+    private PecaService pecaService;
+
+    @Autowired
+    private OrdemServicoService ordemServicoService;
+
+    @Autowired
+    private PecaRepository pecaRepository;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private OrdemServicoRepository ordemServicoRepository;
+
+    private Peca novaPeca(int estoque) {
+        return pecaService.save(DadosDeTeste.peca(estoque));
+    }
+
+    private Long novaOrdem() {
+        Moto moto = motoRepository.save(DadosDeTeste.moto("Disponível"));
+        return ordemServicoRepository.save(DadosDeTeste.ordem(moto, "ABERTA")).getId();
+    }
+
+    private Peca recarregar(Peca peca) {
+        return pecaRepository.findById(peca.getId()).orElseThrow();
+    }
+
+    @Test
+    void reservar_DeveSepararUnidadesDoDisponivel() {
+        Peca peca = novaPeca(5);
+        Long ordem = novaOrdem();
+
+        reservaPecaService.reservar(peca.getId(), ordem, 3);
+
+        Peca atual = pecaService.findById(peca.getId()).orElseThrow();
+        assertEquals(5, atual.getEstoqueAtual());
+        assertEquals(3, atual.getEstoqueReservado());
+        assertEquals(2, atual.getEstoqueDisponivel());
+        assertThrows(IllegalStateException.class, () -> reservaPecaService.reservar(peca.getId(), ordem, 3));
+        // Uma saída direta também não consome as unidades reservadas
+        assertThrows(IllegalArgumentException.class, () -> pecaService.updateEstoque(peca.getCodigoFabricante(), -3));
+        pecaService.updateEstoque(peca.getCodigoFabricante(), -2);
+        assertEquals(0, recarregar(peca).getEstoqueDisponivel());
+    }
+
+    @Test
+    void reservar_NaoReservaAMesmaUnidadeDuasVezesSobConcorrencia() throws Exception {
+        Peca peca = novaPeca(5);
+        Long ordem = novaOrdem();
+        AtomicInteger reservadas = new AtomicInteger();
+        AtomicInteger recusadas = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                futures.add(pool.submit(() -> {
+                    try {
+                        reservaPecaService.reservar(peca.getId(), ordem, 1);
+                        reservadas.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        recusadas.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(5, reservadas.get());
+        assertEquals(35, recusadas.get());
+        assertEquals(5, recarregar(peca).getEstoqueReservado());
+        assertEquals(5, reservaPecaService.findByOrdemServico(ordem).size());
+        assertEquals(peca.getNome(), reservaPecaService.findByOrdemServico(ordem).get(0).getPecaNome());
+    }
+
+    @Test
+    void expirarVencidas_DeveLiberarEmLotes() {
+        Peca peca = novaPeca(10);
+        Long ordem = novaOrdem();
+        for (int i = 0; i < 5; i++) {
+            reservaPecaService.reservar(peca.getId(), ordem, 1);
+        }
+
+        // Ainda válidas agora; vencidas daqui a um dia (5 reservas em lotes de 2)
+        assertEquals(0, reservaPecaService.expirarVencidas(LocalDateTime.now()));
+        assertTrue(reservaPecaService.expirarVencidas(LocalDateTime.now().plusDays(1)) >= 5);
+
+        assertEquals(0, recarregar(peca).getEstoqueReservado());
+        assertTrue(reservaPecaService.findByOrdemServico(ordem).isEmpty());
+    }
+
+    @Test
+    void confirmar_DeveBaixarEstoqueELiberar_DeveDevolverUmaUnicaVez() {
+        Peca peca = novaPeca(10);
+        Long ordem = novaOrdem();
+        ReservaPeca usada = reservaPecaService.reservar(peca.getId(), ordem, 4);
+        ReservaPeca cancelada = reservaPecaService.reservar(peca.getId(), ordem, 3);
+
+        reservaPecaService.confirmar(usada.getId());
+        reservaPecaService.liberar(cancelada.getId());
+        assertThrows(IllegalArgumentException.class, () -> reservaPecaService.liberar(cancelada.getId()));
+        assertThrows(IllegalArgumentException.class, () -> reservaPecaService.confirmar(usada.getId()));
+
+        Peca atual = recarregar(peca);
+        assertEquals(6, atual.getEstoqueAtual());
+        assertEquals(0, atual.getEstoqueReservado());
+        assertEquals(6, pecaService.saldoEm(peca.getId(), LocalDateTime.now()));
+    }
+
+    @Test
+    void excluirOrdem_DeveLiberarSuasReservas() {
+        Peca peca = novaPeca(3);
+        Long ordem = novaOrdem();
+        reservaPecaService.reservar(peca.getId(), ordem, 2);
+
+        ordemServicoService.delete(ordem);
+
+        assertEquals(0, recarregar(peca).getEstoqueReservado());
+        assertTrue(reservaPecaService.findByOrdemServico(ordem).isEmpty());
+        assertFalse(ordemServicoRepository.existsById(ordem));
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.challenge.service;
+
+import com.example.challenge.DadosDeTeste;
+import com.example.challenge.benchmark.RoundTripCounter;
+import com.example.challenge.domain.Moto;
+import com.example.challenge.dto.LeituraKmDTO;
+import com.example.challenge.dto.LeituraKmResultadoDTO;
+import com.example.challenge.repository.MotoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração da ingestão de km. A gravação agendada fica espaçada para que o teste
+ * decida quando as leituras pendentes vão para o banco.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:telemetria-km;DB_CLOSE_DELAY=-1",
+        "app.motos.telemetria.gravacao=PT1H",
+        "app.motos.telemetria.lote=2"
+})
+@Import(RoundTripCounter.Config.class)
+class TelemetriaKmServiceTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    @Autowired
+    private TelemetriaKmService telemetriaKmService;
+
+    @Autowired
+    private MotoService motoService;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private MotoImportService motoImportService;
+
+    @Autowired
+    private RoundTripCounter counter;
+
+    private Moto moto;
+
+    @BeforeEach
+    void setUp() {
+        telemetriaKmService.gravarPendentes();
+        moto = novaMoto(1000);
+    }
+
+    private Moto novaMoto(int km) {
+        Moto nova = DadosDeTeste.moto("Alugada");
+        nova.setKmAtual(km);
+        return motoService.save(nova);
+    }
+
+    private static LeituraKmDTO leitura(Moto moto, int km, int minuto) {
+        return new LeituraKmDTO(moto.getPlaca(), null, km, INICIO.plusMinutes(minuto));
+    }
+
+    private int kmGravado(Moto m) {
+        return motoRepository.findById(m.getId()).orElseThrow().getKmAtual();
+    }
+
+    @Test
+    void registrar_AcumulaEmMemoriaEGravaSoOMaiorKm() {
+        List<LeituraKmDTO> leituras = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            leituras.add(leitura(moto, 1000 + i, i));
+        }
+
+        LeituraKmResultadoDTO resultado = telemetriaKmService.registrar(leituras);
+
+        assertEquals(100, resultado.getAceitas());
+        assertEquals(1000, kmGravado(moto)); // nada gravado antes da gravação periódica
+        assertEquals(1, telemetriaKmService.pendentes());
+
+        counter.reset();
+        assertEquals(1, telemetriaKmService.gravarPendentes());
+        assertEquals(1, counter.get()); // um único lote JDBC
+        assertEquals(1100, kmGravado(moto));
+        assertEquals(0, telemetriaKmService.pendentes());
+    }
+
+    @Test
+    void registrar_DescartaLeiturasForaDeOrdem() {
+        LeituraKmResultadoDTO resultado = telemetriaKmService.registrar(List.of(
+                leitura(moto, 1500, 10),
+                leitura(moto, 1400, 11),   // km voltou
+                leitura(moto, 1600, 10),   // instante repetido
+                leitura(moto, 1450, 12),   // km voltou
+                leitura(moto, 1700, 13),
+                leitura(moto, 999, 14)));  // abaixo do km do cadastro
+
+        assertEquals(2, resultado.getAceitas());
+        assertEquals(4, resultado.getForaDeOrdem());
+        telemetriaKmService.gravarPendentes();
+        assertEquals(1700, kmGravado(moto));
+    }
+
+    @Test
+    void registrar_IdentificaPlacaEmMinusculasComoACadastrada() {
+        LeituraKmResultadoDTO resultado = telemetriaKmService.registrar(List.of(
+                new LeituraKmDTO(" " + moto.getPlaca().toLowerCase() + " ", null, 1100, INICIO)));
+
+        assertEquals(1, resultado.getAceitas());
+    }
+
+    @Test
+    void registrar_IdentificaPorChassiEContaDesconhecidasEInvalidas() {
+        LeituraKmResultadoDTO resultado = telemetriaKmService.registrar(List.of(
+                new LeituraKmDTO(null, moto.getChassi(), 1200, INICIO),
+                new LeituraKmDTO("NAO-EXISTE", null, 10, INICIO),
+                new LeituraKmDTO(null, null, 10, INICIO),
+                new LeituraKmDTO(moto.getPlaca(), null, -5, INICIO.plusMinutes(1)),
+                new LeituraKmDTO(moto.getPlaca(), null, 1300, null)));
+
+        assertEquals(5, resultado.getRecebidas());
+        assertEquals(1, resultado.getAceitas());
+        assertEquals(1, resultado.getDesconhecidas());
+        assertEquals(3, resultado.getInvalidas());
+        telemetriaKmService.gravarPendentes();
+        assertEquals(1200, kmGravado(moto));
+    }
+
+    @Test
+    void gravarPendentes_VariasMotosEmLotes_NaoReduzKmGravadoPorFora() {
+        Moto outra = novaMoto(500);
+        Moto terceira = novaMoto(0);
+        telemetriaKmService.registrar(List.of(leitura(moto, 2000, 1), leitura(outra, 800, 1), leitura(terceira, 30, 1)));
+
+        // Km corrigido direto no banco para um valor maior antes da gravação
+        Moto corrigida = motoRepository.findById(outra.getId()).orElseThrow();
+        corrigida.setKmAtual(900);
+        motoRepository.saveAndFlush(corrigida);
+
+        assertEquals(2, telemetriaKmService.gravarPendentes());
+        assertEquals(2000, kmGravado(moto));
+        assertEquals(900, kmGravado(outra));
+        assertEquals(30, kmGravado(terceira));
+    }
+
+    @Test
+    void invalidar_EdicaoDaPlacaPassaAValerNaTelemetria() {
+        String placaAntiga = moto.getPlaca();
+        telemetriaKmService.registrar(List.of(leitura(moto, 1100, 1)));
+        telemetriaKmService.gravarPendentes();
+
+        Moto editada = motoRepository.findById(moto.getId()).orElseThrow();
+        editada.setPlaca("NOVA" + DadosDeTeste.proximo());
+        motoService.save(editada);
+
+        LeituraKmResultadoDTO resultado = telemetriaKmService.registrar(List.of(
+                new LeituraKmDTO(placaAntiga, null, 1200, INICIO.plusMinutes(2)),
+                new LeituraKmDTO(editada.getPlaca(), null, 1300, INICIO.plusMinutes(3))));
+
+        assertEquals(1, resultado.getDesconhecidas());
+        assertEquals(1, resultado.getAceitas());
+        telemetriaKmService.gravarPendentes();
+        assertEquals(1300, kmGravado(moto));
+    }
+
+    @Test
+    void invalidar_EdicaoDeUmaMotoNaoDescartaAsOutrasDoCache() {
+        Moto outra = novaMoto(500);
+        String placaLivre = "LIVRE" + DadosDeTeste.proximo();
+        telemetriaKmService.registrar(List.of(leitura(moto, 1100, 1), leitura(outra, 600, 1),
+                new LeituraKmDTO(placaLivre, null, 10, INICIO)));
+
+        // A outra moto passa a usar uma placa antes desconhecida pela telemetria
+        Moto editada = motoRepository.findById(outra.getId()).orElseThrow();
+        editada.setPlaca(placaLivre);
+        motoService.save(editada);
+
+        counter.reset();
+        assertEquals(1, telemetriaKmService.registrar(List.of(leitura(moto, 1200, 2))).getAceitas());
+        assertEquals(0, counter.get()); // a moto não editada continua resolvida em memória
+
+        LeituraKmResultadoDTO resultado = telemetriaKmService.registrar(List.of(
+                new LeituraKmDTO(placaLivre, null, 700, INICIO.plusMinutes(2))));
+        assertEquals(1, resultado.getAceitas());
+    }
+
+    @Test
+    void importacao_DescartaSoAsPlacasDesconhecidas() throws IOException {
+        int n = DadosDeTeste.proximo();
+        String placaNova = String.format("IMP%04d", n); // 7 caracteres, como exige MotoDTO
+        telemetriaKmService.registrar(List.of(leitura(moto, 1100, 1), new LeituraKmDTO(placaNova, null, 10, INICIO)));
+
+        String csv = "chassi,placa,modelo,kmAtual,status,anoFabricacao\n" +
+                String.format("9C2TELEMETR%06d", n) + "," + placaNova + ",CG 160,0,Disponível,2024\n";
+        assertEquals(1, motoImportService.importarCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))).getInseridas());
+
+        counter.reset();
+        assertEquals(1, telemetriaKmService.registrar(List.of(leitura(moto, 1200, 2))).getAceitas());
+        assertEquals(0, counter.get());
+        assertEquals(1, telemetriaKmService.registrar(List.of(
+                new LeituraKmDTO(placaNova, null, 20, INICIO.plusMinutes(1)))).getAceitas());
+    }
+}